@@ -3,6 +3,7 @@ package org.toilelibre.libe.soundtransform.actions.fluent;
 import java.util.List;
 
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 
 public interface BuildableFluentClientOperationWithFreqs extends FluentClientWithFreqs, BuildableFluentClientOperation {
@@ -102,6 +103,28 @@ public interface BuildableFluentClientOperationWithFreqs extends FluentClientWit
     @Override
     BuildableFluentClientOperationSoundImported shapeIntoSound (String packName, String instrumentName, FormatInfo formatInfo) throws SoundTransformException;
 
+    /**
+     * Shapes these loudest frequencies array into a sound and set the converted
+     * sound in the pipeline, choosing how the notes of the pack are pitched
+     * and stretched
+     *
+     * @param packName
+     *            reference to an existing imported pack (must be invoked before
+     *            the shapeIntoSound method by using withAPack)
+     * @param instrumentName
+     *            the name of the instrument that will map the freqs object
+     * @param formatInfo
+     *            the wanted format for the future sound
+     * @param quality
+     *            BEST_QUALITY for the frequency domain transforms, BEST_SPEED
+     *            for the faster time domain ones
+     * @return the client, with a sound imported
+     * @throws SoundTransformException
+     *             could not call the soundtransform to shape the freqs
+     */
+    @Override
+    BuildableFluentClientOperationSoundImported shapeIntoSound (String packName, String instrumentName, FormatInfo formatInfo, PitchAndTempoQuality quality) throws SoundTransformException;
+
     /**
      * Stops the client pipeline and returns the obtained loudest frequencies
      *
@@ -28,6 +28,7 @@ import org.toilelibre.libe.soundtransform.actions.transform.AddStreamInfoToInput
 import org.toilelibre.libe.soundtransform.actions.transform.ConvertToInputStream;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CutSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
@@ -46,6 +47,7 @@ import org.toilelibre.libe.soundtransform.model.inputstream.StreamInfo;
 import org.toilelibre.libe.soundtransform.model.library.pack.Pack;
 import org.toilelibre.libe.soundtransform.model.logging.Observer;
 import org.toilelibre.libe.soundtransform.model.record.AmplitudeObserver;
+import org.toilelibre.libe.soundtransform.model.record.StreamingPeakFind;
 
 @Action
 public final class FluentClient implements FluentClientSoundImported, FluentClientReady, FluentClientWithInputStream, FluentClientWithFile, FluentClientWithFreqs, FluentClientWithParallelizedClients, FluentClientWithSpectrums, FluentClientInterface {
@@ -80,6 +82,8 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
     private FluentClientCommon []           parallelizedClients;
 
     private File                            file;
+    private boolean                         mappedFile;
+    private boolean                         intermediateSound;
 
     private List<Spectrum<Serializable> []> spectrums;
 
@@ -152,6 +156,7 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
     @Override
     public FluentClientSoundImported append (final Sound sound1) throws SoundTransformException {
         this.sound = new AppendSound ().append (this.sound, sound1);
+        this.intermediateSound = false;
         return this;
     }
 
@@ -163,9 +168,16 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
      */
     @Override
     public FluentClientSoundImported apply (final SoundTransform<Channel, Channel> st) throws SoundTransformException {
-        final Channel [] channels1 = new ApplySoundTransform (this.getObservers ()).apply (this.sound.getChannels (), st);
+        final Sound input = this.sound;
+        final boolean inputIsIntermediate = this.intermediateSound;
+        final Channel [] channels1 = new ApplySoundTransform (this.getObservers ()).apply (input.getChannels (), st);
+        final boolean outputUsesInput = this.sharesSamples (channels1, input.getChannels ());
         this.cleanData ();
         this.sound = new Sound (channels1);
+        this.intermediateSound = inputIsIntermediate || !outputUsesInput;
+        if (inputIsIntermediate && !outputUsesInput) {
+            this.releaseSamples (input.getChannels ());
+        }
         return this;
     }
 
@@ -200,6 +212,7 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
     @Override
     public FluentClientSoundImported changeFormat (final FormatInfo formatInfo) {
         this.sound = new ChangeSoundFormat ().changeFormat (this.sound, formatInfo);
+        this.intermediateSound = false;
         return this;
     }
 
@@ -209,6 +222,8 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
     private void cleanData () {
         this.audioInputStream = null;
         this.file = null;
+        this.mappedFile = false;
+        this.intermediateSound = false;
         this.freqs = null;
         this.parallelizedClients = null;
         this.sound = null;
@@ -222,6 +237,30 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
         this.observers = new LinkedList<Observer> (FluentClient.defaultObservers);
     }
 
+    /**
+     * Gives the samples arrays of a sound built by a previous apply back to
+     * the array pool, once the next transform does not need them anymore.
+     * Nobody else can read that intermediate sound. Only the channels owning
+     * an array taken from the pool (Channel.ownPooledSamples) release it :
+     * the arrays kept or provided by somebody else stay untouched.
+     */
+    private void releaseSamples (final Channel [] channels) {
+        for (final Channel channel : channels) {
+            channel.releaseSamples ();
+        }
+    }
+
+    private boolean sharesSamples (final Channel [] output, final Channel [] input) {
+        for (final Channel outputChannel : output) {
+            for (final Channel inputChannel : input) {
+                if (outputChannel == inputChannel || outputChannel.sharesSamplesWith (inputChannel)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Compresses the loudest freq array (speedup or slowdown) When shaped into
      * a sound, the result will have a different tempo than the original sound
@@ -241,11 +280,18 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
 
     /**
      * Shortcut for importToStream ().importToSound () : Conversion from a File to a Sound
+     * (or a mapping of the file if it was given with withFile (file, true))
      * @return the client, with a sound imported
      * @throws SoundTransformException if one of the two import fails
      */
     @Override
     public FluentClientSoundImported convertIntoSound () throws SoundTransformException {
+        if (this.file != null && this.mappedFile) {
+            final Sound sound1 = new ConvertFromInputStream (this.getObservers ()).fromMappedFile (this.file);
+            this.cleanData ();
+            this.sound = sound1;
+            return this;
+        }
         return this.importToStream ().importToSound ();
     }
 
@@ -807,7 +853,21 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
      */
     @Override
     public FluentClientSoundImported shapeIntoSound (final String packName, final String instrumentName, final FormatInfo fi) throws SoundTransformException {
-        final SoundTransform<float [], Channel> soundTransform = new ShapeSoundTransform (packName, instrumentName, fi);
+        return this.shapeIntoSound (packName, instrumentName, fi, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    /**
+     * Shapes these loudest frequencies array into a sound and set the converted sound in the pipeline, choosing how the notes of the pack are pitched and stretched
+     * @param packName reference to an existing imported pack (must be invoked before the shapeIntoSound method by using withAPack)
+     * @param instrumentName the name of the instrument that will map the freqs object
+     * @param fi the wanted format for the future sound
+     * @param quality BEST_QUALITY for the frequency domain transforms, BEST_SPEED for the faster time domain ones
+     * @return the client, with a sound imported
+     * @throws SoundTransformException could not call the soundtransform to shape the freqs
+     */
+    @Override
+    public FluentClientSoundImported shapeIntoSound (final String packName, final String instrumentName, final FormatInfo fi, final PitchAndTempoQuality quality) throws SoundTransformException {
+        final SoundTransform<float [], Channel> soundTransform = new ShapeSoundTransform (packName, instrumentName, fi, quality);
         final List<float []> savedFreqs = this.freqs;
         this.cleanData ();
         this.sound = new Sound (new ApplySoundTransform (this.getObservers ()).apply (savedFreqs.toArray (new float [savedFreqs.size ()] []), soundTransform));
@@ -1007,8 +1067,36 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
      */
     @Override
     public FluentClientSoundImported whileRecordingASound (final StreamInfo streamInfo, final Object stop, final AmplitudeObserver amplitudeObserver) throws SoundTransformException {
+        return this.whileRecordingASound (streamInfo, stop, amplitudeObserver, null);
+    }
+
+    /**
+     * Does exactly the same as the other whileRecordingASound methods, and
+     * will find the loudest frequencies during the recording. They are sent
+     * to the frequency observer of the streamingPeakFind object as soon as
+     * they are found (useful for a tuner), and can be read from it after the
+     * end of the recording (see StreamingPeakFind.awaitAnalysis), without
+     * analyzing the sound again. The analysis runs on its own thread.
+     *
+     * @param streamInfo
+     *            the future input stream info
+     * @param stop
+     *            the method notifyAll must be called to stop the recording
+     * @param amplitudeObserver
+     *            the update method will be called with the amplitude value
+     *            (useful to display a VUmeter), can be null
+     * @param streamingPeakFind
+     *            the peak find transform, its step, its window length and its
+     *            frequency observer
+     * @return the client, with a sound (segmented)
+     * @throws SoundTransformException
+     *             the mic could not be read, the recorder could not start, or
+     *             the buffer did not record anything
+     */
+    @Override
+    public FluentClientSoundImported whileRecordingASound (final StreamInfo streamInfo, final Object stop, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind) throws SoundTransformException {
         this.cleanData ();
-        this.sound = new RecordSound ().startRecordingASound (streamInfo, amplitudeObserver, stop);
+        this.sound = new RecordSound ().startRecordingASound (streamInfo, amplitudeObserver, streamingPeakFind, stop);
         return this;
     }
 
@@ -1172,6 +1260,19 @@ public final class FluentClient implements FluentClientSoundImported, FluentClie
         return this;
     }
 
+    /**
+     * Tells the client to work first with a file. It will not be read yet
+     * @param file1 source file
+     * @param mapped whether the PCM data of the file (a wav file) will be mapped in memory instead of being read
+     * @return the client, with a file
+     */
+    @Override
+    public FluentClientWithFile withFile (final File file1, final boolean mapped) {
+        this.withFile (file1);
+        this.mappedFile = mapped;
+        return this;
+    }
+
     /**
      * Tells the client to work first with a loudest frequencies float array. It will not be used yet
      * @param freqs1 the loudest frequencies integer array
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
@@ -376,6 +377,27 @@ public interface FluentClientInterface {
      */
     FluentClientSoundImported shapeIntoSound (String packName, String instrumentName, FormatInfo formatInfo) throws SoundTransformException;
 
+    /**
+     * Shapes these loudest frequencies array into a sound and set the converted
+     * sound in the pipeline, choosing how the notes of the pack are pitched
+     * and stretched
+     *
+     * @param packName
+     *            reference to an existing imported pack (must be invoked before
+     *            the shapeIntoSound method by using withAPack)
+     * @param instrumentName
+     *            the name of the instrument that will map the freqs object
+     * @param formatInfo
+     *            the wanted format for the future sound
+     * @param quality
+     *            BEST_QUALITY for the frequency domain transforms, BEST_SPEED
+     *            for the faster time domain ones
+     * @return the client, with a sound imported
+     * @throws SoundTransformException
+     *             could not call the soundtransform to shape the freqs
+     */
+    FluentClientSoundImported shapeIntoSound (String packName, String instrumentName, FormatInfo formatInfo, PitchAndTempoQuality quality) throws SoundTransformException;
+
     /**
      * Uses the current sound to pick its spectrums and set that as the current
      * data in the pipeline
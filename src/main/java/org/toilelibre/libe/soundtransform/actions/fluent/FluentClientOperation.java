@@ -8,6 +8,7 @@ import java.util.List;
 
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
@@ -275,6 +276,19 @@ public class FluentClientOperation implements BuildableFluentClientOperationSoun
         return this;
     }
 
+    @Override
+    public BuildableFluentClientOperationSoundImported shapeIntoSound (final String packName, final String instrumentName, final FormatInfo formatInfo, final PitchAndTempoQuality quality) throws SoundTransformException {
+        this.steps.add (new Step () {
+
+            @Override
+            public void run (final FluentClientInterface client) throws SoundTransformException {
+                client.shapeIntoSound (packName, instrumentName, formatInfo, quality);
+            }
+        });
+
+        return this;
+    }
+
     @Override
     public BuildableFluentClientOperationSoundImported convertIntoSound () throws SoundTransformException {
         this.steps.add (new Step () {
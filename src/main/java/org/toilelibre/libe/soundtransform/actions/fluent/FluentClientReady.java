@@ -12,6 +12,7 @@ import org.toilelibre.libe.soundtransform.model.inputstream.StreamInfo;
 import org.toilelibre.libe.soundtransform.model.library.pack.Pack;
 import org.toilelibre.libe.soundtransform.model.logging.Observer;
 import org.toilelibre.libe.soundtransform.model.record.AmplitudeObserver;
+import org.toilelibre.libe.soundtransform.model.record.StreamingPeakFind;
 
 public interface FluentClientReady extends FluentClientCommon {
 
@@ -295,6 +296,22 @@ public interface FluentClientReady extends FluentClientCommon {
      */
     FluentClientWithFile withFile (File file);
 
+    /**
+     * Tells the client to work first with a file. It will not be read yet. If
+     * mapped is true, the PCM data of the file (which must be a wav file)
+     * will be mapped in memory during the conversion into a sound : the
+     * samples are read on demand instead of being copied into the heap, which
+     * allows to work on very long recordings
+     *
+     * @param file
+     *            source file
+     * @param mapped
+     *            whether the file will be mapped in memory instead of being
+     *            read
+     * @return the client, with a file
+     */
+    FluentClientWithFile withFile (File file, boolean mapped);
+
     /**
      * Tells the client to work first with a loudest frequencies integer array.
      * It will not be used yet
@@ -379,6 +396,32 @@ public interface FluentClientReady extends FluentClientCommon {
      *             the buffer did not record anything
      */
     FluentClientSoundImported whileRecordingASound (final StreamInfo streamInfo, Object stop, final AmplitudeObserver amplitudeObserver) throws SoundTransformException;
+
+    /**
+     * Does exactly the same as the other whileRecordingASound methods, and
+     * will find the loudest frequencies during the recording. They are sent
+     * to the frequency observer of the streamingPeakFind object as soon as
+     * they are found (useful for a tuner), and can be read from it after the
+     * end of the recording (see StreamingPeakFind.awaitAnalysis), without
+     * analyzing the sound again. The analysis runs on its own thread.
+     *
+     * @see whileRecordingASound
+     * @param streamInfo
+     *            the future input stream info
+     * @param stop
+     *            the method notifyAll must be called to stop the recording
+     * @param amplitudeObserver
+     *            the update method will be called with the amplitude value
+     *            (useful to display a VUmeter), can be null
+     * @param streamingPeakFind
+     *            the peak find transform, its step, its window length and its
+     *            frequency observer
+     * @return the client, with a sound (segmented)
+     * @throws SoundTransformException
+     *             the mic could not be read, the recorder could not start, or
+     *             the buffer did not record anything
+     */
+    FluentClientSoundImported whileRecordingASound (final StreamInfo streamInfo, Object stop, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind) throws SoundTransformException;
     
     /**
      * Tells the client to open the microphone and to record a sound The result
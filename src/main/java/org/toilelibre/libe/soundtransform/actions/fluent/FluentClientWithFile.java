@@ -8,7 +8,8 @@ public interface FluentClientWithFile extends FluentClientCommon {
 
     /**
      * Shortcut for importToStream ().importToSound () : Conversion from a File
-     * to a Sound
+     * to a Sound (or a mapping of the file if it was given with
+     * withFile (file, true))
      *
      * @return the client, with a sound imported
      * @throws SoundTransformException
@@ -9,6 +9,7 @@ import org.toilelibre.libe.soundtransform.model.exception.SoundTransformExceptio
 import org.toilelibre.libe.soundtransform.model.inputstream.StreamInfo;
 import org.toilelibre.libe.soundtransform.model.record.AmplitudeObserver;
 import org.toilelibre.libe.soundtransform.model.record.RecordSoundService;
+import org.toilelibre.libe.soundtransform.model.record.StreamingPeakFind;
 
 @Action
 public class RecordSound {
@@ -30,4 +31,8 @@ public class RecordSound {
     public Sound startRecordingASound (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final Object stop) throws SoundTransformException {
         return this.recordSound.startRecordingASound (streamInfo, amplitudeObserver, stop);
     }
+
+    public Sound startRecordingASound (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind, final Object stop) throws SoundTransformException {
+        return this.recordSound.startRecordingASound (streamInfo, amplitudeObserver, streamingPeakFind, stop);
+    }
 }
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.actions.transform;
 
+import java.io.File;
 import java.io.InputStream;
 
 import org.toilelibre.libe.soundtransform.actions.Action;
@@ -26,4 +27,8 @@ public final class ConvertFromInputStream {
     public Sound fromInputStream (final InputStream ais, final StreamInfo isInfo) throws SoundTransformException {
         return this.is2Sound.fromInputStream (ais, isInfo);
     }
+
+    public Sound fromMappedFile (final File file) throws SoundTransformException {
+        return this.is2Sound.fromMappedFile (file);
+    }
 }
@@ -3,6 +3,8 @@ package org.toilelibre.libe.soundtransform.infrastructure.service.appender;
 import org.toilelibre.libe.soundtransform.infrastructure.service.Processor;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PolyphaseResampler;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundAppender;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 import org.toilelibre.libe.soundtransform.model.library.pack.note.Note;
@@ -49,7 +51,7 @@ final class ConvertedSoundAppender implements SoundAppender {
     @Override
     public Channel append (final Channel sound1, final Channel sound2) {
         final Channel sound2Ajusted = this.resizeToSampleRate (this.changeNbBytesPerSample (sound2, sound1.getSampleSize ()), sound1.getSampleRate ());
-        final Channel result = new Channel (new long [sound1.getSamplesLength () + sound2.getSamplesLength ()], sound1.getFormatInfo (), sound1.getChannelNum ());
+        final Channel result = new Channel (sound1.getSamplesLength () + sound2.getSamplesLength (), sound1.getFormatInfo (), sound1.getChannelNum ());
 
         sound1.copyTo (result);
         sound2Ajusted.copyTo (result, 0, sound1.getSamplesLength (), sound2Ajusted.getSamplesLength ());
@@ -59,11 +61,16 @@ final class ConvertedSoundAppender implements SoundAppender {
 
     @Override
     public void appendNote (final Channel sound, final Note note, final double lastFreq, final int indexInSound, final int channelNum, final float lengthInSeconds) throws SoundTransformException {
+        this.appendNote (sound, note, lastFreq, indexInSound, channelNum, lengthInSeconds, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public void appendNote (final Channel sound, final Note note, final double lastFreq, final int indexInSound, final int channelNum, final float lengthInSeconds, final PitchAndTempoQuality quality) throws SoundTransformException {
 
-        final Channel attack = note.getAttack ((int) lastFreq, channelNum, lengthInSeconds);
-        final Channel decay = note.getDecay ((int) lastFreq, channelNum, lengthInSeconds);
-        final Channel sustain = note.getSustain ((int) lastFreq, channelNum, lengthInSeconds);
-        final Channel release = note.getRelease ((int) lastFreq, channelNum, lengthInSeconds);
+        final Channel attack = note.getAttack ((int) lastFreq, channelNum, lengthInSeconds, quality);
+        final Channel decay = note.getDecay ((int) lastFreq, channelNum, lengthInSeconds, quality);
+        final Channel sustain = note.getSustain ((int) lastFreq, channelNum, lengthInSeconds, quality);
+        final Channel release = note.getRelease ((int) lastFreq, channelNum, lengthInSeconds, quality);
         this.append (sound, indexInSound, attack, decay, sustain, release);
     }
 
@@ -96,17 +103,7 @@ final class ConvertedSoundAppender implements SoundAppender {
      */
     @Override
     public Channel downsampleWithRatio (final Channel sound, final float ratio) {
-        float appendIfGreaterThanOrEqualsRatio = 0;
-        int indexResult = 0;
-        final long [] result = new long [(int) Math.ceil (sound.getSamplesLength () / ratio)];
-        for (int i = 0 ; i < sound.getSamplesLength () ; i++) {
-            if (appendIfGreaterThanOrEqualsRatio >= ratio) {
-                appendIfGreaterThanOrEqualsRatio -= ratio;
-                result [indexResult++] = sound.getSampleAt (i);
-            }
-            appendIfGreaterThanOrEqualsRatio += 1.0;
-        }
-        return new Channel (result, new FormatInfo (sound.getSampleSize (), sound.getSampleRate () / ratio), sound.getChannelNum ());
+        return PolyphaseResampler.forFactor (1.0 / ratio).resample (sound, sound.getSampleRate () / ratio);
     }
 
     /*
@@ -119,32 +116,9 @@ final class ConvertedSoundAppender implements SoundAppender {
      */
     @Override
     public Channel resizeToSampleRate (final Channel sound, final float newfreq) {
-        final float ratio = (float) (newfreq * 1.0 / sound.getSampleRate ());
-        if (ratio > 1) {
-            return this.upsampleWithRatio (sound, ratio);
-        }
-        if (ratio < 1) {
-            return this.downsampleWithRatio (sound, (float) (1.0 / ratio));
-        }
-        return sound;
-    }
-
-    private Channel upsampleWithRatio (final Channel sound, final float ratio) {
-        float appendWhileLessThanOrEqualsRatio = 0;
-        int indexResult = 0;
-        final long [] result = new long [(int) Math.ceil (sound.getSamplesLength () * (ratio + 1))];
-        for (int i = 0 ; i < sound.getSamplesLength () ; i++) {
-            while (appendWhileLessThanOrEqualsRatio <= ratio) {
-                result [indexResult++] = sound.getSampleAt (i);
-                appendWhileLessThanOrEqualsRatio++;
-            }
-            appendWhileLessThanOrEqualsRatio -= ratio;
-        }
-        long [] outputLongArray = new long [0];
-        if (indexResult > 0) {
-            outputLongArray = new long [indexResult];
-            System.arraycopy (result, 0, outputLongArray, 0, indexResult);
+        if (newfreq == sound.getSampleRate ()) {
+            return sound;
         }
-        return new Channel (outputLongArray, new FormatInfo (sound.getSampleSize (), sound.getSampleRate () * ratio), sound.getChannelNum ());
+        return PolyphaseResampler.forSampleRates (sound.getSampleRate (), newfreq).resample (sound, newfreq);
     }
 }
@@ -3,8 +3,10 @@ package org.toilelibre.libe.soundtransform.infrastructure.service.appender;
 import java.io.Serializable;
 
 import org.toilelibre.libe.soundtransform.infrastructure.service.Processor;
-import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.SlowdownSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.TimeStretchSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.WsolaSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundPitchAndTempoHelper;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PitchSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SpeedUpSoundTransform;
@@ -21,11 +23,15 @@ final class ConvertedSoundPitchAndTempoHelper implements SoundPitchAndTempoHelpe
 
     private static final int   HELPER_DEFAULT_SPEEDUP_STEP_VALUE  = 100;
 
-    private static final int   HELPER_DEFAULT_SLOWDOWN_STEP_VALUE = 1024;
-    private static final int   HELPER_DEFAULT_WINDOW_LENGTH_VALUE = 2 * ConvertedSoundPitchAndTempoHelper.HELPER_DEFAULT_SLOWDOWN_STEP_VALUE;
+    private static final int   HELPER_DEFAULT_FRAME_LENGTH_VALUE  = 2048;
 
     @Override
     public Channel pitchAndSetLength (final Channel sound, final float percent, final float lengthInSeconds) throws SoundTransformException {
+        return this.pitchAndSetLength (sound, percent, lengthInSeconds, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel pitchAndSetLength (final Channel sound, final float percent, final float lengthInSeconds, final PitchAndTempoQuality quality) throws SoundTransformException {
 
         Channel result = sound;
 
@@ -37,12 +43,16 @@ final class ConvertedSoundPitchAndTempoHelper implements SoundPitchAndTempoHelpe
         if (factor == 0) {
             return result;
         } else if (factor < ConvertedSoundPitchAndTempoHelper.THRESHOLD_SPEEDUP || factor > ConvertedSoundPitchAndTempoHelper.THRESHOLD_SLOWDOWN) {
-            if (factor < ConvertedSoundPitchAndTempoHelper.THRESHOLD_SPEEDUP) {
+            if (quality == PitchAndTempoQuality.BEST_SPEED) {
+                final WsolaSoundTransform wsola = new WsolaSoundTransform ((float) factor);
+                result = wsola.transform (result);
+
+            } else if (factor < ConvertedSoundPitchAndTempoHelper.THRESHOLD_SPEEDUP) {
                 final SpeedUpSoundTransform<Serializable> speedup = new SpeedUpSoundTransform<Serializable> (ConvertedSoundPitchAndTempoHelper.HELPER_DEFAULT_SPEEDUP_STEP_VALUE, (float) (1 / factor));
                 result = speedup.transform (result);
 
             } else if (factor > ConvertedSoundPitchAndTempoHelper.THRESHOLD_SLOWDOWN) {
-                final SlowdownSoundTransform slowdown = new SlowdownSoundTransform (ConvertedSoundPitchAndTempoHelper.HELPER_DEFAULT_SLOWDOWN_STEP_VALUE, (float) factor, ConvertedSoundPitchAndTempoHelper.HELPER_DEFAULT_WINDOW_LENGTH_VALUE);
+                final TimeStretchSoundTransform slowdown = new TimeStretchSoundTransform ((float) factor, ConvertedSoundPitchAndTempoHelper.HELPER_DEFAULT_FRAME_LENGTH_VALUE);
                 result = slowdown.transform (result);
             }
         }
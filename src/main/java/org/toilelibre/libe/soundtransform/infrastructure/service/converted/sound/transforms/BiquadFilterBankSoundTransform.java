@@ -0,0 +1,311 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Filters a sound with a cascade of second order sections (biquads), in the
+ * time domain : each sample costs five multiplications per section, without
+ * any fourier transform. The sections are low pass, high pass, shelf or
+ * peaking filters.
+ *
+ * The bank can also be designed from a frequency response curve (same
+ * parameters as the {@link EqualizerSoundTransform}) : each point of the curve
+ * inside the audible band becomes a peaking filter at its frequency, with a
+ * bandwidth reaching its neighbours. This is an approximation of the curve,
+ * good enough for smooth corrections.
+ *
+ */
+public class BiquadFilterBankSoundTransform implements SoundTransform<Channel, Channel> {
+
+    public enum BiquadFilterBankSoundTransformErrorCode implements ErrorCode {
+
+        FREQUENCY_OUT_OF_RANGE ("The frequency of a section (%1f Hz) must be between 0 and the half of the sample rate (%2f Hz)"), NOT_AS_MANY_RANGES_AS_AMPLIFICATIONS ("Not as many ranges (%1d) as amplifications (%2d)");
+
+        private final String messageFormat;
+
+        BiquadFilterBankSoundTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private enum SectionType {
+        LOW_PASS, HIGH_PASS, LOW_SHELF, HIGH_SHELF, PEAKING
+    }
+
+    /**
+     * A second order section. The coefficients are computed for the sample
+     * rate of each sound, with the formulas of the audio EQ cookbook.
+     */
+    public static final class Section {
+        private final SectionType type;
+        private final double      frequency;
+        private final double      q;
+        private final double      gainInDb;
+
+        private Section (final SectionType type1, final double frequency1, final double q1, final double gainInDb1) {
+            this.type = type1;
+            this.frequency = frequency1;
+            this.q = q1;
+            this.gainInDb = gainInDb1;
+        }
+
+        public static Section lowPass (final double frequency, final double q) {
+            return new Section (SectionType.LOW_PASS, frequency, q, 0);
+        }
+
+        public static Section highPass (final double frequency, final double q) {
+            return new Section (SectionType.HIGH_PASS, frequency, q, 0);
+        }
+
+        public static Section lowShelf (final double frequency, final double gainInDb) {
+            return new Section (SectionType.LOW_SHELF, frequency, BiquadFilterBankSoundTransform.SHELF_Q, gainInDb);
+        }
+
+        public static Section highShelf (final double frequency, final double gainInDb) {
+            return new Section (SectionType.HIGH_SHELF, frequency, BiquadFilterBankSoundTransform.SHELF_Q, gainInDb);
+        }
+
+        public static Section peaking (final double frequency, final double q, final double gainInDb) {
+            return new Section (SectionType.PEAKING, frequency, q, gainInDb);
+        }
+
+        /**
+         * @return b0, b1, b2, a1, a2, divided by a0
+         */
+        private double [] coefficients (final float sampleRate) throws SoundTransformException {
+            if (this.frequency <= 0 || this.frequency >= sampleRate / 2) {
+                throw new SoundTransformException (BiquadFilterBankSoundTransformErrorCode.FREQUENCY_OUT_OF_RANGE, new IllegalArgumentException (), this.frequency, sampleRate / 2);
+            }
+            final double w0 = 2 * Math.PI * this.frequency / sampleRate;
+            final double cos = Math.cos (w0);
+            final double alpha = Math.sin (w0) / (2 * this.q);
+            final double a = Math.pow (10, this.gainInDb / BiquadFilterBankSoundTransform.DB_TO_AMPLITUDE);
+            final double sqrtA2Alpha = 2 * Math.sqrt (a) * alpha;
+            final double [] c = new double [BiquadFilterBankSoundTransform.COEFFICIENTS];
+            double a0;
+            switch (this.type) {
+                case LOW_PASS:
+                    c [0] = (1 - cos) / 2;
+                    c [1] = 1 - cos;
+                    c [2] = (1 - cos) / 2;
+                    a0 = 1 + alpha;
+                    c [3] = -2 * cos;
+                    c [4] = 1 - alpha;
+                    break;
+                case HIGH_PASS:
+                    c [0] = (1 + cos) / 2;
+                    c [1] = -(1 + cos);
+                    c [2] = (1 + cos) / 2;
+                    a0 = 1 + alpha;
+                    c [3] = -2 * cos;
+                    c [4] = 1 - alpha;
+                    break;
+                case LOW_SHELF:
+                    c [0] = a * (a + 1 - (a - 1) * cos + sqrtA2Alpha);
+                    c [1] = 2 * a * (a - 1 - (a + 1) * cos);
+                    c [2] = a * (a + 1 - (a - 1) * cos - sqrtA2Alpha);
+                    a0 = a + 1 + (a - 1) * cos + sqrtA2Alpha;
+                    c [3] = -2 * (a - 1 + (a + 1) * cos);
+                    c [4] = a + 1 + (a - 1) * cos - sqrtA2Alpha;
+                    break;
+                case HIGH_SHELF:
+                    c [0] = a * (a + 1 + (a - 1) * cos + sqrtA2Alpha);
+                    c [1] = -2 * a * (a - 1 + (a + 1) * cos);
+                    c [2] = a * (a + 1 + (a - 1) * cos - sqrtA2Alpha);
+                    a0 = a + 1 - (a - 1) * cos + sqrtA2Alpha;
+                    c [3] = 2 * (a - 1 - (a + 1) * cos);
+                    c [4] = a + 1 - (a - 1) * cos - sqrtA2Alpha;
+                    break;
+                default:
+                    c [0] = 1 + alpha * a;
+                    c [1] = -2 * cos;
+                    c [2] = 1 - alpha * a;
+                    a0 = 1 + alpha / a;
+                    c [3] = -2 * cos;
+                    c [4] = 1 - alpha / a;
+                    break;
+            }
+            for (int i = 0 ; i < c.length ; i++) {
+                c [i] /= a0;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * The sections ready for a sample rate, with their state : it filters the
+     * samples one after the other, so it can filter a stream (a recording or
+     * a playback) with no latency. Each channel needs its own filter.
+     */
+    public static final class Filter {
+        private final double [] b0;
+        private final double [] b1;
+        private final double [] b2;
+        private final double [] a1;
+        private final double [] a2;
+        private final double [] z1;
+        private final double [] z2;
+
+        private Filter (final double [][] coefficients) {
+            final int sections = coefficients.length;
+            this.b0 = new double [sections];
+            this.b1 = new double [sections];
+            this.b2 = new double [sections];
+            this.a1 = new double [sections];
+            this.a2 = new double [sections];
+            this.z1 = new double [sections];
+            this.z2 = new double [sections];
+            for (int s = 0 ; s < sections ; s++) {
+                this.b0 [s] = coefficients [s] [0];
+                this.b1 [s] = coefficients [s] [1];
+                this.b2 [s] = coefficients [s] [2];
+                this.a1 [s] = coefficients [s] [3];
+                this.a2 [s] = coefficients [s] [4];
+            }
+        }
+
+        /**
+         * Filters the next sample
+         *
+         * @param sample
+         *            the input sample
+         * @return the filtered sample
+         */
+        public double process (final double sample) {
+            double value = sample;
+            // transposed direct form II
+            for (int s = 0 ; s < this.b0.length ; s++) {
+                final double output = this.b0 [s] * value + this.z1 [s];
+                this.z1 [s] = this.b1 [s] * value - this.a1 [s] * output + this.z2 [s];
+                this.z2 [s] = this.b2 [s] * value - this.a2 [s] * output;
+                value = output;
+            }
+            return value;
+        }
+
+        /**
+         * Filters the next samples
+         *
+         * @param input
+         *            the input samples
+         * @param output
+         *            the filtered samples (at least as long as the input)
+         */
+        public void process (final double [] input, final double [] output) {
+            for (int i = 0 ; i < input.length ; i++) {
+                output [i] = this.process (input [i]);
+            }
+        }
+
+        /**
+         * Forgets the previous samples
+         */
+        public void reset () {
+            for (int s = 0 ; s < this.z1.length ; s++) {
+                this.z1 [s] = 0;
+                this.z2 [s] = 0;
+            }
+        }
+    }
+
+    private static final int    COEFFICIENTS    = 5;
+    private static final double DB_TO_AMPLITUDE = 40;
+    private static final double SHELF_Q         = Math.sqrt (0.5);
+    private static final double MIN_GAIN_IN_DB  = -60;
+    private static final double AMPLITUDE_TO_DB = 20;
+    private static final double MIN_BANDWIDTH   = 1.0 / 3;
+
+    private final Section []    sections;
+    private final double []     ranges;
+    private final double []     amplification;
+
+    /**
+     * Default constructor
+     *
+     * @param sections1
+     *            the sections of the cascade
+     */
+    public BiquadFilterBankSoundTransform (final Section... sections1) {
+        this.sections = sections1.clone ();
+        this.ranges = null;
+        this.amplification = null;
+    }
+
+    /**
+     * Constructor with a frequency response curve. The sections are designed
+     * for the sample rate of each transformed sound.
+     *
+     * @param ranges1
+     *            the frequencies, in abscissa [0..20000]
+     * @param amplification1
+     *            the amplification, in ordinate [0..1]
+     * @throws SoundTransformException
+     *             if there are not as many ranges as amplifications
+     */
+    public BiquadFilterBankSoundTransform (final double [] ranges1, final double [] amplification1) throws SoundTransformException {
+        if (ranges1.length != amplification1.length) {
+            throw new SoundTransformException (BiquadFilterBankSoundTransformErrorCode.NOT_AS_MANY_RANGES_AS_AMPLIFICATIONS, new IllegalArgumentException (), ranges1.length, amplification1.length);
+        }
+        this.sections = null;
+        this.ranges = ranges1.clone ();
+        this.amplification = amplification1.clone ();
+    }
+
+    private Section [] designSections (final float sampleRate) {
+        final List<Section> designed = new ArrayList<Section> (this.ranges.length);
+        for (int i = 0 ; i < this.ranges.length ; i++) {
+            if (this.ranges [i] <= 0 || this.ranges [i] >= sampleRate / 2) {
+                continue;
+            }
+            final double previous = i > 0 && this.ranges [i - 1] > 0 ? this.ranges [i - 1] : this.ranges [i] / 2;
+            final double next = i < this.ranges.length - 1 ? Math.min (this.ranges [i + 1], sampleRate / 2) : sampleRate / 2;
+            // bandwidth in octaves, from the middle of the previous interval
+            // to the middle of the next one
+            final double bandwidth = Math.max (Math.log (next / previous) / Math.log (2) / 2, BiquadFilterBankSoundTransform.MIN_BANDWIDTH);
+            final double q = Math.sqrt (Math.pow (2, bandwidth)) / (Math.pow (2, bandwidth) - 1);
+            final double gainInDb = Math.max (BiquadFilterBankSoundTransform.MIN_GAIN_IN_DB, BiquadFilterBankSoundTransform.AMPLITUDE_TO_DB * Math.log10 (this.amplification [i]));
+            designed.add (Section.peaking (this.ranges [i], q, gainInDb));
+        }
+        return designed.toArray (new Section [designed.size ()]);
+    }
+
+    /**
+     * Gives the filter of a sample rate, with an empty state
+     *
+     * @param sampleRate
+     *            the sample rate of the sound
+     * @return the filter
+     * @throws SoundTransformException
+     *             if the frequency of a section is not below the half of the
+     *             sample rate
+     */
+    public Filter newFilter (final float sampleRate) throws SoundTransformException {
+        final Section [] bank = this.sections == null ? this.designSections (sampleRate) : this.sections;
+        final double [][] coefficients = new double [bank.length] [];
+        for (int s = 0 ; s < bank.length ; s++) {
+            coefficients [s] = bank [s].coefficients (sampleRate);
+        }
+        return new Filter (coefficients);
+    }
+
+    @Override
+    public Channel transform (final Channel input) throws SoundTransformException {
+        final Filter filter = this.newFilter (input.getSampleRate ());
+        final Channel output = new Channel (input.getSamplesLength (), input.getFormatInfo (), input.getChannelNum ());
+        for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+            output.setSampleAt (i, Math.round (filter.process (input.getSampleAt (i))));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,46 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.apache.commons.math3.complex.Complex;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+
+/**
+ * Conversions between the spectrum objects and the raw spectrums, so the
+ * transforms working in place on a raw spectrum can still be called with a
+ * spectrum object.
+ */
+final class ComplexArrays {
+
+    private ComplexArrays () {
+    }
+
+    /**
+     * @param complexArray
+     *            the spectrum
+     * @return the real part and the imaginary part, given by the array pool
+     */
+    static double [][] toDoubles (final Complex [] complexArray) {
+        final double [] realPart = ArrayPool.takeDoubles (complexArray.length);
+        final double [] imaginaryPart = ArrayPool.takeDoubles (complexArray.length);
+        for (int i = 0 ; i < complexArray.length ; i++) {
+            realPart [i] = complexArray [i].getReal ();
+            imaginaryPart [i] = complexArray [i].getImaginary ();
+        }
+        return new double [][] { realPart, imaginaryPart };
+    }
+
+    /**
+     * @param spectrumAsDoubles
+     *            the real part and the imaginary part, released to the array
+     *            pool
+     * @return the spectrum
+     */
+    static Complex [] toComplexesAndRelease (final double [][] spectrumAsDoubles) {
+        final Complex [] complexArray = new Complex [spectrumAsDoubles [0].length];
+        for (int i = 0 ; i < complexArray.length ; i++) {
+            complexArray [i] = new Complex (spectrumAsDoubles [0] [i], spectrumAsDoubles [1] [i]);
+        }
+        ArrayPool.release (spectrumAsDoubles [0]);
+        ArrayPool.release (spectrumAsDoubles [1]);
+        return complexArray;
+    }
+}
@@ -0,0 +1,272 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.toilelibre.libe.soundtransform.infrastructure.service.fourier.FourierTransformPlan;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HammingWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Filters a sound with a FIR kernel (an impulse response), using a partitioned
+ * overlap-save convolution : the kernel is split into partitions of one block,
+ * the sound is processed block by block, and each block costs one forward and
+ * one inverse fourier transform whatever the length of the kernel. The cost
+ * grows linearly with the length of the sound.
+ *
+ * The kernel is either given, or designed from a frequency response curve
+ * (same parameters as the {@link EqualizerSoundTransform}). A designed kernel
+ * has a linear phase, and its delay is compensated.
+ *
+ */
+public class ConvolutionSoundTransform implements SoundTransform<Channel, Channel> {
+
+    public enum ConvolutionSoundTransformErrorCode implements ErrorCode {
+
+        EMPTY_KERNEL ("The kernel is empty"), NOT_A_POWER_OF_2 ("The block length (%1d) must be a power of 2");
+
+        private final String messageFormat;
+
+        ConvolutionSoundTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    /**
+     * Streaming convolution : gives the filtered samples of each block as soon
+     * as the block is known, so the latency is one block. It keeps the
+     * spectrums of the previous blocks, and its working arrays are reused for
+     * each block.
+     */
+    public static final class Convolver {
+        private final int                  blockLength;
+        private final FourierTransformPlan plan;
+        private final double [][]          kernelRealParts;
+        private final double [][]          kernelImaginaryParts;
+        private final double [][]          inputRealParts;
+        private final double [][]          inputImaginaryParts;
+        private final double []            lastInputs;
+        private final double []            realPart;
+        private final double []            imaginaryPart;
+        private int                        current;
+
+        private Convolver (final double [] kernel, final int blockLength1) {
+            this.blockLength = blockLength1;
+            this.plan = FourierTransformPlan.forLength (2 * blockLength1);
+            final int partitions = (kernel.length + blockLength1 - 1) / blockLength1;
+            this.kernelRealParts = new double [partitions] [2 * blockLength1];
+            this.kernelImaginaryParts = new double [partitions] [2 * blockLength1];
+            this.inputRealParts = new double [partitions] [2 * blockLength1];
+            this.inputImaginaryParts = new double [partitions] [2 * blockLength1];
+            this.lastInputs = new double [2 * blockLength1];
+            this.realPart = new double [2 * blockLength1];
+            this.imaginaryPart = new double [2 * blockLength1];
+            for (int p = 0 ; p < partitions ; p++) {
+                System.arraycopy (kernel, p * blockLength1, this.kernelRealParts [p], 0, Math.min (blockLength1, kernel.length - p * blockLength1));
+                this.plan.forwardReal (this.kernelRealParts [p], this.kernelImaginaryParts [p]);
+            }
+        }
+
+        public int getBlockLength () {
+            return this.blockLength;
+        }
+
+        /**
+         * Filters the next block of the sound
+         *
+         * @param input
+         *            the samples of the block (block length)
+         * @param output
+         *            the filtered samples of the block (block length)
+         */
+        public void process (final double [] input, final double [] output) {
+            final int partitions = this.kernelRealParts.length;
+            final int length = 2 * this.blockLength;
+            final int half = this.blockLength;
+
+            // the previous block, then the new one
+            System.arraycopy (this.lastInputs, half, this.lastInputs, 0, half);
+            System.arraycopy (input, 0, this.lastInputs, half, half);
+            this.current = (this.current + 1) % partitions;
+            final double [] inputRealPart = this.inputRealParts [this.current];
+            System.arraycopy (this.lastInputs, 0, inputRealPart, 0, length);
+            this.plan.forwardReal (inputRealPart, this.inputImaginaryParts [this.current]);
+
+            // sum of the products of the partitions of the kernel with the
+            // spectrums of the blocks they are late of
+            Arrays.fill (this.realPart, 0);
+            Arrays.fill (this.imaginaryPart, 0);
+            for (int p = 0 ; p < partitions ; p++) {
+                final int block = (this.current - p + partitions) % partitions;
+                final double [] xRe = this.inputRealParts [block];
+                final double [] xIm = this.inputImaginaryParts [block];
+                final double [] hRe = this.kernelRealParts [p];
+                final double [] hIm = this.kernelImaginaryParts [p];
+                for (int k = 0 ; k <= half ; k++) {
+                    this.realPart [k] += xRe [k] * hRe [k] - xIm [k] * hIm [k];
+                    this.imaginaryPart [k] += xRe [k] * hIm [k] + xIm [k] * hRe [k];
+                }
+            }
+            for (int k = 1 ; k < half ; k++) {
+                this.realPart [length - k] = this.realPart [k];
+                this.imaginaryPart [length - k] = -this.imaginaryPart [k];
+            }
+            this.plan.inverseReal (this.realPart, this.imaginaryPart);
+
+            // the first half is circularly aliased, the second half is the
+            // linear convolution of the new block
+            System.arraycopy (this.realPart, half, output, 0, half);
+        }
+    }
+
+    private static final int DEFAULT_BLOCK_LENGTH = 1024;
+    private static final int DESIGN_OVERSAMPLING  = 4;
+
+    private final double []  kernel;
+    private final double []  ranges;
+    private final double []  amplification;
+    private final int        kernelLength;
+    private final int        blockLength;
+
+    /**
+     * Default constructor
+     *
+     * @param kernel1
+     *            the impulse response of the filter
+     * @throws SoundTransformException
+     *             if the kernel is empty
+     */
+    public ConvolutionSoundTransform (final double [] kernel1) throws SoundTransformException {
+        this (kernel1, ConvolutionSoundTransform.DEFAULT_BLOCK_LENGTH);
+    }
+
+    /**
+     * Constructor with a block length
+     *
+     * @param kernel1
+     *            the impulse response of the filter
+     * @param blockLength1
+     *            the number of samples processed at once (a power of 2), which
+     *            is also the latency of a streaming convolution
+     * @throws SoundTransformException
+     *             if the kernel is empty or if the block length is not a power
+     *             of 2
+     */
+    public ConvolutionSoundTransform (final double [] kernel1, final int blockLength1) throws SoundTransformException {
+        this.kernelLength = this.checkKernelLength (kernel1.length);
+        this.kernel = kernel1.clone ();
+        this.ranges = null;
+        this.amplification = null;
+        this.blockLength = this.checkBlockLength (blockLength1);
+    }
+
+    /**
+     * Constructor with a frequency response curve. The kernel is designed for
+     * the sample rate of each transformed sound.
+     *
+     * @param ranges1
+     *            the frequencies, in abscissa [0..20000]
+     * @param amplification1
+     *            the amplification, in ordinate [0..1]
+     * @param kernelLength1
+     *            the length of the designed kernel (an odd length gives an
+     *            integer delay)
+     * @throws SoundTransformException
+     *             if the kernel length is not positive
+     */
+    public ConvolutionSoundTransform (final double [] ranges1, final double [] amplification1, final int kernelLength1) throws SoundTransformException {
+        this.kernel = null;
+        this.ranges = ranges1.clone ();
+        this.amplification = amplification1.clone ();
+        this.kernelLength = this.checkKernelLength (kernelLength1);
+        this.blockLength = ConvolutionSoundTransform.DEFAULT_BLOCK_LENGTH;
+    }
+
+    private int checkBlockLength (final int blockLength1) throws SoundTransformException {
+        if (blockLength1 <= 0 || (blockLength1 & blockLength1 - 1) != 0) {
+            throw new SoundTransformException (ConvolutionSoundTransformErrorCode.NOT_A_POWER_OF_2, new IllegalArgumentException (), blockLength1);
+        }
+        return blockLength1;
+    }
+
+    private int checkKernelLength (final int kernelLength1) throws SoundTransformException {
+        if (kernelLength1 <= 0) {
+            throw new SoundTransformException (ConvolutionSoundTransformErrorCode.EMPTY_KERNEL, new IllegalArgumentException ());
+        }
+        return kernelLength1;
+    }
+
+    /**
+     * Designs a linear phase kernel from the frequency response curve : the
+     * curve is sampled on a fine grid, reversed into a zero phase impulse
+     * response, centered and then windowed.
+     */
+    private double [] designKernel (final float sampleRate) {
+        final int length = Integer.highestOneBit (this.kernelLength) * ConvolutionSoundTransform.DESIGN_OVERSAMPLING;
+        final PolynomialSplineFunction psf = new SplineInterpolator ().interpolate (this.ranges, this.amplification);
+        final double [] realPart = new double [length];
+        final double [] imaginaryPart = new double [length];
+        for (int k = 0 ; k <= length / 2 ; k++) {
+            final double freq = (double) k * sampleRate / length;
+            realPart [k] = psf.isValidPoint (freq) ? psf.value (freq) : 0;
+            realPart [(length - k) % length] = realPart [k];
+        }
+        FourierTransformPlan.forLength (length).inverseReal (realPart, imaginaryPart);
+
+        final double [] window = new HammingWindowSoundTransform ().getCoefficients (this.kernelLength);
+        final double [] designed = new double [this.kernelLength];
+        final int delay = this.getDelay ();
+        for (int n = 0 ; n < this.kernelLength ; n++) {
+            designed [n] = realPart [(n - delay + length) % length] * window [n];
+        }
+        return designed;
+    }
+
+    private int getDelay () {
+        return this.kernel == null ? (this.kernelLength - 1) / 2 : 0;
+    }
+
+    /**
+     * Gives a streaming convolution for a sample rate
+     *
+     * @param sampleRate
+     *            the sample rate of the sound (used to design the kernel)
+     * @return the convolver
+     */
+    public Convolver newConvolver (final float sampleRate) {
+        return new Convolver (this.kernel == null ? this.designKernel (sampleRate) : this.kernel, this.blockLength);
+    }
+
+    @Override
+    public Channel transform (final Channel input) {
+        final Convolver convolver = this.newConvolver (input.getSampleRate ());
+        final double [] block = new double [this.blockLength];
+        final double [] filtered = new double [this.blockLength];
+        final int delay = this.getDelay ();
+        final int length = input.getSamplesLength ();
+        final Channel output = new Channel (length, input.getFormatInfo (), input.getChannelNum ());
+        for (int start = 0 ; start < length + delay ; start += this.blockLength) {
+            for (int i = 0 ; i < this.blockLength ; i++) {
+                block [i] = start + i < length ? input.getSampleAt (start + i) : 0;
+            }
+            convolver.process (block, filtered);
+            // the designed kernels are late of their delay
+            for (int i = 0 ; i < this.blockLength ; i++) {
+                final int index = start + i - delay;
+                if (index >= 0 && index < length) {
+                    output.setSampleAt (index, Math.round (filtered [i]));
+                }
+            }
+        }
+        return output;
+    }
+}
@@ -1,5 +1,10 @@
 package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
 import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
 import org.apache.commons.math3.complex.Complex;
@@ -11,11 +16,66 @@ import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
  *
  * Change the volume of each frequencies range at each step of the sound
  *
+ * The curve is evaluated once for each spectrum length and sample rate : the
+ * gains of the bins are kept in a table shared by the equalizers with the same
+ * curve, so each step is a single multiplication pass.
+ *
  */
 public class EqualizerSoundTransform extends SimpleFrequencySoundTransform<Complex []> {
 
-    private final double [] ranges;
-    private final double [] amplification;
+    private static final class GainsKey {
+        private final double [] ranges;
+        private final double [] amplification;
+        private final int       spectrumLength;
+        private final float     sampleRate;
+
+        private GainsKey (final double [] ranges1, final double [] amplification1, final int spectrumLength1, final float sampleRate1) {
+            this.ranges = ranges1;
+            this.amplification = amplification1;
+            this.spectrumLength = spectrumLength1;
+            this.sampleRate = sampleRate1;
+        }
+
+        @Override
+        public boolean equals (final Object other) {
+            if (!(other instanceof GainsKey)) {
+                return false;
+            }
+            final GainsKey otherKey = (GainsKey) other;
+            return this.spectrumLength == otherKey.spectrumLength && Float.floatToIntBits (this.sampleRate) == Float.floatToIntBits (otherKey.sampleRate) && Arrays.equals (this.ranges, otherKey.ranges) && Arrays.equals (this.amplification, otherKey.amplification);
+        }
+
+        @Override
+        public int hashCode () {
+            int hash = Arrays.hashCode (this.ranges);
+            hash = hash * EqualizerSoundTransform.HASH_FACTOR + Arrays.hashCode (this.amplification);
+            hash = hash * EqualizerSoundTransform.HASH_FACTOR + this.spectrumLength;
+            return hash * EqualizerSoundTransform.HASH_FACTOR + Float.floatToIntBits (this.sampleRate);
+        }
+    }
+
+    private static final class GainsCache extends LinkedHashMap<GainsKey, double []> {
+
+        private static final long serialVersionUID = 4962331861547219308L;
+
+        private GainsCache () {
+            super (EqualizerSoundTransform.MAX_CACHED_TABLES, EqualizerSoundTransform.LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry (final Entry<GainsKey, double []> eldest) {
+            return this.size () > EqualizerSoundTransform.MAX_CACHED_TABLES;
+        }
+    }
+
+    private static final int                      HASH_FACTOR       = 31;
+    private static final float                    LOAD_FACTOR       = 0.75f;
+    private static final int                      MAX_CACHED_TABLES = 16;
+    private static final Map<GainsKey, double []> GAINS_CACHE       = new GainsCache ();
+
+    private final double []                       ranges;
+    private final double []                       amplification;
+    private PolynomialSplineFunction              psf;
 
     /**
      * Default constructor. A mathematical representation of a curve
@@ -32,20 +92,66 @@ public class EqualizerSoundTransform extends SimpleFrequencySoundTransform<Compl
         this.amplification = amplification1.clone ();
     }
 
+    @Override
+    public boolean rawSpectrumPrefered () {
+        return true;
+    }
+
     @Override
     public Spectrum<Complex []> transformFrequencies (final Spectrum<Complex []> fs, final int offset, final int powOf2NearestLength, final int length) {
-        final SplineInterpolator reg = new SplineInterpolator ();
+        final double [][] spectrumAsDoubles = ComplexArrays.toDoubles (fs.getState ());
+        this.transformFrequencies (spectrumAsDoubles, fs.getSampleRate (), offset, powOf2NearestLength, length);
+        return new Spectrum<Complex []> (ComplexArrays.toComplexesAndRelease (spectrumAsDoubles), new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+    }
+
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset, final int powOf2NearestLength, final int length) {
+        final double [] realPart = spectrumAsDoubles [0];
+        final double [] imaginaryPart = spectrumAsDoubles [1];
+        final double [] gains = this.getGains (realPart.length, sampleRate);
+        for (int j = 0 ; j < length ; j++) {
+            realPart [j] *= gains [j];
+            imaginaryPart [j] *= gains [j];
+        }
+        Arrays.fill (realPart, length, powOf2NearestLength, 0);
+        Arrays.fill (imaginaryPart, length, powOf2NearestLength, 0);
+    }
 
-        final PolynomialSplineFunction psf = reg.interpolate (this.ranges, this.amplification);
-        final Complex [] newAmpl = new Complex [powOf2NearestLength];
-        for (double j = 0 ; j < length ; j++) {
-            final double freq = j * fs.getSampleRate () / fs.getState ().length;
-            newAmpl [(int) j] = fs.getState () [(int) j].multiply (this.valueOrZero (psf, freq));
+    /**
+     * Gains of the bins of a spectrum. The returned array is shared and must
+     * not be modified.
+     *
+     * @param spectrumLength
+     *            number of bins of the spectrum
+     * @param sampleRate
+     *            sample rate of the sound
+     * @return the gain of each bin
+     */
+    double [] getGains (final int spectrumLength, final float sampleRate) {
+        final GainsKey key = new GainsKey (this.ranges, this.amplification, spectrumLength, sampleRate);
+        synchronized (EqualizerSoundTransform.GAINS_CACHE) {
+            final double [] cached = EqualizerSoundTransform.GAINS_CACHE.get (key);
+            if (cached != null) {
+                return cached;
+            }
         }
-        for (int j = length ; j < powOf2NearestLength ; j++) {
-            newAmpl [j] = new Complex (0, 0);
+        final PolynomialSplineFunction function = this.getFunction ();
+        final double [] gains = new double [spectrumLength];
+        for (int j = 0 ; j < spectrumLength ; j++) {
+            final double freq = (double) j * sampleRate / spectrumLength;
+            gains [j] = this.valueOrZero (function, freq);
+        }
+        synchronized (EqualizerSoundTransform.GAINS_CACHE) {
+            EqualizerSoundTransform.GAINS_CACHE.put (key, gains);
+        }
+        return gains;
+    }
+
+    private synchronized PolynomialSplineFunction getFunction () {
+        if (this.psf == null) {
+            this.psf = new SplineInterpolator ().interpolate (this.ranges, this.amplification);
         }
-        return new Spectrum<Complex []> (newAmpl, new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+        return this.psf;
     }
 
     private double valueOrZero (final PolynomialSplineFunction psf, final double freq) {
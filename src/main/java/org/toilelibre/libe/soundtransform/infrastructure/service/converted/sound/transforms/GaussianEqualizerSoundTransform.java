@@ -1,5 +1,7 @@
 package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.complex.Complex;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SimpleFrequencySoundTransform;
@@ -24,20 +26,33 @@ public class GaussianEqualizerSoundTransform extends SimpleFrequencySoundTransfo
         super ();
     }
 
-    private Complex function (final double x) {
-        return new Complex (1 - Math.exp (-Math.pow (x - GaussianEqualizerSoundTransform.DELTA_X, GaussianEqualizerSoundTransform.EXPONENT) / GaussianEqualizerSoundTransform.DIVISION) / GaussianEqualizerSoundTransform.HALF);
+    private double function (final double x) {
+        return 1 - Math.exp (-Math.pow (x - GaussianEqualizerSoundTransform.DELTA_X, GaussianEqualizerSoundTransform.EXPONENT) / GaussianEqualizerSoundTransform.DIVISION) / GaussianEqualizerSoundTransform.HALF;
+    }
+
+    @Override
+    public boolean rawSpectrumPrefered () {
+        return true;
     }
 
     @Override
     public Spectrum<Complex []> transformFrequencies (final Spectrum<Complex []> fs, final int offset, final int powOf2NearestLength, final int length) {
-        final Complex [] newAmpl = new Complex [powOf2NearestLength];
-        for (double j = 0 ; j < length ; j++) {
-            final double freq = j * fs.getSampleRate () / fs.getState ().length;
-            newAmpl [(int) j] = fs.getState () [(int) j].multiply (this.function (freq));
-        }
-        for (int j = length ; j < powOf2NearestLength ; j++) {
-            newAmpl [j] = new Complex (0, 0);
+        final double [][] spectrumAsDoubles = ComplexArrays.toDoubles (fs.getState ());
+        this.transformFrequencies (spectrumAsDoubles, fs.getSampleRate (), offset, powOf2NearestLength, length);
+        return new Spectrum<Complex []> (ComplexArrays.toComplexesAndRelease (spectrumAsDoubles), new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+    }
+
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset, final int powOf2NearestLength, final int length) {
+        final double [] realPart = spectrumAsDoubles [0];
+        final double [] imaginaryPart = spectrumAsDoubles [1];
+        for (int j = 0 ; j < length ; j++) {
+            final double freq = (double) j * sampleRate / realPart.length;
+            final double gain = this.function (freq);
+            realPart [j] *= gain;
+            imaginaryPart [j] *= gain;
         }
-        return new Spectrum<Complex []> (newAmpl, new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+        Arrays.fill (realPart, length, powOf2NearestLength, 0);
+        Arrays.fill (imaginaryPart, length, powOf2NearestLength, 0);
     }
 }
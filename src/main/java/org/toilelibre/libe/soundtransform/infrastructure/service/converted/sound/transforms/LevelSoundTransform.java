@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.ComputeMagnitudeSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
@@ -18,7 +19,7 @@ public class LevelSoundTransform implements SoundTransform<Channel, Channel> {
     public Channel transform (final Channel input) throws SoundTransformException {
         final double [] magnitudes = new ComputeMagnitudeSoundTransform (this.step).transform (input);
 
-        final long [] newdata = new long [input.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (input.getSamplesLength ());
 
         final double maxMagnitude = Math.pow (LevelSoundTransform.NB_BYTE_VALUES, input.getSampleSize ()) - 1;
 
@@ -30,7 +31,7 @@ public class LevelSoundTransform implements SoundTransform<Channel, Channel> {
         }
 
         // normalized result in newdata
-        return new Channel (newdata, input.getFormatInfo (), input.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, input.getFormatInfo (), input.getChannelNum ());
     }
 
 }
@@ -38,7 +38,7 @@ public class LinearRegressionSoundTransform implements SoundTransform<Channel, C
 
         final PolynomialSplineFunction psf = reg.interpolate (x, y);
 
-        final Channel outputSound = new Channel (new long [input.getSamplesLength ()], input.getFormatInfo (), input.getChannelNum ());
+        final Channel outputSound = new Channel (input.getSamplesLength (), input.getFormatInfo (), input.getChannelNum ());
         for (int i = 0 ; i < input.getSamplesLength () ; i++) {
             if (i < x [x.length - 1]) {
                 outputSound.setSampleAt (i, (long) psf.value (i));
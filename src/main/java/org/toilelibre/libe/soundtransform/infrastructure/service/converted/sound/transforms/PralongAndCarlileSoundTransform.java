@@ -16,8 +16,18 @@ public class PralongAndCarlileSoundTransform extends SimpleFrequencySoundTransfo
         this.decoratedSoundTransform = new EqualizerSoundTransform (PralongAndCarlileSoundTransform.RANGES, PralongAndCarlileSoundTransform.AMPLIFICATION);
     }
 
+    @Override
+    public boolean rawSpectrumPrefered () {
+        return this.decoratedSoundTransform.rawSpectrumPrefered ();
+    }
+
     @Override
     public Spectrum<Complex []> transformFrequencies (final Spectrum<Complex []> fs, final int offset, final int powOf2NearestLength, final int length) {
         return this.decoratedSoundTransform.transformFrequencies (fs, offset, powOf2NearestLength, length);
     }
+
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset, final int powOf2NearestLength, final int length) {
+        this.decoratedSoundTransform.transformFrequencies (spectrumAsDoubles, sampleRate, offset, powOf2NearestLength, length);
+    }
 }
@@ -29,22 +29,36 @@ public class PurifySoundTransform extends SimpleFrequencySoundTransform<Complex
         return PurifySoundTransform.DEFAULT_STEP_VALUE;
     }
 
+    @Override
+    public boolean rawSpectrumPrefered () {
+        return true;
+    }
+
     @Override
     public Spectrum<Complex []> transformFrequencies (final Spectrum<Complex []> fs, final int offset, final int powOf2NearestLength, final int length) {
-        final Complex [] newAmpl = new Complex [powOf2NearestLength];
+        final double [][] spectrumAsDoubles = ComplexArrays.toDoubles (fs.getState ());
+        this.transformFrequencies (spectrumAsDoubles, fs.getSampleRate (), offset, powOf2NearestLength, length);
+        return new Spectrum<Complex []> (ComplexArrays.toComplexesAndRelease (spectrumAsDoubles), fs.getFormatInfo ());
+    }
+
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset, final int powOf2NearestLength, final int length) {
+        final double [] realPart = spectrumAsDoubles [0];
+        final double [] imaginaryPart = spectrumAsDoubles [1];
         int max = 0;
         double maxValue = 0;
         for (int j = 0 ; j < length ; j++) {
-            final double tmp = Math.sqrt (Math.pow (fs.getState () [j].getReal (), PurifySoundTransform.EXPONENT) + Math.pow (fs.getState () [j].getImaginary (), PurifySoundTransform.EXPONENT));
-            if (tmp > maxValue && j > PurifySoundTransform.START_INDEX && j < fs.getSampleRate () / PurifySoundTransform.EXPONENT) {
+            final double tmp = Math.sqrt (Math.pow (realPart [j], PurifySoundTransform.EXPONENT) + Math.pow (imaginaryPart [j], PurifySoundTransform.EXPONENT));
+            if (tmp > maxValue && j > PurifySoundTransform.START_INDEX && j < sampleRate / PurifySoundTransform.EXPONENT) {
                 max = j;
                 maxValue = tmp;
             }
         }
         for (int j = 0 ; j < powOf2NearestLength ; j++) {
-            newAmpl [j] = fs.getState () [j].multiply (Math.exp (-Math.pow (j - max, PurifySoundTransform.EXPONENT) / PurifySoundTransform.COEFFICIENT));
+            final double gain = Math.exp (-Math.pow (j - max, PurifySoundTransform.EXPONENT) / PurifySoundTransform.COEFFICIENT);
+            realPart [j] *= gain;
+            imaginaryPart [j] *= gain;
         }
-        return new Spectrum<Complex []> (newAmpl, fs.getFormatInfo ());
     }
 
 }
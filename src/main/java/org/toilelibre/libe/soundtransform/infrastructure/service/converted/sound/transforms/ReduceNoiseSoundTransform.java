@@ -1,5 +1,7 @@
 package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.exception.OutOfRangeException;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
@@ -15,9 +17,10 @@ import org.toilelibre.libe.soundtransform.model.exception.SoundTransformExceptio
  */
 public class ReduceNoiseSoundTransform extends SimpleFrequencySoundTransform<Complex []> {
 
-    private static final float LOW_BOUND      = 0;
-    private static final float HIGH_BOUND     = 100;
-    private static final float BYTE_NB_VALUES = 1 << 8;
+    private static final float LOW_BOUND           = 0;
+    private static final float HIGH_BOUND          = 100;
+    private static final float BYTE_NB_VALUES      = 1 << 8;
+    private static final int   DEFAULT_SAMPLE_SIZE = 2;
 
     public enum ReduceNoiseSoundTransformErrorCode implements ErrorCode {
 
@@ -58,18 +61,45 @@ public class ReduceNoiseSoundTransform extends SimpleFrequencySoundTransform<Com
         return percentOfMaxVolumeThreshold1;
     }
 
+    @Override
+    public boolean rawSpectrumPrefered () {
+        return true;
+    }
+
     @Override
     public Spectrum<Complex []> transformFrequencies (final Spectrum<Complex []> fs, final int offset, final int powOf2NearestLength, final int length) {
+        final double [][] spectrumAsDoubles = ComplexArrays.toDoubles (fs.getState ());
+        this.reduceNoise (spectrumAsDoubles, fs.getSampleSize (), powOf2NearestLength, length);
+        return new Spectrum<Complex []> (ComplexArrays.toComplexesAndRelease (spectrumAsDoubles), new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+    }
 
-        final double threshold = this.getMaxAbs (fs.getSampleSize ());
-        final Complex [] newAmpl = new Complex [powOf2NearestLength];
-        for (double j = 0 ; j < length ; j++) {
-            newAmpl [(int) j] = fs.getState () [(int) j].multiply (this.oneIfTrueElseZero (fs.getState () [(int) j].abs () > threshold));
-        }
-        for (int j = length ; j < powOf2NearestLength ; j++) {
-            newAmpl [j] = new Complex (0, 0);
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final FormatInfo formatInfo, final int offset, final int powOf2NearestLength, final int length, final float soundLevel) {
+        this.reduceNoise (spectrumAsDoubles, formatInfo.getSampleSize (), powOf2NearestLength, length);
+    }
+
+    /**
+     * The threshold depends on the sample size, which the sample rate does not
+     * tell : this variant reduces the noise of a 16 bits sound (see
+     * {@link #transformFrequencies(double[][], FormatInfo, int, int, int, float)}
+     * for the other sample sizes)
+     */
+    @Override
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset, final int powOf2NearestLength, final int length) {
+        this.reduceNoise (spectrumAsDoubles, ReduceNoiseSoundTransform.DEFAULT_SAMPLE_SIZE, powOf2NearestLength, length);
+    }
+
+    private void reduceNoise (final double [][] spectrumAsDoubles, final int sampleSize1, final int powOf2NearestLength, final int length) {
+        final double threshold = this.getMaxAbs (sampleSize1);
+        final double [] realPart = spectrumAsDoubles [0];
+        final double [] imaginaryPart = spectrumAsDoubles [1];
+        for (int j = 0 ; j < length ; j++) {
+            final float gain = this.oneIfTrueElseZero (Math.sqrt (realPart [j] * realPart [j] + imaginaryPart [j] * imaginaryPart [j]) > threshold);
+            realPart [j] *= gain;
+            imaginaryPart [j] *= gain;
         }
-        return new Spectrum<Complex []> (newAmpl, new FormatInfo (fs.getSampleSize (), fs.getSampleRate ()));
+        Arrays.fill (realPart, length, powOf2NearestLength, 0);
+        Arrays.fill (imaginaryPart, length, powOf2NearestLength, 0);
     }
 
     private double getMaxAbs (final int sampleSize) {
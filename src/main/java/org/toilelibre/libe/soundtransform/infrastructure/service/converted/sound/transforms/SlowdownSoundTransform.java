@@ -4,6 +4,7 @@ import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.transform.DftNormalization;
 import org.apache.commons.math3.transform.FastFourierTransformer;
 import org.apache.commons.math3.transform.TransformType;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SimpleFrequencySoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
@@ -132,8 +133,8 @@ public class SlowdownSoundTransform extends SimpleFrequencySoundTransform<Comple
 
     @Override
     public Channel initSound (final Channel input) {
-        final long [] newdata = new long [(int) (input.getSamplesLength () * this.factor)];
-        this.sound = new Channel (newdata, input.getFormatInfo (), input.getChannelNum ());
+        final long [] newdata = ArrayPool.takeLongs ((int) (input.getSamplesLength () * this.factor));
+        this.sound = Channel.ownPooledSamples (newdata, input.getFormatInfo (), input.getChannelNum ());
         return this.sound;
     }
 
@@ -0,0 +1,179 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.toilelibre.libe.soundtransform.infrastructure.service.fourier.FourierTransformPlan;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HanningWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Changes the length of a sound without shifting the frequencies (phase
+ * vocoder). The output frames are a quarter of frame apart, the input frames
+ * are read factor times closer (or farther), and the phase of each bin is
+ * propagated from its measured frequency, so the partials stay continuous
+ * across the frames.
+ *
+ * Each output hop costs one forward and one inverse fourier transform. The
+ * working arrays are taken once per sound, and the output is overlap-added in
+ * a ring buffer of one frame.
+ */
+public class TimeStretchSoundTransform implements SoundTransform<Channel, Channel> {
+
+    public enum TimeStretchSoundTransformErrorCode implements ErrorCode {
+
+        NOT_A_POSITIVE_FACTOR ("The stretch factor must be positive (%1f)"), FRAME_LENGTH_IS_NOT_A_POWER_OF_2 ("Frame length is not a power of 2 greater than or equal to %2d (%1d)");
+
+        private final String messageFormat;
+
+        TimeStretchSoundTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private static final int    DEFAULT_FRAME_LENGTH = 2048;
+    private static final int    OVERLAP              = 4;
+    private static final float  NO_FACTOR            = 0;
+    private static final double TWO_PI               = 2 * Math.PI;
+
+    private final float         factor;
+    private final int           frameLength;
+
+    /**
+     * Default constructor
+     *
+     * @param factor1
+     *            the length of the output divided by the length of the input
+     * @throws SoundTransformException
+     *             if the factor is not positive
+     */
+    public TimeStretchSoundTransform (final float factor1) throws SoundTransformException {
+        this (factor1, TimeStretchSoundTransform.DEFAULT_FRAME_LENGTH);
+    }
+
+    /**
+     * Constructor with a frame length
+     *
+     * @param factor1
+     *            the length of the output divided by the length of the input
+     * @param frameLength1
+     *            the length of a frame, a power of 2 (longer frames separate
+     *            the low frequencies better, shorter ones smear the attacks
+     *            less)
+     * @throws SoundTransformException
+     *             if the factor is not positive, or if the frame length is not
+     *             a power of 2
+     */
+    public TimeStretchSoundTransform (final float factor1, final int frameLength1) throws SoundTransformException {
+        if (factor1 <= TimeStretchSoundTransform.NO_FACTOR || Float.isInfinite (factor1) || Float.isNaN (factor1)) {
+            throw new SoundTransformException (TimeStretchSoundTransformErrorCode.NOT_A_POSITIVE_FACTOR, new IllegalArgumentException (), factor1);
+        }
+        if (frameLength1 < TimeStretchSoundTransform.OVERLAP || (frameLength1 & frameLength1 - 1) != 0) {
+            throw new SoundTransformException (TimeStretchSoundTransformErrorCode.FRAME_LENGTH_IS_NOT_A_POWER_OF_2, new IllegalArgumentException (), frameLength1, TimeStretchSoundTransform.OVERLAP);
+        }
+        this.factor = factor1;
+        this.frameLength = frameLength1;
+    }
+
+    @Override
+    public Channel transform (final Channel input) {
+        final int outputLength = (int) (input.getSamplesLength () * this.factor);
+        final Channel output = new Channel (outputLength, input.getFormatInfo (), input.getChannelNum ());
+        final int length = this.frameLength;
+        final int half = length / 2;
+        final int synthesisHop = length / TimeStretchSoundTransform.OVERLAP;
+        final double analysisHop = synthesisHop / (double) this.factor;
+        final FourierTransformPlan plan = FourierTransformPlan.forLength (length);
+
+        // periodic window, used before the transform and after the reverse
+        // one
+        final double [] window = new HanningWindowSoundTransform ().getCoefficients (length + 1);
+        double normalization = 0;
+        for (int i = 0 ; i < length ; i += synthesisHop) {
+            normalization += window [i] * window [i];
+        }
+
+        final double [] realPart = ArrayPool.takeDoubles (length);
+        final double [] imaginaryPart = ArrayPool.takeDoubles (length);
+        final double [] outputRing = ArrayPool.takeDoubles (length);
+        final double [] previousPhases = ArrayPool.takeDoubles (half + 1);
+        final double [] synthesisPhases = ArrayPool.takeDoubles (half + 1);
+        final double [] frequencies = ArrayPool.takeDoubles (half + 1);
+
+        // the first frames start before the sound, so that its first samples
+        // are covered by as many frames as the others
+        final int firstFrame = 1 - TimeStretchSoundTransform.OVERLAP;
+        int previousPosition = 0;
+        for (int frame = firstFrame ; frame * synthesisHop < outputLength ; frame++) {
+            final int position = (int) Math.round (frame * analysisHop);
+            for (int i = 0 ; i < length ; i++) {
+                final int index = position + i;
+                realPart [i] = index >= 0 && index < input.getSamplesLength () ? input.getSampleAt (index) * window [i] : 0;
+            }
+            plan.forwardReal (realPart, imaginaryPart);
+            this.propagatePhases (realPart, imaginaryPart, previousPhases, synthesisPhases, frequencies, frame == firstFrame, position - previousPosition, synthesisHop);
+            previousPosition = position;
+            plan.inverseReal (realPart, imaginaryPart);
+
+            final int ringStart = (frame - firstFrame) * synthesisHop % length;
+            for (int i = 0 ; i < length ; i++) {
+                outputRing [(ringStart + i) % length] += realPart [i] * window [i] / normalization;
+            }
+            // no other frame will add anything to the next hop samples
+            for (int i = 0 ; i < synthesisHop ; i++) {
+                final int index = frame * synthesisHop + i;
+                final int ringIndex = (ringStart + i) % length;
+                if (index >= 0 && index < outputLength) {
+                    output.setSampleAt (index, Math.round (outputRing [ringIndex]));
+                }
+                outputRing [ringIndex] = 0;
+            }
+        }
+
+        ArrayPool.release (realPart);
+        ArrayPool.release (imaginaryPart);
+        ArrayPool.release (outputRing);
+        ArrayPool.release (previousPhases);
+        ArrayPool.release (synthesisPhases);
+        ArrayPool.release (frequencies);
+        return output;
+    }
+
+    private void propagatePhases (final double [] realPart, final double [] imaginaryPart, final double [] previousPhases, final double [] synthesisPhases, final double [] frequencies, final boolean firstFrame, final int analysisHop, final int synthesisHop) {
+        final int length = realPart.length;
+        final int half = length / 2;
+        for (int k = 0 ; k <= half ; k++) {
+            final double magnitude = Math.sqrt (realPart [k] * realPart [k] + imaginaryPart [k] * imaginaryPart [k]);
+            final double phase = Math.atan2 (imaginaryPart [k], realPart [k]);
+            final double binFrequency = TimeStretchSoundTransform.TWO_PI * k / length;
+            if (firstFrame) {
+                frequencies [k] = binFrequency;
+                synthesisPhases [k] = phase;
+            } else {
+                if (analysisHop > 0) {
+                    // deviation from the frequency of the bin, measured on
+                    // the analysis hop
+                    double deviation = phase - previousPhases [k] - binFrequency * analysisHop;
+                    deviation -= TimeStretchSoundTransform.TWO_PI * Math.round (deviation / TimeStretchSoundTransform.TWO_PI);
+                    frequencies [k] = binFrequency + deviation / analysisHop;
+                }
+                synthesisPhases [k] += frequencies [k] * synthesisHop;
+                // keeps the precision on long sounds
+                synthesisPhases [k] -= TimeStretchSoundTransform.TWO_PI * Math.floor (synthesisPhases [k] / TimeStretchSoundTransform.TWO_PI);
+            }
+            previousPhases [k] = phase;
+            realPart [k] = magnitude * Math.cos (synthesisPhases [k]);
+            imaginaryPart [k] = magnitude * Math.sin (synthesisPhases [k]);
+        }
+        for (int k = 1 ; k < half ; k++) {
+            realPart [length - k] = realPart [k];
+            imaginaryPart [length - k] = -imaginaryPart [k];
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HanningWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Changes the length of a sound without shifting the frequencies, in the time
+ * domain (waveform similarity overlap-add). The output is made of half
+ * overlapping frames of the input. Each frame is read around its nominal
+ * position (the output position divided by the factor), at the offset where
+ * it looks the most like the natural continuation of the previous frame, so
+ * the periods of the sound are not broken.
+ *
+ * The offset is searched within a bounded tolerance, and there is no fourier
+ * transform : this is much cheaper than a phase vocoder, for a result good
+ * enough for short notes.
+ */
+public class WsolaSoundTransform implements SoundTransform<Channel, Channel> {
+
+    public enum WsolaSoundTransformErrorCode implements ErrorCode {
+
+        NOT_A_POSITIVE_FACTOR ("The stretch factor must be positive (%1f)"), TOLERANCE_TOO_HIGH ("The tolerance (%2d) must be between 0 and the half of the frame length (%1d)");
+
+        private final String messageFormat;
+
+        WsolaSoundTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private static final int   DEFAULT_FRAME_LENGTH = 512;
+    private static final int   DEFAULT_TOLERANCE    = 64;
+    private static final float NO_FACTOR            = 0;
+
+    private final float        factor;
+    private final int          frameLength;
+    private final int          tolerance;
+
+    /**
+     * Default constructor
+     *
+     * @param factor1
+     *            the length of the output divided by the length of the input
+     * @throws SoundTransformException
+     *             if the factor is not positive
+     */
+    public WsolaSoundTransform (final float factor1) throws SoundTransformException {
+        this (factor1, WsolaSoundTransform.DEFAULT_FRAME_LENGTH, WsolaSoundTransform.DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Constructor with the frame length and the tolerance
+     *
+     * @param factor1
+     *            the length of the output divided by the length of the input
+     * @param frameLength1
+     *            the length of a frame (an even number of samples, longer than
+     *            the period of the lowest frequency)
+     * @param tolerance1
+     *            the maximum distance between a frame and its nominal position
+     *            (the cost of the search is proportional to it)
+     * @throws SoundTransformException
+     *             if the factor is not positive, or if the tolerance is not
+     *             between 0 and the half of the frame length
+     */
+    public WsolaSoundTransform (final float factor1, final int frameLength1, final int tolerance1) throws SoundTransformException {
+        if (factor1 <= WsolaSoundTransform.NO_FACTOR || Float.isInfinite (factor1) || Float.isNaN (factor1)) {
+            throw new SoundTransformException (WsolaSoundTransformErrorCode.NOT_A_POSITIVE_FACTOR, new IllegalArgumentException (), factor1);
+        }
+        if (tolerance1 < 0 || tolerance1 > frameLength1 / 2) {
+            throw new SoundTransformException (WsolaSoundTransformErrorCode.TOLERANCE_TOO_HIGH, new IllegalArgumentException (), frameLength1, tolerance1);
+        }
+        this.factor = factor1;
+        this.frameLength = frameLength1 + frameLength1 % 2;
+        this.tolerance = tolerance1;
+    }
+
+    @Override
+    public Channel transform (final Channel input) {
+        final int outputLength = (int) (input.getSamplesLength () * this.factor);
+        final Channel output = new Channel (outputLength, input.getFormatInfo (), input.getChannelNum ());
+        final int hop = this.frameLength / 2;
+        // periodic window : two frames half overlapping add up to 1
+        final double [] window = new HanningWindowSoundTransform ().getCoefficients (this.frameLength + 1);
+        final double [] overlap = ArrayPool.takeDoubles (hop);
+        final double [] template = ArrayPool.takeDoubles (hop);
+        final double [] searchArea = ArrayPool.takeDoubles (hop + 2 * this.tolerance);
+
+        // the first frame starts before the sound, so that the first samples
+        // are covered by two frames as the others
+        int previousPosition = -hop;
+        for (int frame = -1 ; frame * hop < outputLength ; frame++) {
+            final int position = frame == -1 ? -hop : this.bestPosition (input, (int) Math.round (frame * hop / (double) this.factor), previousPosition + hop, template, searchArea);
+            for (int i = 0 ; i < hop ; i++) {
+                final int index = frame * hop + i;
+                final double sample = overlap [i] + window [i] * this.sampleAt (input, position + i);
+                if (index >= 0 && index < outputLength) {
+                    output.setSampleAt (index, Math.round (sample));
+                }
+                // second half of the frame, waiting for the next one
+                overlap [i] = window [hop + i] * this.sampleAt (input, position + hop + i);
+            }
+            previousPosition = position;
+        }
+        ArrayPool.release (overlap);
+        ArrayPool.release (template);
+        ArrayPool.release (searchArea);
+        return output;
+    }
+
+    /**
+     * Position around the nominal one where the frame is the most similar to
+     * the natural continuation of the previous frame (cross correlation of
+     * their overlapping halves, normalized by the energy of the candidate so
+     * that the louder parts are not preferred)
+     */
+    private int bestPosition (final Channel input, final int nominalPosition, final int naturalPosition, final double [] template, final double [] searchArea) {
+        for (int i = 0 ; i < template.length ; i++) {
+            template [i] = this.sampleAt (input, naturalPosition + i);
+        }
+        final int searchStart = nominalPosition - this.tolerance;
+        for (int i = 0 ; i < searchArea.length ; i++) {
+            searchArea [i] = this.sampleAt (input, searchStart + i);
+        }
+        double energy = 0;
+        for (int i = 0 ; i < template.length ; i++) {
+            energy += searchArea [i] * searchArea [i];
+        }
+        // the nominal position wins the ties
+        int bestPosition = nominalPosition;
+        double bestSimilarity = this.similarity (searchArea, this.tolerance, template);
+        for (int delta = 0 ; delta <= 2 * this.tolerance ; delta++) {
+            if (delta > 0) {
+                // sliding energy of the candidate
+                final double leaving = searchArea [delta - 1];
+                final double entering = searchArea [delta + template.length - 1];
+                energy += entering * entering - leaving * leaving;
+            }
+            final double similarity = energy > 0 ? this.correlation (searchArea, delta, template) / Math.sqrt (energy) : 0;
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                bestPosition = searchStart + delta;
+            }
+        }
+        return bestPosition;
+    }
+
+    private double similarity (final double [] searchArea, final int delta, final double [] template) {
+        double energy = 0;
+        for (int i = 0 ; i < template.length ; i++) {
+            energy += searchArea [delta + i] * searchArea [delta + i];
+        }
+        return energy > 0 ? this.correlation (searchArea, delta, template) / Math.sqrt (energy) : 0;
+    }
+
+    private double correlation (final double [] searchArea, final int delta, final double [] template) {
+        double correlation = 0;
+        for (int i = 0 ; i < template.length ; i++) {
+            correlation += searchArea [delta + i] * template [i];
+        }
+        return correlation;
+    }
+
+    private double sampleAt (final Channel input, final int index) {
+        return index >= 0 && index < input.getSamplesLength () ? input.getSampleAt (index) : 0;
+    }
+}
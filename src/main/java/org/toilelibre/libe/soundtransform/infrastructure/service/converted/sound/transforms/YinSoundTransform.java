@@ -0,0 +1,218 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import java.io.Serializable;
+
+import org.toilelibre.libe.soundtransform.infrastructure.service.fourier.FourierTransformPlan;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CacheKeyDescribed;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
+
+/**
+ * Peak find algorithm using the YIN method : the difference between the
+ * window and the window delayed by t is the smallest when t is the period of
+ * the sound. The difference is normalized by its mean over the smaller delays
+ * (so that the delay 0 is not chosen), the first delay under a threshold is
+ * taken, and refined by a parabolic interpolation. Finally, f0 is 1 / t0.
+ *
+ * The autocorrelation part of the difference of all the delays is computed
+ * with one forward and one reverse fourier transform per window, in working
+ * arrays taken once per sound. The volume is the level of the loudest window.
+ */
+public class YinSoundTransform extends AbstractLogAware<YinSoundTransform> implements PeakFindSoundTransform<Serializable, AbstractLogAware<YinSoundTransform>>, CacheKeyDescribed {
+
+    private static final double A_HUNDRED_PERCENT   = 100.0;
+    private static final double DEFAULT_THRESHOLD   = 0.15;
+    private static final float  COEFFICIENT         = 10.0f;
+    private static final float  MIN_LEVEL_IN_DB     = 30;
+    // peak to peak amplitude of a sine from its mean square
+    private static final double PEAK_TO_PEAK_FACTOR = 2 * Math.sqrt (2);
+
+    private final int           window;
+    private final int           step;
+    private final int           minFreq;
+    private final int           maxFreq;
+    private final double        threshold;
+    private float               detectedNoteVolume;
+
+    /**
+     * Default constructor
+     *
+     * @param window1
+     *            the integration window length (in samples) of each
+     *            iteration, at least the period of the lowest frequency
+     * @param step1
+     *            the iteration step value
+     * @param minFreq1
+     *            the lowest possible detected frequency
+     * @param maxFreq1
+     *            the highest possible detected frequency
+     */
+    public YinSoundTransform (final int window1, final int step1, final int minFreq1, final int maxFreq1) {
+        this (window1, step1, minFreq1, maxFreq1, YinSoundTransform.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor with a threshold
+     *
+     * @param window1
+     *            the integration window length (in samples) of each
+     *            iteration, at least the period of the lowest frequency
+     * @param step1
+     *            the iteration step value
+     * @param minFreq1
+     *            the lowest possible detected frequency
+     * @param maxFreq1
+     *            the highest possible detected frequency
+     * @param threshold1
+     *            the normalized difference under which a delay is a period
+     *            (the lower, the less octave errors, but the more unvoiced
+     *            windows)
+     */
+    public YinSoundTransform (final int window1, final int step1, final int minFreq1, final int maxFreq1, final double threshold1) {
+        super ();
+        this.window = window1;
+        this.step = step1;
+        this.minFreq = minFreq1;
+        this.maxFreq = maxFreq1;
+        this.threshold = threshold1;
+    }
+
+    @Override
+    public float [] transform (final Channel input) throws SoundTransformException {
+        final int minDelay = Math.max (2, (int) Math.floor (input.getSampleRate () / this.maxFreq));
+        final int maxDelay = Math.max (minDelay + 1, (int) Math.ceil (input.getSampleRate () / this.minFreq));
+        final int frameLength = this.window + maxDelay + 1;
+        // the delays are shorter than the frame : no circular wrap up
+        final int length = Integer.highestOneBit (frameLength - 1) << 1;
+        final FourierTransformPlan plan = FourierTransformPlan.forLength (length);
+
+        final double [] frame = ArrayPool.takeDoubles (frameLength);
+        final double [] energies = ArrayPool.takeDoubles (frameLength + 1);
+        final double [] differences = ArrayPool.takeDoubles (maxDelay + 2);
+        final double [] signalRealPart = ArrayPool.takeDoubles (length);
+        final double [] signalImaginaryPart = ArrayPool.takeDoubles (length);
+        final double [] windowRealPart = ArrayPool.takeDoubles (length);
+        final double [] windowImaginaryPart = ArrayPool.takeDoubles (length);
+
+        this.detectedNoteVolume = 0;
+        final float [] loudestFreqs = new float [input.getSamplesLength () / this.step + 1];
+        for (int momentOfTheSound = 0 ; momentOfTheSound < input.getSamplesLength () ; momentOfTheSound += this.step) {
+            final int percent = (int) Math.floor (YinSoundTransform.A_HUNDRED_PERCENT * (momentOfTheSound * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step));
+            if (percent > Math.floor (YinSoundTransform.A_HUNDRED_PERCENT * ((momentOfTheSound - this.step) * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step))) {
+                this.log (new LogEvent (PeakFindSoundTransformEventCode.ITERATION_IN_PROGRESS, momentOfTheSound / this.step, (int) Math.ceil (input.getSamplesLength () * 1.0 / this.step), percent));
+            }
+            for (int i = 0 ; i < frameLength ; i++) {
+                final int index = momentOfTheSound + i;
+                frame [i] = index < input.getSamplesLength () ? input.getSampleAt (index) : 0;
+                energies [i + 1] = energies [i] + frame [i] * frame [i];
+            }
+            final float level = (float) (YinSoundTransform.COEFFICIENT * Math.log10 (YinSoundTransform.PEAK_TO_PEAK_FACTOR * Math.sqrt (energies [this.window] / this.window)));
+            this.detectedNoteVolume = Math.max (this.detectedNoteVolume, level);
+            if (level <= YinSoundTransform.MIN_LEVEL_IN_DB) {
+                continue;
+            }
+            this.autocorrelation (plan, frame, signalRealPart, signalImaginaryPart, windowRealPart, windowImaginaryPart);
+            this.normalizedDifferences (energies, signalRealPart, differences, maxDelay);
+            final double period = this.period (differences, minDelay, maxDelay);
+            loudestFreqs [momentOfTheSound / this.step] = period == 0 ? 0 : (float) (input.getSampleRate () / period);
+        }
+
+        ArrayPool.release (frame);
+        ArrayPool.release (energies);
+        ArrayPool.release (differences);
+        ArrayPool.release (signalRealPart);
+        ArrayPool.release (signalImaginaryPart);
+        ArrayPool.release (windowRealPart);
+        ArrayPool.release (windowImaginaryPart);
+        return loudestFreqs;
+    }
+
+    /**
+     * Cross correlation of the integration window with the whole frame, for
+     * all the delays at once : the product of the spectrum of the frame by
+     * the conjugate of the spectrum of the window. The result is in the real
+     * part of the signal.
+     */
+    private void autocorrelation (final FourierTransformPlan plan, final double [] frame, final double [] signalRealPart, final double [] signalImaginaryPart, final double [] windowRealPart, final double [] windowImaginaryPart) {
+        final int length = signalRealPart.length;
+        for (int i = 0 ; i < length ; i++) {
+            signalRealPart [i] = i < frame.length ? frame [i] : 0;
+            windowRealPart [i] = i < this.window ? frame [i] : 0;
+        }
+        plan.forwardReal (signalRealPart, signalImaginaryPart);
+        plan.forwardReal (windowRealPart, windowImaginaryPart);
+        for (int k = 0 ; k < length ; k++) {
+            final double realPart = windowRealPart [k] * signalRealPart [k] + windowImaginaryPart [k] * signalImaginaryPart [k];
+            final double imaginaryPart = windowRealPart [k] * signalImaginaryPart [k] - windowImaginaryPart [k] * signalRealPart [k];
+            signalRealPart [k] = realPart;
+            signalImaginaryPart [k] = imaginaryPart;
+        }
+        plan.inverseReal (signalRealPart, signalImaginaryPart);
+    }
+
+    /**
+     * Cumulative mean normalized difference : the difference of a delay t is
+     * the energy of the window, plus the energy of the window delayed by t,
+     * minus twice their correlation, divided by the mean of the differences
+     * of the delays 1 to t
+     */
+    private void normalizedDifferences (final double [] energies, final double [] correlations, final double [] differences, final int maxDelay) {
+        differences [0] = 1;
+        double sum = 0;
+        for (int delay = 1 ; delay <= maxDelay + 1 ; delay++) {
+            final double difference = Math.max (0, energies [this.window] + energies [delay + this.window] - energies [delay] - 2 * correlations [delay]);
+            sum += difference;
+            differences [delay] = sum == 0 ? 1 : difference * delay / sum;
+        }
+    }
+
+    /**
+     * First delay under the threshold (at the bottom of its dip), or the
+     * lowest difference if none is, refined by a parabolic interpolation.
+     */
+    private double period (final double [] differences, final int minDelay, final int maxDelay) {
+        int found = -1;
+        for (int delay = minDelay ; delay <= maxDelay && found == -1 ; delay++) {
+            if (differences [delay] < this.threshold) {
+                found = delay;
+                while (found + 1 <= maxDelay && differences [found + 1] < differences [found]) {
+                    found++;
+                }
+            }
+        }
+        if (found == -1) {
+            found = minDelay;
+            for (int delay = minDelay + 1 ; delay <= maxDelay ; delay++) {
+                if (differences [delay] < differences [found]) {
+                    found = delay;
+                }
+            }
+            if (differences [found] >= 1) {
+                // no periodicity at all (noise)
+                return 0;
+            }
+        }
+        final double previous = differences [found - 1];
+        final double current = differences [found];
+        final double next = differences [found + 1];
+        final double curvature = previous - 2 * current + next;
+        if (curvature <= 0) {
+            return found;
+        }
+        return found + (previous - next) / (2 * curvature);
+    }
+
+    @Override
+    public String getCacheKeyDescription () {
+        return "window=" + this.window + ", step=" + this.step + ", minFreq=" + this.minFreq + ", maxFreq=" + this.maxFreq + ", threshold=" + this.threshold;
+    }
+
+    @Override
+    public float getDetectedNoteVolume () {
+        return this.detectedNoteVolume;
+    }
+}
@@ -0,0 +1,265 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.complex.Complex;
+import org.toilelibre.libe.soundtransform.model.converted.AnalysisExecutor;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.AbstractFrequencySoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.AbstractWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.FourierTransformHelper;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeException;
+
+/**
+ * Windowing loop shared by the fourier transform helpers. The implementations
+ * only give the fast fourier transform itself.
+ *
+ * An analysis transform opting in for parallelism has its windows dealt in
+ * turn to several threads of the shared AnalysisExecutor, the calling thread
+ * taking its own part. Each thread has its own working arrays, and each
+ * window writes its result in its own slot of the transform, so the result
+ * does not depend on the order of the threads. The calling thread has
+ * windows all along the sound, and only its windows are logged.
+ */
+abstract class AbstractFourierTransformHelper implements FourierTransformHelper<Complex []> {
+
+    public enum FourierTransformHelperErrorCode implements ErrorCode {
+        PARALLEL_TRANSFORM_INTERRUPTED ("The parallel transform has been interrupted"), PARALLEL_TRANSFORM_FAILED ("The parallel transform failed");
+
+        private final String messageFormat;
+
+        FourierTransformHelperErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private final class WindowsBlock implements Callable<Void> {
+        private final AbstractFrequencySoundTransform<Complex []> targetSoundTransform;
+        private final Channel                                     sound;
+        private final int []                                      offsets;
+        private final int                                         firstWindow;
+        private final int                                         windowStep;
+
+        private WindowsBlock (final AbstractFrequencySoundTransform<Complex []> targetSoundTransform1, final Channel sound1, final int [] offsets1, final int firstWindow1, final int windowStep1) {
+            this.targetSoundTransform = targetSoundTransform1;
+            this.sound = sound1;
+            this.offsets = offsets1;
+            this.firstWindow = firstWindow1;
+            this.windowStep = windowStep1;
+        }
+
+        @Override
+        public Void call () {
+            final double [] transformeddata = ArrayPool.takeDoubles (this.targetSoundTransform.getWindowLength (this.sound.getSampleRate ()));
+            final double [] imaginaryPart = ArrayPool.takeDoubles (transformeddata.length);
+            for (int window = this.firstWindow ; window < this.offsets.length ; window += this.windowStep) {
+                AbstractFourierTransformHelper.this.stepInto (this.targetSoundTransform, this.sound, null, transformeddata, imaginaryPart, this.offsets [window]);
+            }
+            ArrayPool.release (transformeddata);
+            ArrayPool.release (imaginaryPart);
+            return null;
+        }
+    }
+
+    private static final float COEFFICIENT = 10.0f;
+
+    /**
+     * Forward transform of a real signal
+     *
+     * @param realPart
+     *            the signal, which is left unchanged
+     * @return the spectrum
+     */
+    protected abstract Complex [] forward (double [] realPart);
+
+    /**
+     * Forward transform of a real signal, in place
+     *
+     * @param realPart
+     *            the signal, then the real part of the spectrum
+     * @param imaginaryPart
+     *            the imaginary part of the spectrum (the previous values are
+     *            ignored)
+     */
+    protected abstract void forwardInPlace (double [] realPart, double [] imaginaryPart);
+
+    /**
+     * Inverse transform of a spectrum
+     *
+     * @param spectrum
+     *            the spectrum
+     * @return the real part of the signal, given by the array pool
+     */
+    protected abstract double [] inverseRealPart (Complex [] spectrum);
+
+    /**
+     * Inverse transform of a spectrum, in place
+     *
+     * @param realPart
+     *            real part of the spectrum, then the real part of the signal
+     * @param imaginaryPart
+     *            imaginary part of the spectrum, then a working array
+     */
+    protected abstract void inverseInPlace (double [] realPart, double [] imaginaryPart);
+
+    @Override
+    public Channel reverse (final Spectrum<Complex []> spectrum) {
+        return this.reverse (spectrum, null);
+    }
+
+    public Channel reverse (final Spectrum<Complex []> spectrum, final Channel output) {
+        return this.reverse (spectrum, output, 0);
+    }
+
+    public Channel reverse (final Spectrum<Complex []> spectrum, final Channel output, final int startOffset) {
+        Channel output1 = output;
+        final double [] realPart = this.inverseRealPart (spectrum.getState ());
+
+        if (output == null) {
+            output1 = new Channel (realPart.length, spectrum.getFormatInfo (), 0);
+        }
+        this.writeSignal (realPart, output1, startOffset);
+        ArrayPool.release (realPart);
+        return output1;
+    }
+
+    private void writeSignal (final double [] realPart, final Channel output, final int startOffset) {
+        for (int i = 0 ; i < realPart.length ; i++) {
+            final int index = i + startOffset;
+            if (index < output.getSamplesLength () && output.getSampleAt (index) == 0) {
+                output.setSampleAt (index, (long) Math.floor (realPart [i]));
+            }
+        }
+    }
+
+    @Override
+    public Channel transform (final AbstractFrequencySoundTransform<Complex []> targetSoundTransform, final Channel sound) {
+        final Channel output = targetSoundTransform.initSound (sound);
+        final int parallelism = targetSoundTransform.getParallelism ();
+        if (parallelism > 1) {
+            this.transformInParallel (targetSoundTransform, sound, parallelism);
+            return output;
+        }
+        final double [] transformeddata = ArrayPool.takeDoubles (targetSoundTransform.getWindowLength (sound.getSampleRate ()));
+        final double [] imaginaryPart = ArrayPool.takeDoubles (transformeddata.length);
+        for (int i = 0 ; i < sound.getSamplesLength () ; i += targetSoundTransform.getStep (sound.getSampleRate ())) {
+            this.stepInto (targetSoundTransform, sound, output, transformeddata, imaginaryPart, i);
+        }
+        ArrayPool.release (transformeddata);
+        ArrayPool.release (imaginaryPart);
+        return output;
+    }
+
+    private void transformInParallel (final AbstractFrequencySoundTransform<Complex []> targetSoundTransform, final Channel sound, final int parallelism) {
+        final int [] offsets = this.windowOffsets (targetSoundTransform, sound);
+        final int blocks = Math.min (parallelism, offsets.length);
+        if (blocks == 0) {
+            return;
+        }
+        final List<Future<Void>> futures = new ArrayList<Future<Void>> (blocks - 1);
+        try {
+            for (int block = 1 ; block < blocks ; block++) {
+                futures.add (AnalysisExecutor.get ().submit (new WindowsBlock (targetSoundTransform, sound, offsets, block, blocks)));
+            }
+            new WindowsBlock (targetSoundTransform, sound, offsets, 0, blocks).call ();
+            for (final Future<Void> future : futures) {
+                future.get ();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread ().interrupt ();
+            throw new SoundTransformRuntimeException (FourierTransformHelperErrorCode.PARALLEL_TRANSFORM_INTERRUPTED, ie);
+        } catch (final ExecutionException ee) {
+            if (ee.getCause () instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause ();
+            }
+            throw new SoundTransformRuntimeException (FourierTransformHelperErrorCode.PARALLEL_TRANSFORM_FAILED, ee);
+        } finally {
+            for (final Future<Void> future : futures) {
+                future.cancel (true);
+            }
+        }
+    }
+
+    private int [] windowOffsets (final AbstractFrequencySoundTransform<Complex []> targetSoundTransform, final Channel sound) {
+        // same iteration as the sequential loop
+        int windows = 0;
+        for (int i = 0 ; i < sound.getSamplesLength () ; i += targetSoundTransform.getStep (sound.getSampleRate ())) {
+            windows++;
+        }
+        final int [] offsets = new int [windows];
+        int window = 0;
+        for (int i = 0 ; i < sound.getSamplesLength () ; i += targetSoundTransform.getStep (sound.getSampleRate ())) {
+            offsets [window++] = i;
+        }
+        return offsets;
+    }
+
+    private void stepInto (final AbstractFrequencySoundTransform<Complex []> targetSoundTransform, final Channel sound, final Channel output, final double [] transformeddata, final double [] imaginaryPart, final int i) {
+        final double step = targetSoundTransform.getStep (sound.getSampleRate ());
+        final int maxlength = targetSoundTransform.getWindowLength (sound.getSampleRate ());
+        final int iterationLength = Math.min (maxlength, sound.getSamplesLength () - i);
+        final double amplitude = this.writeTransformedDataAndReturnAmplitude (targetSoundTransform.getWindowTransform (), transformeddata, sound, i, (int) step, iterationLength);
+        final float volumeInDb = (float) (AbstractFourierTransformHelper.COEFFICIENT * Math.log10 (amplitude));
+
+        if (targetSoundTransform.rawSpectrumPrefered ()) {
+            this.forwardInPlace (transformeddata, imaginaryPart);
+            targetSoundTransform.transformFrequencies (new double [] [] { transformeddata, imaginaryPart }, sound.getFormatInfo (), i, maxlength, iterationLength, volumeInDb);
+
+            if (targetSoundTransform.isReverseNecessary ()) {
+                // the spectrum has been modified in place
+                this.inverseInPlace (transformeddata, imaginaryPart);
+                this.writeSignal (transformeddata, output, i + targetSoundTransform.getOffsetFromASimpleLoop (i, sound.getSampleRate ()));
+            }
+        } else {
+            final Spectrum<Complex []> spectrum = new Spectrum<Complex []> (this.forward (transformeddata), sound.getFormatInfo ());
+            final Spectrum<Complex []> result = targetSoundTransform.transformFrequencies (spectrum, i, maxlength, iterationLength, volumeInDb);
+
+            if (result == null) {
+                return;
+            }
+
+            if (targetSoundTransform.isReverseNecessary ()) {
+                this.reverse (result, output, i + targetSoundTransform.getOffsetFromASimpleLoop (i, sound.getSampleRate ()));
+            }
+        }
+    }
+
+    private double writeTransformedDataAndReturnAmplitude (final AbstractWindowSoundTransform windowSoundTransform, final double [] transformeddata, final Channel channel, final int i, final int step, final int iterationLength) {
+        final double [] windowCoefficients = windowSoundTransform.getCoefficients (iterationLength);
+        long maxValue = 0;
+        long minValue = Long.MAX_VALUE;
+        for (int j = i ; j < i + iterationLength ; j++) {
+            final long sample = channel.getSampleAt (j);
+            if (j - i < step) {
+                // maxValue and minValue are used to detect if the current
+                // transformed sample
+                // is a sound or not
+                if (maxValue < sample) {
+                    maxValue = sample;
+                }
+                if (minValue > sample) {
+                    minValue = sample;
+                }
+            }
+            transformeddata [j - i] = windowCoefficients [j - i] * sample;
+        }
+        // the last windows are shorter : zero padding, and no data left by
+        // the previous window (which may have been transformed by another
+        // thread)
+        Arrays.fill (transformeddata, iterationLength, transformeddata.length, 0);
+        return Math.abs (maxValue - minValue);
+    }
+}
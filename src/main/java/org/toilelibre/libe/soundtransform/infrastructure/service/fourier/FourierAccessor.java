@@ -9,4 +9,8 @@ public abstract class FourierAccessor extends AudioFormatConverterAccessor {
     protected FourierTransformHelper<Complex []> provideFourierTransformHelper () {
         return new CommonsMath3FourierTransformHelper ();
     }
+
+    protected FourierTransformHelper<Complex []> providePureJavaFourierTransformHelper () {
+        return new PureJavaFourierTransformHelper ();
+    }
 }
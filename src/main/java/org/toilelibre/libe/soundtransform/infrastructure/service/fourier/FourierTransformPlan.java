@@ -0,0 +1,252 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeException;
+
+/**
+ * Fast Fourier transform of a given power of 2 length, on primitive arrays.
+ *
+ * The twiddle factors and the bit reversal permutation are computed once per
+ * length, and the plan of a length is shared by all the threads (it is
+ * immutable). The transform is an iterative radix 2 one, done in place. The
+ * transforms of real signals (the sound samples) use the plan of half the
+ * length.
+ *
+ * The normalization is the standard one : the forward transform is not
+ * scaled, the inverse transform is scaled by 1 / length.
+ */
+public final class FourierTransformPlan {
+
+    public enum FourierTransformPlanErrorCode implements ErrorCode {
+        NOT_A_POWER_OF_2 ("The length of a fourier transform must be a power of 2 (%1d)"), WRONG_ARRAY_LENGTH ("The transformed arrays must have the length of the plan (%1d instead of %2d)");
+
+        private final String messageFormat;
+
+        FourierTransformPlanErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private static final FourierTransformPlan [] PLANS = new FourierTransformPlan [Integer.SIZE - 1];
+
+    private final int                            length;
+    private final double []                      cosines;
+    private final double []                      sines;
+    private final int []                         bitReversal;
+
+    private FourierTransformPlan (final int length1) {
+        this.length = length1;
+        this.cosines = new double [length1 / 2];
+        this.sines = new double [length1 / 2];
+        for (int k = 0 ; k < length1 / 2 ; k++) {
+            final double angle = 2 * Math.PI * k / length1;
+            this.cosines [k] = Math.cos (angle);
+            this.sines [k] = Math.sin (angle);
+        }
+        this.bitReversal = new int [length1];
+        final int bits = Integer.numberOfTrailingZeros (length1);
+        for (int i = 0 ; i < length1 && bits > 0 ; i++) {
+            this.bitReversal [i] = Integer.reverse (i) >>> Integer.SIZE - bits;
+        }
+    }
+
+    /**
+     * Gives the plan of a length, computed at the first call only
+     *
+     * @param length
+     *            length of the transformed arrays
+     * @return the plan
+     * @throws SoundTransformRuntimeException
+     *             if the length is not a power of 2
+     */
+    public static FourierTransformPlan forLength (final int length) {
+        if (length <= 0 || (length & length - 1) != 0) {
+            throw new SoundTransformRuntimeException (FourierTransformPlanErrorCode.NOT_A_POWER_OF_2, new IllegalArgumentException (), length);
+        }
+        final int log2 = Integer.numberOfTrailingZeros (length);
+        FourierTransformPlan plan = FourierTransformPlan.PLANS [log2];
+        if (plan == null) {
+            // two threads may compute the same plan, they are equivalent
+            plan = new FourierTransformPlan (length);
+            FourierTransformPlan.PLANS [log2] = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Forward transform, in place
+     *
+     * @param realPart
+     *            real part of the input, then of the spectrum
+     * @param imaginaryPart
+     *            imaginary part of the input, then of the spectrum
+     */
+    public void forward (final double [] realPart, final double [] imaginaryPart) {
+        this.checkLength (realPart, imaginaryPart);
+        this.permute (realPart, imaginaryPart);
+        for (int size = 2 ; size <= this.length ; size <<= 1) {
+            final int half = size >> 1;
+            final int tableStep = this.length / size;
+            for (int start = 0 ; start < this.length ; start += size) {
+                for (int j = 0, k = 0 ; j < half ; j++, k += tableStep) {
+                    final int left = start + j;
+                    final int right = left + half;
+                    final double cos = this.cosines [k];
+                    final double sin = this.sines [k];
+                    final double rightReal = realPart [right] * cos + imaginaryPart [right] * sin;
+                    final double rightImaginary = imaginaryPart [right] * cos - realPart [right] * sin;
+                    realPart [right] = realPart [left] - rightReal;
+                    imaginaryPart [right] = imaginaryPart [left] - rightImaginary;
+                    realPart [left] += rightReal;
+                    imaginaryPart [left] += rightImaginary;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inverse transform, in place
+     *
+     * @param realPart
+     *            real part of the spectrum, then of the output
+     * @param imaginaryPart
+     *            imaginary part of the spectrum, then of the output
+     */
+    public void inverse (final double [] realPart, final double [] imaginaryPart) {
+        // the inverse transform is the forward one with the real and
+        // imaginary parts swapped
+        this.forward (imaginaryPart, realPart);
+        final double scale = 1.0 / this.length;
+        for (int i = 0 ; i < this.length ; i++) {
+            realPart [i] *= scale;
+            imaginaryPart [i] *= scale;
+        }
+    }
+
+    /**
+     * Forward transform of a real signal, in place. The signal is seen as a
+     * complex one of half its length (even samples as real parts, odd samples
+     * as imaginary parts), so the work is done by the plan of half the
+     * length. The bins from 0 to the nyquist one are computed from that
+     * result, the other ones are their complex conjugates.
+     *
+     * @param realPart
+     *            the signal, then the real part of the spectrum
+     * @param imaginaryPart
+     *            the imaginary part of the spectrum (the previous values are
+     *            ignored)
+     */
+    public void forwardReal (final double [] realPart, final double [] imaginaryPart) {
+        this.checkLength (realPart, imaginaryPart);
+        if (this.length == 1) {
+            imaginaryPart [0] = 0;
+            return;
+        }
+        final int half = this.length / 2;
+        final double [] halfReal = ArrayPool.takeDoubles (half);
+        final double [] halfImaginary = ArrayPool.takeDoubles (half);
+        for (int k = 0 ; k < half ; k++) {
+            halfReal [k] = realPart [2 * k];
+            halfImaginary [k] = realPart [2 * k + 1];
+        }
+        FourierTransformPlan.forLength (half).forward (halfReal, halfImaginary);
+
+        realPart [0] = halfReal [0] + halfImaginary [0];
+        imaginaryPart [0] = 0;
+        realPart [half] = halfReal [0] - halfImaginary [0];
+        imaginaryPart [half] = 0;
+        for (int k = 1 ; k < half ; k++) {
+            // even part (e) and odd part (o) of the bin k, from the bins k
+            // and half - k of the half length transform
+            final double eReal = (halfReal [k] + halfReal [half - k]) / 2;
+            final double eImaginary = (halfImaginary [k] - halfImaginary [half - k]) / 2;
+            final double oReal = (halfImaginary [k] + halfImaginary [half - k]) / 2;
+            final double oImaginary = (halfReal [half - k] - halfReal [k]) / 2;
+            final double cos = this.cosines [k];
+            final double sin = this.sines [k];
+            realPart [k] = eReal + oReal * cos + oImaginary * sin;
+            imaginaryPart [k] = eImaginary + oImaginary * cos - oReal * sin;
+            realPart [this.length - k] = realPart [k];
+            imaginaryPart [this.length - k] = -imaginaryPart [k];
+        }
+        ArrayPool.release (halfReal);
+        ArrayPool.release (halfImaginary);
+    }
+
+    /**
+     * Real part of the inverse transform, in place. Only the hermitian part of
+     * the spectrum contributes to the real part of the signal, so it is
+     * computed by the plan of half the length, as in
+     * {@link #forwardReal(double[], double[])}.
+     *
+     * @param realPart
+     *            real part of the spectrum, then the signal
+     * @param imaginaryPart
+     *            imaginary part of the spectrum, then a working array
+     */
+    public void inverseReal (final double [] realPart, final double [] imaginaryPart) {
+        this.checkLength (realPart, imaginaryPart);
+        if (this.length == 1) {
+            return;
+        }
+        final int half = this.length / 2;
+        final double [] halfReal = ArrayPool.takeDoubles (half);
+        final double [] halfImaginary = ArrayPool.takeDoubles (half);
+        for (int k = 0 ; k < half ; k++) {
+            // hermitian part of the bins k and half - k
+            final int mirror = half - k;
+            final double real = (realPart [k] + realPart [(this.length - k) % this.length]) / 2;
+            final double imaginary = (imaginaryPart [k] - imaginaryPart [(this.length - k) % this.length]) / 2;
+            final double mirrorReal = (realPart [mirror] + realPart [this.length - mirror]) / 2;
+            final double mirrorImaginary = (imaginaryPart [mirror] - imaginaryPart [this.length - mirror]) / 2;
+
+            final double eReal = (real + mirrorReal) / 2;
+            final double eImaginary = (imaginary - mirrorImaginary) / 2;
+            final double dReal = (real - mirrorReal) / 2;
+            final double dImaginary = (imaginary + mirrorImaginary) / 2;
+            final double cos = this.cosines [k];
+            final double sin = this.sines [k];
+            final double oReal = dReal * cos - dImaginary * sin;
+            final double oImaginary = dReal * sin + dImaginary * cos;
+            halfReal [k] = eReal - oImaginary;
+            halfImaginary [k] = eImaginary + oReal;
+        }
+        FourierTransformPlan.forLength (half).inverse (halfReal, halfImaginary);
+        for (int k = 0 ; k < half ; k++) {
+            realPart [2 * k] = halfReal [k];
+            realPart [2 * k + 1] = halfImaginary [k];
+        }
+        ArrayPool.release (halfReal);
+        ArrayPool.release (halfImaginary);
+    }
+
+    public int getLength () {
+        return this.length;
+    }
+
+    private void checkLength (final double [] realPart, final double [] imaginaryPart) {
+        if (realPart.length != this.length || imaginaryPart.length != this.length) {
+            throw new SoundTransformRuntimeException (FourierTransformPlanErrorCode.WRONG_ARRAY_LENGTH, new IllegalArgumentException (), Math.max (realPart.length, imaginaryPart.length), this.length);
+        }
+    }
+
+    private void permute (final double [] realPart, final double [] imaginaryPart) {
+        for (int i = 0 ; i < this.length ; i++) {
+            final int j = this.bitReversal [i];
+            if (i < j) {
+                final double real = realPart [i];
+                realPart [i] = realPart [j];
+                realPart [j] = real;
+                final double imaginary = imaginaryPart [i];
+                imaginaryPart [i] = imaginaryPart [j];
+                imaginaryPart [j] = imaginary;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import org.apache.commons.math3.complex.Complex;
+import org.toilelibre.libe.soundtransform.infrastructure.service.Processor;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+
+/**
+ * Fourier transform helper computing the transforms with a cached
+ * {@link FourierTransformPlan}, on primitive arrays. The complex numbers are
+ * only built for the transforms asking for a spectrum object.
+ *
+ * The windows are real signals, and only the real part of a reversed spectrum
+ * is kept : both directions use the real transforms of the plan, which cost
+ * half of a complex one.
+ */
+@Processor
+final class PureJavaFourierTransformHelper extends AbstractFourierTransformHelper {
+
+    @Override
+    protected Complex [] forward (final double [] realPart) {
+        final double [] spectrumRealPart = ArrayPool.takeDoubles (realPart.length);
+        final double [] imaginaryPart = ArrayPool.takeDoubles (realPart.length);
+        System.arraycopy (realPart, 0, spectrumRealPart, 0, realPart.length);
+        FourierTransformPlan.forLength (realPart.length).forwardReal (spectrumRealPart, imaginaryPart);
+        final Complex [] complexArray = new Complex [realPart.length];
+        for (int i = 0 ; i < complexArray.length ; i++) {
+            complexArray [i] = new Complex (spectrumRealPart [i], imaginaryPart [i]);
+        }
+        ArrayPool.release (spectrumRealPart);
+        ArrayPool.release (imaginaryPart);
+        return complexArray;
+    }
+
+    @Override
+    protected void forwardInPlace (final double [] realPart, final double [] imaginaryPart) {
+        FourierTransformPlan.forLength (realPart.length).forwardReal (realPart, imaginaryPart);
+    }
+
+    @Override
+    protected void inverseInPlace (final double [] realPart, final double [] imaginaryPart) {
+        FourierTransformPlan.forLength (realPart.length).inverseReal (realPart, imaginaryPart);
+    }
+
+    @Override
+    protected double [] inverseRealPart (final Complex [] spectrum) {
+        final double [] realPart = ArrayPool.takeDoubles (spectrum.length);
+        final double [] imaginaryPart = ArrayPool.takeDoubles (spectrum.length);
+        for (int i = 0 ; i < spectrum.length ; i++) {
+            realPart [i] = spectrum [i].getReal ();
+            imaginaryPart [i] = spectrum [i].getImaginary ();
+        }
+        FourierTransformPlan.forLength (spectrum.length).inverseReal (realPart, imaginaryPart);
+        ArrayPool.release (imaginaryPart);
+        return realPart;
+    }
+}
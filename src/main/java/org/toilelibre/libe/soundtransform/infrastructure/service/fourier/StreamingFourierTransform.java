@@ -0,0 +1,294 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.complex.Complex;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.AbstractFrequencySoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.AbstractWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HanningWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Streaming short time fourier transform : the samples are given block by
+ * block, each frame is transformed by a frequency transform, reversed, and
+ * overlap-added to the previous ones. The samples are given back as soon as no
+ * other frame can change them.
+ *
+ * The frames overlap by frame length - hop samples. They are multiplied by
+ * the square root of the window before the transform and after the reverse
+ * one, and the sum of the overlapping windows must be constant (the window
+ * must be COLA for the hop, like the Hanning window with a hop of half or a
+ * quarter of the frame length). An unmodified spectrum gives the input back,
+ * late of {@link #getLatency()} samples.
+ *
+ * The input and output are kept in two ring buffers of one frame, so the
+ * memory does not depend on the length of the stream.
+ */
+public final class StreamingFourierTransform {
+
+    public enum StreamingFourierTransformErrorCode implements ErrorCode {
+        HOP_NOT_A_DIVISOR ("The hop (%2d) must divide the frame length (%1d)"), NOT_COLA ("The windows of %1d samples do not add up to a constant with a hop of %2d samples");
+
+        private final String messageFormat;
+
+        StreamingFourierTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private static final float                                COEFFICIENT  = 10.0f;
+    private static final double                               COLA_EPSILON = 1e-9;
+
+    private final AbstractFrequencySoundTransform<Complex []> frequencyTransform;
+    private final FormatInfo                                  formatInfo;
+    private final FourierTransformPlan                        plan;
+    private final int                                         frameLength;
+    private final int                                         hop;
+    private final double []                                   analysisWindow;
+    private final double []                                   synthesisWindow;
+    private final double []                                   inputRing;
+    private final double []                                   outputRing;
+    private final double []                                   realPart;
+    private final double []                                   imaginaryPart;
+    private int                                               inputPosition;
+    private int                                               outputPosition;
+    private int                                               pending;
+    private long                                              frames;
+
+    /**
+     * Constructor with a Hanning window
+     *
+     * @param frequencyTransform1
+     *            the transform of each frame
+     * @param formatInfo1
+     *            the format of the stream
+     * @param frameLength1
+     *            the length of a frame (a power of 2)
+     * @param hop1
+     *            the number of samples between two frames
+     * @throws SoundTransformException
+     *             if the hop does not divide the frame length, or if the
+     *             Hanning window is not COLA for this hop
+     */
+    public StreamingFourierTransform (final AbstractFrequencySoundTransform<Complex []> frequencyTransform1, final FormatInfo formatInfo1, final int frameLength1, final int hop1) throws SoundTransformException {
+        this (frequencyTransform1, formatInfo1, frameLength1, hop1, new HanningWindowSoundTransform ());
+    }
+
+    /**
+     * Default constructor
+     *
+     * @param frequencyTransform1
+     *            the transform of each frame
+     * @param formatInfo1
+     *            the format of the stream
+     * @param frameLength1
+     *            the length of a frame (a power of 2)
+     * @param hop1
+     *            the number of samples between two frames
+     * @param window
+     *            the window, used in its periodic form
+     * @throws SoundTransformException
+     *             if the hop does not divide the frame length, or if the
+     *             window is not COLA for this hop
+     */
+    public StreamingFourierTransform (final AbstractFrequencySoundTransform<Complex []> frequencyTransform1, final FormatInfo formatInfo1, final int frameLength1, final int hop1, final AbstractWindowSoundTransform window) throws SoundTransformException {
+        this.frequencyTransform = frequencyTransform1;
+        this.formatInfo = formatInfo1;
+        this.plan = FourierTransformPlan.forLength (frameLength1);
+        this.frameLength = frameLength1;
+        this.hop = hop1;
+        if (hop1 <= 0 || frameLength1 % hop1 != 0) {
+            throw new SoundTransformException (StreamingFourierTransformErrorCode.HOP_NOT_A_DIVISOR, new IllegalArgumentException (), frameLength1, hop1);
+        }
+        // periodic window : the symmetric one of one more sample, without
+        // its last sample
+        final double [] coefficients = window.getCoefficients (frameLength1 + 1);
+        final double overlapSum = this.checkCola (coefficients);
+        this.analysisWindow = new double [frameLength1];
+        this.synthesisWindow = new double [frameLength1];
+        for (int i = 0 ; i < frameLength1 ; i++) {
+            this.analysisWindow [i] = Math.sqrt (Math.max (0, coefficients [i]));
+            this.synthesisWindow [i] = this.analysisWindow [i] / overlapSum;
+        }
+        this.inputRing = new double [frameLength1];
+        this.outputRing = new double [frameLength1];
+        this.realPart = new double [frameLength1];
+        this.imaginaryPart = new double [frameLength1];
+    }
+
+    private double checkCola (final double [] coefficients) throws SoundTransformException {
+        double overlapSum = 0;
+        for (int i = 0 ; i < this.frameLength ; i += this.hop) {
+            overlapSum += coefficients [i];
+        }
+        for (int start = 1 ; start < this.hop ; start++) {
+            double sum = 0;
+            for (int i = start ; i < this.frameLength ; i += this.hop) {
+                sum += coefficients [i];
+            }
+            if (Math.abs (sum - overlapSum) > StreamingFourierTransform.COLA_EPSILON * Math.max (1, overlapSum)) {
+                throw new SoundTransformException (StreamingFourierTransformErrorCode.NOT_COLA, new IllegalArgumentException (), this.frameLength, this.hop);
+            }
+        }
+        return overlapSum;
+    }
+
+    /**
+     * Number of samples between an input sample and the same output sample
+     *
+     * @return the latency
+     */
+    public int getLatency () {
+        return this.frameLength - this.hop;
+    }
+
+    /**
+     * Forgets the previous samples
+     */
+    public void reset () {
+        Arrays.fill (this.inputRing, 0);
+        Arrays.fill (this.outputRing, 0);
+        this.inputPosition = 0;
+        this.outputPosition = 0;
+        this.pending = 0;
+        this.frames = 0;
+    }
+
+    /**
+     * Gives the next samples of the stream
+     *
+     * @param input
+     *            the input samples
+     * @param length
+     *            number of input samples to read
+     * @param output
+     *            the output samples, at least length + hop - 1 samples long
+     * @return the number of output samples given back
+     */
+    public int process (final double [] input, final int length, final double [] output) {
+        int written = 0;
+        for (int i = 0 ; i < length ; i++) {
+            this.inputRing [this.inputPosition] = input [i];
+            this.inputPosition = (this.inputPosition + 1) % this.frameLength;
+            this.pending++;
+            if (this.pending == this.hop) {
+                this.transformFrame ();
+                written += this.emit (output, written);
+                this.pending = 0;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Ends the stream : the last frames are completed with silence
+     *
+     * @param output
+     *            the output samples, at least latency + hop - 1 samples long
+     * @return the number of output samples given back
+     */
+    public int flush (final double [] output) {
+        final double [] silence = new double [this.getLatency () + (this.hop - this.pending) % this.hop];
+        return this.process (silence, silence.length, output);
+    }
+
+    /**
+     * Transforms a whole channel, without the latency
+     *
+     * @param input
+     *            the channel
+     * @return the transformed channel
+     */
+    public Channel transform (final Channel input) {
+        this.reset ();
+        final int latency = this.getLatency ();
+        final Channel output = new Channel (input.getSamplesLength (), input.getFormatInfo (), input.getChannelNum ());
+        final double [] block = new double [this.hop];
+        final double [] transformed = new double [latency + 2 * this.hop];
+        int emitted = 0;
+        for (int start = 0 ; start < input.getSamplesLength () ; start += this.hop) {
+            final int length = Math.min (this.hop, input.getSamplesLength () - start);
+            for (int i = 0 ; i < length ; i++) {
+                block [i] = input.getSampleAt (start + i);
+            }
+            emitted = this.write (output, transformed, this.process (block, length, transformed), emitted, latency);
+        }
+        this.write (output, transformed, this.flush (transformed), emitted, latency);
+        return output;
+    }
+
+    private int write (final Channel output, final double [] transformed, final int length, final int emitted, final int latency) {
+        for (int i = 0 ; i < length ; i++) {
+            final int index = emitted + i - latency;
+            if (index >= 0 && index < output.getSamplesLength ()) {
+                output.setSampleAt (index, Math.round (transformed [i]));
+            }
+        }
+        return emitted + length;
+    }
+
+    private void transformFrame () {
+        long maxValue = 0;
+        long minValue = Long.MAX_VALUE;
+        for (int i = 0 ; i < this.frameLength ; i++) {
+            final double sample = this.inputRing [(this.inputPosition + i) % this.frameLength];
+            if (i >= this.frameLength - this.hop) {
+                // sound level of the new samples
+                maxValue = Math.max (maxValue, (long) sample);
+                minValue = Math.min (minValue, (long) sample);
+            }
+            this.realPart [i] = sample * this.analysisWindow [i];
+        }
+        final float soundLevelInDB = (float) (StreamingFourierTransform.COEFFICIENT * Math.log10 (Math.abs (maxValue - minValue)));
+        final int offset = (int) (this.frames * this.hop) - this.getLatency ();
+        this.frames++;
+
+        this.plan.forwardReal (this.realPart, this.imaginaryPart);
+        if (this.frequencyTransform.rawSpectrumPrefered ()) {
+            this.frequencyTransform.transformFrequencies (new double [] [] { this.realPart, this.imaginaryPart }, this.formatInfo, offset, this.frameLength, this.frameLength, soundLevelInDB);
+        } else if (!this.transformSpectrum (offset, soundLevelInDB)) {
+            return;
+        }
+        this.plan.inverseReal (this.realPart, this.imaginaryPart);
+
+        for (int i = 0 ; i < this.frameLength ; i++) {
+            this.outputRing [(this.outputPosition + i) % this.frameLength] += this.realPart [i] * this.synthesisWindow [i];
+        }
+    }
+
+    private boolean transformSpectrum (final int offset, final float soundLevelInDB) {
+        final Complex [] state = new Complex [this.frameLength];
+        for (int i = 0 ; i < this.frameLength ; i++) {
+            state [i] = new Complex (this.realPart [i], this.imaginaryPart [i]);
+        }
+        final Spectrum<Complex []> result = this.frequencyTransform.transformFrequencies (new Spectrum<Complex []> (state, this.formatInfo), offset, this.frameLength, this.frameLength, soundLevelInDB);
+        if (result == null) {
+            return false;
+        }
+        for (int i = 0 ; i < this.frameLength ; i++) {
+            this.realPart [i] = result.getState () [i].getReal ();
+            this.imaginaryPart [i] = result.getState () [i].getImaginary ();
+        }
+        return true;
+    }
+
+    private int emit (final double [] output, final int outputOffset) {
+        // no other frame will add anything to the next hop samples
+        for (int i = 0 ; i < this.hop ; i++) {
+            final int index = (this.outputPosition + i) % this.frameLength;
+            output [outputOffset + i] = this.outputRing [index];
+            this.outputRing [index] = 0;
+        }
+        this.outputPosition = (this.outputPosition + this.hop) % this.frameLength;
+        return this.hop;
+    }
+}
@@ -1,10 +1,12 @@
 package org.toilelibre.libe.soundtransform.infrastructure.service.frames;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.toilelibre.libe.soundtransform.infrastructure.service.Processor;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.SampleBuffer;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 import org.toilelibre.libe.soundtransform.model.inputstream.StreamInfo;
 import org.toilelibre.libe.soundtransform.model.inputstream.readsound.FrameProcessor;
@@ -40,7 +42,7 @@ final class ByteArrayFrameProcessor extends AbstractLogAware<ByteArrayFrameProce
             final int currentChannel = bigEndian ? sound.length - 1 - j / (frame.length / sound.length) : j / (frame.length / sound.length);
             final int numByte = j % (frame.length / sound.length);
             if (fromIndex <= toIndex) {
-                value [currentChannel] += frame [cursor] + (pcmSigned ? -Byte.MIN_VALUE : 0) << Byte.SIZE * numByte;
+                value [currentChannel] += (pcmSigned ? frame [cursor] - Byte.MIN_VALUE : frame [cursor] & ByteArrayFrameProcessor.MAX_BYTE_VALUE) << Byte.SIZE * numByte;
             }
 
         }
@@ -79,7 +81,7 @@ final class ByteArrayFrameProcessor extends AbstractLogAware<ByteArrayFrameProce
         double value = 0;
         int rightShift = 0;
         int byteValueSigned;
-        final long neutral = pcmSigned ? this.getNeutral (sampleSize) : 0;
+        final long neutral = this.getNeutral (sampleSize);
         for (int i = 0 ; i < data.length ; i++) {
             final int numByte = i % sampleSize;
             final int currentChannel = i / sampleSize % channels.length;
@@ -109,6 +111,14 @@ final class ByteArrayFrameProcessor extends AbstractLogAware<ByteArrayFrameProce
         return ret;
     }
 
+    @Override
+    public Channel [] fromMappedFile (final File file) throws SoundTransformException {
+        this.log (new LogEvent (FrameProcessorEventCode.MAPPING_FILE, file.getName ()));
+        final Channel [] ret = new WavFileMapper ().map (file);
+        this.log (new LogEvent (FrameProcessorEventCode.FILE_MAPPED));
+        return ret;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -130,7 +140,7 @@ final class ByteArrayFrameProcessor extends AbstractLogAware<ByteArrayFrameProce
     private Channel [] initSound (final InputStream ais, final StreamInfo isInfo) throws SoundTransformException {
         final Channel [] ret = new Channel [isInfo.getChannels ()];
         for (int channel = 0 ; channel < isInfo.getChannels () ; channel++) {
-            ret [channel] = new Channel (new long [this.findFrameLength (ais, isInfo)], isInfo, channel);
+            ret [channel] = new Channel (SampleBuffer.forFormat (isInfo, this.findFrameLength (ais, isInfo)), isInfo, channel);
         }
         return ret;
     }
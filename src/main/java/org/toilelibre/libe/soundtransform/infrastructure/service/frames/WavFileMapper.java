@@ -0,0 +1,153 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.frames;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.MappedSampleBuffer;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.inputstream.StreamInfo;
+import org.toilelibre.libe.soundtransform.model.inputstream.readsound.FrameProcessor.FrameProcessorErrorCode;
+
+/**
+ * Reads the chunks of a RIFF (or RIFX) wave file and maps its PCM data in
+ * memory, without reading the samples
+ */
+final class WavFileMapper {
+
+    private static final String RIFF              = "RIFF";
+    private static final String RIFX              = "RIFX";
+    private static final String WAVE              = "WAVE";
+    private static final String FMT_CHUNK         = "fmt ";
+    private static final String DATA_CHUNK        = "data";
+    private static final int    ID_LENGTH         = 4;
+    private static final int    WAVE_POSITION     = 8;
+    private static final int    RIFF_HEADER       = 12;
+    private static final int    CHUNK_HEADER      = 8;
+    private static final int    FMT_MIN_LENGTH    = 16;
+    private static final int    PCM               = 1;
+    private static final int    EXTENSIBLE        = 0xFFFE;
+    private static final int    SHORT_MASK        = 0xFFFF;
+    private static final long   INT_MASK          = 0xFFFFFFFFL;
+    private static final int    MAX_SAMPLE_SIZE   = 4;
+    private static final int    CHANNELS_POSITION = 2;
+    private static final int    RATE_POSITION     = 4;
+    private static final int    BITS_POSITION     = 14;
+    private static final int    BYTE_ALIGNMENT    = 2;
+
+    private int                 channels;
+    private int                 sampleSize;
+    private float               sampleRate;
+    private long                dataOffset        = -1;
+    private long                dataLength;
+
+    Channel [] map (final File file) throws SoundTransformException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile (file, "r");
+            final FileChannel fileChannel = raf.getChannel ();
+            final boolean bigEndian = this.readChunks (fileChannel, file);
+            return this.mapData (fileChannel, bigEndian, file);
+        } catch (final IOException ioe) {
+            throw new SoundTransformException (FrameProcessorErrorCode.COULD_NOT_MAP_FILE, ioe, file.getName ());
+        } finally {
+            this.close (raf, file);
+        }
+    }
+
+    private void close (final RandomAccessFile raf, final File file) throws SoundTransformException {
+        if (raf == null) {
+            return;
+        }
+        try {
+            raf.close ();
+        } catch (final IOException ioe) {
+            throw new SoundTransformException (FrameProcessorErrorCode.COULD_NOT_MAP_FILE, ioe, file.getName ());
+        }
+    }
+
+    private Channel [] mapData (final FileChannel fileChannel, final boolean bigEndian, final File file) throws IOException, SoundTransformException {
+        final int frameSize = this.channels * this.sampleSize;
+        final long length = Math.min (this.dataLength, fileChannel.size () - this.dataOffset) / frameSize;
+        if (length > Integer.MAX_VALUE) {
+            throw new SoundTransformException (FrameProcessorErrorCode.WAV_FILE_TOO_LONG, new IllegalArgumentException (), file.getName ());
+        }
+        final int framesPerRegion = Integer.MAX_VALUE / frameSize;
+        final ByteBuffer [] regions = new ByteBuffer [(int) ( (length + framesPerRegion - 1) / framesPerRegion)];
+        for (int i = 0 ; i < regions.length ; i++) {
+            final long firstFrame = (long) i * framesPerRegion;
+            final long regionLength = Math.min (framesPerRegion, length - firstFrame) * frameSize;
+            regions [i] = fileChannel.map (MapMode.READ_ONLY, this.dataOffset + firstFrame * frameSize, regionLength);
+        }
+        final boolean pcmSigned = this.sampleSize > 1;
+        final StreamInfo streamInfo = new StreamInfo (this.channels, length, this.sampleSize, this.sampleRate, bigEndian, pcmSigned, null);
+        final Channel [] result = new Channel [this.channels];
+        for (int channel = 0 ; channel < this.channels ; channel++) {
+            result [channel] = new Channel (new MappedSampleBuffer (regions, framesPerRegion, (int) length, this.channels, channel, this.sampleSize, bigEndian, pcmSigned), streamInfo, channel);
+        }
+        return result;
+    }
+
+    private ByteBuffer read (final FileChannel fileChannel, final long position, final int length, final boolean bigEndian) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate (length);
+        buffer.order (bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int read = 0;
+        while (buffer.hasRemaining () && read != -1) {
+            read = fileChannel.read (buffer, position + buffer.position ());
+        }
+        buffer.flip ();
+        return buffer;
+    }
+
+    private String readId (final ByteBuffer buffer, final int position) {
+        final StringBuilder sb = new StringBuilder ();
+        for (int i = 0 ; i < WavFileMapper.ID_LENGTH && position + i < buffer.limit () ; i++) {
+            sb.append ((char) buffer.get (position + i));
+        }
+        return sb.toString ();
+    }
+
+    private boolean readChunks (final FileChannel fileChannel, final File file) throws IOException, SoundTransformException {
+        final ByteBuffer header = this.read (fileChannel, 0, WavFileMapper.RIFF_HEADER, false);
+        final String riff = this.readId (header, 0);
+        if (! (WavFileMapper.RIFF.equals (riff) || WavFileMapper.RIFX.equals (riff)) || !WavFileMapper.WAVE.equals (this.readId (header, WavFileMapper.WAVE_POSITION))) {
+            throw new SoundTransformException (FrameProcessorErrorCode.NOT_A_PCM_WAV_FILE, new IllegalArgumentException (), file.getName ());
+        }
+        final boolean bigEndian = WavFileMapper.RIFX.equals (riff);
+        long position = WavFileMapper.RIFF_HEADER;
+        while (this.dataOffset == -1 && position + WavFileMapper.CHUNK_HEADER <= fileChannel.size ()) {
+            final ByteBuffer chunkHeader = this.read (fileChannel, position, WavFileMapper.CHUNK_HEADER, bigEndian);
+            final String chunkId = this.readId (chunkHeader, 0);
+            final long chunkLength = chunkHeader.getInt (WavFileMapper.ID_LENGTH) & WavFileMapper.INT_MASK;
+            if (WavFileMapper.FMT_CHUNK.equals (chunkId)) {
+                this.readFormat (this.read (fileChannel, position + WavFileMapper.CHUNK_HEADER, WavFileMapper.FMT_MIN_LENGTH, bigEndian), file);
+            } else if (WavFileMapper.DATA_CHUNK.equals (chunkId)) {
+                this.dataOffset = position + WavFileMapper.CHUNK_HEADER;
+                this.dataLength = chunkLength;
+            }
+            position += WavFileMapper.CHUNK_HEADER + chunkLength + chunkLength % WavFileMapper.BYTE_ALIGNMENT;
+        }
+        if (this.dataOffset == -1 || this.channels == 0) {
+            throw new SoundTransformException (FrameProcessorErrorCode.NOT_A_PCM_WAV_FILE, new IllegalArgumentException (), file.getName ());
+        }
+        return bigEndian;
+    }
+
+    private void readFormat (final ByteBuffer fmt, final File file) throws SoundTransformException {
+        if (fmt.limit () < WavFileMapper.FMT_MIN_LENGTH) {
+            throw new SoundTransformException (FrameProcessorErrorCode.NOT_A_PCM_WAV_FILE, new IllegalArgumentException (), file.getName ());
+        }
+        final int audioFormat = fmt.getShort (0) & WavFileMapper.SHORT_MASK;
+        this.channels = fmt.getShort (WavFileMapper.CHANNELS_POSITION) & WavFileMapper.SHORT_MASK;
+        this.sampleRate = fmt.getInt (WavFileMapper.RATE_POSITION);
+        this.sampleSize = ( (fmt.getShort (WavFileMapper.BITS_POSITION) & WavFileMapper.SHORT_MASK) + Byte.SIZE - 1) / Byte.SIZE;
+        if (audioFormat != WavFileMapper.PCM && audioFormat != WavFileMapper.EXTENSIBLE || this.channels == 0 || this.sampleSize == 0 || this.sampleSize > WavFileMapper.MAX_SAMPLE_SIZE) {
+            throw new SoundTransformException (FrameProcessorErrorCode.NOT_A_PCM_WAV_FILE, new IllegalArgumentException (), file.getName ());
+        }
+    }
+}
@@ -61,6 +61,11 @@ final class HPSSpectrumHelper implements SpectrumHelper<Complex []> {
         return fs.getState () [this.getMaxIndex (fs, low, high)].abs ();
     }
 
+    @Override
+    public double getMaxValue (final double [] array, final int low, final int high) {
+        return array [this.getMaxIndex (array, low, high)];
+    }
+
     @Override
     public int getFirstPeak (final Spectrum<Complex []> fs, final int low, final int high, final double thresholdValue) {
         double max = 0;
@@ -81,6 +86,26 @@ final class HPSSpectrumHelper implements SpectrumHelper<Complex []> {
         return maxIndex;
     }
 
+    @Override
+    public int getFirstPeak (final double [] array, final int low, final int high, final double thresholdValue) {
+        double max = 0;
+        int maxIndex = 0;
+        final int reallow = low == 0 ? 1 : low;
+        final int realhigh = Math.min (high, array.length);
+        int i = reallow;
+        while (i < realhigh && array [i] < thresholdValue) {
+            i++;
+        }
+        while (i < realhigh && array [i] >= thresholdValue) {
+            if (max < array [i]) {
+                max = array [i];
+                maxIndex = i;
+            }
+            i++;
+        }
+        return maxIndex;
+    }
+
     @Override
     public Spectrum<Complex []> productOfMultiples (final Spectrum<Complex []> fs, final int factor, final float partOfTheSpectrumToRead) {
         final int max = (int) (fs.getState ().length * partOfTheSpectrumToRead / factor);
@@ -112,4 +137,23 @@ final class HPSSpectrumHelper implements SpectrumHelper<Complex []> {
         }
         return result;
     }
+
+    @Override
+    public void magnitudes (final Spectrum<Complex []> fs, final double [] result) {
+        final int length = Math.min (result.length, fs.getState ().length);
+        for (int i = 0 ; i < length ; i++) {
+            // same formula as the raw spectrum, the raw data and the
+            // spectrums give the same peaks
+            final Complex value = fs.getState () [i];
+            result [i] = Math.sqrt (value.getReal () * value.getReal () + value.getImaginary () * value.getImaginary ());
+        }
+    }
+
+    @Override
+    public void magnitudes (final double [][] fs, final double [] result) {
+        final int length = Math.min (result.length, fs [0].length);
+        for (int i = 0 ; i < length ; i++) {
+            result [i] = Math.sqrt (fs [0] [i] * fs [0] [i] + fs [1] [i] * fs [1] [i]);
+        }
+    }
 }
@@ -5,6 +5,7 @@ import org.apache.commons.math3.transform.DftNormalization;
 import org.apache.commons.math3.transform.FastFourierTransformer;
 import org.apache.commons.math3.transform.TransformType;
 import org.toilelibre.libe.soundtransform.infrastructure.service.Processor;
+import org.toilelibre.libe.soundtransform.infrastructure.service.fourier.FourierTransformPlan;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.SpectrumToCepstrumHelper;
 
@@ -24,4 +25,19 @@ final class NaiveSpectrumToCepstrumHelper implements SpectrumToCepstrumHelper<Co
 
         return new Spectrum<Complex []> (fastFourierTransformer.transform (logSpectrumReals, TransformType.INVERSE), spectrum.getFormatInfo ());
     }
+
+    @Override
+    public void spectrumToCepstrum (final double [][] spectrumAsDoubles) {
+        final double [] realPart = spectrumAsDoubles [0];
+        final double [] imaginaryPart = spectrumAsDoubles [1];
+        for (int i = 0 ; i < realPart.length ; i++) {
+            realPart [i] = Math.log (1 + NaiveSpectrumToCepstrumHelper.A_CONSTANT_TO_REDUCE_OCTAVE_ERRORS * Math.sqrt (realPart [i] * realPart [i] + imaginaryPart [i] * imaginaryPart [i]));
+            imaginaryPart [i] = 0;
+        }
+        // the log spectrum is real and even : its inverse transform is real
+        FourierTransformPlan.forLength (realPart.length).inverseReal (realPart, imaginaryPart);
+        for (int i = 0 ; i < realPart.length ; i++) {
+            realPart [i] = Math.abs (realPart [i]);
+        }
+    }
 }
@@ -6,9 +6,13 @@ import se.jbee.inject.bootstrap.Bootstrap;
 
 public class ApplicationInjector {
 
-    static final String RUNTIME_SYSTEM_PROPERTY = "java.vm.vendor";
+    static final String RUNTIME_SYSTEM_PROPERTY           = "java.vm.vendor";
 
-    static Injector     injector                = Bootstrap.injector (ImplChooser.getCorrectImplModule (System.getProperty (ApplicationInjector.RUNTIME_SYSTEM_PROPERTY)));
+    static final String FOURIER_TRANSFORM_SYSTEM_PROPERTY = "soundtransform.fourierTransform";
+
+    static final String PURE_JAVA_FOURIER_TRANSFORM       = "purejava";
+
+    static Injector     injector                          = Bootstrap.injector (ImplChooser.getCorrectImplModule (System.getProperty (ApplicationInjector.RUNTIME_SYSTEM_PROPERTY)));
 
     private ApplicationInjector () {
 
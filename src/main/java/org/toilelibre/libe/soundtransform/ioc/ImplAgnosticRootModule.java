@@ -49,7 +49,7 @@ abstract class ImplAgnosticRootModule extends ImplAgnosticFinalAccessor {
         super.bind (PackToStringHelper.class).to (this.providePack2StringHelper ());
         super.bind (SoundAppender.class).to (this.provideSoundAppender ());
         super.bind (SoundPitchAndTempoHelper.class).to (this.provideSoundPitchAndTempoHelper ());
-        super.bind (FourierTransformHelper.class).to (this.provideFourierTransformHelper ());
+        super.bind (FourierTransformHelper.class).to (this.chooseFourierTransformHelper ());
         super.bind (SpectrumToCepstrumHelper.class).to (this.provideSpectrum2CepstrumHelper ());
         super.bind (SpectrumHelper.class).to (this.provideSpectrumHelper ());
         super.bind (SpectrumToStringHelper.class).to (this.provideSpectrumToStringHelper ());
@@ -89,6 +89,20 @@ abstract class ImplAgnosticRootModule extends ImplAgnosticFinalAccessor {
 
     protected abstract RecordSoundProcessor provideRecordSoundProcessor ();
 
+    /**
+     * The commons-math3 transforms are used unless the
+     * soundtransform.fourierTransform system property asks for the pure Java
+     * ones, with the value "purejava"
+     *
+     * @return the chosen fourier transform helper
+     */
+    private FourierTransformHelper<?> chooseFourierTransformHelper () {
+        if (ApplicationInjector.PURE_JAVA_FOURIER_TRANSFORM.equals (System.getProperty (ApplicationInjector.FOURIER_TRANSFORM_SYSTEM_PROPERTY))) {
+            return this.providePureJavaFourierTransformHelper ();
+        }
+        return this.provideFourierTransformHelper ();
+    }
+
     private Library provideLibrary () {
         return new Library ();
     }
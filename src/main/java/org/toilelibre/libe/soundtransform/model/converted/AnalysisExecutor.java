@@ -0,0 +1,45 @@
+package org.toilelibre.libe.soundtransform.model.converted;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads shared by the parallel analyses (the windows of a frequency
+ * transform, the periods of a maximum likelihood search), so an analysis does
+ * not start and stop its own threads at each call.
+ *
+ * The threads are daemon threads, started when no idle thread is available
+ * and stopped after a minute without any task. The calling thread of an
+ * analysis takes its own part of the work and is the only one to log.
+ */
+public final class AnalysisExecutor {
+
+    private static final class AnalysisThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger ();
+
+        @Override
+        public Thread newThread (final Runnable runnable) {
+            final Thread thread = new Thread (runnable, AnalysisExecutor.THREAD_NAME + this.threadNumber.incrementAndGet ());
+            thread.setDaemon (true);
+            return thread;
+        }
+    }
+
+    private static final String          THREAD_NAME = "soundtransform-analysis-";
+    private static final ExecutorService EXECUTOR    = Executors.newCachedThreadPool (new AnalysisThreadFactory ());
+
+    private AnalysisExecutor () {
+        super ();
+    }
+
+    /**
+     * The shared executor. It must not be shut down.
+     *
+     * @return the executor
+     */
+    public static ExecutorService get () {
+        return AnalysisExecutor.EXECUTOR;
+    }
+}
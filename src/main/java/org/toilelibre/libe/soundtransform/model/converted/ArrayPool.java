@@ -0,0 +1,150 @@
+package org.toilelibre.libe.soundtransform.model.converted;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of the samples and spectrum arrays, so a pipeline applying the same
+ * transforms again and again on sounds of the same length does not allocate
+ * new arrays each time.
+ *
+ * There is one pool per thread (no lock is needed). The arrays are classed by
+ * their exact length, because the length of a samples array is the length of
+ * its channel. A class keeps a few arrays only, and a pool does not retain
+ * more than a bounded number of bytes : the other released arrays are left to
+ * the garbage collector.
+ *
+ * An array must not be used anymore after being released.
+ */
+public final class ArrayPool {
+
+    private static final class PoolOfTheThread extends ThreadLocal<ArrayPool> {
+        @Override
+        protected ArrayPool initialValue () {
+            return new ArrayPool ();
+        }
+    }
+
+    private static final int                     MAX_ARRAYS_PER_LENGTH = 4;
+    private static final long                    MAX_RETAINED_BYTES    = 64L << 20;
+    private static final int                     BYTES_PER_VALUE       = 8;
+    private static final ThreadLocal<ArrayPool>  POOLS                 = new PoolOfTheThread ();
+
+    private final Map<Integer, Deque<long []>>   longs                 = new HashMap<Integer, Deque<long []>> ();
+    private final Map<Integer, Deque<double []>> doubles               = new HashMap<Integer, Deque<double []>> ();
+    private long                                 retainedBytes;
+    private long                                 allocations;
+
+    private ArrayPool () {
+        super ();
+    }
+
+    /**
+     * Number of arrays allocated by the pool of the current thread because no
+     * released array of the wanted length was available
+     *
+     * @return the number of allocations
+     */
+    public static long allocations () {
+        return ArrayPool.POOLS.get ().allocations;
+    }
+
+    /**
+     * Gives a zero filled double array, reused if possible
+     *
+     * @param length
+     *            length of the array
+     * @return the array
+     */
+    public static double [] takeDoubles (final int length) {
+        final ArrayPool pool = ArrayPool.POOLS.get ();
+        final double [] array = pool.poll (pool.doubles, length);
+        if (array == null) {
+            pool.allocations++;
+            return new double [length];
+        }
+        Arrays.fill (array, 0);
+        return array;
+    }
+
+    /**
+     * Gives a zero filled long array, reused if possible
+     *
+     * @param length
+     *            length of the array
+     * @return the array
+     */
+    public static long [] takeLongs (final int length) {
+        final ArrayPool pool = ArrayPool.POOLS.get ();
+        final long [] array = pool.poll (pool.longs, length);
+        if (array == null) {
+            pool.allocations++;
+            return new long [length];
+        }
+        Arrays.fill (array, 0);
+        return array;
+    }
+
+    /**
+     * Gives an array back to the pool of the current thread
+     *
+     * @param array
+     *            an array which is not used anymore
+     */
+    public static void release (final double [] array) {
+        if (array != null) {
+            final ArrayPool pool = ArrayPool.POOLS.get ();
+            pool.offer (pool.doubles, array, array.length);
+        }
+    }
+
+    /**
+     * Gives an array back to the pool of the current thread
+     *
+     * @param array
+     *            an array which is not used anymore
+     */
+    public static void release (final long [] array) {
+        if (array != null) {
+            final ArrayPool pool = ArrayPool.POOLS.get ();
+            pool.offer (pool.longs, array, array.length);
+        }
+    }
+
+    private <T> void offer (final Map<Integer, Deque<T>> arrays, final T array, final int length) {
+        final long size = (long) length * ArrayPool.BYTES_PER_VALUE;
+        if (this.retainedBytes + size > ArrayPool.MAX_RETAINED_BYTES) {
+            return;
+        }
+        Deque<T> sameLength = arrays.get (length);
+        if (sameLength == null) {
+            sameLength = new ArrayDeque<T> ();
+            arrays.put (length, sameLength);
+        }
+        if (sameLength.size () < ArrayPool.MAX_ARRAYS_PER_LENGTH && !this.contains (sameLength, array)) {
+            sameLength.push (array);
+            this.retainedBytes += size;
+        }
+    }
+
+    private <T> boolean contains (final Deque<T> sameLength, final T array) {
+        for (final T pooled : sameLength) {
+            if (pooled == array) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T poll (final Map<Integer, Deque<T>> arrays, final int length) {
+        final Deque<T> sameLength = arrays.get (length);
+        if (sameLength == null || sameLength.isEmpty ()) {
+            return null;
+        }
+        this.retainedBytes -= (long) length * ArrayPool.BYTES_PER_VALUE;
+        return sameLength.pop ();
+    }
+}
@@ -0,0 +1,59 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.util.Arrays;
+
+/**
+ * 8 bits packed storage
+ */
+public final class ByteSampleBuffer extends SampleBuffer {
+
+    private static final long serialVersionUID = -4632318004711829542L;
+
+    private static final int  SAMPLE_SIZE      = 1;
+    private static final long NEUTRAL          = SampleBuffer.neutralOf (ByteSampleBuffer.SAMPLE_SIZE);
+    private static final long MASK             = 0xFF;
+
+    private final byte []     samples;
+
+    public ByteSampleBuffer (final int length) {
+        super ();
+        this.samples = new byte [length];
+        Arrays.fill (this.samples, (byte) ByteSampleBuffer.NEUTRAL);
+    }
+
+    @Override
+    public long get (final int index) {
+        return (this.samples [index] & ByteSampleBuffer.MASK) - ByteSampleBuffer.NEUTRAL;
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        this.samples [index] = (byte) SampleBuffer.clamp (value + ByteSampleBuffer.NEUTRAL, 0, ByteSampleBuffer.MASK);
+    }
+
+    @Override
+    public int length () {
+        return this.samples.length;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length) {
+        return new ByteSampleBuffer (length);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target [dstPos + i] = (this.samples [srcPos + i] & ByteSampleBuffer.MASK) - ByteSampleBuffer.NEUTRAL;
+        }
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (target instanceof ByteSampleBuffer) {
+            System.arraycopy (this.samples, srcPos, ((ByteSampleBuffer) target).samples, dstPos, length);
+        } else {
+            super.copyTo (target, srcPos, dstPos, length);
+        }
+    }
+}
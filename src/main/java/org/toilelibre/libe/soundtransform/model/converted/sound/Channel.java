@@ -1,7 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound;
 
 import java.io.Serializable;
-import java.util.Arrays;
 
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
@@ -10,17 +9,70 @@ public class Channel implements Serializable {
 
     private static final long serialVersionUID = -5103187767053290813L;
     
-    protected final long []  samples;
-    private final FormatInfo formatInfo;
-    private final int        channelNum;
+    protected final SampleBuffer samples;
+    private final FormatInfo     formatInfo;
+    private final int            channelNum;
 
     public Channel (final long [] samples1, final FormatInfo fomatInfo1, final int channelNum1) {
+        this (new LongSampleBuffer (samples1), fomatInfo1, channelNum1);
+    }
+
+    /**
+     * Builds an empty channel, with one long value per sample (the values
+     * out of the range of the sample size are kept until the export)
+     *
+     * @param length
+     *            number of samples
+     * @param fomatInfo1
+     *            format of the channel
+     * @param channelNum1
+     *            channel number
+     */
+    public Channel (final int length, final FormatInfo fomatInfo1, final int channelNum1) {
+        this (new long [length], fomatInfo1, channelNum1);
+    }
+
+    public Channel (final SampleBuffer samples1, final FormatInfo fomatInfo1, final int channelNum1) {
         super ();
         this.samples = samples1;
         this.formatInfo = fomatInfo1;
         this.channelNum = channelNum1;
     }
 
+    /**
+     * Builds a channel owning an array taken from the ArrayPool. The array
+     * goes back to the pool when the samples of the channel are released, so
+     * it must not be kept anywhere else.
+     *
+     * @param samples
+     *            an array given by ArrayPool.takeLongs
+     * @param formatInfo
+     *            format of the channel
+     * @param channelNum
+     *            channel number
+     * @return the channel
+     */
+    public static Channel ownPooledSamples (final long [] samples, final FormatInfo formatInfo, final int channelNum) {
+        return new Channel (new LongSampleBuffer (samples, true), formatInfo, channelNum);
+    }
+
+    /**
+     * Concatenates several channels without copying their samples. The
+     * result has the format and the channel number of the first part, and
+     * writing in it does not change the parts.
+     *
+     * @param parts
+     *            the channels, in order (at least one)
+     * @return a channel viewing the parts one after the other
+     */
+    public static Channel concat (final Channel... parts) {
+        final SampleBuffer [] buffers = new SampleBuffer [parts.length];
+        for (int i = 0 ; i < parts.length ; i++) {
+            buffers [i] = parts [i].viewBuffer (0, parts [i].getSamplesLength ());
+        }
+        return new Channel (new ConcatenatedSampleBuffer (buffers), parts [0].getFormatInfo (), parts [0].getChannelNum ());
+    }
+
     public int getChannelNum () {
         return this.channelNum;
     }
@@ -30,7 +82,7 @@ public class Channel implements Serializable {
     }
 
     public long getSampleAt (final int i) {
-        return this.samples [i];
+        return this.samples.get (i);
     }
 
     public float getSampleRate () {
@@ -38,7 +90,7 @@ public class Channel implements Serializable {
     }
 
     public String viewSamplesArray () {
-        return Arrays.toString (this.samples);
+        return this.samples.toString ();
     }
 
     public int getSampleSize () {
@@ -46,11 +98,52 @@ public class Channel implements Serializable {
     }
 
     public int getSamplesLength () {
-        return this.samples.length;
+        return this.samples.length ();
     }
 
     public void setSampleAt (final int i, final long value) {
-        this.samples [i] = value;
+        this.samples.set (i, value);
+    }
+
+    /**
+     * Views a part of the channel without copying it. Writing in the view
+     * does not change this channel (the viewed samples are copied at the
+     * first write).
+     *
+     * @param start
+     *            first sample of the view
+     * @param end
+     *            sample after the last sample of the view
+     * @return a channel viewing the samples from start to end - 1
+     */
+    public Channel view (final int start, final int end) {
+        return new Channel (this.viewBuffer (start, end - start), this.formatInfo, this.channelNum);
+    }
+
+    /**
+     * Whether writing in the other channel could change the samples of this
+     * one (the other channel is this one, or is viewed by this one)
+     *
+     * @param other
+     *            another channel
+     * @return true if the samples of the other channel are used by this one
+     */
+    public boolean sharesSamplesWith (final Channel other) {
+        return this.samples != null && other.samples != null && this.samples.uses (other.samples);
+    }
+
+    /**
+     * Gives the samples storage back to the array pool, if the channel owns
+     * an array of the pool. The channel must not be used anymore after that.
+     */
+    public void releaseSamples () {
+        if (this.samples != null) {
+            this.samples.release ();
+        }
+    }
+
+    SampleBuffer viewBuffer (final int start, final int length) {
+        return new SampleBufferView (this.samples, start, length);
     }
 
     @Override
@@ -59,18 +152,18 @@ public class Channel implements Serializable {
     }
 
     public void copyTo (final long [] samples) {
-        this.copyTo (this.samples, 0, 0, this.getSamplesLength ());
+        this.copyTo (samples, 0, 0, this.getSamplesLength ());
     }
 
     public void copyTo (final Channel channel) {
-        this.copyTo (channel.samples);
+        this.copyTo (channel, 0, 0, this.getSamplesLength ());
     }
 
     public void copyTo (final long [] samples, final int srcPos, final int dstPos, final int length) {
-        System.arraycopy (this.samples, srcPos, samples, dstPos, length);
+        this.samples.copyTo (samples, srcPos, dstPos, length);
     }
 
     public void copyTo (final Channel channel, final int srcPos, final int dstPos, final int length) {
-        this.copyTo (channel.samples, srcPos, dstPos, length);
+        this.samples.copyTo (channel.samples, srcPos, dstPos, length);
     }
 }
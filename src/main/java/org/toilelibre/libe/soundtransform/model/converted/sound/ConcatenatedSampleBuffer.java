@@ -0,0 +1,119 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+/**
+ * Several buffers seen one after the other, without any copy. The index of a
+ * sample is resolved with a binary search over the offsets of the parts.
+ *
+ * Writes are done inside the parts, so they should be views when the
+ * concatenated buffers must not be modified.
+ */
+public final class ConcatenatedSampleBuffer extends SampleBuffer {
+
+    private static final long    serialVersionUID = 3207581634227066741L;
+
+    private final SampleBuffer [] parts;
+    private final int []          offsets;
+
+    /**
+     * @param parts1
+     *            the buffers, in order
+     */
+    public ConcatenatedSampleBuffer (final SampleBuffer... parts1) {
+        super ();
+        this.parts = parts1.clone ();
+        this.offsets = new int [parts1.length + 1];
+        for (int i = 0 ; i < parts1.length ; i++) {
+            this.offsets [i + 1] = this.offsets [i] + parts1 [i].length ();
+        }
+    }
+
+    @Override
+    public long get (final int index) {
+        final int part = this.find (index);
+        return this.parts [part].get (index - this.offsets [part]);
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        final int part = this.find (index);
+        this.parts [part].set (index - this.offsets [part], value);
+    }
+
+    @Override
+    public int length () {
+        return this.offsets [this.parts.length];
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length) {
+        return this.parts.length == 0 ? super.emptyBuffer (length) : this.parts [0].emptyBuffer (length);
+    }
+
+    @Override
+    public boolean uses (final SampleBuffer other) {
+        boolean used = this == other;
+        for (int i = 0 ; i < this.parts.length && !used ; i++) {
+            used = this.parts [i].uses (other);
+        }
+        return used;
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        if (length <= 0) {
+            return;
+        }
+        this.find (srcPos + length - 1);
+        int part = this.find (srcPos);
+        int position = srcPos - this.offsets [part];
+        int copied = 0;
+        while (copied < length) {
+            final int partLength = Math.min (this.parts [part].length () - position, length - copied);
+            this.parts [part].copyTo (target, position, dstPos + copied, partLength);
+            copied += partLength;
+            position = 0;
+            part++;
+        }
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (length <= 0) {
+            return;
+        }
+        this.find (srcPos + length - 1);
+        int part = this.find (srcPos);
+        int position = srcPos - this.offsets [part];
+        int copied = 0;
+        while (copied < length) {
+            final int partLength = Math.min (this.parts [part].length () - position, length - copied);
+            this.parts [part].copyTo (target, position, dstPos + copied, partLength);
+            copied += partLength;
+            position = 0;
+            part++;
+        }
+    }
+
+    private int find (final int index) {
+        if (index < 0 || index >= this.length ()) {
+            throw new ArrayIndexOutOfBoundsException (index);
+        }
+        int low = 0;
+        int high = this.parts.length;
+        while (low < high) {
+            final int middle = low + high >>> 1;
+            if (this.offsets [middle + 1] <= index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Object writeReplace () {
+        final SampleBuffer whole = this.emptyBuffer (this.length ());
+        this.copyTo (whole, 0, 0, this.length ());
+        return whole;
+    }
+}
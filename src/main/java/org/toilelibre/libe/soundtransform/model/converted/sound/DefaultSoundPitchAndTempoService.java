@@ -22,6 +22,11 @@ final class DefaultSoundPitchAndTempoService implements SoundPitchAndTempoServic
      */
     @Override
     public Channel callTransform (final Channel sound, final float percent, final float lengthInSeconds) throws SoundTransformException {
-        return this.helper.pitchAndSetLength (sound, percent, lengthInSeconds);
+        return this.callTransform (sound, percent, lengthInSeconds, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel callTransform (final Channel sound, final float percent, final float lengthInSeconds, final PitchAndTempoQuality quality) throws SoundTransformException {
+        return this.helper.pitchAndSetLength (sound, percent, lengthInSeconds, quality);
     }
 }
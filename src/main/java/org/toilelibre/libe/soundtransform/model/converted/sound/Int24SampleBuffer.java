@@ -0,0 +1,72 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+/**
+ * 24 bits packed storage (3 bytes per sample, little endian)
+ */
+public final class Int24SampleBuffer extends SampleBuffer {
+
+    private static final long serialVersionUID = 2406127301542875562L;
+
+    private static final int  SAMPLE_SIZE      = 3;
+    private static final long NEUTRAL          = SampleBuffer.neutralOf (Int24SampleBuffer.SAMPLE_SIZE);
+    private static final long MASK             = 0xFFFFFF;
+    private static final int  BYTE_MASK        = 0xFF;
+    private static final int  SECOND_BYTE      = 1;
+    private static final int  THIRD_BYTE       = 2;
+
+    private final byte []     samples;
+
+    public Int24SampleBuffer (final int length) {
+        super ();
+        this.samples = new byte [length * Int24SampleBuffer.SAMPLE_SIZE];
+        for (int i = 0 ; i < length ; i++) {
+            this.write (i * Int24SampleBuffer.SAMPLE_SIZE, Int24SampleBuffer.NEUTRAL);
+        }
+    }
+
+    @Override
+    public long get (final int index) {
+        return this.read (index * Int24SampleBuffer.SAMPLE_SIZE) - Int24SampleBuffer.NEUTRAL;
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        this.write (index * Int24SampleBuffer.SAMPLE_SIZE, SampleBuffer.clamp (value + Int24SampleBuffer.NEUTRAL, 0, Int24SampleBuffer.MASK));
+    }
+
+    @Override
+    public int length () {
+        return this.samples.length / Int24SampleBuffer.SAMPLE_SIZE;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length) {
+        return new Int24SampleBuffer (length);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target [dstPos + i] = this.read ( (srcPos + i) * Int24SampleBuffer.SAMPLE_SIZE) - Int24SampleBuffer.NEUTRAL;
+        }
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (target instanceof Int24SampleBuffer) {
+            System.arraycopy (this.samples, srcPos * Int24SampleBuffer.SAMPLE_SIZE, ((Int24SampleBuffer) target).samples, dstPos * Int24SampleBuffer.SAMPLE_SIZE, length * Int24SampleBuffer.SAMPLE_SIZE);
+        } else {
+            super.copyTo (target, srcPos, dstPos, length);
+        }
+    }
+
+    private long read (final int position) {
+        return this.samples [position] & Int24SampleBuffer.BYTE_MASK | (this.samples [position + Int24SampleBuffer.SECOND_BYTE] & Int24SampleBuffer.BYTE_MASK) << Byte.SIZE | (long) (this.samples [position + Int24SampleBuffer.THIRD_BYTE] & Int24SampleBuffer.BYTE_MASK) << Byte.SIZE * Int24SampleBuffer.THIRD_BYTE;
+    }
+
+    private void write (final int position, final long unsignedValue) {
+        this.samples [position] = (byte) unsignedValue;
+        this.samples [position + Int24SampleBuffer.SECOND_BYTE] = (byte) (unsignedValue >> Byte.SIZE);
+        this.samples [position + Int24SampleBuffer.THIRD_BYTE] = (byte) (unsignedValue >> Byte.SIZE * Int24SampleBuffer.THIRD_BYTE);
+    }
+}
@@ -0,0 +1,59 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.util.Arrays;
+
+/**
+ * 32 bits packed storage
+ */
+public final class IntSampleBuffer extends SampleBuffer {
+
+    private static final long serialVersionUID = -1318462745209577041L;
+
+    private static final int  SAMPLE_SIZE      = 4;
+    private static final long NEUTRAL          = SampleBuffer.neutralOf (IntSampleBuffer.SAMPLE_SIZE);
+    private static final long MASK             = 0xFFFFFFFFL;
+
+    private final int []      samples;
+
+    public IntSampleBuffer (final int length) {
+        super ();
+        this.samples = new int [length];
+        Arrays.fill (this.samples, (int) IntSampleBuffer.NEUTRAL);
+    }
+
+    @Override
+    public long get (final int index) {
+        return (this.samples [index] & IntSampleBuffer.MASK) - IntSampleBuffer.NEUTRAL;
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        this.samples [index] = (int) SampleBuffer.clamp (value + IntSampleBuffer.NEUTRAL, 0, IntSampleBuffer.MASK);
+    }
+
+    @Override
+    public int length () {
+        return this.samples.length;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length) {
+        return new IntSampleBuffer (length);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target [dstPos + i] = (this.samples [srcPos + i] & IntSampleBuffer.MASK) - IntSampleBuffer.NEUTRAL;
+        }
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (target instanceof IntSampleBuffer) {
+            System.arraycopy (this.samples, srcPos, ((IntSampleBuffer) target).samples, dstPos, length);
+        } else {
+            super.copyTo (target, srcPos, dstPos, length);
+        }
+    }
+}
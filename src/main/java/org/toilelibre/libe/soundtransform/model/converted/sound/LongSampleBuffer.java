@@ -0,0 +1,73 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+
+/**
+ * Unpacked storage, one long per sample. Used when the sample size is unknown
+ * or when the samples array is provided by the caller.
+ *
+ * Only a buffer built as owning an array of the ArrayPool gives it back when
+ * it is released : the arrays provided by the caller are never pooled.
+ */
+public final class LongSampleBuffer extends SampleBuffer {
+
+    private static final long serialVersionUID = -2171829519962493374L;
+
+    private final long []     samples;
+    private final boolean     pooled;
+
+    public LongSampleBuffer (final long [] samples1) {
+        this (samples1, false);
+    }
+
+    /**
+     * Builds a buffer over an array
+     *
+     * @param samples1
+     *            the samples
+     * @param pooled1
+     *            true if the array was taken from the ArrayPool and is owned
+     *            by this buffer only (it will be released with the buffer)
+     */
+    public LongSampleBuffer (final long [] samples1, final boolean pooled1) {
+        super ();
+        this.samples = samples1;
+        this.pooled = pooled1;
+    }
+
+    @Override
+    public long get (final int index) {
+        return this.samples [index];
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        this.samples [index] = value;
+    }
+
+    @Override
+    public int length () {
+        return this.samples.length;
+    }
+
+    @Override
+    public void release () {
+        if (this.pooled) {
+            ArrayPool.release (this.samples);
+        }
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        System.arraycopy (this.samples, srcPos, target, dstPos, length);
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (target instanceof LongSampleBuffer) {
+            System.arraycopy (this.samples, srcPos, ((LongSampleBuffer) target).samples, dstPos, length);
+        } else {
+            super.copyTo (target, srcPos, dstPos, length);
+        }
+    }
+}
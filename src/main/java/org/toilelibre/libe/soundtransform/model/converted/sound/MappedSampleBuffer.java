@@ -0,0 +1,160 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Storage reading the samples of one channel directly inside the PCM frames
+ * of a (memory mapped) file. Nothing is copied on the heap : each sample is
+ * decoded when it is read, the same way the frame processor decodes a stream.
+ *
+ * The frames are split into several regions because a single mapping cannot
+ * exceed 2GB. The regions are only read with absolute gets, so the buffer can
+ * be shared between threads.
+ *
+ * The file is never written : the first call to {@link #set(int, long)}
+ * copies the samples into a long values heap buffer (copy on write), and the
+ * following reads and writes are done inside that copy.
+ */
+public final class MappedSampleBuffer extends SampleBuffer {
+
+    private static final long             serialVersionUID = -2419826236104383164L;
+    private static final int              BYTE_MASK        = 0xFF;
+
+    private final transient ByteBuffer [] regions;
+    private final int                     framesPerRegion;
+    private final int                     length;
+    private final int                     frameSize;
+    private final int                     offsetInFrame;
+    private final int                     sampleSize;
+    private final boolean                 bigEndian;
+    private final boolean                 pcmSigned;
+    private final long                    neutral;
+    private volatile SampleBuffer         heapCopy;
+
+    /**
+     * @param regions1
+     *            consecutive parts of the PCM data, each one starting with a
+     *            frame
+     * @param framesPerRegion1
+     *            number of frames in each region (the last one can be
+     *            shorter)
+     * @param length1
+     *            number of frames
+     * @param channels
+     *            number of channels in a frame
+     * @param channelNum
+     *            channel read by this buffer
+     * @param sampleSize1
+     *            number of bytes per sample
+     * @param bigEndian1
+     *            endianness of the samples
+     * @param pcmSigned1
+     *            whether the bytes are signed
+     */
+    public MappedSampleBuffer (final ByteBuffer [] regions1, final int framesPerRegion1, final int length1, final int channels, final int channelNum, final int sampleSize1, final boolean bigEndian1, final boolean pcmSigned1) {
+        super ();
+        this.regions = regions1.clone ();
+        this.framesPerRegion = framesPerRegion1;
+        this.length = length1;
+        this.frameSize = channels * sampleSize1;
+        this.offsetInFrame = channelNum * sampleSize1;
+        this.sampleSize = sampleSize1;
+        this.bigEndian = bigEndian1;
+        this.pcmSigned = pcmSigned1;
+        this.neutral = SampleBuffer.neutralOf (sampleSize1);
+    }
+
+    @Override
+    public long get (final int index) {
+        final SampleBuffer copy = this.heapCopy;
+        if (copy != null) {
+            return copy.get (index);
+        }
+        this.checkIndex (index);
+        return this.read (this.regions [index / this.framesPerRegion], index % this.framesPerRegion * this.frameSize);
+    }
+
+    @Override
+    public synchronized void set (final int index, final long value) {
+        if (this.heapCopy == null) {
+            final SampleBuffer copy = new LongSampleBuffer (new long [this.length]);
+            this.copyTo (copy, 0, 0, this.length);
+            this.heapCopy = copy;
+        }
+        this.heapCopy.set (index, value);
+    }
+
+    @Override
+    public int length () {
+        return this.length;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length1) {
+        return SampleBuffer.forSampleSize (this.sampleSize, length1);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length1) {
+        final SampleBuffer copy = this.heapCopy;
+        if (copy != null) {
+            copy.copyTo (target, srcPos, dstPos, length1);
+            return;
+        }
+        if (length1 <= 0) {
+            return;
+        }
+        this.checkIndex (srcPos);
+        this.checkIndex (srcPos + length1 - 1);
+        int region = srcPos / this.framesPerRegion;
+        int position = srcPos % this.framesPerRegion * this.frameSize;
+        int frameInRegion = srcPos % this.framesPerRegion;
+        for (int i = 0 ; i < length1 ; i++) {
+            if (frameInRegion == this.framesPerRegion) {
+                region++;
+                position = 0;
+                frameInRegion = 0;
+            }
+            target [dstPos + i] = this.read (this.regions [region], position);
+            position += this.frameSize;
+            frameInRegion++;
+        }
+    }
+
+    /**
+     * Whether the samples are still read from the mapped file (no write has
+     * been done)
+     *
+     * @return true if nothing has been copied on the heap
+     */
+    public boolean isMapped () {
+        return this.heapCopy == null;
+    }
+
+    private void checkIndex (final int index) {
+        if (index < 0 || index >= this.length) {
+            throw new ArrayIndexOutOfBoundsException (index);
+        }
+    }
+
+    private long read (final ByteBuffer region, final int framePosition) {
+        long value = 0;
+        final int samplePosition = framePosition + this.offsetInFrame;
+        for (int numByte = 0 ; numByte < this.sampleSize ; numByte++) {
+            final int cursor = samplePosition + (this.bigEndian ? this.sampleSize - 1 - numByte : numByte);
+            final byte frameByte = region.get (cursor);
+            value += (this.pcmSigned ? frameByte - Byte.MIN_VALUE : frameByte & MappedSampleBuffer.BYTE_MASK) << Byte.SIZE * numByte;
+        }
+        return value - this.neutral;
+    }
+
+    private Object writeReplace () {
+        final SampleBuffer copy = this.heapCopy;
+        if (copy != null) {
+            return copy;
+        }
+        final SampleBuffer serializable = this.emptyBuffer (this.length);
+        this.copyTo (serializable, 0, 0, this.length);
+        return serializable;
+    }
+}
@@ -0,0 +1,16 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+/**
+ * Chooses how the length of a sound is changed by the pitch and tempo service
+ */
+public enum PitchAndTempoQuality {
+    /**
+     * Frequency domain transforms (default)
+     */
+    BEST_QUALITY,
+    /**
+     * Time domain transforms, several times cheaper, good enough for short
+     * sounds like the notes of a pack
+     */
+    BEST_SPEED
+}
@@ -0,0 +1,352 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Loudest frequencies arrays (pitch tracks) already found, with the volume of
+ * the note, by key. A key is a hash of the samples of a channel, of its
+ * format, of the class of the peak find transform and of its parameters.
+ *
+ * The most recently used tracks are kept in memory. With a directory, each
+ * track is also written in its own file (the volume, the length and the
+ * frequencies, as floats), and the tracks evicted from the memory or found by
+ * another process are read back from there.
+ *
+ * The counters are the ones of the whole life of the cache. A cache can be
+ * shared by several threads.
+ */
+public class PitchTrackCache {
+
+    public enum PitchTrackCacheErrorCode implements ErrorCode {
+
+        NO_HASH_ALGORITHM ("The %1s hash algorithm is not available"), COULD_NOT_READ_THE_TRACK ("Could not read the pitch track %1s"), COULD_NOT_WRITE_THE_TRACK ("Could not write the pitch track %1s");
+
+        private final String messageFormat;
+
+        PitchTrackCacheErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    /**
+     * A loudest frequencies array and the volume of its note
+     */
+    public static final class PitchTrack {
+        private final float [] loudestFreqs;
+        private final float    detectedNoteVolume;
+
+        public PitchTrack (final float [] loudestFreqs1, final float detectedNoteVolume1) {
+            this.loudestFreqs = loudestFreqs1.clone ();
+            this.detectedNoteVolume = detectedNoteVolume1;
+        }
+
+        public float getDetectedNoteVolume () {
+            return this.detectedNoteVolume;
+        }
+
+        public float [] getLoudestFreqs () {
+            return this.loudestFreqs.clone ();
+        }
+    }
+
+    private final class Tracks extends LinkedHashMap<String, PitchTrack> {
+
+        private static final long serialVersionUID = 4023188215328945512L;
+
+        private Tracks () {
+            super (PitchTrackCache.INITIAL_CAPACITY, PitchTrackCache.LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry (final Entry<String, PitchTrack> eldest) {
+            final boolean evicted = this.size () > PitchTrackCache.this.maxTracks;
+            if (evicted) {
+                PitchTrackCache.this.evictions++;
+            }
+            return evicted;
+        }
+    }
+
+    private static final String HASH_ALGORITHM    = "SHA-256";
+    private static final String FILE_EXTENSION    = ".track";
+    // "STPT"
+    private static final int    MAGIC             = 0x53545054;
+    private static final int    FORMAT_VERSION    = 1;
+    private static final int    INITIAL_CAPACITY  = 16;
+    private static final float  LOAD_FACTOR       = 0.75f;
+    private static final int    HASH_BUFFER_SIZE  = 8192;
+    private static final int    BYTE_MASK         = 0xFF;
+    private static final int    HEX_RADIX         = 16;
+    private static final int    BITS_PER_BYTE     = 8;
+    // magic, version, volume and length
+    private static final int    HEADER_SIZE       = 4 * Integer.SIZE / PitchTrackCache.BITS_PER_BYTE;
+    private static final int    FLOAT_SIZE        = Float.SIZE / PitchTrackCache.BITS_PER_BYTE;
+
+    private final int           maxTracks;
+    private final File          directory;
+    private final Tracks        tracks;
+    private long                hits;
+    private long                diskHits;
+    private long                misses;
+    private long                evictions;
+
+    /**
+     * Cache in memory only
+     *
+     * @param maxTracks1
+     *            number of tracks kept in memory
+     */
+    public PitchTrackCache (final int maxTracks1) {
+        this (maxTracks1, null);
+    }
+
+    /**
+     * Cache in memory and on disk
+     *
+     * @param maxTracks1
+     *            number of tracks kept in memory
+     * @param directory1
+     *            directory of the track files (null to keep the tracks in
+     *            memory only)
+     */
+    public PitchTrackCache (final int maxTracks1, final File directory1) {
+        this.maxTracks = maxTracks1;
+        this.directory = directory1;
+        this.tracks = new Tracks ();
+    }
+
+    /**
+     * Key of the tracks of a channel
+     *
+     * @param channel
+     *            the analyzed channel
+     * @param peakFindClass
+     *            the class of the peak find transform
+     * @param parameters
+     *            the parameters of the peak find transform (the step, the
+     *            window length, ...), compared by their string value
+     * @return the key
+     * @throws SoundTransformException
+     *             if the hash algorithm is not available
+     */
+    public static String key (final Channel channel, final Class<?> peakFindClass, final Object... parameters) throws SoundTransformException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance (PitchTrackCache.HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new SoundTransformException (PitchTrackCacheErrorCode.NO_HASH_ALGORITHM, nsae, PitchTrackCache.HASH_ALGORITHM);
+        }
+        final byte [] buffer = new byte [PitchTrackCache.HASH_BUFFER_SIZE];
+        int position = PitchTrackCache.putLong (buffer, 0, Float.floatToIntBits (channel.getSampleRate ()));
+        position = PitchTrackCache.putLong (buffer, position, channel.getSampleSize ());
+        position = PitchTrackCache.putLong (buffer, position, channel.getSamplesLength ());
+        for (int i = 0 ; i < channel.getSamplesLength () ; i++) {
+            if (position == buffer.length) {
+                digest.update (buffer, 0, position);
+                position = 0;
+            }
+            position = PitchTrackCache.putLong (buffer, position, channel.getSampleAt (i));
+        }
+        digest.update (buffer, 0, position);
+        digest.update ((peakFindClass.getName () + Arrays.deepToString (parameters)).getBytes ());
+
+        final StringBuilder key = new StringBuilder ();
+        for (final byte b : digest.digest ()) {
+            final String hex = Integer.toString (b & PitchTrackCache.BYTE_MASK, PitchTrackCache.HEX_RADIX);
+            key.append (hex.length () == 1 ? "0" : "").append (hex);
+        }
+        return key.toString ();
+    }
+
+    private static int putLong (final byte [] buffer, final int position, final long value) {
+        for (int i = 0 ; i < Long.SIZE / PitchTrackCache.BITS_PER_BYTE ; i++) {
+            buffer [position + i] = (byte) (value >>> i * PitchTrackCache.BITS_PER_BYTE);
+        }
+        return position + Long.SIZE / PitchTrackCache.BITS_PER_BYTE;
+    }
+
+    /**
+     * Track of a key, from the memory, or else from the disk
+     *
+     * @param key
+     *            the key
+     * @return the track, or null if it is not in the cache
+     * @throws SoundTransformException
+     *             if the track file exists but could not be read (the track
+     *             is counted as missing)
+     */
+    public PitchTrack get (final String key) throws SoundTransformException {
+        synchronized (this) {
+            final PitchTrack track = this.tracks.get (key);
+            if (track != null) {
+                this.hits++;
+                return track;
+            }
+        }
+        final File file = this.fileOf (key);
+        if (file == null || !file.isFile ()) {
+            synchronized (this) {
+                this.misses++;
+            }
+            return null;
+        }
+        final PitchTrack track;
+        try {
+            track = this.read (file);
+        } catch (final IOException ioe) {
+            synchronized (this) {
+                this.misses++;
+            }
+            throw new SoundTransformException (PitchTrackCacheErrorCode.COULD_NOT_READ_THE_TRACK, ioe, file.getPath ());
+        }
+        synchronized (this) {
+            this.hits++;
+            this.diskHits++;
+            this.tracks.put (key, track);
+        }
+        return track;
+    }
+
+    /**
+     * Keeps a track in memory, and writes it on disk
+     *
+     * @param key
+     *            the key
+     * @param track
+     *            the track
+     * @throws SoundTransformException
+     *             if the track file could not be written (the track is still
+     *             kept in memory)
+     */
+    public void put (final String key, final PitchTrack track) throws SoundTransformException {
+        synchronized (this) {
+            this.tracks.put (key, track);
+        }
+        final File file = this.fileOf (key);
+        if (file == null) {
+            return;
+        }
+        try {
+            this.write (track, file);
+        } catch (final IOException ioe) {
+            throw new SoundTransformException (PitchTrackCacheErrorCode.COULD_NOT_WRITE_THE_TRACK, ioe, file.getPath ());
+        }
+    }
+
+    private File fileOf (final String key) {
+        return this.directory == null ? null : new File (this.directory, key + PitchTrackCache.FILE_EXTENSION);
+    }
+
+    private PitchTrack read (final File file) throws IOException {
+        final DataInputStream input = new DataInputStream (new BufferedInputStream (new FileInputStream (file)));
+        try {
+            if (input.readInt () != PitchTrackCache.MAGIC || input.readInt () != PitchTrackCache.FORMAT_VERSION) {
+                throw new IOException ("Not a pitch track file");
+            }
+            final float detectedNoteVolume = input.readFloat ();
+            final int length = input.readInt ();
+            // a damaged length must not allocate a huge array
+            if (length < 0 || PitchTrackCache.HEADER_SIZE + (long) length * PitchTrackCache.FLOAT_SIZE != file.length ()) {
+                throw new IOException ("Wrong number of frequencies : " + length);
+            }
+            final float [] loudestFreqs = new float [length];
+            for (int i = 0 ; i < loudestFreqs.length ; i++) {
+                loudestFreqs [i] = input.readFloat ();
+            }
+            return new PitchTrack (loudestFreqs, detectedNoteVolume);
+        } finally {
+            input.close ();
+        }
+    }
+
+    private void write (final PitchTrack track, final File file) throws IOException {
+        if (!this.directory.isDirectory () && !this.directory.mkdirs ()) {
+            throw new IOException ("Could not create " + this.directory.getPath ());
+        }
+        // a reader never sees a partly written track
+        final File temporaryFile = File.createTempFile (file.getName (), null, this.directory);
+        final float [] loudestFreqs = track.loudestFreqs;
+        final DataOutputStream output = new DataOutputStream (new BufferedOutputStream (new FileOutputStream (temporaryFile)));
+        try {
+            output.writeInt (PitchTrackCache.MAGIC);
+            output.writeInt (PitchTrackCache.FORMAT_VERSION);
+            output.writeFloat (track.detectedNoteVolume);
+            output.writeInt (loudestFreqs.length);
+            for (final float loudestFreq : loudestFreqs) {
+                output.writeFloat (loudestFreq);
+            }
+        } finally {
+            output.close ();
+        }
+        if (!temporaryFile.renameTo (file) && !(file.delete () && temporaryFile.renameTo (file))) {
+            temporaryFile.delete ();
+            throw new IOException ("Could not rename " + temporaryFile.getPath ());
+        }
+    }
+
+    /**
+     * Number of tracks found, in memory or on disk
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits () {
+        return this.hits;
+    }
+
+    /**
+     * Number of tracks found on disk only
+     *
+     * @return the number of hits read from the disk
+     */
+    public synchronized long getDiskHits () {
+        return this.diskHits;
+    }
+
+    /**
+     * Number of tracks not found
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses () {
+        return this.misses;
+    }
+
+    /**
+     * Number of tracks removed from the memory to keep the most recently used
+     * ones
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions () {
+        return this.evictions;
+    }
+
+    /**
+     * Number of tracks in memory
+     *
+     * @return the number of tracks
+     */
+    public synchronized int size () {
+        return this.tracks.size ();
+    }
+}
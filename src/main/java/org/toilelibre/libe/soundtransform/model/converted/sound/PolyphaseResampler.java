@@ -0,0 +1,392 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.BlackmanHarrisWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeException;
+
+/**
+ * Changes the number of samples of a sound by a rational ratio up / down
+ * (windowed sinc interpolation). The low pass filter is designed once at up
+ * times the input rate, then split in up phases : an output sample only needs
+ * the taps of its phase, so its cost does not depend on the ratio.
+ *
+ * The filter banks are shared by the resamplers of the same ratio, and the
+ * output of a whole channel is allocated once, with its exact length. An
+ * arbitrary ratio is approximated by the closest fraction with at most
+ * {@value #MAX_PHASES} phases.
+ */
+public final class PolyphaseResampler {
+
+    enum PolyphaseResamplerErrorCode implements ErrorCode {
+        NOT_A_POSITIVE_RATIO ("The resampling ratio must be positive (%1s / %2s)");
+
+        private final String messageFormat;
+
+        PolyphaseResamplerErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    /**
+     * Resampler of a stream : the samples are given block by block, and each
+     * output sample is given back as soon as its last input sample is known
+     * (half a filter of input samples later)
+     */
+    public static final class Stream {
+
+        private final PolyphaseResampler resampler;
+        private final double []          history;
+        private int                      newest;
+        private long                     received;
+        private long                     emitted;
+
+        private Stream (final PolyphaseResampler resampler1) {
+            this.resampler = resampler1;
+            // each sample is written twice, so the last taps samples are
+            // always contiguous
+            this.history = new double [2 * resampler1.taps];
+        }
+
+        /**
+         * Gives the next samples of the stream
+         *
+         * @param input
+         *            the input samples
+         * @param length
+         *            number of input samples to read
+         * @param output
+         *            the output samples, at least
+         *            {@link PolyphaseResampler#maxOutputLength(int)} samples
+         *            long
+         * @return the number of output samples given back
+         */
+        public int process (final double [] input, final int length, final double [] output) {
+            int written = 0;
+            for (int i = 0 ; i < length ; i++) {
+                written = this.push (input [i], output, written, Long.MAX_VALUE);
+            }
+            return written;
+        }
+
+        /**
+         * Ends the stream : the last output samples are computed with silence
+         * after the input, and the total number of output samples is
+         * {@link PolyphaseResampler#outputLength(int)} of the number of input
+         * samples
+         *
+         * @param output
+         *            the output samples, at least
+         *            {@link PolyphaseResampler#maxOutputLength(int)} of
+         *            {@link PolyphaseResampler#getDelay()} samples long
+         * @return the number of output samples given back
+         */
+        public int flush (final double [] output) {
+            final long total = this.resampler.outputLength (this.received);
+            int written = 0;
+            while (this.emitted < total) {
+                written = this.push (0, output, written, total);
+            }
+            return written;
+        }
+
+        /**
+         * Forgets the previous samples
+         */
+        public void reset () {
+            Arrays.fill (this.history, 0);
+            this.newest = 0;
+            this.received = 0;
+            this.emitted = 0;
+        }
+
+        private int push (final double sample, final double [] output, final int written, final long limit) {
+            final int taps = this.resampler.taps;
+            this.newest = (this.newest + 1) % taps;
+            this.history [this.newest] = sample;
+            this.history [this.newest + taps] = sample;
+            this.received++;
+            int result = written;
+            // the output samples whose last input sample has just arrived
+            while (this.emitted < limit && this.resampler.lastInputIndex (this.emitted) < this.received) {
+                final int phase = this.resampler.phaseOf (this.emitted);
+                output [result++] = this.resampler.convolve (this.history, this.newest + taps, phase);
+                this.emitted++;
+            }
+            return result;
+        }
+    }
+
+    private static final class BankCache extends LinkedHashMap<Long, PolyphaseResampler> {
+
+        private static final long serialVersionUID = -2318845210734965120L;
+
+        private BankCache () {
+            super (PolyphaseResampler.MAX_CACHED_BANKS, PolyphaseResampler.LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry (final Entry<Long, PolyphaseResampler> eldest) {
+            return this.size () > PolyphaseResampler.MAX_CACHED_BANKS;
+        }
+    }
+
+    /**
+     * Max number of phases (and max denominator) of an approximated ratio
+     */
+    public static final int                             MAX_PHASES       = 1024;
+
+    private static final int                            ZERO_CROSSINGS   = 8;
+    private static final int                            MAX_TAPS         = 512;
+    private static final double                         ROLLOFF          = 0.9;
+    private static final double                         RATIO_EPSILON    = 1e-9;
+    private static final int                            INT_BITS         = 32;
+    private static final float                          LOAD_FACTOR      = 0.75f;
+    private static final int                            MAX_CACHED_BANKS = 16;
+    private static final Map<Long, PolyphaseResampler> BANKS            = new BankCache ();
+
+    private final int                                   up;
+    private final int                                   down;
+    private final int                                   taps;
+    private final double []                             bank;
+
+    private PolyphaseResampler (final int up1, final int down1) {
+        this.up = up1;
+        this.down = down1;
+        final double reduction = Math.max (1, down1 / (double) up1);
+        this.taps = Math.min (PolyphaseResampler.MAX_TAPS, 2 * (int) Math.ceil (PolyphaseResampler.ZERO_CROSSINGS * reduction));
+        this.bank = this.design ();
+    }
+
+    /**
+     * Resampler giving up output samples for down input samples
+     *
+     * @param up
+     *            the upsampling factor
+     * @param down
+     *            the downsampling factor
+     * @return the resampler (shared)
+     */
+    public static PolyphaseResampler forRatio (final int up, final int down) {
+        if (up <= 0 || down <= 0) {
+            throw new SoundTransformRuntimeException (new SoundTransformException (PolyphaseResamplerErrorCode.NOT_A_POSITIVE_RATIO, new IllegalArgumentException (), up, down));
+        }
+        final int divisor = PolyphaseResampler.gcd (up, down);
+        final int reducedUp = up / divisor;
+        final int reducedDown = down / divisor;
+        final Long key = Long.valueOf (((long) reducedUp << PolyphaseResampler.INT_BITS) | reducedDown);
+        synchronized (PolyphaseResampler.BANKS) {
+            PolyphaseResampler resampler = PolyphaseResampler.BANKS.get (key);
+            if (resampler == null) {
+                resampler = new PolyphaseResampler (reducedUp, reducedDown);
+                PolyphaseResampler.BANKS.put (key, resampler);
+            }
+            return resampler;
+        }
+    }
+
+    /**
+     * Resampler multiplying the number of samples by a factor, approximated
+     * by a fraction
+     *
+     * @param factor
+     *            the number of output samples divided by the number of input
+     *            samples
+     * @return the resampler (shared)
+     */
+    public static PolyphaseResampler forFactor (final double factor) {
+        if (factor <= 0 || Double.isInfinite (factor) || Double.isNaN (factor)) {
+            throw new SoundTransformRuntimeException (new SoundTransformException (PolyphaseResamplerErrorCode.NOT_A_POSITIVE_RATIO, new IllegalArgumentException (), factor, 1));
+        }
+        // continued fraction, until the ratio is exact or the terms too big
+        long previousUp = 0;
+        long previousDown = 1;
+        long up = 1;
+        long down = 0;
+        double rest = factor;
+        while (down == 0 || Math.abs (up / (double) down - factor) > PolyphaseResampler.RATIO_EPSILON * factor) {
+            final long term = (long) Math.floor (rest);
+            final long nextUp = term * up + previousUp;
+            final long nextDown = term * down + previousDown;
+            if (nextUp > PolyphaseResampler.MAX_PHASES || nextDown > PolyphaseResampler.MAX_PHASES) {
+                break;
+            }
+            previousUp = up;
+            previousDown = down;
+            up = nextUp;
+            down = nextDown;
+            if (rest == term) {
+                break;
+            }
+            rest = 1 / (rest - term);
+        }
+        if (down == 0) {
+            return PolyphaseResampler.forRatio (PolyphaseResampler.MAX_PHASES, 1);
+        }
+        if (up == 0) {
+            return PolyphaseResampler.forRatio (1, PolyphaseResampler.MAX_PHASES);
+        }
+        return PolyphaseResampler.forRatio ((int) up, (int) down);
+    }
+
+    /**
+     * Resampler from a sample rate to another one
+     *
+     * @param sampleRate
+     *            the input sample rate
+     * @param newSampleRate
+     *            the output sample rate
+     * @return the resampler (shared)
+     */
+    public static PolyphaseResampler forSampleRates (final float sampleRate, final float newSampleRate) {
+        return PolyphaseResampler.forFactor (newSampleRate / (double) sampleRate);
+    }
+
+    private static int gcd (final int a, final int b) {
+        return b == 0 ? a : PolyphaseResampler.gcd (b, a % b);
+    }
+
+    private double [] design () {
+        // low pass filter at up times the input rate, below the lowest of
+        // the two Nyquist frequencies
+        final int length = this.up * this.taps;
+        final double cutoff = PolyphaseResampler.ROLLOFF / (2.0 * Math.max (this.up, this.down));
+        final double [] window = new BlackmanHarrisWindowSoundTransform ().getCoefficients (length + 1);
+        final double [] result = new double [length];
+        for (int phase = 0 ; phase < this.up ; phase++) {
+            double sum = 0;
+            for (int k = 0 ; k < this.taps ; k++) {
+                final int n = phase + k * this.up;
+                final double x = 2 * cutoff * (n - length / 2);
+                final double sinc = x == 0 ? 1 : Math.sin (Math.PI * x) / (Math.PI * x);
+                result [phase * this.taps + k] = sinc * window [n];
+                sum += result [phase * this.taps + k];
+            }
+            // each phase lets the constant part through unchanged
+            for (int k = 0 ; k < this.taps ; k++) {
+                result [phase * this.taps + k] /= sum;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The upsampling factor (number of phases)
+     *
+     * @return the upsampling factor
+     */
+    public int getUp () {
+        return this.up;
+    }
+
+    /**
+     * The downsampling factor
+     *
+     * @return the downsampling factor
+     */
+    public int getDown () {
+        return this.down;
+    }
+
+    /**
+     * Number of input samples needed after the position of an output sample
+     * to compute it (the half of the filter)
+     *
+     * @return the delay, in input samples
+     */
+    public int getDelay () {
+        return this.taps / 2;
+    }
+
+    /**
+     * Number of output samples for a whole input
+     *
+     * @param inputLength
+     *            the number of input samples
+     * @return the number of output samples
+     */
+    public int outputLength (final int inputLength) {
+        return (int) this.outputLength ((long) inputLength);
+    }
+
+    private long outputLength (final long inputLength) {
+        return (inputLength * this.up + this.down - 1) / this.down;
+    }
+
+    /**
+     * Max number of output samples given back by the stream for a block
+     *
+     * @param inputLength
+     *            the number of input samples of the block
+     * @return the max number of output samples
+     */
+    public int maxOutputLength (final int inputLength) {
+        return this.outputLength (inputLength) + 1;
+    }
+
+    /**
+     * New stream with this ratio
+     *
+     * @return the stream
+     */
+    public Stream newStream () {
+        return new Stream (this);
+    }
+
+    /**
+     * Resamples a whole channel
+     *
+     * @param input
+     *            the channel
+     * @param newSampleRate
+     *            the sample rate of the result
+     * @return a new channel of exactly {@link #outputLength(int)} samples
+     */
+    public Channel resample (final Channel input, final float newSampleRate) {
+        final int inputLength = input.getSamplesLength ();
+        final int outputLength = this.outputLength (inputLength);
+        final Channel output = new Channel (outputLength, new FormatInfo (input.getSampleSize (), newSampleRate), input.getChannelNum ());
+        for (int m = 0 ; m < outputLength ; m++) {
+            final int phase = this.phaseOf (m);
+            final int offset = phase * this.taps;
+            final long last = this.lastInputIndex (m);
+            double sum = 0;
+            for (int k = 0 ; k < this.taps ; k++) {
+                final long index = last - k;
+                if (index >= 0 && index < inputLength) {
+                    sum += this.bank [offset + k] * input.getSampleAt ((int) index);
+                }
+            }
+            output.setSampleAt (m, Math.round (sum));
+        }
+        return output;
+    }
+
+    private int phaseOf (final long outputIndex) {
+        return (int) (outputIndex * this.down % this.up);
+    }
+
+    private long lastInputIndex (final long outputIndex) {
+        return outputIndex * this.down / this.up + this.getDelay ();
+    }
+
+    private double convolve (final double [] history, final int newest, final int phase) {
+        final int offset = phase * this.taps;
+        double sum = 0;
+        for (int k = 0 ; k < this.taps ; k++) {
+            sum += this.bank [offset + k] * history [newest - k];
+        }
+        return sum;
+    }
+}
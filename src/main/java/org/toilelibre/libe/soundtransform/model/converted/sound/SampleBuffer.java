@@ -0,0 +1,149 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.io.Serializable;
+
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+
+/**
+ * Storage of the samples of a channel. The samples are always seen as signed
+ * long values centered around 0, whatever the width used to store them.
+ *
+ * The packed implementations store each sample as an unsigned value shifted by
+ * the neutral value used when reading the PCM frames (see
+ * {@link #neutralOf(int)}), so every value read from a stream of the same
+ * sample size fits without loss. Out of range values are clamped : they
+ * are only used to hold the decoded frames, the results of the transforms are
+ * kept in long values until they are exported.
+ */
+public abstract class SampleBuffer implements Serializable {
+
+    private static final long serialVersionUID = 4437829620251796185L;
+
+    private static final int  NB_BYTE_VALUES   = 1 << Byte.SIZE;
+    private static final int  MAX_BYTE_VALUE   = SampleBuffer.NB_BYTE_VALUES - 1;
+    private static final int  HALF             = 2;
+    private static final int  ONE_BYTE         = 1;
+    private static final int  TWO_BYTES        = 2;
+    private static final int  THREE_BYTES      = 3;
+    private static final int  FOUR_BYTES       = 4;
+
+    /**
+     * Chooses the narrowest storage able to hold the samples of the given
+     * format
+     *
+     * @param formatInfo
+     *            format of the channel
+     * @param length
+     *            number of samples
+     * @return an empty (zero filled) buffer
+     */
+    public static SampleBuffer forFormat (final FormatInfo formatInfo, final int length) {
+        return SampleBuffer.forSampleSize (formatInfo == null ? 0 : formatInfo.getSampleSize (), length);
+    }
+
+    /**
+     * Chooses the narrowest storage able to hold samples of the given size
+     *
+     * @param sampleSize
+     *            number of bytes per sample
+     * @param length
+     *            number of samples
+     * @return an empty (zero filled) buffer
+     */
+    public static SampleBuffer forSampleSize (final int sampleSize, final int length) {
+        switch (sampleSize) {
+            case ONE_BYTE:
+                return new ByteSampleBuffer (length);
+            case TWO_BYTES:
+                return new ShortSampleBuffer (length);
+            case THREE_BYTES:
+                return new Int24SampleBuffer (length);
+            case FOUR_BYTES:
+                return new IntSampleBuffer (length);
+            default:
+                return new LongSampleBuffer (new long [length]);
+        }
+    }
+
+    /**
+     * Value subtracted from the unsigned frame values to center them around
+     * 0. It follows the computation of the frame processor : the sum of
+     * 255^i / 2 for i from 1 to sampleSize.
+     *
+     * @param sampleSize
+     *            number of bytes per sample
+     * @return the neutral value
+     */
+    public static long neutralOf (final int sampleSize) {
+        long neutral = 0;
+        for (int i = 1 ; i <= sampleSize ; i++) {
+            neutral += Math.pow (SampleBuffer.MAX_BYTE_VALUE, i) / SampleBuffer.HALF;
+        }
+        return neutral;
+    }
+
+    static long clamp (final long value, final long min, final long max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    public abstract long get (int index);
+
+    public abstract void set (int index, long value);
+
+    public abstract int length ();
+
+    /**
+     * Builds an empty buffer using the same storage as this one (to hold a
+     * copy of the same values)
+     *
+     * @param length
+     *            number of samples
+     * @return an empty (zero filled) buffer
+     */
+    public SampleBuffer emptyBuffer (final int length) {
+        return new LongSampleBuffer (new long [length]);
+    }
+
+    /**
+     * Whether the samples of this buffer are read from (or written to) the
+     * other buffer
+     *
+     * @param other
+     *            another buffer
+     * @return true if the other buffer is this one, or is viewed by this one
+     */
+    public boolean uses (final SampleBuffer other) {
+        return this == other;
+    }
+
+    /**
+     * Gives the storage back to the array pool when there is one. The buffer
+     * must not be used anymore after that.
+     */
+    public void release () {
+    }
+
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target [dstPos + i] = this.get (srcPos + i);
+        }
+    }
+
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target.set (dstPos + i, this.get (srcPos + i));
+        }
+    }
+
+    @Override
+    public String toString () {
+        final StringBuilder sb = new StringBuilder ("[");
+        for (int i = 0 ; i < this.length () ; i++) {
+            if (i > 0) {
+                sb.append (", ");
+            }
+            sb.append (this.get (i));
+        }
+        return sb.append (']').toString ();
+    }
+}
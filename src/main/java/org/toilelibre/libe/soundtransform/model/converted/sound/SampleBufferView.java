@@ -0,0 +1,120 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+/**
+ * Range of another buffer, seen without any copy.
+ *
+ * The parent buffer is never written through the view : the first call to
+ * {@link #set(int, long)} copies the range into a long values buffer (copy on
+ * write), and the following reads and writes are done inside that copy.
+ */
+public final class SampleBufferView extends SampleBuffer {
+
+    private static final long     serialVersionUID = -6271815398473017862L;
+
+    private final SampleBuffer    parent;
+    private final int             offset;
+    private final int             length;
+    private volatile SampleBuffer copy;
+
+    /**
+     * @param parent1
+     *            the viewed buffer
+     * @param offset1
+     *            index of the first viewed sample
+     * @param length1
+     *            number of viewed samples
+     */
+    public SampleBufferView (final SampleBuffer parent1, final int offset1, final int length1) {
+        super ();
+        if (offset1 < 0 || length1 < 0 || offset1 + length1 > parent1.length ()) {
+            throw new ArrayIndexOutOfBoundsException (offset1 + length1);
+        }
+        if (parent1 instanceof SampleBufferView && ((SampleBufferView) parent1).copy == null) {
+            this.parent = ((SampleBufferView) parent1).parent;
+            this.offset = ((SampleBufferView) parent1).offset + offset1;
+        } else {
+            this.parent = parent1;
+            this.offset = offset1;
+        }
+        this.length = length1;
+    }
+
+    @Override
+    public long get (final int index) {
+        final SampleBuffer written = this.copy;
+        if (written != null) {
+            return written.get (index);
+        }
+        this.checkIndex (index);
+        return this.parent.get (this.offset + index);
+    }
+
+    @Override
+    public synchronized void set (final int index, final long value) {
+        if (this.copy == null) {
+            final SampleBuffer written = new LongSampleBuffer (new long [this.length]);
+            this.parent.copyTo (written, this.offset, 0, this.length);
+            this.copy = written;
+        }
+        this.copy.set (index, value);
+    }
+
+    @Override
+    public int length () {
+        return this.length;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length1) {
+        return this.parent.emptyBuffer (length1);
+    }
+
+    @Override
+    public boolean uses (final SampleBuffer other) {
+        return this == other || this.copy == null && this.parent.uses (other);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length1) {
+        final SampleBuffer written = this.copy;
+        if (written != null) {
+            written.copyTo (target, srcPos, dstPos, length1);
+            return;
+        }
+        this.checkRange (srcPos, length1);
+        this.parent.copyTo (target, this.offset + srcPos, dstPos, length1);
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length1) {
+        final SampleBuffer written = this.copy;
+        if (written != null) {
+            written.copyTo (target, srcPos, dstPos, length1);
+            return;
+        }
+        this.checkRange (srcPos, length1);
+        this.parent.copyTo (target, this.offset + srcPos, dstPos, length1);
+    }
+
+    private void checkIndex (final int index) {
+        if (index < 0 || index >= this.length) {
+            throw new ArrayIndexOutOfBoundsException (index);
+        }
+    }
+
+    private void checkRange (final int srcPos, final int length1) {
+        if (srcPos < 0 || length1 < 0 || srcPos + length1 > this.length) {
+            throw new ArrayIndexOutOfBoundsException (srcPos + length1);
+        }
+    }
+
+    private Object writeReplace () {
+        final SampleBuffer written = this.copy;
+        if (written != null) {
+            return written;
+        }
+        final SampleBuffer range = this.parent.emptyBuffer (this.length);
+        this.parent.copyTo (range, this.offset, 0, this.length);
+        return range;
+    }
+}
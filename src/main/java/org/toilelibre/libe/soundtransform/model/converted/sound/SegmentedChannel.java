@@ -8,32 +8,57 @@ import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeE
 import java.io.Serializable;
 import java.util.List;
 
+/**
+ * A channel made of the first channel of several sounds, one after the other.
+ * Sounds can be appended while the channel is read (during a continuous
+ * recording).
+ *
+ * The segments are indexed by an immutable snapshot (the number of segments,
+ * the segment channels and the prefix sums of their lengths), published in a
+ * volatile field by the thread appending the sounds. A read only dereferences
+ * the current snapshot and resolves the index with a binary search inside it,
+ * without any lock. An appended sound is added to the arrays of the snapshot,
+ * and the arrays grow by doubling their capacity, so a long recording is
+ * indexed in a linear time. The older snapshots never read the slots written
+ * after them.
+ */
 public class SegmentedChannel extends Channel {
 
     /**
-     * 
+     *
      */
     private static final long serialVersionUID = 6449765160667797939L;
 
-    static class IndexData implements Serializable {
-        
-        private static final long serialVersionUID = 7655211423479465218L;
-        
-        int globalIndex;
-        int arrayIndex;
-        int arrayPosition;
-
-        public IndexData (final int globalIndex, final int arrayIndex, final int arrayPosition) {
-            super ();
-            this.globalIndex = globalIndex;
-            this.arrayIndex = arrayIndex;
-            this.arrayPosition = arrayPosition;
+    private static final class Segments implements Serializable {
+        private static final long serialVersionUID = -2204850716419858101L;
+
+        private final Channel [] channels;
+        private final int []     offsets;
+        private final int        count;
+
+        private Segments (final Channel [] channels1, final int [] offsets1, final int count1) {
+            this.channels = channels1;
+            this.offsets = offsets1;
+            this.count = count1;
         }
 
-        public IndexData (final IndexData otherIndex) {
-            this (otherIndex.globalIndex, otherIndex.arrayIndex, otherIndex.arrayPosition);
+        private int length () {
+            return this.offsets [this.count];
         }
 
+        private int find (final int index) {
+            int low = 0;
+            int high = this.count;
+            while (low < high) {
+                final int middle = low + high >>> 1;
+                if (this.offsets [middle + 1] <= index) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
     }
 
     enum SegmentedChannelErrorCode implements ErrorCode {
@@ -53,127 +78,136 @@ public class SegmentedChannel extends Channel {
     }
 
     public static final String THIS_CHANNEL_IS_SEGMENTED_AND_CANNOT_BE_DISPLAYED = "This channel is segmented and cannot be displayed";
-    private final List<Sound>  channelParts;
-    private int                recentlyViewedSamplesArrayNumber;
-    private int                recentlyViewedSamplesLength;
-    private IndexData          recentlyViewedIndex                               = new IndexData (0, 0, 0);
+    private static final int   INITIAL_CAPACITY                                  = 16;
+    private volatile Segments  segments;
 
+    /**
+     * Default constructor
+     *
+     * @param formatInfo
+     *            the format info
+     * @param sounds
+     *            the first sounds of the channel (the list is read once, the
+     *            next sounds are given to the append method)
+     */
     public SegmentedChannel (final FormatInfo formatInfo, final List<Sound> sounds) {
-        super (null, formatInfo, 0);
-        this.channelParts = sounds;
+        super ((SampleBuffer) null, formatInfo, 0);
+        this.segments = new Segments (new Channel [SegmentedChannel.INITIAL_CAPACITY], new int [SegmentedChannel.INITIAL_CAPACITY + 1], 0);
+        for (final Sound sound : sounds) {
+            this.append (sound);
+        }
     }
 
-    private void updateRecentlyViewedChannelLength () {
-
-        int segmentIndex = this.recentlyViewedSamplesArrayNumber;
-        int numberOfSamples = this.recentlyViewedSamplesLength;
-        while (segmentIndex < this.channelParts.size ()) {
-            numberOfSamples += this.channelParts.get (segmentIndex).getSamplesLength ();
-            segmentIndex++;
+    /**
+     * Adds the first channel of a sound at the end of this channel, and
+     * publishes the new segments to the readers
+     *
+     * @param sound
+     *            the appended sound
+     */
+    public synchronized void append (final Sound sound) {
+        final Segments current = this.segments;
+        Channel [] channels = current.channels;
+        int [] offsets = current.offsets;
+        if (current.count == channels.length) {
+            channels = new Channel [channels.length * 2];
+            offsets = new int [channels.length + 1];
+            System.arraycopy (current.channels, 0, channels, 0, current.count);
+            System.arraycopy (current.offsets, 0, offsets, 0, current.count + 1);
         }
-        this.recentlyViewedSamplesLength = numberOfSamples;
-        this.recentlyViewedSamplesArrayNumber = segmentIndex;
+        channels [current.count] = sound.getChannels () [0];
+        offsets [current.count + 1] = offsets [current.count] + channels [current.count].getSamplesLength ();
+        this.segments = new Segments (channels, offsets, current.count + 1);
     }
 
-    @Override
-    public synchronized long getSampleAt (final int index) {
-        this.updateRecentlyViewedIndex (index);
-
-        return this.channelParts.get (this.recentlyViewedIndex.arrayIndex).getChannels () [0].getSampleAt (this.recentlyViewedIndex.arrayPosition);
+    private int findSegment (final Segments current, final int index) {
+        if (index < 0 || index >= current.length ()) {
+            throw new SoundTransformRuntimeException (new SoundTransformException (SegmentedChannelErrorCode.ARRAY_INDEX_OUT_OF_BOUNDS, new ArrayIndexOutOfBoundsException (), index));
+        }
+        return current.find (index);
     }
 
     @Override
-    public String viewSamplesArray () {
-        return SegmentedChannel.THIS_CHANNEL_IS_SEGMENTED_AND_CANNOT_BE_DISPLAYED;
+    public long getSampleAt (final int index) {
+        final Segments current = this.segments;
+        final int segment = this.findSegment (current, index);
+        return current.channels [segment].getSampleAt (index - current.offsets [segment]);
     }
 
     @Override
-    public String toString () {
-        return SegmentedChannel.THIS_CHANNEL_IS_SEGMENTED_AND_CANNOT_BE_DISPLAYED;
+    SampleBuffer viewBuffer (final int start, final int length) {
+        final SampleBuffer copy = new LongSampleBuffer (new long [length]);
+        this.copyTo (new Channel (copy, this.getFormatInfo (), this.getChannelNum ()), start, 0, length);
+        return copy;
     }
 
     @Override
-    public int getSamplesLength () {
-        this.updateRecentlyViewedChannelLength ();
-        return this.recentlyViewedSamplesLength;
+    public boolean sharesSamplesWith (final Channel other) {
+        boolean shared = this == other;
+        final Segments current = this.segments;
+        for (int i = 0 ; i < current.count && !shared ; i++) {
+            shared = current.channels [i].sharesSamplesWith (other);
+        }
+        return shared;
     }
 
     @Override
-    public synchronized void setSampleAt (final int index, final long value) {
-        this.updateRecentlyViewedIndex (index);
-
-        this.channelParts.get (this.recentlyViewedIndex.arrayIndex).getChannels () [0].setSampleAt (this.recentlyViewedIndex.arrayPosition, value);
+    public String viewSamplesArray () {
+        return SegmentedChannel.THIS_CHANNEL_IS_SEGMENTED_AND_CANNOT_BE_DISPLAYED;
     }
 
     @Override
-    public synchronized void copyTo (final long [] samples) {
-        this.copyTo (samples, 0, 0, this.getSamplesLength ());
+    public String toString () {
+        return SegmentedChannel.THIS_CHANNEL_IS_SEGMENTED_AND_CANNOT_BE_DISPLAYED;
     }
 
     @Override
-    public synchronized void copyTo (final Channel channel) {
-        this.copyTo (channel.samples, 0, 0, this.getSamplesLength ());
+    public int getSamplesLength () {
+        return this.segments.length ();
     }
 
     @Override
-    public synchronized void copyTo (final long [] samples, final int srcPos, final int dstPos, final int length) {
-        int dstPos1 = dstPos;
-        int remainingLength = length;
-        this.updateRecentlyViewedIndex (srcPos);
-        int i = this.recentlyViewedIndex.arrayIndex;
-        while (i < this.channelParts.size () && remainingLength > 0) {
-            this.channelParts.get (i).getChannels () [0].copyTo (samples, i == this.recentlyViewedIndex.arrayIndex ? this.recentlyViewedIndex.arrayPosition : 0, dstPos1, Math.min (this.channelParts.get (i).getChannels () [0].getSamplesLength (), remainingLength));
-            dstPos1 += this.channelParts.get (i).getChannels () [0].getSamplesLength ();
-            remainingLength -= this.channelParts.get (i).getChannels () [0].getSamplesLength ();
-            i++;
-        }
+    public void setSampleAt (final int index, final long value) {
+        final Segments current = this.segments;
+        final int segment = this.findSegment (current, index);
+        current.channels [segment].setSampleAt (index - current.offsets [segment], value);
     }
 
     @Override
-    public synchronized void copyTo (final Channel channel, final int srcPos, final int dstPos, final int length) {
-        this.copyTo (channel.samples, srcPos, dstPos, length);
-    }
-
-    private void updateRecentlyViewedIndex (final int wantedIndex) {
-
-        final IndexData tmpIndex = new IndexData (this.recentlyViewedIndex);
-
-        while (tmpIndex.globalIndex != wantedIndex) {
-            final int newPosition = tmpIndex.arrayPosition + wantedIndex - tmpIndex.globalIndex;
-
-            if (newPosition < 0) {
-                this.goToPreviousSampleArray (tmpIndex);
-            } else if (newPosition >= this.channelParts.get (tmpIndex.arrayIndex).getSamplesLength ()) {
-                this.goToNextSampleArray (tmpIndex);
-            } else {
-                this.setFoundIndexAndPosition (tmpIndex, wantedIndex, newPosition);
-            }
+    public void copyTo (final long [] samples, final int srcPos, final int dstPos, final int length) {
+        if (length <= 0) {
+            return;
         }
-
-        this.recentlyViewedIndex = tmpIndex;
-    }
-
-    private void goToNextSampleArray (final IndexData index) {
-        index.arrayIndex++;
-        if (index.arrayIndex >= this.channelParts.size ()) {
-            throw new SoundTransformRuntimeException (new SoundTransformException (SegmentedChannelErrorCode.ARRAY_INDEX_OUT_OF_BOUNDS, new ArrayIndexOutOfBoundsException (), index.arrayIndex));
+        final Segments current = this.segments;
+        this.findSegment (current, srcPos + length - 1);
+        int segment = this.findSegment (current, srcPos);
+        int position = srcPos - current.offsets [segment];
+        int copied = 0;
+        while (copied < length) {
+            final int partLength = Math.min (current.channels [segment].getSamplesLength () - position, length - copied);
+            current.channels [segment].copyTo (samples, position, dstPos + copied, partLength);
+            copied += partLength;
+            position = 0;
+            segment++;
         }
-        index.globalIndex += this.channelParts.get (index.arrayIndex - 1).getSamplesLength () - index.arrayPosition;
-        index.arrayPosition = 0;
     }
 
-    private void goToPreviousSampleArray (final IndexData index) {
-        index.arrayIndex--;
-        if (index.arrayIndex < 0) {
-            throw new SoundTransformRuntimeException (new SoundTransformException (SegmentedChannelErrorCode.ARRAY_INDEX_OUT_OF_BOUNDS, new ArrayIndexOutOfBoundsException (), index.arrayIndex));
+    @Override
+    public void copyTo (final Channel channel, final int srcPos, final int dstPos, final int length) {
+        if (length <= 0) {
+            return;
+        }
+        final Segments current = this.segments;
+        this.findSegment (current, srcPos + length - 1);
+        int segment = this.findSegment (current, srcPos);
+        int position = srcPos - current.offsets [segment];
+        int copied = 0;
+        while (copied < length) {
+            final int partLength = Math.min (current.channels [segment].getSamplesLength () - position, length - copied);
+            current.channels [segment].copyTo (channel, position, dstPos + copied, partLength);
+            copied += partLength;
+            position = 0;
+            segment++;
         }
-        index.globalIndex -= index.arrayPosition + 1;
-        index.arrayPosition = this.channelParts.get (index.arrayIndex).getSamplesLength () - 1;
-    }
-
-    private void setFoundIndexAndPosition (final IndexData index, final int wantedIndex, final int newPosition) {
-        index.arrayPosition = newPosition;
-        index.globalIndex = wantedIndex;
     }
-
 }
@@ -12,4 +12,14 @@ public class SegmentedSound extends Sound {
         super (new Channel [] { new SegmentedChannel (formatInfo, sounds) });
     }
 
+    /**
+     * Adds a sound at the end of this one (only its first channel is kept)
+     *
+     * @param sound
+     *            the appended sound
+     */
+    public void append (final Sound sound) {
+        ((SegmentedChannel) this.getChannels () [0]).append (sound);
+    }
+
 }
@@ -0,0 +1,59 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound;
+
+import java.util.Arrays;
+
+/**
+ * 16 bits packed storage
+ */
+public final class ShortSampleBuffer extends SampleBuffer {
+
+    private static final long serialVersionUID = 7760343018447116303L;
+
+    private static final int  SAMPLE_SIZE      = 2;
+    private static final long NEUTRAL          = SampleBuffer.neutralOf (ShortSampleBuffer.SAMPLE_SIZE);
+    private static final long MASK             = 0xFFFF;
+
+    private final short []    samples;
+
+    public ShortSampleBuffer (final int length) {
+        super ();
+        this.samples = new short [length];
+        Arrays.fill (this.samples, (short) ShortSampleBuffer.NEUTRAL);
+    }
+
+    @Override
+    public long get (final int index) {
+        return (this.samples [index] & ShortSampleBuffer.MASK) - ShortSampleBuffer.NEUTRAL;
+    }
+
+    @Override
+    public void set (final int index, final long value) {
+        this.samples [index] = (short) SampleBuffer.clamp (value + ShortSampleBuffer.NEUTRAL, 0, ShortSampleBuffer.MASK);
+    }
+
+    @Override
+    public int length () {
+        return this.samples.length;
+    }
+
+    @Override
+    public SampleBuffer emptyBuffer (final int length) {
+        return new ShortSampleBuffer (length);
+    }
+
+    @Override
+    public void copyTo (final long [] target, final int srcPos, final int dstPos, final int length) {
+        for (int i = 0 ; i < length ; i++) {
+            target [dstPos + i] = (this.samples [srcPos + i] & ShortSampleBuffer.MASK) - ShortSampleBuffer.NEUTRAL;
+        }
+    }
+
+    @Override
+    public void copyTo (final SampleBuffer target, final int srcPos, final int dstPos, final int length) {
+        if (target instanceof ShortSampleBuffer) {
+            System.arraycopy (this.samples, srcPos, ((ShortSampleBuffer) target).samples, dstPos, length);
+        } else {
+            super.copyTo (target, srcPos, dstPos, length);
+        }
+    }
+}
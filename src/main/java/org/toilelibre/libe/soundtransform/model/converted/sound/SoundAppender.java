@@ -13,6 +13,8 @@ public interface SoundAppender {
 
     void appendNote (Channel sound, Note note, double lastFreq, int indexInSound, int channelNum, float lengthInSeconds) throws SoundTransformException;
 
+    void appendNote (Channel sound, Note note, double lastFreq, int indexInSound, int channelNum, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
     Channel changeNbBytesPerSample (Channel sound, int newNbBytesPerSample);
 
     Channel downsampleWithRatio (Channel sound, float ratio);
@@ -5,4 +5,6 @@ import org.toilelibre.libe.soundtransform.model.exception.SoundTransformExceptio
 public interface SoundPitchAndTempoHelper {
 
     Channel pitchAndSetLength (Channel sound, float percent, float lengthInSeconds) throws SoundTransformException;
+
+    Channel pitchAndSetLength (Channel sound, float percent, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
 }
@@ -8,4 +8,22 @@ public interface SoundPitchAndTempoService {
 
     Channel callTransform (Channel sound, float percent, float lengthInSeconds) throws SoundTransformException;
 
-}
\ No newline at end of file
+    /**
+     * Changes the pitch and the length of a sound, either with the frequency
+     * domain transforms or with the faster time domain ones
+     *
+     * @param sound
+     *            the sound
+     * @param percent
+     *            the pitch ratio (in percents)
+     * @param lengthInSeconds
+     *            the length of the result
+     * @param quality
+     *            the quality
+     * @return the transformed sound
+     * @throws SoundTransformException
+     *             if the sound cannot be transformed
+     */
+    Channel callTransform (Channel sound, float percent, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
+}
@@ -2,27 +2,62 @@ package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
 import java.io.Serializable;
 
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.FourierTransformHelper;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
 import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
 
 public abstract class AbstractFrequencySoundTransform<T extends Serializable> extends AbstractLogAware<AbstractFrequencySoundTransform<T>> implements SoundTransform<Channel, Channel> {
 
     private static final double             LOG_2 = Math.log (2);
     private static final int                TWO   = 2;
     private final FourierTransformHelper<T> fourierTransformHelper;
+    private int                             parallelism = 1;
+    private volatile Thread                 callingThread;
 
     public AbstractFrequencySoundTransform (final FourierTransformHelper<T> helper1) {
         this.fourierTransformHelper = helper1;
     }
 
+    /**
+     * Tells if the windows can be transformed in any order and at the same
+     * time : each window must write its result in its own slot, found from its
+     * offset. False by default.
+     *
+     * @return true if the windows are independent
+     */
+    protected boolean canTransformWindowsInAnyOrder () {
+        return false;
+    }
+
     public abstract int getOffsetFromASimpleLoop (int i, double step);
 
+    /**
+     * Number of threads transforming the windows at the same time. Only an
+     * analysis (without any reverse transform) with independent windows can
+     * be run in parallel, the other transforms use one thread.
+     *
+     * @return the number of threads
+     */
+    public int getParallelism () {
+        return this.isReverseNecessary () || !this.canTransformWindowsInAnyOrder () ? 1 : this.parallelism;
+    }
+
     public abstract double getStep (double defaultValue);
 
     public abstract boolean isReverseNecessary ();
 
+    /**
+     * Tells if the spectrum is given as two arrays of doubles (real part and
+     * imaginary part) rather than as a spectrum object. The arrays are
+     * modified in place : if a reverse is necessary, the content of the arrays
+     * after the call is reversed and written in the output sound, so nothing
+     * is allocated at each step.
+     *
+     * @return true if the raw spectrum is preferred
+     */
     public abstract boolean rawSpectrumPrefered ();
 
     public abstract AbstractWindowSoundTransform getWindowTransform ();
@@ -33,13 +68,86 @@ public abstract class AbstractFrequencySoundTransform<T extends Serializable> ex
 
     public abstract Channel initSound (Channel input);
 
+    /**
+     * Logs an event, unless it comes from another thread than the one calling
+     * transform (the windows transformed by the other threads of a parallel
+     * analysis are not logged)
+     *
+     * @param event
+     *            the event
+     */
+    @Override
+    public void log (final LogEvent event) {
+        final Thread thread = this.callingThread;
+        if (thread == null || thread == Thread.currentThread ()) {
+            super.log (event);
+        }
+    }
+
+    /**
+     * Opt in for a parallel analysis : the windows are dealt in turn to the
+     * calling thread and to threads of the shared AnalysisExecutor (the first
+     * window to the calling thread, the second one to another thread, ...)
+     *
+     * @param parallelism1
+     *            number of threads (1 to disable the parallel analysis)
+     */
+    public void setParallelism (final int parallelism1) {
+        this.parallelism = Math.max (1, parallelism1);
+    }
+
     @Override
     public final Channel transform (final Channel sound) {
-        return this.fourierTransformHelper.transform (this, sound);
+        this.callingThread = Thread.currentThread ();
+        try {
+            return this.fourierTransformHelper.transform (this, sound);
+        } finally {
+            this.callingThread = null;
+        }
     }
 
     public abstract Spectrum<T> transformFrequencies (Spectrum<T> fs, int offset, int powOf2NearestLength, int length, float soundLevelInDB);
 
+    /**
+     * Transforms a raw spectrum, in place (see {@link #rawSpectrumPrefered()})
+     *
+     * @param spectrumAsDoubles
+     *            real part and imaginary part of the spectrum, modified in
+     *            place
+     * @param sampleRate
+     *            sample rate of the sound
+     * @param offset
+     *            offset of the window in the sound
+     * @param powOf2NearestLength
+     *            length of the spectrum
+     * @param length
+     *            number of samples of the window
+     * @param soundLevelInDB
+     *            sound level of the window
+     */
     public abstract void transformFrequencies (double [][] spectrumAsDoubles, final float sampleRate, int offset, int powOf2NearestLength, int length, float soundLevelInDB);
 
+    /**
+     * Transforms a raw spectrum, in place, knowing the format of the sound
+     * (the raw arrays do not tell the sample size). Calls the sample rate
+     * variant by default.
+     *
+     * @param spectrumAsDoubles
+     *            real part and imaginary part of the spectrum, modified in
+     *            place
+     * @param formatInfo
+     *            format of the sound
+     * @param offset
+     *            offset of the window in the sound
+     * @param powOf2NearestLength
+     *            length of the spectrum
+     * @param length
+     *            number of samples of the window
+     * @param soundLevelInDB
+     *            sound level of the window
+     */
+    public void transformFrequencies (final double [][] spectrumAsDoubles, final FormatInfo formatInfo, final int offset, final int powOf2NearestLength, final int length, final float soundLevelInDB) {
+        this.transformFrequencies (spectrumAsDoubles, formatInfo.getSampleRate (), offset, powOf2NearestLength, length, soundLevelInDB);
+    }
+
 }
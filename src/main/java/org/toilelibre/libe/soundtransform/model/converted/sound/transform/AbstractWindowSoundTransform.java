@@ -1,9 +1,64 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 
+/**
+ * Window function. The coefficients of a window are computed once for a given
+ * length and kept in a table shared by all the windows having the same
+ * coefficients key (see getCoefficientsKey). A window without a key is never
+ * cached.
+ */
 public abstract class AbstractWindowSoundTransform implements SoundTransform<Double, Double> {
 
+    private static final class CoefficientsKey {
+        private final Object windowKey;
+        private final int    length;
+
+        private CoefficientsKey (final Object windowKey1, final int length1) {
+            this.windowKey = windowKey1;
+            this.length = length1;
+        }
+
+        @Override
+        public boolean equals (final Object other) {
+            if (!(other instanceof CoefficientsKey)) {
+                return false;
+            }
+            final CoefficientsKey otherKey = (CoefficientsKey) other;
+            return this.windowKey.equals (otherKey.windowKey) && this.length == otherKey.length;
+        }
+
+        @Override
+        public int hashCode () {
+            return this.windowKey.hashCode () * AbstractWindowSoundTransform.HASH_FACTOR + this.length;
+        }
+    }
+
+    private static final class CoefficientsCache extends LinkedHashMap<CoefficientsKey, double []> {
+
+        private static final long serialVersionUID = -1826305728472512117L;
+
+        private CoefficientsCache () {
+            super (AbstractWindowSoundTransform.MAX_CACHED_TABLES, AbstractWindowSoundTransform.LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry (final Entry<CoefficientsKey, double []> eldest) {
+            return this.size () > AbstractWindowSoundTransform.MAX_CACHED_TABLES;
+        }
+    }
+
+    private static final int                             HASH_FACTOR        = 31;
+    private static final float                           LOAD_FACTOR        = 0.75f;
+    private static final int                             MAX_CACHED_TABLES  = 32;
+    private static final int                             MAX_CACHED_LENGTH  = 1 << 16;
+    private static final Map<CoefficientsKey, double []> COEFFICIENTS_CACHE = new CoefficientsCache ();
+
     @Override
     /**
      * @param progress is equal to iteration / sound.getSampleslength () - 1
@@ -13,18 +68,68 @@ public abstract class AbstractWindowSoundTransform implements SoundTransform<Dou
         return this.applyFunction (progress);
     }
 
+    /**
+     * Coefficients of the window for a given number of samples : the
+     * coefficient i is the value of the function for the progress i / (length
+     * - 1). The tables of the usual lengths are cached, and shared : the
+     * returned array must not be modified.
+     *
+     * @param length
+     *            number of samples
+     * @return the coefficients
+     */
+    public double [] getCoefficients (final int length) {
+        final Object windowKey = this.getCoefficientsKey ();
+        if (windowKey == null || length > AbstractWindowSoundTransform.MAX_CACHED_LENGTH) {
+            return this.computeCoefficients (length);
+        }
+        final CoefficientsKey key = new CoefficientsKey (windowKey, length);
+        synchronized (AbstractWindowSoundTransform.COEFFICIENTS_CACHE) {
+            final double [] cached = AbstractWindowSoundTransform.COEFFICIENTS_CACHE.get (key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final double [] coefficients = this.computeCoefficients (length);
+        synchronized (AbstractWindowSoundTransform.COEFFICIENTS_CACHE) {
+            AbstractWindowSoundTransform.COEFFICIENTS_CACHE.put (key, coefficients);
+        }
+        return coefficients;
+    }
+
+    /**
+     * Identifies the coefficients of this window in the shared cache : two
+     * windows with equal keys must have the same function. A window computing
+     * its coefficients from parameters must give a key including them.
+     *
+     * @return the key, or null (the default) if the coefficients must not be
+     *         cached
+     */
+    protected Object getCoefficientsKey () {
+        return null;
+    }
+
+    private double [] computeCoefficients (final int length) {
+        final double [] coefficients = new double [length];
+        for (int i = 0 ; i < length ; i++) {
+            coefficients [i] = this.applyFunction (i * 1.0 / (length - 1));
+        }
+        return coefficients;
+    }
+
     public Channel transformWholeChannel (final Channel sound) {
 
-        final long [] newdata = new long [sound.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (sound.getSamplesLength ());
+        final double [] coefficients = this.getCoefficients (sound.getSamplesLength ());
 
         // now find the result, with scaling:
         for (int i = 0 ; i < sound.getSamplesLength () ; i++) {
-            final double rescaled = sound.getSampleAt (i) * this.applyFunction (i * 1.0 / (sound.getSamplesLength () - 1));
+            final double rescaled = sound.getSampleAt (i) * coefficients [i];
             newdata [i] = (long) rescaled;
         }
 
         // normalized result in newdata
-        return new Channel (newdata, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     protected abstract double applyFunction (double progress);
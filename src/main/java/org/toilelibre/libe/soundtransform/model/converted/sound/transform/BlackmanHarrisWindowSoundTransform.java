@@ -10,6 +10,11 @@ public final class BlackmanHarrisWindowSoundTransform extends AbstractWindowSoun
     private static final double FOUR   = 4;
     private static final double SIX    = 6;
 
+    @Override
+    protected Object getCoefficientsKey () {
+        return this.getClass ();
+    }
+
     @Override
     protected double applyFunction (final double progress) {
         return BlackmanHarrisWindowSoundTransform.COEFF1 - BlackmanHarrisWindowSoundTransform.COEFF2 * Math.cos (BlackmanHarrisWindowSoundTransform.TWO * Math.PI * progress) + BlackmanHarrisWindowSoundTransform.COEFF3 * Math.cos (BlackmanHarrisWindowSoundTransform.FOUR * Math.PI * progress)
@@ -0,0 +1,19 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
+
+/**
+ * A transform able to tell all of its settings changing its result, so that
+ * its results can be cached without repeating its parameters (see
+ * {@link CachedPeakFindSoundTransform}).
+ */
+public interface CacheKeyDescribed {
+
+    /**
+     * Settings of the transform : the parameters of its constructor and its
+     * opt ins changing its results (the decimation, but not the parallelism),
+     * as they are when it is called
+     *
+     * @return a description, the same for two transforms giving the same
+     *         results
+     */
+    String getCacheKeyDescription ();
+}
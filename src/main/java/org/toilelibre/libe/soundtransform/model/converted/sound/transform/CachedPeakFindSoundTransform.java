@@ -0,0 +1,124 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
+
+import java.io.Serializable;
+
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchTrackCache;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchTrackCache.PitchTrack;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
+import org.toilelibre.libe.soundtransform.model.logging.EventCode;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent.LogLevel;
+import org.toilelibre.libe.soundtransform.model.logging.Observer;
+
+/**
+ * Opt in for a cache of the loudest frequencies arrays : a channel already
+ * analyzed by the same kind of peak find transform, with the same parameters,
+ * is not analyzed again (no spectrum is computed).
+ *
+ * When the decorated transform is {@link CacheKeyDescribed} (the peak find
+ * transforms of the library are), its settings are read from it at each call,
+ * including the opt ins chosen after the construction of this transform.
+ * Otherwise the cache does not know the parameters of the decorated
+ * transform : they must all be given to this transform, as they were given to
+ * the decorated transform.
+ *
+ * @param <T>
+ *            The kind of object held inside a spectrum.
+ */
+public class CachedPeakFindSoundTransform<T extends Serializable> extends AbstractLogAware<CachedPeakFindSoundTransform<T>> implements PeakFindSoundTransform<T, AbstractLogAware<CachedPeakFindSoundTransform<T>>> {
+
+    public enum CachedPeakFindSoundTransformEventCode implements EventCode {
+
+        CACHE_HIT (LogLevel.VERBOSE, "Pitch track %1s found in the cache"), CACHE_NOT_USABLE (LogLevel.WARN, "The pitch track cache could not be used : %1s");
+
+        private final String   messageFormat;
+        private final LogLevel logLevel;
+
+        CachedPeakFindSoundTransformEventCode (final LogLevel ll, final String mF) {
+            this.messageFormat = mF;
+            this.logLevel = ll;
+        }
+
+        @Override
+        public LogLevel getLevel () {
+            return this.logLevel;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private final PeakFindSoundTransform<T, ?> decoratedTransform;
+    private final PitchTrackCache              cache;
+    private final Object []                    parameters;
+    private float                              detectedNoteVolume;
+
+    /**
+     * Default constructor
+     *
+     * @param decoratedTransform1
+     *            the peak find transform used when the track is not in the
+     *            cache
+     * @param cache1
+     *            the cache (can be shared by several transforms)
+     * @param parameters1
+     *            all the parameters of the decorated transform (the step, the
+     *            window length, ...), needed only when it is not
+     *            {@link CacheKeyDescribed}
+     */
+    public CachedPeakFindSoundTransform (final PeakFindSoundTransform<T, ?> decoratedTransform1, final PitchTrackCache cache1, final Object... parameters1) {
+        super ();
+        this.decoratedTransform = decoratedTransform1;
+        this.cache = cache1;
+        this.parameters = parameters1.clone ();
+    }
+
+    @Override
+    public float [] transform (final Channel input) throws SoundTransformException {
+        final String key = PitchTrackCache.key (input, this.decoratedTransform.getClass (), this.keyParameters ());
+        PitchTrack track = null;
+        try {
+            track = this.cache.get (key);
+        } catch (final SoundTransformException ste) {
+            this.log (new LogEvent (CachedPeakFindSoundTransformEventCode.CACHE_NOT_USABLE, ste.getMessage ()));
+        }
+        if (track != null) {
+            this.log (new LogEvent (CachedPeakFindSoundTransformEventCode.CACHE_HIT, key));
+            this.detectedNoteVolume = track.getDetectedNoteVolume ();
+            return track.getLoudestFreqs ();
+        }
+        final float [] loudestFreqs = this.decoratedTransform.transform (input);
+        this.detectedNoteVolume = this.decoratedTransform.getDetectedNoteVolume ();
+        try {
+            this.cache.put (key, new PitchTrack (loudestFreqs, this.detectedNoteVolume));
+        } catch (final SoundTransformException ste) {
+            this.log (new LogEvent (CachedPeakFindSoundTransformEventCode.CACHE_NOT_USABLE, ste.getMessage ()));
+        }
+        return loudestFreqs;
+    }
+
+    private Object [] keyParameters () {
+        if (! (this.decoratedTransform instanceof CacheKeyDescribed)) {
+            return this.parameters;
+        }
+        final Object [] keyParameters = new Object [this.parameters.length + 1];
+        keyParameters [0] = ((CacheKeyDescribed) this.decoratedTransform).getCacheKeyDescription ();
+        System.arraycopy (this.parameters, 0, keyParameters, 1, this.parameters.length);
+        return keyParameters;
+    }
+
+    @Override
+    public float getDetectedNoteVolume () {
+        return this.detectedNoteVolume;
+    }
+
+    @Override
+    public CachedPeakFindSoundTransform<T> setObservers (final Observer... observers1) {
+        this.decoratedTransform.setObservers (observers1);
+        return super.setObservers (observers1);
+    }
+}
@@ -30,10 +30,12 @@ import org.toilelibre.libe.soundtransform.model.logging.Observer;
  * @param <T>
  *            The kind of object held inside a spectrum.
  */
-public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogAware<CepstrumSoundTransform<T>> implements PeakFindSoundTransform<T, AbstractLogAware<CepstrumSoundTransform<T>>> {
+public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogAware<CepstrumSoundTransform<T>> implements PeakFindSoundTransform<T, AbstractLogAware<CepstrumSoundTransform<T>>>, CacheKeyDescribed {
     static class CepstrumFrequencySoundTransform<T extends Serializable> extends SimpleFrequencySoundTransform<T> {
 
-        private final double                      step;
+        private final double                      requestedStep;
+        private double                            step;
+        private int                               decimationFactor;
         private float []                          loudestfreqs;
         private int                               index;
         private int                               length;
@@ -45,14 +47,18 @@ public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogA
         private static final float                UNLIKELY_TO_BE_HEARD_DELTA         = 50;
         private static final float                SOUND_LEVEL_THRESHOLD_IN_DB        = 30;
         private final boolean                     note;
+        private final boolean                     useRawData;
 
         private float                             detectedNoteVolume;
 
         @SuppressWarnings ("unchecked")
-        CepstrumFrequencySoundTransform (final double step1, final boolean note1) {
+        CepstrumFrequencySoundTransform (final double step1, final boolean note1, final boolean useRawData1) {
             super ();
+            this.requestedStep = step1;
             this.step = step1;
+            this.decimationFactor = 1;
             this.note = note1;
+            this.useRawData = useRawData1;
             this.spectrum2CepstrumHelper = $.select (SpectrumToCepstrumHelper.class);
             this.spectrumHelper = $.select (SpectrumHelper.class);
         }
@@ -81,6 +87,8 @@ public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogA
         public Channel initSound (final Channel input) {
             this.index = 0;
             this.length = input.getSamplesLength ();
+            // the step is given in samples of the sound before its decimation
+            this.step = this.decimationFactor == 1 ? this.requestedStep : Math.max (1, Math.round (this.requestedStep / this.decimationFactor));
             if (this.note) {
                 this.loudestfreqs = new float [1];
             } else {
@@ -89,28 +97,57 @@ public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogA
             return super.initSound (input);
         }
 
+        @Override
+        protected boolean canTransformWindowsInAnyOrder () {
+            // the slot of a window is found from its offset when the step is
+            // an integer
+            return this.note || this.step == Math.floor (this.step);
+        }
+
         @Override
         public boolean isReverseNecessary () {
             return false;
         }
 
+        @Override
+        public boolean rawSpectrumPrefered () {
+            return this.useRawData;
+        }
+
         @Override
         public Spectrum<T> transformFrequencies (final Spectrum<T> fs, final int offset, final int powOf2NearestLength, final int length, final float soundLevelInDB) {
+            this.logProgress (offset);
+
+            final Spectrum<T> fscep = this.spectrum2CepstrumHelper.spectrumToCepstrum (fs);
+
+            this.setLoudestFreq (offset, soundLevelInDB, this.findLoudestFreqFromCepstrum (fscep));
+            return fscep;
+        }
+
+        @Override
+        public void transformFrequencies (final double [][] spectrum, final float sampleRate, final int offset, final int powOf2NearestLength, final int length, final float soundLevelInDB) {
+            this.logProgress (offset);
+
+            // the cepstrum replaces the spectrum in its own arrays
+            this.spectrum2CepstrumHelper.spectrumToCepstrum (spectrum);
+
+            this.setLoudestFreq (offset, soundLevelInDB, this.findLoudestFreqFromCepstrum (spectrum [0], sampleRate));
+        }
 
+        private void logProgress (final int offset) {
             final int percent = (int) Math.floor (100.0 * (offset / this.step) / (this.length / this.step));
             if (percent > Math.floor (100.0 * ( (offset - this.step) / this.step) / (this.length / this.step))) {
                 this.log (new LogEvent (PeakFindSoundTransformEventCode.ITERATION_IN_PROGRESS, (int) (offset / this.step), (int) Math.ceil (this.length / this.step), percent));
             }
+        }
 
-            final Spectrum<T> fscep = this.spectrum2CepstrumHelper.spectrumToCepstrum (fs);
-
-            this.loudestfreqs [this.index] = this.checkIfLikelyToBeHeard (soundLevelInDB, this.findLoudestFreqFromCepstrum (fscep));
-            this.index++;
+        private void setLoudestFreq (final int offset, final float soundLevelInDB, final float loudestFreq) {
+            final int slot = this.canTransformWindowsInAnyOrder () ? (int) (offset / this.getStep (this.step)) : this.index++;
+            this.loudestfreqs [slot] = this.checkIfLikelyToBeHeard (soundLevelInDB, loudestFreq);
 
             if (this.note) {
                 this.detectedNoteVolume = soundLevelInDB;
             }
-            return fscep;
         }
 
         private float checkIfLikelyToBeHeard (final float soundlevelInDb, final float possibleLoudestFreq) {
@@ -118,33 +155,52 @@ public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogA
         }
 
         private float findLoudestFreqFromCepstrum (final Spectrum<T> cepstrum) {
-            final int high = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MIN_VOICE_FREQ, cepstrum);
-            final int low = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MAX_VOICE_FREQ, cepstrum);
+            final float spectrumLength = this.spectrumHelper.getLengthOfSpectrum (cepstrum);
+            final int high = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MIN_VOICE_FREQ, spectrumLength, cepstrum.getSampleRate ());
+            final int low = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MAX_VOICE_FREQ, spectrumLength, cepstrum.getSampleRate ());
 
             final double maxValue = this.spectrumHelper.getMaxValue (cepstrum, low, high);
             final double thresholdValue = maxValue - (1 - CepstrumFrequencySoundTransform.A_CONSTANT_TO_REDUCE_OCTAVE_ERRORS) * maxValue * maxValue;
             final float maxIndex = this.spectrumHelper.getFirstPeak (cepstrum, low, high, thresholdValue);
-            return this.cepstrumIndexToFrequency ((int) maxIndex, cepstrum);
+            return this.cepstrumIndexToFrequency ((int) maxIndex, spectrumLength, cepstrum.getSampleRate ());
         }
 
-        private float frequencyToCepstrumIndex (final float frequency, final Spectrum<T> cepstrum) {
-            final float spectrumLength = this.spectrumHelper.getLengthOfSpectrum (cepstrum);
-            final float timelapseInTheCepstrum = spectrumLength * 1.0f / cepstrum.getSampleRate ();
+        private float findLoudestFreqFromCepstrum (final double [] cepstrum, final float sampleRate) {
+            final float spectrumLength = cepstrum.length;
+            final int high = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MIN_VOICE_FREQ, spectrumLength, sampleRate);
+            final int low = (int) this.frequencyToCepstrumIndex (CepstrumFrequencySoundTransform.MAX_VOICE_FREQ, spectrumLength, sampleRate);
+
+            final double maxValue = this.spectrumHelper.getMaxValue (cepstrum, low, high);
+            final double thresholdValue = maxValue - (1 - CepstrumFrequencySoundTransform.A_CONSTANT_TO_REDUCE_OCTAVE_ERRORS) * maxValue * maxValue;
+            final float maxIndex = this.spectrumHelper.getFirstPeak (cepstrum, low, high, thresholdValue);
+            return this.cepstrumIndexToFrequency ((int) maxIndex, spectrumLength, sampleRate);
+        }
+
+        private float frequencyToCepstrumIndex (final float frequency, final float spectrumLength, final float sampleRate) {
+            final float timelapseInTheCepstrum = spectrumLength * 1.0f / sampleRate;
             return (float) (1.0 * spectrumLength / (frequency * timelapseInTheCepstrum));
         }
 
-        private float cepstrumIndexToFrequency (final int quefrency, final Spectrum<T> cepstrum) {
-            final float spectrumLength = this.spectrumHelper.getLengthOfSpectrum (cepstrum);
-            final float timelapseInTheCepstrum = spectrumLength * 1.0f / cepstrum.getSampleRate ();
+        private float cepstrumIndexToFrequency (final int quefrency, final float spectrumLength, final float sampleRate) {
+            final float timelapseInTheCepstrum = spectrumLength * 1.0f / sampleRate;
             return (float) (1.0 / (quefrency / spectrumLength * timelapseInTheCepstrum));
         }
 
+        String getCacheKeyDescription () {
+            return "note=" + this.note + ", step=" + this.requestedStep + ", useRawData=" + this.useRawData;
+        }
+
         public float getDetectedNoteVolume () {
             return this.detectedNoteVolume;
         }
+
+        void setDecimationFactor (final int decimationFactor1) {
+            this.decimationFactor = decimationFactor1;
+        }
     }
 
     private final CepstrumFrequencySoundTransform<T> decoratedTransform;
+    private DecimationSoundTransform                 decimation;
 
     /**
      * Default Constructor
@@ -157,21 +213,78 @@ public class CepstrumSoundTransform<T extends Serializable> extends AbstractLogA
      *            and the cepstrum will be made once, using the whole sound
      */
     public CepstrumSoundTransform (final double step, final boolean note) {
+        this (step, note, true);
+    }
+
+    /**
+     * Constructor choosing the kind of spectrums
+     *
+     * @param step
+     *            the iteration step value (increasing the value will speed the
+     *            transform but will be less precise)
+     * @param note
+     *            if true, the loudest freqs array will contain a single element
+     *            and the cepstrum will be made once, using the whole sound
+     * @param useRawData
+     *            use double array of arrays instead of spectrums (the
+     *            cepstrums are computed in the working arrays of the fourier
+     *            transform)
+     */
+    public CepstrumSoundTransform (final double step, final boolean note, final boolean useRawData) {
         super ();
-        this.decoratedTransform = new CepstrumFrequencySoundTransform<T> (step, note);
+        this.decoratedTransform = new CepstrumFrequencySoundTransform<T> (step, note, useRawData);
     }
 
     @Override
     public float [] transform (final Channel input) throws SoundTransformException {
-        this.decoratedTransform.transform (input);
+        Channel analyzedInput = input;
+        if (this.decimation != null) {
+            this.decoratedTransform.setDecimationFactor (this.decimation.getFactor (input.getSampleRate ()));
+            analyzedInput = this.decimation.transform (input);
+        }
+        // only the loudest frequencies are kept, the samples go back to the pool
+        this.decoratedTransform.transform (analyzedInput).releaseSamples ();
         return this.decoratedTransform.getLoudestFreqs ();
     }
 
+    @Override
+    public String getCacheKeyDescription () {
+        return this.decoratedTransform.getCacheKeyDescription () + ", decimation=" + (this.decimation == null ? "none" : this.decimation.getCacheKeyDescription ());
+    }
+
     @Override
     public float getDetectedNoteVolume () {
         return this.decoratedTransform.getDetectedNoteVolume ();
     }
 
+    /**
+     * Opt in for a parallel analysis of the windows (only when the step is an
+     * integer)
+     *
+     * @param parallelism
+     *            number of threads (1 to disable the parallel analysis)
+     * @return this
+     */
+    public CepstrumSoundTransform<T> setParallelism (final int parallelism) {
+        this.decoratedTransform.setParallelism (parallelism);
+        return this;
+    }
+
+    /**
+     * Opt in for a decimation of the sound before the analysis : the windows
+     * and the fourier transforms are smaller (the highest detected frequency,
+     * C6, stays under the half of the default sample rate)
+     *
+     * @param sampleRate
+     *            the lowest sample rate of the analyzed sound (see
+     *            {@link DecimationSoundTransform})
+     * @return this
+     */
+    public CepstrumSoundTransform<T> setDecimation (final float sampleRate) {
+        this.decimation = new DecimationSoundTransform (sampleRate);
+        return this;
+    }
+
     @Override
     public CepstrumSoundTransform<T> setObservers (final Observer... observers1) {
         this.decoratedTransform.setObservers (observers1);
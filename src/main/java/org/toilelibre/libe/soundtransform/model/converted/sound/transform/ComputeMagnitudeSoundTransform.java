@@ -12,7 +12,6 @@ import org.toilelibre.libe.soundtransform.model.exception.SoundTransformExceptio
 public class ComputeMagnitudeSoundTransform implements SoundTransform<Channel, double []> {
     static class ComputeMagnitudeFrequenciesSoundTransform extends SimpleFrequencySoundTransform<Serializable> {
 
-        private int          arraylength;
         private double []    magnitude;
         private final double step;
 
@@ -50,7 +49,6 @@ public class ComputeMagnitudeSoundTransform implements SoundTransform<Channel, d
          */
         @Override
         public Channel initSound (final Channel input) {
-            this.arraylength = 0;
             this.magnitude = new double [(int) (input.getSamplesLength () / this.step + 1)];
             return super.initSound (input);
         }
@@ -61,11 +59,11 @@ public class ComputeMagnitudeSoundTransform implements SoundTransform<Channel, d
          * @see
          * org.toilelibre.libe.soundtransform.model.converted.sound.transform
          * .SimpleFrequencySoundTransform#transformFrequencies(double[][],
-         * float)
+         * float, int)
          */
         @Override
-        public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate) {
-            this.magnitude [this.arraylength++] = this.computeMagnitude (spectrumAsDoubles);
+        public void transformFrequencies (final double [][] spectrumAsDoubles, final float sampleRate, final int offset) {
+            this.magnitude [(int) (offset / this.step)] = this.computeMagnitude (spectrumAsDoubles);
         }
 
         /**
@@ -90,6 +88,11 @@ public class ComputeMagnitudeSoundTransform implements SoundTransform<Channel, d
          * org.toilelibre.libe.soundtransform.model.converted.sound.transform
          * .SimpleFrequencySoundTransform#isReverseNecessary()
          */
+        @Override
+        protected boolean canTransformWindowsInAnyOrder () {
+            return true;
+        }
+
         @Override
         public boolean isReverseNecessary () {
             return false;
@@ -115,6 +118,18 @@ public class ComputeMagnitudeSoundTransform implements SoundTransform<Channel, d
         this.decoratedSoundTransform = new ComputeMagnitudeFrequenciesSoundTransform (step);
     }
 
+    /**
+     * Opt in for a parallel analysis of the windows
+     *
+     * @param parallelism
+     *            number of threads (1 to disable the parallel analysis)
+     * @return this
+     */
+    public ComputeMagnitudeSoundTransform setParallelism (final int parallelism) {
+        this.decoratedSoundTransform.setParallelism (parallelism);
+        return this;
+    }
+
     @Override
     public double [] transform (final Channel input) throws SoundTransformException {
         this.decoratedSoundTransform.transform (input);
@@ -0,0 +1,68 @@
+package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
+
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PolyphaseResampler;
+
+/**
+ * Keeps one sample every n samples, after a low pass filter removing the
+ * frequencies the lower sample rate cannot hold. n is the highest integer
+ * keeping the sample rate above the wanted one (44100Hz becomes 8820Hz for
+ * 8000Hz).
+ *
+ * Useful before a peak find transform : the fundamental frequencies are low,
+ * and a sound with fewer samples needs smaller windows and fourier
+ * transforms.
+ */
+public class DecimationSoundTransform implements SoundTransform<Channel, Channel>, CacheKeyDescribed {
+
+    /**
+     * Enough for the fundamental frequencies of the piano and of the voice
+     */
+    public static final float DEFAULT_SAMPLE_RATE = 8000;
+
+    private final float       sampleRate;
+
+    /**
+     * Default constructor, decimating to at least 8000Hz
+     */
+    public DecimationSoundTransform () {
+        this (DecimationSoundTransform.DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Constructor with the lowest sample rate
+     *
+     * @param sampleRate1
+     *            the sample rate of the result will be between this value and
+     *            twice this value (or the sample rate of the input if it is
+     *            lower)
+     */
+    public DecimationSoundTransform (final float sampleRate1) {
+        this.sampleRate = sampleRate1;
+    }
+
+    @Override
+    public String getCacheKeyDescription () {
+        return "sampleRate=" + this.sampleRate;
+    }
+
+    /**
+     * Number of input samples for one output sample
+     *
+     * @param inputSampleRate
+     *            the sample rate of the input
+     * @return the decimation factor (1 if the input is not decimated)
+     */
+    public int getFactor (final float inputSampleRate) {
+        return Math.max (1, (int) (inputSampleRate / this.sampleRate));
+    }
+
+    @Override
+    public Channel transform (final Channel input) {
+        final int factor = this.getFactor (input.getSampleRate ());
+        if (factor == 1) {
+            return input;
+        }
+        return PolyphaseResampler.forRatio (1, factor).resample (input, input.getSampleRate () / factor);
+    }
+}
@@ -24,7 +24,7 @@ public class EightBitsSoundTransform implements SoundTransform<Channel, Channel>
     @Override
     public Channel transform (final Channel input) {
 
-        final Channel outputSound = new Channel (new long [input.getSamplesLength ()], input.getFormatInfo (), input.getChannelNum ());
+        final Channel outputSound = new Channel (input.getSamplesLength (), input.getFormatInfo (), input.getChannelNum ());
         for (int i = 0 ; i < input.getSamplesLength () ; i++) {
             if (i % this.step == 0) {
                 outputSound.setSampleAt (i, input.getSampleAt (i));
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
@@ -56,7 +57,7 @@ public class FadeSoundTransform implements SoundTransform<Channel, Channel> {
 
     private Channel fade (final Channel sound) {
 
-        final long [] newdata = new long [sound.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (sound.getSamplesLength ());
         sound.copyTo (newdata);
 
         for (int i = 0 ; i < this.length ; i++) {
@@ -65,7 +66,7 @@ public class FadeSoundTransform implements SoundTransform<Channel, Channel> {
             newdata [realIndex] = (long) (sound.getSampleAt (realIndex) * ratio);
         }
 
-        return new Channel (newdata, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     @Override
@@ -6,6 +6,11 @@ public final class HammingWindowSoundTransform extends AbstractWindowSoundTransf
     private static final double COEFF2 = 0.46;
     private static final double COEFF1 = 0.54;
 
+    @Override
+    protected Object getCoefficientsKey () {
+        return this.getClass ();
+    }
+
     @Override
     protected double applyFunction (final double progress) {
         return HammingWindowSoundTransform.COEFF1 - HammingWindowSoundTransform.COEFF2 * Math.cos (HammingWindowSoundTransform.TWO * Math.PI * progress);
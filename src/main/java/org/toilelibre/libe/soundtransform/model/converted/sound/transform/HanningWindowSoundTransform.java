@@ -6,6 +6,11 @@ public class HanningWindowSoundTransform extends AbstractWindowSoundTransform {
     private static final int    ONE    = 1;
     private static final double COEFF1 = 0.5;
 
+    @Override
+    protected Object getCoefficientsKey () {
+        return this.getClass ();
+    }
+
     @Override
     protected double applyFunction (final double progress) {
         return HanningWindowSoundTransform.COEFF1 * (HanningWindowSoundTransform.ONE - Math.cos (HanningWindowSoundTransform.TWO * Math.PI * progress));
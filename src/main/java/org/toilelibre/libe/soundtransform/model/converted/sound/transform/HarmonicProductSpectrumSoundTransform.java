@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.Arrays;
 
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.SpectrumHelper;
@@ -19,14 +20,17 @@ import org.toilelibre.libe.soundtransform.model.logging.Observer;
  * @param <T>
  *            The kind of object held inside a spectrum.
  */
-public class HarmonicProductSpectrumSoundTransform<T extends Serializable> extends AbstractLogAware<HarmonicProductSpectrumSoundTransform<T>> implements PeakFindSoundTransform<T, AbstractLogAware<HarmonicProductSpectrumSoundTransform<T>>> {
+public class HarmonicProductSpectrumSoundTransform<T extends Serializable> extends AbstractLogAware<HarmonicProductSpectrumSoundTransform<T>> implements PeakFindSoundTransform<T, AbstractLogAware<HarmonicProductSpectrumSoundTransform<T>>>, CacheKeyDescribed {
     private static final int TWICE = 2;
 
     static class HarmonicProductSpectrumFrequencySoundTransform<T extends Serializable> extends SimpleFrequencySoundTransform<T> {
         // 2000Hz if the spectrum is 20000Hz long
         private static final float      DEFAULT_PART_OF_THE_SPECTRUM_TO_READ = 1.0f;
+        private static final int        HPS_FACTORS                          = 10;
 
+        private final double            requestedStep;
         private double                  step;
+        private int                     decimationFactor;
         private float []                loudestfreqs;
         private boolean                 note;
         private float                   fsLimit;
@@ -112,7 +116,9 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
         @SuppressWarnings ("unchecked")
         public HarmonicProductSpectrumFrequencySoundTransform (final boolean note1, final double step1, final int windowLength1, final boolean useRawData1, final float partOfTheSpectrumToRead1) {
             this.spectrumHelper = $.select (SpectrumHelper.class);
+            this.requestedStep = step1;
             this.step = step1;
+            this.decimationFactor = 1;
             this.note = note1;
             this.windowLength = windowLength1;
             this.useRawData = useRawData1;
@@ -136,10 +142,18 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
             return rightEdge == leftEdge ? sum : sum * 1.0f / (rightEdge - leftEdge);
         }
 
+        String getCacheKeyDescription () {
+            return "note=" + this.note + ", step=" + this.requestedStep + ", windowLength=" + this.windowLength + ", useRawData=" + this.useRawData + ", partOfTheSpectrumToRead=" + this.partOfTheSpectrumToRead;
+        }
+
         public float getDetectedNoteVolume () {
             return this.detectedNoteVolume;
         }
 
+        void setDecimationFactor (final int decimationFactor1) {
+            this.decimationFactor = decimationFactor1;
+        }
+
         public float [] getLoudestFreqs () {
             return this.loudestfreqs.clone ();
         }
@@ -165,6 +179,9 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
                 this.fsLimit = input1.getSamplesLength ();
                 this.loudestfreqs = new float [1];
             } else {
+                // the step is given in samples of the sound before its
+                // decimation
+                this.step = this.decimationFactor == 1 ? this.requestedStep : Math.max (1, Math.round (this.requestedStep / this.decimationFactor));
                 this.loudestfreqs = new float [(int) (input1.getSamplesLength () / this.step) + 1];
                 this.fsLimit = input1.getSampleRate ();
             }
@@ -192,10 +209,8 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
 
             if (soundLevelInDB > 30 || this.note) {
 
-                final float [] peaks = new float [10];
-                for (int i = 1 ; i <= 10 ; i++) {
-                    peaks [i - 1] = this.f0 (spectrum, sampleRate, i);
-                }
+                final float [] peaks = new float [HarmonicProductSpectrumFrequencySoundTransform.HPS_FACTORS];
+                this.findPeaks (spectrum, sampleRate, peaks);
                 Arrays.sort (peaks);
                 f0 = this.bestCandidate (peaks);
             }
@@ -217,37 +232,60 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
         }
 
         /**
-         * Find the f0 (fundamental frequency) using the Harmonic Product
-         * Spectrum
+         * Find the f0 (fundamental frequency) candidates using the Harmonic
+         * Product Spectrum, for the hps factors 1 to peaks.length. The
+         * magnitudes are computed once per window, and each product is
+         * written in the same reused array.
          *
-         * @param fs
+         * @param spectrum
          *            spectrum at a specific time
          * @param sampleRate
          *            if the passed spectrum is in raw data (as a double [] [])
-         * @param hpsfactor
-         *            number of times to multiply the frequencies together
-         * @return a fundamental frequency (in Hz)
+         * @param peaks
+         *            the fundamental frequencies (in Hz) found with each hps
+         *            factor
          */
         @SuppressWarnings ("unchecked")
-        public float f0 (final Object spectrum, final float sampleRate, final int hpsfactor) {
+        private void findPeaks (final Object spectrum, final float sampleRate, final float [] peaks) {
+            final int spectrumLength;
+            final float spectrumSampleRate;
             if (spectrum instanceof Spectrum) {
-                return this.f0WithSpectrum ((Spectrum<T>) spectrum, hpsfactor);
+                spectrumLength = this.spectrumHelper.getLengthOfSpectrum ((Spectrum<T>) spectrum);
+                spectrumSampleRate = ((Spectrum<T>) spectrum).getSampleRate ();
+            } else {
+                spectrumLength = ((double [][]) spectrum) [0].length;
+                spectrumSampleRate = sampleRate;
             }
-            return this.f0WithRawData ((double [][]) spectrum, sampleRate, hpsfactor);
-        }
-
-        private float f0WithRawData (final double [][] spectrumAsDoubles, final float sampleRate, final int hpsfactor) {
-            final double [] productOfMultiples = this.spectrumHelper.productOfMultiples (spectrumAsDoubles, sampleRate, hpsfactor, this.partOfTheSpectrumToRead);
-            final int spectrumLength = spectrumAsDoubles [0].length;
-            final int maxIndex = this.spectrumHelper.getMaxIndex (productOfMultiples, 0, (int) (spectrumLength * this.partOfTheSpectrumToRead) / hpsfactor);
-            return this.spectrumHelper.freqFromSampleRate (maxIndex, spectrumLength * HarmonicProductSpectrumSoundTransform.TWICE / hpsfactor, sampleRate);
+            final int bins = (int) (spectrumLength * this.partOfTheSpectrumToRead);
+            final double [] magnitudes = ArrayPool.takeDoubles (bins);
+            if (spectrum instanceof Spectrum) {
+                this.spectrumHelper.magnitudes ((Spectrum<T>) spectrum, magnitudes);
+            } else {
+                this.spectrumHelper.magnitudes ((double [][]) spectrum, magnitudes);
+            }
+            final double [] product = ArrayPool.takeDoubles (bins);
+            for (int hpsfactor = 1 ; hpsfactor <= peaks.length ; hpsfactor++) {
+                final int max = (int) (spectrumLength * this.partOfTheSpectrumToRead / hpsfactor);
+                for (int i = 0 ; i < max ; i++) {
+                    double val = magnitudes [i];
+                    final int multiple = i * hpsfactor;
+                    if (multiple < spectrumSampleRate / HarmonicProductSpectrumSoundTransform.TWICE && multiple < spectrumLength) {
+                        for (int j = 1 ; j < hpsfactor ; j++) {
+                            val *= magnitudes [multiple];
+                        }
+                    }
+                    product [i] = val;
+                }
+                final int maxIndex = this.spectrumHelper.getMaxIndex (product, 0, Math.min (max, bins / hpsfactor));
+                peaks [hpsfactor - 1] = this.spectrumHelper.freqFromSampleRate (maxIndex, spectrumLength * HarmonicProductSpectrumSoundTransform.TWICE / hpsfactor, spectrumSampleRate);
+            }
+            ArrayPool.release (magnitudes);
+            ArrayPool.release (product);
         }
 
-        private float f0WithSpectrum (final Spectrum<T> spectrum, final int hpsfactor) {
-            final Spectrum<T> productOfMultiples = this.spectrumHelper.productOfMultiples (spectrum, hpsfactor, this.partOfTheSpectrumToRead);
-            final int spectrumLength = this.spectrumHelper.getLengthOfSpectrum (spectrum);
-            final int maxIndex = this.spectrumHelper.getMaxIndex (productOfMultiples, 0, (int) (spectrumLength * this.partOfTheSpectrumToRead) / hpsfactor);
-            return this.spectrumHelper.freqFromSampleRate (maxIndex, spectrumLength * HarmonicProductSpectrumSoundTransform.TWICE / hpsfactor, spectrum.getSampleRate ());
+        @Override
+        protected boolean canTransformWindowsInAnyOrder () {
+            return true;
         }
 
         @Override
@@ -262,6 +300,7 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
     }
 
     private final HarmonicProductSpectrumFrequencySoundTransform<T> decoratedTransform;
+    private DecimationSoundTransform                                decimation;
 
     /**
      * Default constructor
@@ -342,15 +381,53 @@ public class HarmonicProductSpectrumSoundTransform<T extends Serializable> exten
 
     @Override
     public float [] transform (final Channel input) throws SoundTransformException {
-        this.decoratedTransform.transform (input);
+        Channel analyzedInput = input;
+        if (this.decimation != null) {
+            this.decoratedTransform.setDecimationFactor (this.decimation.getFactor (input.getSampleRate ()));
+            analyzedInput = this.decimation.transform (input);
+        }
+        // only the loudest frequencies are kept, the samples go back to the pool
+        this.decoratedTransform.transform (analyzedInput).releaseSamples ();
         return this.decoratedTransform.getLoudestFreqs ();
     }
 
+    @Override
+    public String getCacheKeyDescription () {
+        return this.decoratedTransform.getCacheKeyDescription () + ", decimation=" + (this.decimation == null ? "none" : this.decimation.getCacheKeyDescription ());
+    }
+
     @Override
     public float getDetectedNoteVolume () {
         return this.decoratedTransform.getDetectedNoteVolume ();
     }
 
+    /**
+     * Opt in for a parallel analysis of the windows
+     *
+     * @param parallelism
+     *            number of threads (1 to disable the parallel analysis)
+     * @return this
+     */
+    public HarmonicProductSpectrumSoundTransform<T> setParallelism (final int parallelism) {
+        this.decoratedTransform.setParallelism (parallelism);
+        return this;
+    }
+
+    /**
+     * Opt in for a decimation of the sound before the analysis : the windows
+     * and the fourier transforms are smaller, but the harmonics above the
+     * half of the new sample rate are ignored
+     *
+     * @param sampleRate
+     *            the lowest sample rate of the analyzed sound (see
+     *            {@link DecimationSoundTransform})
+     * @return this
+     */
+    public HarmonicProductSpectrumSoundTransform<T> setDecimation (final float sampleRate) {
+        this.decimation = new DecimationSoundTransform (sampleRate);
+        return this;
+    }
+
     @Override
     public HarmonicProductSpectrumSoundTransform<T> setObservers (final Observer... observers1) {
         this.decoratedTransform.setObservers (observers1);
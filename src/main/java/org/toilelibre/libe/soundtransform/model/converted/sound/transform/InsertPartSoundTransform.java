@@ -1,5 +1,8 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
@@ -58,13 +61,17 @@ public class InsertPartSoundTransform implements SoundTransform<Channel, Channel
     }
 
     private Channel insertIn (final Channel sound) {
-        final long [] samples = new long [Math.max (this.start, sound.getSamplesLength ()) + this.subsound [sound.getChannelNum ()].getSamplesLength ()];
-        sound.copyTo (samples, 0, 0, Math.min (this.start, sound.getSamplesLength ()));
-        this.subsound [sound.getChannelNum ()].copyTo (samples, 0, this.start, this.subsound [sound.getChannelNum ()].getSamplesLength ());
+        final Channel inserted = this.subsound [sound.getChannelNum ()];
+        final List<Channel> parts = new ArrayList<Channel> ();
+        parts.add (sound.view (0, Math.min (this.start, sound.getSamplesLength ())));
+        if (this.start > sound.getSamplesLength ()) {
+            parts.add (new Channel (this.start - sound.getSamplesLength (), sound.getFormatInfo (), sound.getChannelNum ()));
+        }
+        parts.add (inserted);
         if (sound.getSamplesLength () - this.start > 0) {
-            sound.copyTo (samples, this.start, this.start + this.subsound [sound.getChannelNum ()].getSamplesLength (), sound.getSamplesLength () - this.start);
+            parts.add (sound.view (this.start, sound.getSamplesLength ()));
         }
-        return new Channel (samples, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.concat (parts.toArray (new Channel [parts.size ()]));
     }
 
     @Override
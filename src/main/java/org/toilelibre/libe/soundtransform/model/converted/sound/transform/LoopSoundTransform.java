@@ -40,7 +40,7 @@ public class LoopSoundTransform implements SoundTransform<Channel, Channel> {
 
     @Override
     public Channel transform (final Channel input) throws SoundTransformException {
-        final Channel result = new Channel (new long [this.length], input.getFormatInfo (), input.getChannelNum ());
+        final Channel result = new Channel (this.length, input.getFormatInfo (), input.getChannelNum ());
 
         if (this.length <= 0) {
             throw new SoundTransformException (LoopSoundTransformErrorCode.NOT_POSITIVE_VALUE, new IllegalArgumentException (), 0, this.length);
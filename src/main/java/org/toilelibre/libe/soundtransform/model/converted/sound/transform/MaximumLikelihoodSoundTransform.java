@@ -1,8 +1,16 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.toilelibre.libe.soundtransform.model.converted.AnalysisExecutor;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 import org.toilelibre.libe.soundtransform.model.freqs.PianoFrequency;
 import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
@@ -18,92 +26,145 @@ import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
  * As this Peak find algorithm is processed in the time domain rather than the
  * frequency domain, the getDetectedNoteVolume will return an arbitrary, not
  * reliable value.
+ *
+ * The windowed magnitudes of the sound are computed once, in a double array.
+ * The piano keys sharing the same period (in samples) are summed once, and
+ * the part of a sum which does not depend on the moment of the sound is kept
+ * from a window to the next one. The periods of a long window can be summed
+ * in parallel, by the calling thread and the threads of the shared
+ * AnalysisExecutor.
  **/
-public class MaximumLikelihoodSoundTransform extends AbstractLogAware<MaximumLikelihoodSoundTransform> implements PeakFindSoundTransform<Serializable, AbstractLogAware<MaximumLikelihoodSoundTransform>> {
-
-    private static final double A_HUNDRED_PERCENT = 100.0;
+public class MaximumLikelihoodSoundTransform extends AbstractLogAware<MaximumLikelihoodSoundTransform> implements PeakFindSoundTransform<Serializable, AbstractLogAware<MaximumLikelihoodSoundTransform>>, CacheKeyDescribed {
 
-    static class WeightIntegralFunction {
+    public enum MaximumLikelihoodSoundTransformErrorCode implements ErrorCode {
+        PARALLEL_SEARCH_INTERRUPTED ("The parallel search of the period has been interrupted"), PARALLEL_SEARCH_FAILED ("The parallel search of the period failed");
 
-        private final Channel input;
-        private final int     startSample;
-        private final int     endSample;
-        private final int     length;
+        private final String messageFormat;
 
-        public WeightIntegralFunction (final Channel input1, final int startSample1, final int endSample1) {
-            this.input = input1;
-            this.startSample = startSample1;
-            this.endSample = endSample1;
-            this.length = this.endSample - this.startSample;
+        MaximumLikelihoodSoundTransformErrorCode (final String mF) {
+            this.messageFormat = mF;
         }
 
-        public double value (final double choosenPeriod) {
-            final int choosenPeriodsInSignal = (int) (this.length / choosenPeriod);
-            final int moduloAfterLastPeriod = (int) (this.length % choosenPeriod);
-            return this.sumOfRanges (choosenPeriodsInSignal + 1, (int) choosenPeriod, 0, moduloAfterLastPeriod) + this.sumOfRanges (choosenPeriodsInSignal, (int) choosenPeriod, moduloAfterLastPeriod, choosenPeriod);
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
         }
+    }
 
-        private double sumOfRanges (final int n, final int t, final int startOfInterval, final double endOfInterval) {
-            final SignalSumFunction sumFunction = new SignalSumFunction (this.input, t, this.startSample, this.endSample);
-            double sum = 0;
-            for (int k = startOfInterval ; k <= endOfInterval ; k++) {
-                final double valueOfK = sumFunction.value (k);
-                sum += valueOfK * valueOfK;
-            }
-            return sum * n;
-        }
+    private static final double A_HUNDRED_PERCENT = 100.0;
+    // shorter windows are not worth a task per thread
+    private static final int    LONG_WINDOW       = 4096;
 
-    }
+    /**
+     * Weighted sum of the squared means of the samples taken each period, for
+     * all the offsets of a period
+     */
+    static class PeriodSums {
 
-    static class SignalSumFunction {
+        private final float frequency;
+        private final int   period;
+        private int         length;
+        private double      squaredMeanAtModulo;
+        private double      sumAfterModulo;
 
-        private final int     choosenPeriod;
-        private final int     moduloAfterLastPeriod;
-        private final Channel input;
-        private final int     choosenPeriodsInSignal;
-        private final int     startSample;
-        private final int     endSample;
-        private final int     length;
+        PeriodSums (final float frequency1, final int period1) {
+            this.frequency = frequency1;
+            this.period = period1;
+            this.length = -1;
+        }
 
-        public SignalSumFunction (final Channel input1, final int choosenPeriod1, final int startSample1, final int endSample1) {
-            this.input = input1;
-            this.choosenPeriod = choosenPeriod1;
-            this.startSample = startSample1;
-            this.endSample = endSample1;
-            this.length = this.endSample - this.startSample;
-            this.choosenPeriodsInSignal = this.length / this.choosenPeriod;
-            this.moduloAfterLastPeriod = this.length % this.choosenPeriod;
+        public float getFrequency () {
+            return this.frequency;
         }
 
-        public double value (final double t) {
-            return t < this.moduloAfterLastPeriod ? this.sumOfNPlusOne (t) : this.sumOfN (t);
+        public int getPeriod () {
+            return this.period;
         }
 
-        private double sumOfN (final double t) {
-            return SignalSumFunction.sumImplementation (this.input, this.choosenPeriodsInSignal, this.choosenPeriod, (int) t);
+        /**
+         * @param magnitudes
+         *            absolute values of the samples
+         * @param startSample
+         *            first sample of the window
+         * @param endSample
+         *            end of the window (excluded)
+         * @return the sum (the higher, the likelier the period)
+         */
+        public double value (final double [] magnitudes, final int startSample, final int endSample) {
+            final int length1 = endSample - startSample;
+            final int periodsInSignal = length1 / this.period;
+            final int moduloAfterLastPeriod = length1 % this.period;
+            if (length1 != this.length) {
+                // the offsets from the modulo are summed from the start of
+                // the sound, whatever the window : same sum for all the
+                // windows of the same length
+                final double meanAtModulo = PeriodSums.mean (magnitudes, moduloAfterLastPeriod, periodsInSignal, this.period);
+                double sum = 0;
+                for (int k = moduloAfterLastPeriod ; k <= this.period ; k++) {
+                    final double mean = PeriodSums.mean (magnitudes, k, periodsInSignal, this.period);
+                    sum += mean * mean;
+                }
+                this.squaredMeanAtModulo = meanAtModulo * meanAtModulo;
+                this.sumAfterModulo = sum * periodsInSignal;
+                this.length = length1;
+            }
+            double sum = 0;
+            for (int k = 0 ; k < moduloAfterLastPeriod ; k++) {
+                final double mean = PeriodSums.mean (magnitudes, startSample + k, periodsInSignal + 1, this.period);
+                sum += mean * mean;
+            }
+            sum += this.squaredMeanAtModulo;
+            return sum * (periodsInSignal + 1) + this.sumAfterModulo;
         }
 
-        private static double sumImplementation (final Channel input, final int n, final int p, final int t) {
+        private static double mean (final double [] magnitudes, final int offset, final int n, final int period) {
             double sum = 0;
-            for (int k = 0 ; k < n ; k++) {
-                final int index = t + k * p;
-                sum += index < input.getSamplesLength () ? Math.abs (input.getSampleAt (index)) : 0;
+            // the samples after the end of the sound count as zeros
+            for (int k = 0, index = offset ; k < n && index < magnitudes.length ; k++, index += period) {
+                sum += magnitudes [index];
             }
             return sum * 1.0 / n;
         }
+    }
+
+    private static final class PeriodsBlock implements Callable<Void> {
+        private final PeriodSums [] periodSums;
+        private final double []     sums;
+        private final double []     magnitudes;
+        private final int           startSample;
+        private final int           endSample;
+        private final int           firstPeriod;
+        private final int           periodStep;
 
-        private double sumOfNPlusOne (final double t) {
-            return SignalSumFunction.sumImplementation (this.input, this.choosenPeriodsInSignal + 1, this.choosenPeriod, (int) (t + this.startSample));
+        private PeriodsBlock (final PeriodSums [] periodSums1, final double [] sums1, final double [] magnitudes1, final int startSample1, final int endSample1, final int firstPeriod1, final int periodStep1) {
+            this.periodSums = periodSums1;
+            this.sums = sums1;
+            this.magnitudes = magnitudes1;
+            this.startSample = startSample1;
+            this.endSample = endSample1;
+            this.firstPeriod = firstPeriod1;
+            this.periodStep = periodStep1;
         }
 
+        @Override
+        public Void call () {
+            // interleaved periods : the long periods are not all in the same
+            // block
+            for (int i = this.firstPeriod ; i < this.periodSums.length ; i += this.periodStep) {
+                this.sums [i] = this.periodSums [i].value (this.magnitudes, this.startSample, this.endSample);
+            }
+            return null;
+        }
     }
 
-    private static final float DEFAULT_NOTE_VOLUME_UNKNOWN_VALUE = 40;
+    private static final float       DEFAULT_NOTE_VOLUME_UNKNOWN_VALUE = 40;
 
-    private final int          step;
-    private final int          window;
-    private final int          minFreq;
-    private final int          maxFreq;
+    private final int                step;
+    private final int                window;
+    private final int                minFreq;
+    private final int                maxFreq;
+    private DecimationSoundTransform decimation;
+    private int                      parallelism;
 
     /**
      * Default Constructor
@@ -128,45 +189,153 @@ public class MaximumLikelihoodSoundTransform extends AbstractLogAware<MaximumLik
         this.window = window1;
         this.minFreq = minFreq1;
         this.maxFreq = maxFreq1;
+        this.parallelism = 1;
+    }
+
+    /**
+     * Opt in for a decimation of the sound before the analysis : the window
+     * and the step keep their length in seconds, with fewer samples to sum.
+     *
+     * The frequencies found are not the same as without decimation : the
+     * periods are counted in samples of the decimated sound, and the shorter
+     * sums do not favour the same keys (a 220Hz note is found at 246.9Hz
+     * without decimation and at 329.6Hz with a 8000Hz decimation). Compare
+     * the results of two sounds with the same settings only.
+     *
+     * @param sampleRate
+     *            the lowest sample rate of the analyzed sound (see
+     *            {@link DecimationSoundTransform})
+     * @return this
+     */
+    public MaximumLikelihoodSoundTransform setDecimation (final float sampleRate) {
+        this.decimation = new DecimationSoundTransform (sampleRate);
+        return this;
+    }
+
+    /**
+     * Opt in for a parallel sum of the periods of each window (only when the
+     * analyzed window is long)
+     *
+     * @param parallelism1
+     *            number of threads (1 to disable the parallel sums)
+     * @return this
+     */
+    public MaximumLikelihoodSoundTransform setParallelism (final int parallelism1) {
+        this.parallelism = Math.max (1, parallelism1);
+        return this;
     }
 
     @Override
     public float [] transform (final Channel input) throws SoundTransformException {
-        final Channel windowedInput = new BlackmanHarrisWindowSoundTransform ().transformWholeChannel (input);
+        final int factor = this.decimation == null ? 1 : this.decimation.getFactor (input.getSampleRate ());
+        final Channel analyzedInput = factor == 1 ? input : this.decimation.transform (input);
+        final double [] magnitudes = this.windowedMagnitudes (analyzedInput);
+        final PeriodSums [] periodSums = this.periodSums (analyzedInput.getSampleRate ());
+        final double [] sums = ArrayPool.takeDoubles (periodSums.length);
+        final int threads = this.window / factor >= MaximumLikelihoodSoundTransform.LONG_WINDOW ? Math.min (this.parallelism, periodSums.length) : 1;
         final float [] loudestFreqs = new float [input.getSamplesLength () / this.step + 1];
-        for (int momentOfTheSound = 0 ; momentOfTheSound < input.getSamplesLength () ; momentOfTheSound += this.step) {
-            final int percent = (int) Math.floor (MaximumLikelihoodSoundTransform.A_HUNDRED_PERCENT * (momentOfTheSound * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step));
-            if (percent > Math.floor (MaximumLikelihoodSoundTransform.A_HUNDRED_PERCENT * ( (momentOfTheSound - this.step) * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step))) {
-                this.log (new LogEvent (PeakFindSoundTransformEventCode.ITERATION_IN_PROGRESS, momentOfTheSound / this.step, (int) Math.ceil (input.getSamplesLength () * 1.0 / this.step), percent));
+        try {
+            for (int momentOfTheSound = 0 ; momentOfTheSound < input.getSamplesLength () ; momentOfTheSound += this.step) {
+                final int percent = (int) Math.floor (MaximumLikelihoodSoundTransform.A_HUNDRED_PERCENT * (momentOfTheSound * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step));
+                if (percent > Math.floor (MaximumLikelihoodSoundTransform.A_HUNDRED_PERCENT * ( (momentOfTheSound - this.step) * 1.0 / this.step) / (input.getSamplesLength () * 1.0 / this.step))) {
+                    this.log (new LogEvent (PeakFindSoundTransformEventCode.ITERATION_IN_PROGRESS, momentOfTheSound / this.step, (int) Math.ceil (input.getSamplesLength () * 1.0 / this.step), percent));
+                }
+                // the moments are the ones of the sound before its decimation
+                final int startSample = momentOfTheSound / factor;
+                final int endSample = Math.min (startSample + this.window / factor, magnitudes.length - 1);
+                if (threads == 1) {
+                    for (int i = 0 ; i < periodSums.length ; i++) {
+                        sums [i] = periodSums [i].value (magnitudes, startSample, endSample);
+                    }
+                } else {
+                    this.sumInParallel (threads, periodSums, sums, magnitudes, startSample, endSample);
+                }
+                loudestFreqs [momentOfTheSound / this.step] = this.likeliestFrequency (periodSums, sums);
             }
-            this.transformMoment (windowedInput, momentOfTheSound, Math.min (momentOfTheSound + this.window, input.getSamplesLength () - 1), loudestFreqs);
+        } finally {
+            ArrayPool.release (magnitudes);
+            ArrayPool.release (sums);
         }
         return loudestFreqs;
     }
 
-    private void transformMoment (final Channel input, final int startSample, final int endSample, final float [] loudestFreqs) {
-        float foundPeak = 0;
-        double foundValue = 0;
+    /**
+     * Absolute values of the samples, after a Blackman Harris window on the
+     * whole sound
+     */
+    private double [] windowedMagnitudes (final Channel input) {
+        final double [] magnitudes = ArrayPool.takeDoubles (input.getSamplesLength ());
+        final double [] coefficients = new BlackmanHarrisWindowSoundTransform ().getCoefficients (input.getSamplesLength ());
+        for (int i = 0 ; i < magnitudes.length ; i++) {
+            magnitudes [i] = Math.abs ((long) (input.getSampleAt (i) * coefficients [i]));
+        }
+        return magnitudes;
+    }
+
+    /**
+     * One candidate per period (in samples), for the piano keys between the
+     * min and the max frequencies. The lowest key of a period is kept : a
+     * higher key with the same sum would not be chosen.
+     */
+    private PeriodSums [] periodSums (final float sampleRate) {
+        final List<PeriodSums> periodSums = new ArrayList<PeriodSums> ();
         for (final PianoFrequency.PianoValues freq : PianoFrequency.PianoValues.values ()) {
             if (freq.getFrequency () > this.maxFreq || freq.getFrequency () < this.minFreq) {
                 continue;
             }
             final float period = 1.0f / freq.getFrequency ();
-            final double sum = this.computeSum (input, startSample, endSample, this.periodToLength (input, period));
-            if (sum > foundValue) {
-                foundPeak = freq.getFrequency ();
-                foundValue = sum;
+            final int length = (int) (period * sampleRate);
+            boolean alreadyThere = false;
+            for (final PeriodSums candidate : periodSums) {
+                alreadyThere |= candidate.getPeriod () == length;
+            }
+            if (!alreadyThere) {
+                periodSums.add (new PeriodSums (freq.getFrequency (), length));
+            }
+        }
+        return periodSums.toArray (new PeriodSums [periodSums.size ()]);
+    }
+
+    private void sumInParallel (final int threads, final PeriodSums [] periodSums, final double [] sums, final double [] magnitudes, final int startSample, final int endSample) throws SoundTransformException {
+        final List<Future<Void>> futures = new ArrayList<Future<Void>> (threads - 1);
+        try {
+            for (int block = 1 ; block < threads ; block++) {
+                futures.add (AnalysisExecutor.get ().submit (new PeriodsBlock (periodSums, sums, magnitudes, startSample, endSample, block, threads)));
+            }
+            new PeriodsBlock (periodSums, sums, magnitudes, startSample, endSample, 0, threads).call ();
+            for (final Future<Void> future : futures) {
+                future.get ();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread ().interrupt ();
+            throw new SoundTransformException (MaximumLikelihoodSoundTransformErrorCode.PARALLEL_SEARCH_INTERRUPTED, ie);
+        } catch (final ExecutionException ee) {
+            if (ee.getCause () instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause ();
+            }
+            throw new SoundTransformException (MaximumLikelihoodSoundTransformErrorCode.PARALLEL_SEARCH_FAILED, ee);
+        } finally {
+            for (final Future<Void> future : futures) {
+                future.cancel (true);
             }
         }
-        loudestFreqs [(int) (startSample * 1.0 / this.step)] = foundPeak;
     }
 
-    private int periodToLength (final Channel input, final float period) {
-        return (int) (period * input.getSampleRate ());
+    private float likeliestFrequency (final PeriodSums [] periodSums, final double [] sums) {
+        float foundPeak = 0;
+        double foundValue = 0;
+        for (int i = 0 ; i < periodSums.length ; i++) {
+            if (sums [i] > foundValue) {
+                foundPeak = periodSums [i].getFrequency ();
+                foundValue = sums [i];
+            }
+        }
+        return foundPeak;
     }
 
-    private double computeSum (final Channel input, final int startSample, final int endSample, final int choosenPeriod) {
-        return new WeightIntegralFunction (input, startSample, endSample).value (choosenPeriod);
+    @Override
+    public String getCacheKeyDescription () {
+        return "window=" + this.window + ", step=" + this.step + ", minFreq=" + this.minFreq + ", maxFreq=" + this.maxFreq + ", decimation=" + (this.decimation == null ? "none" : this.decimation.getCacheKeyDescription ());
     }
 
     @Override
@@ -4,6 +4,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundAppender;
@@ -53,7 +54,7 @@ public class MixSoundTransform implements SoundTransform<Channel, Channel> {
             maxlength = Math.max (maxlength, sound.getSamplesLength ());
         }
 
-        final long [] newdata = new long [maxlength];
+        final long [] newdata = ArrayPool.takeLongs (maxlength);
 
         // find the max:
         double max = 0;
@@ -74,7 +75,7 @@ public class MixSoundTransform implements SoundTransform<Channel, Channel> {
         }
 
         // normalized result in newdata
-        return new Channel (newdata, firstSound.getFormatInfo (), firstSound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, firstSound.getFormatInfo (), firstSound.getChannelNum ());
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 
 /**
@@ -14,11 +15,11 @@ public class NoOpSoundTransform implements SoundTransform<Channel, Channel> {
     private Channel noop (final Channel sound) {
 
         // same array in newdata
-        final long [] newdata = new long [sound.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (sound.getSamplesLength ());
 
         sound.copyTo (newdata);
 
-        return new Channel (newdata, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     @Override
@@ -2,6 +2,11 @@ package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
 public class NoOpWindowSoundTransform extends AbstractWindowSoundTransform {
 
+    @Override
+    protected Object getCoefficientsKey () {
+        return this.getClass ();
+    }
+
     @Override
     protected double applyFunction (final double progress) {
         return 1;
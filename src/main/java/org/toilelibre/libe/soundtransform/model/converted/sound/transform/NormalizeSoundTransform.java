@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
@@ -54,7 +55,7 @@ public class NormalizeSoundTransform implements SoundTransform<Channel, Channel>
 
     private Channel normalize (final Channel sound) {
 
-        final long [] newdata = new long [sound.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (sound.getSamplesLength ());
         // this is the raw audio data -- no header
 
         // find the max:
@@ -74,7 +75,7 @@ public class NormalizeSoundTransform implements SoundTransform<Channel, Channel>
         }
 
         // normalized result in newdata
-        return new Channel (newdata, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     @Override
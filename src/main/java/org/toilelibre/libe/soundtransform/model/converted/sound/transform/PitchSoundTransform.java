@@ -1,11 +1,13 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PolyphaseResampler;
 
 /**
  * Removes or adds some samples in the input sound according to the passed
  * percent parameter. This will change the pitch of the sound (the frequencies
- * will be shifted)
+ * will be shifted). The samples are interpolated by a polyphase resampler, so
+ * pitching up does not fold the high frequencies back.
  */
 public class PitchSoundTransform implements SoundTransform<Channel, Channel> {
 
@@ -31,18 +33,7 @@ public class PitchSoundTransform implements SoundTransform<Channel, Channel> {
         if (percent1 == total) {
             return sound;
         }
-        final float nbSamples = sound.getSamplesLength ();
-        final float nbFiltered = Math.abs (total * nbSamples / percent1);
-        final float incr = nbSamples / nbFiltered;
-
-        final long [] ret = new long [(int) nbFiltered];
-        for (double i = 0 ; i < incr * nbFiltered ; i += incr) {
-            final int j = (int) (i / incr);
-            if (j < ret.length) {
-                ret [j] = sound.getSampleAt ((int) i);
-            }
-        }
-        return new Channel (ret, sound.getFormatInfo (), sound.getChannelNum ());
+        return PolyphaseResampler.forFactor (Math.abs (total / percent1)).resample (sound, sound.getSampleRate ());
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
@@ -59,10 +60,10 @@ public class ReplacePartSoundTransform implements SoundTransform<Channel, Channe
     }
 
     private Channel replace (final Channel sound) {
-        final long [] samples = new long [Math.max (sound.getSamplesLength (), this.start + this.replacement [sound.getChannelNum ()].getSamplesLength ())];
+        final long [] samples = ArrayPool.takeLongs (Math.max (sound.getSamplesLength (), this.start + this.replacement [sound.getChannelNum ()].getSamplesLength ()));
         sound.copyTo (samples);
         this.replacement [sound.getChannelNum ()].copyTo (samples, 0, this.start, this.replacement [sound.getChannelNum ()].getSamplesLength ());
-        return new Channel (samples, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (samples, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 
 /**
@@ -16,14 +17,14 @@ public class ReverseSoundTransform implements SoundTransform<Channel, Channel> {
 
     private Channel reverse (final Channel sound) {
 
-        final long [] newdata = new long [sound.getSamplesLength ()];
+        final long [] newdata = ArrayPool.takeLongs (sound.getSamplesLength ());
         // this is the raw audio data -- no header
 
         for (int i = 0 ; i < sound.getSamplesLength () ; i++) {
             newdata [i] = sound.getSampleAt (sound.getSamplesLength () - i - 1);
         }
         // normalized result in newdata
-        return new Channel (newdata, sound.getFormatInfo (), sound.getChannelNum ());
+        return Channel.ownPooledSamples (newdata, sound.getFormatInfo (), sound.getChannelNum ());
     }
 
     @Override
@@ -3,6 +3,7 @@ package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundAppender;
 import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
@@ -61,12 +62,13 @@ public class ShapeSoundTransform extends AbstractLogAware<ShapeSoundTransform> i
 
     private static final int    THREE = 3;
 
-    private final Pack          pack;
-    private final String        instrument;
-    private final SoundAppender soundAppender;
-    private final Silence       silence;
-    private float []            freqs;
-    private final FormatInfo    formatInfo;
+    private final Pack                 pack;
+    private final String               instrument;
+    private final SoundAppender        soundAppender;
+    private final Silence              silence;
+    private float []                   freqs;
+    private final FormatInfo           formatInfo;
+    private final PitchAndTempoQuality quality;
 
     /**
      * Default Constructor
@@ -79,11 +81,30 @@ public class ShapeSoundTransform extends AbstractLogAware<ShapeSoundTransform> i
      *            the format info
      */
     public ShapeSoundTransform (final String packName, final String instrument1, final FormatInfo formatInfo1) {
+        this (packName, instrument1, formatInfo1, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    /**
+     * Constructor choosing how the notes of the pack are pitched and
+     * stretched
+     *
+     * @param packName
+     *            Pack name, should be already imported
+     * @param instrument1
+     *            instrument of the pack which will be used to shape the sound
+     * @param formatInfo1
+     *            the format info
+     * @param quality1
+     *            BEST_QUALITY for the frequency domain transforms, BEST_SPEED
+     *            for the faster time domain ones
+     */
+    public ShapeSoundTransform (final String packName, final String instrument1, final FormatInfo formatInfo1, final PitchAndTempoQuality quality1) {
         this.silence = new Silence ();
         this.pack = $.select (Library.class).getPack (packName);
         this.instrument = instrument1;
         this.soundAppender = $.select (SoundAppender.class);
         this.formatInfo = formatInfo1;
+        this.quality = quality1;
     }
 
     private Note findNote (final double lastFreq, final int sampleRate, final int i, final int lastBegining) throws SoundTransformException {
@@ -127,7 +148,7 @@ public class ShapeSoundTransform extends AbstractLogAware<ShapeSoundTransform> i
     }
 
     private Channel transform (final int step, final int channelNum, final int soundLength) throws SoundTransformException {
-        final Channel builtSound = new Channel (new long [soundLength], this.formatInfo, channelNum);
+        final Channel builtSound = new Channel (soundLength, this.formatInfo, channelNum);
         int noteStart = 0;
         int noteEnd = 0;
         while (noteStart + ShapeSoundTransform.THREE + 1 < this.freqs.length) {
@@ -139,7 +160,7 @@ public class ShapeSoundTransform extends AbstractLogAware<ShapeSoundTransform> i
             noteEnd = noteEnd + 3 < this.freqs.length ? noteEnd : this.freqs.length - 1;
             final float lengthInSeconds = (noteEnd - 1 - noteStart) * step * 1.0f / this.formatInfo.getSampleRate ();
             final Note note = this.findNote (this.freqs [noteEnd - 1], (int) this.formatInfo.getSampleRate (), noteEnd, noteStart);
-            this.soundAppender.appendNote (builtSound, note, this.freqs [noteEnd - 1], step * noteStart, channelNum, lengthInSeconds);
+            this.soundAppender.appendNote (builtSound, note, this.freqs [noteEnd - 1], step * noteStart, channelNum, lengthInSeconds, this.quality);
         }
 
         this.freqs = null;
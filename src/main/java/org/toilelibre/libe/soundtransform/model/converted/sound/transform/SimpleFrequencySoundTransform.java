@@ -3,6 +3,7 @@ package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 import java.io.Serializable;
 
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.FourierTransformHelper;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
@@ -40,8 +41,8 @@ public class SimpleFrequencySoundTransform<T extends Serializable> extends Abstr
 
     @Override
     public Channel initSound (final Channel input) {
-        final long [] newdata = new long [input.getSamplesLength ()];
-        return new Channel (newdata, input.getFormatInfo (), input.getChannelNum ());
+        final long [] newdata = ArrayPool.takeLongs (input.getSamplesLength ());
+        return Channel.ownPooledSamples (newdata, input.getFormatInfo (), input.getChannelNum ());
     }
 
     public Spectrum<T> transformFrequencies (final Spectrum<T> fs) {
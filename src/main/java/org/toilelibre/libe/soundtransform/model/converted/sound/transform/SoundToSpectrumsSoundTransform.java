@@ -16,7 +16,6 @@ public class SoundToSpectrumsSoundTransform implements SoundTransform<Channel, S
         private static final int          TWO = 2;
         private int                       step;
         private Spectrum<Serializable> [] spectrums;
-        private int                       index;
 
         /**
          * Default constructor
@@ -43,7 +42,6 @@ public class SoundToSpectrumsSoundTransform implements SoundTransform<Channel, S
 
         @Override
         public Channel initSound (final Channel input) {
-            this.index = 0;
             int roundedSize = SoundToSpectrumsFrequencySoundTransform.TWO;
             while (input.getSampleRate () > roundedSize) {
                 roundedSize *= SoundToSpectrumsFrequencySoundTransform.TWO;
@@ -55,15 +53,40 @@ public class SoundToSpectrumsSoundTransform implements SoundTransform<Channel, S
         }
 
         @Override
-        public Spectrum<Serializable> transformFrequencies (final Spectrum<Serializable> fs) {
-            this.spectrums [this.index++] = fs;
+        public Spectrum<Serializable> transformFrequencies (final Spectrum<Serializable> fs, final int offset) {
+            this.spectrums [offset / this.step] = fs;
             return fs;
         }
+
+        @Override
+        protected boolean canTransformWindowsInAnyOrder () {
+            return true;
+        }
+
+        @Override
+        public boolean isReverseNecessary () {
+            return false;
+        }
+    }
+
+    private int parallelism = 1;
+
+    /**
+     * Opt in for a parallel analysis of the windows
+     *
+     * @param parallelism1
+     *            number of threads (1 to disable the parallel analysis)
+     * @return this
+     */
+    public SoundToSpectrumsSoundTransform setParallelism (final int parallelism1) {
+        this.parallelism = parallelism1;
+        return this;
     }
 
     @Override
     public Spectrum<Serializable> [] transform (final Channel input) throws SoundTransformException {
         final SoundToSpectrumsFrequencySoundTransform soundTransform = new SoundToSpectrumsFrequencySoundTransform ();
+        soundTransform.setParallelism (this.parallelism);
         soundTransform.transform (input);
         return soundTransform.getSpectrums ();
     }
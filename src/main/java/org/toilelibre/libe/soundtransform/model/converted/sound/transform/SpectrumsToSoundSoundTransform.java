@@ -34,7 +34,7 @@ public class SpectrumsToSoundSoundTransform implements SoundTransform<Spectrum<S
         while (roundedSampleRate < spectrumChannel [0].getSampleRate ()) {
             roundedSampleRate *= 2;
         }
-        final Channel result = new Channel (new long [roundedSampleRate * spectrumChannel.length], spectrumChannel [0].getFormatInfo (), 0);
+        final Channel result = new Channel (roundedSampleRate * spectrumChannel.length, spectrumChannel [0].getFormatInfo (), 0);
         int length = 0;
         for (final Spectrum<?> spectrum : spectrumChannel) {
             @SuppressWarnings ("unchecked")
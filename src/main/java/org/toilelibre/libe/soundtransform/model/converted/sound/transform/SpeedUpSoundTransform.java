@@ -2,6 +2,7 @@ package org.toilelibre.libe.soundtransform.model.converted.sound.transform;
 
 import java.io.Serializable;
 
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
 import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
 import org.toilelibre.libe.soundtransform.model.logging.EventCode;
@@ -74,8 +75,8 @@ public class SpeedUpSoundTransform<T extends Serializable> extends SimpleFrequen
 
     @Override
     public Channel initSound (final Channel input) {
-        final long [] newdata = new long [(int) (input.getSamplesLength () / this.factor)];
-        this.sound = new Channel (newdata, input.getFormatInfo (), input.getChannelNum ());
+        final long [] newdata = ArrayPool.takeLongs ((int) (input.getSamplesLength () / this.factor));
+        this.sound = Channel.ownPooledSamples (newdata, input.getFormatInfo (), input.getChannelNum ());
         return this.sound;
     }
 
@@ -44,16 +44,10 @@ public class SubSoundExtractSoundTransform implements SoundTransform<Channel, Ch
 
     @Override
     public Channel transform (final Channel input) throws SoundTransformException {
-        final Channel result = new Channel (new long [this.end - this.start], input.getFormatInfo (), input.getChannelNum ());
-
         if (this.start > this.end || this.start < 0 || this.end >= input.getSamplesLength ()) {
             throw new SoundTransformException (SubSoundExtractSoundTransformErrorCode.INDEXS_OUT_OF_BOUND, new IllegalArgumentException (), 0, input.getSamplesLength (), this.start, this.end);
         }
-
-        for (int i = this.start ; i < this.end ; i++) {
-            result.setSampleAt (i - this.start, input.getSampleAt (i));
-        }
-        return result;
+        return input.view (this.start, this.end);
     }
 
 }
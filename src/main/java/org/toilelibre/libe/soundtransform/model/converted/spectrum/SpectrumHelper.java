@@ -18,4 +18,30 @@ public interface SpectrumHelper<T> {
 
     int getMaxIndex (double [] array, int min, int max);
 
+    double getMaxValue (double [] array, int min, int max);
+
+    int getFirstPeak (double [] array, int min, int max, double thresholdValue);
+
+    /**
+     * Fills an array with the magnitudes of the first bins of a spectrum
+     *
+     * @param fs
+     *            the spectrum
+     * @param result
+     *            the magnitudes (the bins after the end of the spectrum are
+     *            left unchanged)
+     */
+    void magnitudes (Spectrum<T> fs, double [] result);
+
+    /**
+     * Fills an array with the magnitudes of the first bins of a spectrum
+     *
+     * @param spectrumAsDoubles
+     *            the spectrum (real parts, then imaginary parts)
+     * @param result
+     *            the magnitudes (the bins after the end of the spectrum are
+     *            left unchanged)
+     */
+    void magnitudes (double [][] spectrumAsDoubles, double [] result);
+
 }
\ No newline at end of file
@@ -2,4 +2,15 @@ package org.toilelibre.libe.soundtransform.model.converted.spectrum;
 
 public interface SpectrumToCepstrumHelper<T> {
     Spectrum<T> spectrumToCepstrum (Spectrum<T> fs);
-}
\ No newline at end of file
+
+    /**
+     * Cepstrum of a spectrum in raw data, computed in place : nothing is
+     * allocated per window
+     *
+     * @param spectrumAsDoubles
+     *            the spectrum (real parts, then imaginary parts). The real
+     *            parts are replaced by the absolute values of the cepstrum,
+     *            the imaginary parts are used as a working array
+     */
+    void spectrumToCepstrum (double [][] spectrumAsDoubles);
+}
@@ -9,15 +9,63 @@ public final class PianoFrequency {
                 PianoFrequency.E3N), D3 (PianoFrequency.D3N), C3 (PianoFrequency.C3N), B2 (PianoFrequency.B2N), A2 (PianoFrequency.A2N), G2 (PianoFrequency.G2N), F2 (PianoFrequency.F2N), E2 (PianoFrequency.E2N), D2 (PianoFrequency.D2N), C2 (PianoFrequency.C2N), B1 (PianoFrequency.B1N), A1 (
                 PianoFrequency.A1N), G1 (PianoFrequency.G1N), F1 (PianoFrequency.F1N), E1 (PianoFrequency.E1N), D1 (PianoFrequency.D1N), C1 (PianoFrequency.C1N);
 
-        private final float frequency;
+        private static final int           SEMITONES_PER_OCTAVE  = 12;
+        private static final int           WHITE_KEYS_PER_OCTAVE = 7;
+        // white key of the octave at or under each semitone from C
+        private static final int []        WHITE_KEY_AT_OR_UNDER = { 0, 0, 1, 1, 2, 3, 3, 4, 4, 5, 5, 6 };
+        private static final PianoValues [] ASCENDING            = PianoValues.ascending ();
+
+        private final float                frequency;
 
         PianoValues (final float frequency1) {
             this.frequency = frequency1;
         }
 
+        private static PianoValues [] ascending () {
+            final PianoValues [] values = PianoValues.values ();
+            final PianoValues [] ascending = new PianoValues [values.length];
+            for (int i = 0 ; i < values.length ; i++) {
+                ascending [i] = values [values.length - 1 - i];
+            }
+            return ascending;
+        }
+
+        /**
+         * Nearest piano key of a frequency. The keys around the frequency are
+         * found from its number of semitones above C1, so only two keys are
+         * compared. The frequencies far from the piano (negative or above
+         * twice C8) are compared with all the keys.
+         *
+         * @param value
+         *            a frequency
+         * @return the nearest key (the highest of two keys as near, or A1)
+         */
         public static PianoValues getNearestNote (final float value) {
+            if (! (value >= 0 && value <= 2 * PianoValues.C8.frequency)) {
+                return PianoValues.getNearestNoteOf (value, PianoValues.values ());
+            }
+            final PianoValues lowest = PianoValues.ASCENDING [0];
+            if (value <= lowest.frequency) {
+                return PianoValues.getNearestNoteOf (value, lowest);
+            }
+            final int semitones = (int) Math.floor (PianoValues.SEMITONES_PER_OCTAVE * Math.log (value / lowest.frequency) / Math.log (2));
+            int index = Math.min (PianoValues.ASCENDING.length - 1, semitones / PianoValues.SEMITONES_PER_OCTAVE * PianoValues.WHITE_KEYS_PER_OCTAVE + PianoValues.WHITE_KEY_AT_OR_UNDER [semitones % PianoValues.SEMITONES_PER_OCTAVE]);
+            // the frequencies of the keys are rounded
+            while (index > 0 && PianoValues.ASCENDING [index].frequency > value) {
+                index--;
+            }
+            while (index + 1 < PianoValues.ASCENDING.length && PianoValues.ASCENDING [index + 1].frequency <= value) {
+                index++;
+            }
+            if (index + 1 == PianoValues.ASCENDING.length) {
+                return PianoValues.getNearestNoteOf (value, PianoValues.ASCENDING [index]);
+            }
+            return PianoValues.getNearestNoteOf (value, PianoValues.ASCENDING [index + 1], PianoValues.ASCENDING [index]);
+        }
+
+        private static PianoValues getNearestNoteOf (final float value, final PianoValues... candidates) {
             PianoValues nearest = PianoValues.A1;
-            for (final PianoValues pianoFreq : PianoValues.values ()) {
+            for (final PianoValues pianoFreq : candidates) {
                 if (Math.abs (value - pianoFreq.frequency) < Math.abs (value - nearest.frequency)) {
                     nearest = pianoFreq;
                 }
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.inputstream.readsound;
 
+import java.io.File;
 import java.io.InputStream;
 
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
@@ -47,6 +48,20 @@ final class DefaultInputStreamToSoundService extends AbstractLogAware<DefaultInp
         return new Sound (result);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.toilelibre.libe.soundtransform.model.inputstream.
+     * InputStreamToSoundService#fromMappedFile(java.io.File)
+     */
+    @Override
+    public Sound fromMappedFile (final File file) throws SoundTransformException {
+        this.log (new LogEvent (TransformInputStreamServiceEventCode.CONVERT_INTO_JAVA_OBJECT));
+        final Channel [] result = this.frameProcessor.fromMappedFile (file);
+        this.log (new LogEvent (TransformInputStreamServiceEventCode.CONVERT_DONE));
+        return new Sound (result);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.inputstream.readsound;
 
+import java.io.File;
 import java.io.InputStream;
 
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
@@ -13,7 +14,8 @@ import org.toilelibre.libe.soundtransform.model.logging.LogEvent.LogLevel;
 public interface FrameProcessor<T> extends LogAware<T> {
 
     public enum FrameProcessorErrorCode implements ErrorCode {
-        COULD_NOT_READ_STREAM ("Could not read stream"), COULD_NOT_CLOSE_STREAM ("Could not close stream"), COULD_NOT_FIND_LENGTH ("Could not find stream length");
+        COULD_NOT_READ_STREAM ("Could not read stream"), COULD_NOT_CLOSE_STREAM ("Could not close stream"), COULD_NOT_FIND_LENGTH ("Could not find stream length"), COULD_NOT_MAP_FILE ("Could not map the file %1s in memory"), NOT_A_PCM_WAV_FILE (
+                "%1s is not a PCM wav file"), WAV_FILE_TOO_LONG ("%1s has too many frames to be mapped");
 
         private final String messageFormat;
 
@@ -29,7 +31,8 @@ public interface FrameProcessor<T> extends LogAware<T> {
 
     public enum FrameProcessorEventCode implements EventCode {
         READ_START (LogLevel.INFO, "Starting to read the input stream"), BYTEARRAY_TO_FRAME_CONVERSION (LogLevel.VERBOSE, "Converting a byte array into a sound frame (%1d/%2d, %3d%%)"), READ_END (LogLevel.INFO, "Finished reading the input stream"), SOUND_INIT (LogLevel.INFO,
-                "Converted sound allocation in memory"), END_OF_STREAM (LogLevel.INFO, "End of stream");
+                "Converted sound allocation in memory"), END_OF_STREAM (LogLevel.INFO, "End of stream"), MAPPING_FILE (LogLevel.INFO, "Mapping the PCM data of the file %1s"), FILE_MAPPED (LogLevel.INFO,
+                "Finished mapping the file");
 
         private final String   messageFormat;
         private final LogLevel logLevel;
@@ -54,4 +57,16 @@ public interface FrameProcessor<T> extends LogAware<T> {
 
     Channel [] fromInputStream (InputStream ais, StreamInfo isInfo) throws SoundTransformException;
 
+    /**
+     * Maps the PCM data of a wav file in memory instead of reading it. The
+     * samples of the returned channels are decoded only when they are read.
+     *
+     * @param file
+     *            a PCM wav file
+     * @return the channels, backed by the mapped file
+     * @throws SoundTransformException
+     *             the file is not a PCM wav file, or it could not be mapped
+     */
+    Channel [] fromMappedFile (File file) throws SoundTransformException;
+
 }
\ No newline at end of file
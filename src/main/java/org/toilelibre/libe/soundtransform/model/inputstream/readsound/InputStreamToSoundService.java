@@ -1,5 +1,6 @@
 package org.toilelibre.libe.soundtransform.model.inputstream.readsound;
 
+import java.io.File;
 import java.io.InputStream;
 
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
@@ -48,6 +49,8 @@ public interface InputStreamToSoundService<T> extends LogAware<T> {
 
     Sound fromInputStream (InputStream ais) throws SoundTransformException;
 
+    Sound fromMappedFile (File file) throws SoundTransformException;
+
     Sound fromInputStream (InputStream ais, StreamInfo isInfo) throws SoundTransformException;
 
     StreamInfo getStreamInfo (InputStream ais) throws SoundTransformException;
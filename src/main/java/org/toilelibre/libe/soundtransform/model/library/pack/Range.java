@@ -1,25 +1,92 @@
 package org.toilelibre.libe.soundtransform.model.library.pack;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.model.library.pack.note.Note;
 
+/**
+ * Notes of an instrument, by frequency. The frequencies are also kept sorted
+ * in an array, rebuilt after a change of the notes, to find the nearest note
+ * of a frequency by a binary search.
+ */
 public class Range extends HashMap<Float, Note> {
 
     /**
      *
      */
-    private static final long serialVersionUID = 6526477231719258055L;
+    private static final long  serialVersionUID = 6526477231719258055L;
 
+    private transient float [] sortedFrequencies;
+
+    @Override
+    public Note put (final Float key, final Note value) {
+        this.sortedFrequencies = null;
+        return super.put (key, value);
+    }
+
+    @Override
+    public void putAll (final Map<? extends Float, ? extends Note> map) {
+        this.sortedFrequencies = null;
+        super.putAll (map);
+    }
+
+    @Override
+    public Note remove (final Object key) {
+        this.sortedFrequencies = null;
+        return super.remove (key);
+    }
+
+    @Override
+    public void clear () {
+        this.sortedFrequencies = null;
+        super.clear ();
+    }
+
+    /**
+     * Note of the nearest frequency
+     *
+     * @param frequency
+     *            a frequency
+     * @return the note (the lowest of two notes as near), or null if the
+     *         range is empty
+     */
     public Note getNearestNote (final int frequency) {
-        float nearest = Integer.MIN_VALUE;
-        for (final Float i : this.keySet ()) {
-            if (Math.abs (frequency - i) < Math.abs (frequency - nearest)) {
-                nearest = i;
+        final float [] frequencies = this.sortedFrequencies ();
+        if (frequencies.length == 0) {
+            return null;
+        }
+        final int found = Arrays.binarySearch (frequencies, frequency);
+        if (found >= 0) {
+            return this.get (Float.valueOf (frequencies [found]));
+        }
+        final int above = -found - 1;
+        final int nearest;
+        if (above == 0) {
+            nearest = above;
+        } else if (above == frequencies.length || Math.abs (frequency - frequencies [above - 1]) <= Math.abs (frequency - frequencies [above])) {
+            nearest = above - 1;
+        } else {
+            nearest = above;
+        }
+        return this.get (Float.valueOf (frequencies [nearest]));
+    }
+
+    private float [] sortedFrequencies () {
+        float [] frequencies = this.sortedFrequencies;
+        // the size also changes when the keys are removed through a view
+        if (frequencies == null || frequencies.length != this.size ()) {
+            frequencies = new float [this.size ()];
+            int i = 0;
+            for (final Float key : this.keySet ()) {
+                frequencies [i++] = key.floatValue ();
             }
+            Arrays.sort (frequencies);
+            this.sortedFrequencies = frequencies;
         }
-        return this.get (Float.valueOf (nearest));
+        return frequencies;
     }
 
     @Override
@@ -2,6 +2,7 @@ package org.toilelibre.libe.soundtransform.model.library.pack.note;
 
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 
 public abstract class FormulaNote implements Note {
 
@@ -56,11 +57,21 @@ public abstract class FormulaNote implements Note {
         return this.generateFormulaNote (frequency, FormulaNote.ONE_TENTH * lengthInSeconds, channelnum, FormulaNote.ATTACK_START_AMPLITUDE, FormulaNote.ATTACK_END_AMPLITUDE);
     }
 
+    @Override
+    public Channel getAttack (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getAttack (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public Channel getDecay (final float frequency, final int channelnum, final float lengthInSeconds) {
         return this.generateFormulaNote (frequency, FormulaNote.ONE_FIFTH * lengthInSeconds, channelnum, FormulaNote.DECAY_START_AMPLITUDE, FormulaNote.DECAY_END_AMPLITUDE);
     }
 
+    @Override
+    public Channel getDecay (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getDecay (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public float getFrequency () {
         return -1; // Unknown
@@ -71,9 +82,19 @@ public abstract class FormulaNote implements Note {
         return this.generateFormulaNote (frequency, FormulaNote.ONE_FIFTH * lengthInSeconds, channelnum, FormulaNote.RELEASE_START_AMPLITUDE, FormulaNote.RELEASE_END_AMPLITUDE);
     }
 
+    @Override
+    public Channel getRelease (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getRelease (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public Channel getSustain (final float frequency, final int channelnum, final float lengthInSeconds) {
         return this.generateFormulaNote (frequency, FormulaNote.ONE_HALF * lengthInSeconds, channelnum, FormulaNote.SUSTAIN_START_AMPLITUDE, FormulaNote.SUSTAIN_END_AMPLITUDE);
     }
 
+    @Override
+    public Channel getSustain (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getSustain (frequency, channelnum, lengthInSeconds);
+    }
+
 }
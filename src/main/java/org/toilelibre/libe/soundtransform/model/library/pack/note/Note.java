@@ -1,20 +1,29 @@
 package org.toilelibre.libe.soundtransform.model.library.pack.note;
 
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 
 public interface Note {
 
     Channel getAttack (float frequency, int channelnum, float lengthInSeconds) throws SoundTransformException;
 
+    Channel getAttack (float frequency, int channelnum, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
     Channel getDecay (float frequency, int channelnum, float lengthInSeconds) throws SoundTransformException;
 
+    Channel getDecay (float frequency, int channelnum, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
     float getFrequency ();
 
     String getName ();
 
     Channel getRelease (float frequency, int channelnum, float lengthInSeconds) throws SoundTransformException;
 
+    Channel getRelease (float frequency, int channelnum, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
     Channel getSustain (float frequency, int channelnum, float lengthInSeconds) throws SoundTransformException;
 
+    Channel getSustain (float frequency, int channelnum, float lengthInSeconds, PitchAndTempoQuality quality) throws SoundTransformException;
+
 }
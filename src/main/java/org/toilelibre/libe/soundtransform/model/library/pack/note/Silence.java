@@ -2,6 +2,7 @@ package org.toilelibre.libe.soundtransform.model.library.pack.note;
 
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 
 public class Silence implements Note {
 
@@ -11,7 +12,7 @@ public class Silence implements Note {
 
     private Channel generateSilence (final float lengthInSeconds) {
         final int nbSamples = (int) (Silence.SAMPLE_RATE * lengthInSeconds * 1.0);
-        return new Channel (new long [nbSamples], new FormatInfo (Silence.DEFAULT_NB_BYTES, Silence.SAMPLE_RATE), 0);
+        return new Channel (nbSamples, new FormatInfo (Silence.DEFAULT_NB_BYTES, Silence.SAMPLE_RATE), 0);
     }
 
     @Override
@@ -19,11 +20,21 @@ public class Silence implements Note {
         return this.generateSilence (Silence.ONE_FOURTH * lengthInSeconds);
     }
 
+    @Override
+    public Channel getAttack (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getAttack (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public Channel getDecay (final float frequency, final int channelnum, final float lengthInSeconds) {
         return this.generateSilence (Silence.ONE_FOURTH * lengthInSeconds);
     }
 
+    @Override
+    public Channel getDecay (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getDecay (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public float getFrequency () {
         return 0;
@@ -39,9 +50,19 @@ public class Silence implements Note {
         return this.generateSilence (Silence.ONE_FOURTH * lengthInSeconds);
     }
 
+    @Override
+    public Channel getRelease (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getRelease (frequency, channelnum, lengthInSeconds);
+    }
+
     @Override
     public Channel getSustain (final float frequency, final int channelnum, final float lengthInSeconds) {
         return this.generateSilence (Silence.ONE_FOURTH * lengthInSeconds);
     }
 
+    @Override
+    public Channel getSustain (final float frequency, final int channelnum, final float lengthInSeconds, final PitchAndTempoQuality quality) {
+        return this.getSustain (frequency, channelnum, lengthInSeconds);
+    }
+
 }
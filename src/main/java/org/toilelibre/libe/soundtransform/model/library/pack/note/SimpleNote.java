@@ -3,6 +3,7 @@ package org.toilelibre.libe.soundtransform.model.library.pack.note;
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundPitchAndTempoService;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
 import org.toilelibre.libe.soundtransform.model.library.pack.PackToStringHelper;
@@ -33,7 +34,7 @@ public class SimpleNote implements Note {
 
     private Channel get (final Channel [] adsr, final int channelnum) {
         if (adsr.length == 0) {
-            return new Channel (new long [0], new FormatInfo (0, 0), 0);
+            return new Channel (0, new FormatInfo (0, 0), 0);
         }
         if (adsr.length <= channelnum) {
             return adsr [adsr.length - 1];
@@ -43,12 +44,22 @@ public class SimpleNote implements Note {
 
     @Override
     public Channel getAttack (final float frequency, final int channelnum, final float length) throws SoundTransformException {
-        return this.soundPitchAndTempoService.callTransform (this.get (this.attack, channelnum), this.getPercent (frequency), this.getRatio (this.attack) * length);
+        return this.getAttack (frequency, channelnum, length, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel getAttack (final float frequency, final int channelnum, final float length, final PitchAndTempoQuality quality) throws SoundTransformException {
+        return this.soundPitchAndTempoService.callTransform (this.get (this.attack, channelnum), this.getPercent (frequency), this.getRatio (this.attack) * length, quality);
     }
 
     @Override
     public Channel getDecay (final float frequency, final int channelnum, final float length) throws SoundTransformException {
-        return this.soundPitchAndTempoService.callTransform (this.get (this.decay, channelnum), this.getPercent (frequency), this.getRatio (this.decay) * length);
+        return this.getDecay (frequency, channelnum, length, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel getDecay (final float frequency, final int channelnum, final float length, final PitchAndTempoQuality quality) throws SoundTransformException {
+        return this.soundPitchAndTempoService.callTransform (this.get (this.decay, channelnum), this.getPercent (frequency), this.getRatio (this.decay) * length, quality);
     }
 
     @Override
@@ -81,22 +92,29 @@ public class SimpleNote implements Note {
 
     @Override
     public Channel getRelease (final float frequency, final int channelnum, final float length) throws SoundTransformException {
-        return this.soundPitchAndTempoService.callTransform (this.get (this.release, channelnum), this.getPercent (frequency), this.getRatio (this.release) * length);
+        return this.getRelease (frequency, channelnum, length, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel getRelease (final float frequency, final int channelnum, final float length, final PitchAndTempoQuality quality) throws SoundTransformException {
+        return this.soundPitchAndTempoService.callTransform (this.get (this.release, channelnum), this.getPercent (frequency), this.getRatio (this.release) * length, quality);
     }
 
     @Override
     public Channel getSustain (final float frequency, final int channelnum, final float length) throws SoundTransformException {
-        return this.soundPitchAndTempoService.callTransform (this.get (this.sustain, channelnum), this.getPercent (frequency), this.getRatio (this.sustain) * length);
+        return this.getSustain (frequency, channelnum, length, PitchAndTempoQuality.BEST_QUALITY);
+    }
+
+    @Override
+    public Channel getSustain (final float frequency, final int channelnum, final float length, final PitchAndTempoQuality quality) throws SoundTransformException {
+        return this.soundPitchAndTempoService.callTransform (this.get (this.sustain, channelnum), this.getPercent (frequency), this.getRatio (this.sustain) * length, quality);
     }
 
     private Channel soundToSubSound (final Channel input, final int beginning, final int end) {
-        long [] newsamples = new long [0];
         if (beginning < end) {
-            final int size = Math.min (end - beginning, input.getSamplesLength () - beginning);
-            newsamples = new long [size];
-            input.copyTo (newsamples, beginning, 0, size);
+            return input.view (beginning, Math.min (end, input.getSamplesLength ()));
         }
-        return new Channel (newsamples, input.getFormatInfo (), input.getChannelNum ());
+        return new Channel (new long [0], input.getFormatInfo (), input.getChannelNum ());
     }
 
     @Override
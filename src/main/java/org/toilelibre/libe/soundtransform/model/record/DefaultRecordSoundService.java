@@ -5,8 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 
 import org.toilelibre.libe.soundtransform.model.Service;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SegmentedSound;
@@ -26,20 +25,22 @@ import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
 final class DefaultRecordSoundService extends AbstractLogAware<DefaultRecordSoundService> implements RecordSoundService<AbstractLogAware<DefaultRecordSoundService>> {
 
     private static class StreamReaderThread<T extends Serializable> extends Thread {
-        private final List<Sound>                      results;
+        private final SegmentedSound                   results;
         private final StreamInfo                       streamInfo;
         private final ByteBuffer                       targetByteBuffer;
         private final AudioFileService<T>              audioFileService1;
         private final InputStreamToSoundService<T>     isToSoundService1;
         private final AmplitudeObserver                amplitudeObserver;
+        private final StreamingPeakFind                streamingPeakFind;
         private final FourierTransformHelper<T>        fourierTransformHelper;
         private final SimpleFrequencySoundTransform<T> findAmplitude;
         private boolean                                waiting;
 
-        private StreamReaderThread (final List<Sound> results, final AmplitudeObserver amplitudeObserver, final StreamInfo streamInfo, final ByteBuffer targetByteBuffer, 
+        private StreamReaderThread (final SegmentedSound results, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind, final StreamInfo streamInfo, final ByteBuffer targetByteBuffer, 
                 final AudioFileService<T> audioFileService1, final InputStreamToSoundService<T> isToSoundService1, final FourierTransformHelper<T> fourierTransformHelper1) {
             this.results = results;
             this.amplitudeObserver = amplitudeObserver;
+            this.streamingPeakFind = streamingPeakFind;
             this.streamInfo = streamInfo;
             this.targetByteBuffer = targetByteBuffer;
             this.audioFileService1 = audioFileService1;
@@ -86,14 +87,30 @@ final class DefaultRecordSoundService extends AbstractLogAware<DefaultRecordSoun
 
         @Override
         public void run () {
+            try {
+                this.readTheBuffers ();
+            } finally {
+                if (this.streamingPeakFind != null) {
+                    this.streamingPeakFind.endOfRecording ();
+                }
+            }
+        }
+
+        private void readTheBuffers () {
             while (this.waiting) {
                 try {
                     this.waitForNewBytes (this.targetByteBuffer);
                     final InputStream inputStream = this.audioFileService1.streamFromRawStream (new ByteArrayInputStream (this.targetByteBuffer.array ()), this.streamInfo);
                     if (inputStream.available () > 0) {
-                        this.results.add (this.isToSoundService1.fromInputStream (inputStream, this.streamInfo));
+                        final Sound buffer = this.isToSoundService1.fromInputStream (inputStream, this.streamInfo);
+                        // published to the readers of the recording
+                        this.results.append (buffer);
                         if (this.amplitudeObserver != null) {
-                            this.fourierTransformHelper.transform (this.findAmplitude, this.results.get (this.results.size () - 1).getChannels () [0]);
+                            this.fourierTransformHelper.transform (this.findAmplitude, buffer.getChannels () [0]);
+                        }
+                        if (this.streamingPeakFind != null) {
+                            // analyzed by its own thread
+                            this.streamingPeakFind.offer (buffer);
                         }
                     }
                 } catch (final IOException e) {
@@ -216,11 +233,15 @@ final class DefaultRecordSoundService extends AbstractLogAware<DefaultRecordSoun
         return this.processor.startRecordingAndReturnByteBuffer (this.audioFormatService.audioFormatfromStreamInfo (streamInfo), stop);
     }
 
-    private List<Sound> recordInBackgroundTask (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final Object stop) throws SoundTransformException {
+    private SegmentedSound recordInBackgroundTask (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind, final Object stop) throws SoundTransformException {
         final ByteBuffer targetByteBuffer = this.startRecordingAndReturnByteBuffer (streamInfo, stop);
-        final List<Sound> results = new ArrayList<Sound> ();
+        // appended without copying the previous buffers
+        final SegmentedSound results = new SegmentedSound (streamInfo, Collections.<Sound> emptyList ());
 
-        final StreamReaderThread<Serializable>  streamReader = this.getStreamReader (streamInfo, targetByteBuffer, amplitudeObserver, results);
+        final StreamReaderThread<Serializable>  streamReader = this.getStreamReader (streamInfo, targetByteBuffer, amplitudeObserver, streamingPeakFind, results);
+        if (streamingPeakFind != null) {
+            streamingPeakFind.startAnalysis ();
+        }
         streamReader.start ();
         try {
             Thread.sleep (DefaultRecordSoundService.ARBITRARY_SLEEP_TIME_TO_ENSURE_THE_STREAMING_IS_INITIALIZED);
@@ -238,15 +259,20 @@ final class DefaultRecordSoundService extends AbstractLogAware<DefaultRecordSoun
     }
 
     @SuppressWarnings ("unchecked")
-    private StreamReaderThread<Serializable> getStreamReader (final StreamInfo streamInfo, final ByteBuffer targetByteBuffer, final AmplitudeObserver amplitudeObserver, final List<Sound> results) {
+    private StreamReaderThread<Serializable> getStreamReader (final StreamInfo streamInfo, final ByteBuffer targetByteBuffer, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind, final SegmentedSound results) {
         final AudioFileService<Serializable> audioFileService1 = (AudioFileService<Serializable>) this.audioFileService;
         final InputStreamToSoundService<Serializable> isToSoundService1 = (InputStreamToSoundService<Serializable>) this.isToSoundService;
         final FourierTransformHelper<Serializable> fourierTransformHelper1 = (FourierTransformHelper<Serializable>) this.fourierTransformHelper;
-        return new StreamReaderThread<Serializable> (results, amplitudeObserver, streamInfo, targetByteBuffer, audioFileService1, isToSoundService1, fourierTransformHelper1);
+        return new StreamReaderThread<Serializable> (results, amplitudeObserver, streamingPeakFind, streamInfo, targetByteBuffer, audioFileService1, isToSoundService1, fourierTransformHelper1);
     }
 
     @Override
     public Sound startRecordingASound (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final Object stop) throws SoundTransformException {
-        return new SegmentedSound (streamInfo, this.recordInBackgroundTask (streamInfo, amplitudeObserver, stop));
+        return this.startRecordingASound (streamInfo, amplitudeObserver, null, stop);
+    }
+
+    @Override
+    public Sound startRecordingASound (final StreamInfo streamInfo, final AmplitudeObserver amplitudeObserver, final StreamingPeakFind streamingPeakFind, final Object stop) throws SoundTransformException {
+        return this.recordInBackgroundTask (streamInfo, amplitudeObserver, streamingPeakFind, stop);
     }
 }
@@ -0,0 +1,7 @@
+package org.toilelibre.libe.soundtransform.model.record;
+
+public interface FrequencyObserver {
+
+    void update (float [] loudestFreqs);
+
+}
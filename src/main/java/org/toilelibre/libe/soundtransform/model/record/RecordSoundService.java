@@ -17,4 +17,6 @@ public interface RecordSoundService<T> extends LogAware<T> {
 
     Sound startRecordingASound (StreamInfo streamInfo, AmplitudeObserver amplitudeObserver, Object stop) throws SoundTransformException;
 
+    Sound startRecordingASound (StreamInfo streamInfo, AmplitudeObserver amplitudeObserver, StreamingPeakFind streamingPeakFind, Object stop) throws SoundTransformException;
+
 }
\ No newline at end of file
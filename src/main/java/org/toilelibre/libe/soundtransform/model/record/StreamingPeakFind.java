@@ -0,0 +1,296 @@
+package org.toilelibre.libe.soundtransform.model.record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.ErrorCode;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * Finds the loudest frequencies of a sound while it is recorded. The samples
+ * of each buffer are appended to a sliding window, and each time the window
+ * has moved by one step, the peak find transform analyzes it. The frequencies
+ * are sent to the frequency observer as soon as they are found, and are kept
+ * until the end of the recording.
+ *
+ * The peak find transform should find one frequency per window (a note
+ * transform, like new HarmonicProductSpectrumSoundTransform (true, true)) :
+ * only the first frequency it finds is kept. The latency is of one window
+ * (2048 samples last 46ms at 44100Hz).
+ *
+ * During a recording, the buffers are analyzed by a thread of their own, so
+ * a slow analysis never delays the reading of the recorded buffers. The
+ * buffers waiting for the analysis are kept in a bounded queue : when the
+ * analysis is late by more than {@link #MAX_PENDING_BUFFERS} buffers, the
+ * next buffers are not analyzed, and the window starts again after them (no
+ * analyzed window has a gap inside).
+ *
+ * The frequencies found are not the ones of a findLoudestFrequencies call on
+ * the recorded sound : there is no frequency before the first complete
+ * window, one frequency per window and per channel, and no frequency for the
+ * skipped buffers. Analyze the recorded sound after the recording to get
+ * them.
+ */
+public class StreamingPeakFind {
+
+    public enum StreamingPeakFindErrorCode implements ErrorCode {
+        ANALYSIS_INTERRUPTED ("The wait for the end of the streaming analysis has been interrupted"), ANALYSIS_FAILED ("The streaming analysis has failed");
+
+        private final String messageFormat;
+
+        StreamingPeakFindErrorCode (final String mF) {
+            this.messageFormat = mF;
+        }
+
+        @Override
+        public String getMessageFormat () {
+            return this.messageFormat;
+        }
+    }
+
+    private static final class PendingBuffer {
+        private final Sound   sound;
+        private final boolean afterAGap;
+
+        private PendingBuffer (final Sound sound1, final boolean afterAGap1) {
+            this.sound = sound1;
+            this.afterAGap = afterAGap1;
+        }
+    }
+
+    private final class AnalysisThread extends Thread {
+
+        private AnalysisThread () {
+            this.setName (StreamingPeakFind.class.getSimpleName ());
+            this.setDaemon (true);
+        }
+
+        @Override
+        public void run () {
+            try {
+                PendingBuffer pending = StreamingPeakFind.this.pendingBuffers.take ();
+                while (pending != StreamingPeakFind.END_OF_RECORDING) {
+                    if (pending.afterAGap) {
+                        StreamingPeakFind.this.restartTheWindow ();
+                    }
+                    StreamingPeakFind.this.append (pending.sound);
+                    pending = StreamingPeakFind.this.pendingBuffers.take ();
+                }
+            } catch (final InterruptedException ie) {
+                Thread.currentThread ().interrupt ();
+            } catch (final SoundTransformException ste) {
+                StreamingPeakFind.this.failure = ste;
+            } catch (final RuntimeException re) {
+                StreamingPeakFind.this.failure = new SoundTransformException (StreamingPeakFindErrorCode.ANALYSIS_FAILED, re);
+            }
+        }
+    }
+
+    /**
+     * Number of recorded buffers which can wait for the analysis
+     */
+    public static final int                    MAX_PENDING_BUFFERS  = 64;
+    private static final int                   INITIAL_TRACK_LENGTH = 64;
+    private static final PendingBuffer         END_OF_RECORDING     = new PendingBuffer (null, false);
+
+    private final PeakFindSoundTransform<?, ?> peakFindSoundTransform;
+    private final int                          step;
+    private final int                          windowLength;
+    private final FrequencyObserver            frequencyObserver;
+    private final BlockingQueue<PendingBuffer> pendingBuffers;
+    private Thread                             analysisThread;
+    private boolean                            gap;
+    private volatile int                       skippedBuffers;
+    private volatile SoundTransformException   failure;
+    private long [][]                          windows;
+    private int                                windowEnd;
+    private long                               appendedSamples;
+    private int                                samplesSinceLastAnalysis;
+    private float [][]                         loudestFreqs;
+    private int                                length;
+
+    /**
+     * Default constructor
+     *
+     * @param peakFindSoundTransform1
+     *            the peak find transform analyzing each window
+     * @param step1
+     *            the number of samples between two analyzed windows
+     * @param windowLength1
+     *            the number of samples of each analyzed window
+     * @param frequencyObserver1
+     *            the update method will be called with the frequency of each
+     *            channel at each step (can be null)
+     */
+    public StreamingPeakFind (final PeakFindSoundTransform<?, ?> peakFindSoundTransform1, final int step1, final int windowLength1, final FrequencyObserver frequencyObserver1) {
+        this.peakFindSoundTransform = peakFindSoundTransform1;
+        this.step = step1;
+        this.windowLength = windowLength1;
+        this.frequencyObserver = frequencyObserver1;
+        this.pendingBuffers = new ArrayBlockingQueue<PendingBuffer> (StreamingPeakFind.MAX_PENDING_BUFFERS + 1);
+    }
+
+    /**
+     * Starts the thread analyzing the buffers given to {@link #offer(Sound)}
+     */
+    public synchronized void startAnalysis () {
+        if (this.analysisThread == null) {
+            this.analysisThread = new AnalysisThread ();
+            this.analysisThread.start ();
+        }
+    }
+
+    /**
+     * Gives a newly recorded buffer to the analysis thread, without waiting.
+     * The buffer is skipped if the analysis is too late. Must be called by
+     * one thread only (the one reading the recorded buffers).
+     *
+     * @param sound
+     *            the buffer, converted into a sound
+     */
+    public void offer (final Sound sound) {
+        // one place is kept for the end of the recording
+        if (this.pendingBuffers.size () < StreamingPeakFind.MAX_PENDING_BUFFERS && this.pendingBuffers.offer (new PendingBuffer (sound, this.gap))) {
+            this.gap = false;
+        } else {
+            this.gap = true;
+            this.skippedBuffers++;
+        }
+    }
+
+    /**
+     * Tells the analysis thread that no other buffer will be offered. The
+     * pending buffers are still analyzed.
+     */
+    public void endOfRecording () {
+        this.pendingBuffers.offer (StreamingPeakFind.END_OF_RECORDING);
+    }
+
+    /**
+     * Waits until the analysis thread has analyzed all the pending buffers,
+     * after the end of the recording
+     *
+     * @throws SoundTransformException
+     *             if the peak find transform or the frequency observer has
+     *             failed on the analysis thread, or if the wait has been
+     *             interrupted
+     */
+    public void awaitAnalysis () throws SoundTransformException {
+        final Thread thread;
+        synchronized (this) {
+            thread = this.analysisThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join ();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread ().interrupt ();
+                throw new SoundTransformException (StreamingPeakFindErrorCode.ANALYSIS_INTERRUPTED, ie);
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Number of offered buffers which have not been analyzed because the
+     * analysis was too late
+     *
+     * @return the number of skipped buffers
+     */
+    public int getSkippedBuffers () {
+        return this.skippedBuffers;
+    }
+
+    private void restartTheWindow () {
+        this.windowEnd = 0;
+        this.appendedSamples = 0;
+        this.samplesSinceLastAnalysis = 0;
+    }
+
+    /**
+     * Appends the samples of a newly recorded buffer, and analyzes each
+     * complete window, in the calling thread (not to be mixed with
+     * {@link #offer(Sound)})
+     *
+     * @param sound
+     *            the buffer, converted into a sound
+     * @throws SoundTransformException
+     *             if the peak find transform fails
+     */
+    public void append (final Sound sound) throws SoundTransformException {
+        final Channel [] channels = sound.getChannels ();
+        synchronized (this) {
+            if (this.windows == null) {
+                this.windows = new long [channels.length] [this.windowLength];
+                this.loudestFreqs = new float [channels.length] [StreamingPeakFind.INITIAL_TRACK_LENGTH];
+            }
+        }
+        for (int i = 0 ; i < sound.getSamplesLength () ; i++) {
+            for (int c = 0 ; c < this.windows.length ; c++) {
+                this.windows [c] [this.windowEnd] = channels [c].getSampleAt (i);
+            }
+            this.windowEnd = (this.windowEnd + 1) % this.windowLength;
+            this.appendedSamples++;
+            this.samplesSinceLastAnalysis++;
+            if (this.samplesSinceLastAnalysis >= this.step && this.appendedSamples >= this.windowLength) {
+                this.samplesSinceLastAnalysis = 0;
+                this.analyze (channels);
+            }
+        }
+    }
+
+    private void analyze (final Channel [] channels) throws SoundTransformException {
+        final float [] freqs = new float [this.windows.length];
+        for (int c = 0 ; c < this.windows.length ; c++) {
+            // the window, oldest sample first
+            final long [] samples = new long [this.windowLength];
+            System.arraycopy (this.windows [c], this.windowEnd, samples, 0, this.windowLength - this.windowEnd);
+            System.arraycopy (this.windows [c], 0, samples, this.windowLength - this.windowEnd, this.windowEnd);
+            final float [] windowFreqs = this.peakFindSoundTransform.transform (new Channel (samples, channels [c].getFormatInfo (), channels [c].getChannelNum ()));
+            freqs [c] = windowFreqs.length == 0 ? 0 : windowFreqs [0];
+        }
+        synchronized (this) {
+            if (this.length == this.loudestFreqs [0].length) {
+                for (int c = 0 ; c < this.loudestFreqs.length ; c++) {
+                    final float [] track = new float [this.length * 2];
+                    System.arraycopy (this.loudestFreqs [c], 0, track, 0, this.length);
+                    this.loudestFreqs [c] = track;
+                }
+            }
+            for (int c = 0 ; c < freqs.length ; c++) {
+                this.loudestFreqs [c] [this.length] = freqs [c];
+            }
+            this.length++;
+        }
+        if (this.frequencyObserver != null) {
+            this.frequencyObserver.update (freqs);
+        }
+    }
+
+    /**
+     * The frequencies found so far (all of them after
+     * {@link #awaitAnalysis()}), without analyzing the sound again. There is
+     * one frequency per analyzed window, from the first complete one.
+     *
+     * @return one loudest frequencies array per channel
+     */
+    public synchronized List<float []> getLoudestFreqs () {
+        final List<float []> result = new ArrayList<float []> ();
+        if (this.loudestFreqs == null) {
+            return result;
+        }
+        for (final float [] track : this.loudestFreqs) {
+            final float [] copy = new float [this.length];
+            System.arraycopy (track, 0, copy, 0, this.length);
+            result.add (copy);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.NoOpSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.ReverseSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SubSoundExtractSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class ArrayPoolTest extends SoundTransformTest {
+
+    private Sound newSound (final int length) {
+        final long [] samples = new long [length];
+        for (int i = 0 ; i < length ; i++) {
+            samples [i] = i % 100;
+        }
+        return new Sound (new Channel [] { new Channel (samples, new FormatInfo (2, 44100), 0) });
+    }
+
+    @Test
+    public void aReleasedArrayIsReusedAndEmptied () {
+        final long [] longs = ArrayPool.takeLongs (1234);
+        longs [10] = 42;
+        ArrayPool.release (longs);
+        final long [] reused = ArrayPool.takeLongs (1234);
+        Assert.assertSame (longs, reused);
+        Assert.assertEquals (0, reused [10]);
+
+        final double [] doubles = ArrayPool.takeDoubles (1234);
+        ArrayPool.release (doubles);
+        Assert.assertSame (doubles, ArrayPool.takeDoubles (1234));
+        Assert.assertNotSame (doubles, ArrayPool.takeDoubles (1234));
+    }
+
+    @Test
+    public void aRepeatedApplyChainReusesTheIntermediateArrays () throws SoundTransformException {
+        final Sound input = this.newSound (4321);
+        for (int i = 0 ; i < 2 ; i++) {
+            FluentClient.start ().withSound (input).apply (new NoOpSoundTransform ()).apply (new ReverseSoundTransform ()).apply (new ReverseSoundTransform ()).apply (new NoOpSoundTransform ()).stopWithSound ();
+        }
+        final long allocationsBefore = ArrayPool.allocations ();
+        final Sound output = FluentClient.start ().withSound (input).apply (new NoOpSoundTransform ()).apply (new ReverseSoundTransform ()).apply (new ReverseSoundTransform ()).apply (new NoOpSoundTransform ()).stopWithSound ();
+
+        // only the array of the returned sound is a new one
+        Assert.assertTrue (ArrayPool.allocations () - allocationsBefore <= 1);
+        Assert.assertEquals (input.getChannels () [0].viewSamplesArray (), output.getChannels () [0].viewSamplesArray ());
+    }
+
+    @Test
+    public void theSoundsOfTheCallerAreNeverReleased () throws SoundTransformException {
+        final Sound input = this.newSound (1000);
+        final String before = input.getChannels () [0].viewSamplesArray ();
+        final Sound extract = FluentClient.start ().withSound (input).apply (new SubSoundExtractSoundTransform (0, 999)).apply (new NoOpSoundTransform ()).apply (new NoOpSoundTransform ()).stopWithSound ();
+        FluentClient.start ().withSound (this.newSound (999)).apply (new ReverseSoundTransform ()).apply (new ReverseSoundTransform ()).apply (new ReverseSoundTransform ()).stopWithSound ();
+
+        Assert.assertEquals (before, input.getChannels () [0].viewSamplesArray ());
+        Assert.assertEquals (before.substring (0, before.lastIndexOf (',')) + "]", extract.getChannels () [0].viewSamplesArray ());
+    }
+
+    @Test
+    public void theArraysKeptByATransformAreNeverReleased () throws SoundTransformException {
+        final long [] kept = new long [777];
+        final SoundTransform<Channel, Channel> keepingTransform = new SoundTransform<Channel, Channel> () {
+            @Override
+            public Channel transform (final Channel input) {
+                input.copyTo (kept);
+                return new Channel (kept, input.getFormatInfo (), input.getChannelNum ());
+            }
+        };
+        FluentClient.start ().withSound (this.newSound (777)).apply (new ReverseSoundTransform ()).apply (keepingTransform).apply (new NoOpSoundTransform ()).stopWithSound ();
+
+        for (int i = 0 ; i < 4 ; i++) {
+            Assert.assertNotSame (kept, ArrayPool.takeLongs (777));
+        }
+        Assert.assertEquals (75, kept [1]);
+    }
+}
@@ -0,0 +1,49 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.Serializable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CepstrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class CepstrumTest extends SoundTransformTest {
+
+    private Channel channel (final String resource) throws SoundTransformException {
+        return FluentClient.start ().withClasspathResource (resource).convertIntoSound ().stopWithSound ().getChannels () [0];
+    }
+
+    @Test
+    public void theRawDataAndTheSpectrumsGiveTheSameFrequencies () throws SoundTransformException {
+        final Channel channel = this.channel ("before.wav");
+        final Channel view = channel.view (0, Math.min (channel.getSamplesLength (), 40000));
+        final float [] withRawData = new CepstrumSoundTransform<Serializable> (2048, false, true).transform (view);
+        final float [] withSpectrums = new CepstrumSoundTransform<Serializable> (2048, false, false).transform (view);
+        Assert.assertArrayEquals (withSpectrums, withRawData, 0);
+    }
+
+    @Test
+    public void theRawDataAndTheSpectrumsGiveTheSameNote () throws SoundTransformException {
+        for (final String note : new String [] { "piano1c.wav", "piano3e.wav", "piano5g.wav" }) {
+            final Channel channel = this.channel (note);
+            final CepstrumSoundTransform<Serializable> withRawData = new CepstrumSoundTransform<Serializable> (100, true, true);
+            final CepstrumSoundTransform<Serializable> withSpectrums = new CepstrumSoundTransform<Serializable> (100, true, false);
+            Assert.assertArrayEquals (withSpectrums.transform (channel), withRawData.transform (channel), 0);
+            Assert.assertEquals (withSpectrums.getDetectedNoteVolume (), withRawData.getDetectedNoteVolume (), 0);
+        }
+    }
+
+    @Test
+    public void theWorkingArraysAreReused () throws SoundTransformException {
+        final Channel channel = this.channel ("before.wav");
+        final Channel view = channel.view (0, Math.min (channel.getSamplesLength (), 40000));
+        new CepstrumSoundTransform<Serializable> (2048, false).transform (view);
+        final long allocations = ArrayPool.allocations ();
+        new CepstrumSoundTransform<Serializable> (2048, false).transform (view);
+        Assert.assertEquals (allocations, ArrayPool.allocations ());
+    }
+}
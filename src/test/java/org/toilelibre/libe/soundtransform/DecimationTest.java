@@ -0,0 +1,62 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.Serializable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CepstrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.DecimationSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.MaximumLikelihoodSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class DecimationTest extends SoundTransformTest {
+
+    private static final float     SAMPLE_RATE = 44100;
+    private static final double [] AMPLITUDES  = { 3000, 2000, 1000, 500 };
+
+    private void assertMiddleFrequencies (final float expected, final float [] freqs, final float delta) {
+        for (int i = freqs.length / 4 ; i < 3 * freqs.length / 4 ; i++) {
+            Assert.assertEquals (expected, freqs [i], delta);
+        }
+    }
+
+    @Test
+    public void theSampleRateIsDividedByAnInteger () {
+        final DecimationSoundTransform decimation = new DecimationSoundTransform ();
+        Assert.assertEquals (5, decimation.getFactor (44100));
+        Assert.assertEquals (6, decimation.getFactor (48000));
+        Assert.assertEquals (1, decimation.getFactor (8000));
+
+        final Channel decimated = decimation.transform (SyntheticSounds.note (220, DecimationTest.SAMPLE_RATE, 44101, DecimationTest.AMPLITUDES));
+        Assert.assertEquals (8820, decimated.getSampleRate (), 0);
+        Assert.assertEquals (8821, decimated.getSamplesLength ());
+    }
+
+    @Test
+    public void theDetectorsFindTheSameFrequencies () throws SoundTransformException {
+        final Channel note = SyntheticSounds.note (220, DecimationTest.SAMPLE_RATE, 88200, DecimationTest.AMPLITUDES);
+
+        final float [] hps = new HarmonicProductSpectrumSoundTransform<Serializable> (4410, true).transform (note);
+        final float [] decimatedHps = new HarmonicProductSpectrumSoundTransform<Serializable> (4410, true).setDecimation (DecimationSoundTransform.DEFAULT_SAMPLE_RATE).transform (note);
+        Assert.assertEquals (hps.length, decimatedHps.length);
+        this.assertMiddleFrequencies (220, hps, 5);
+        this.assertMiddleFrequencies (220, decimatedHps, 5);
+
+        final float [] decimatedCepstrum = new CepstrumSoundTransform<Serializable> (4410, false).setDecimation (DecimationSoundTransform.DEFAULT_SAMPLE_RATE).transform (note);
+        Assert.assertEquals (hps.length, decimatedCepstrum.length);
+        // the quefrency resolution is of one sample : 220Hz is between two
+        // periods
+        this.assertMiddleFrequencies (220, decimatedCepstrum, 8);
+
+        // one value per step of the sound before its decimation
+        final float [] decimatedMaxLikelihood = new MaximumLikelihoodSoundTransform (4410, 4410, 100, 800).setDecimation (DecimationSoundTransform.DEFAULT_SAMPLE_RATE).transform (note);
+        Assert.assertEquals (hps.length, decimatedMaxLikelihood.length);
+        // the sums of the decimated periods do not favour the same key as the
+        // ones of the whole sound (see MaximumLikelihoodTest), but they keep
+        // finding it along the note
+        this.assertMiddleFrequencies (329.628f, decimatedMaxLikelihood, 0);
+    }
+}
@@ -0,0 +1,44 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.Serializable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.ArrayPool;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class HarmonicProductSpectrumTest extends SoundTransformTest {
+
+    private static final float     SAMPLE_RATE = 44100;
+    private static final double [] AMPLITUDES  = { 1000, 600, 300, 100 };
+
+    @Test
+    public void theFundamentalIsFound () throws SoundTransformException {
+        final Channel note = SyntheticSounds.note (440, HarmonicProductSpectrumTest.SAMPLE_RATE, 16384, HarmonicProductSpectrumTest.AMPLITUDES);
+        final boolean [] rawData = { true, false };
+        for (final boolean useRawData : rawData) {
+            final float [] freqs = new HarmonicProductSpectrumSoundTransform<Serializable> (true, useRawData).transform (note);
+            Assert.assertEquals (440, freqs [0], 5);
+        }
+    }
+
+    @Test
+    public void theRawDataAndTheSpectrumsGiveTheSameFrequencies () throws SoundTransformException {
+        final Channel note = SyntheticSounds.note (330, HarmonicProductSpectrumTest.SAMPLE_RATE, 16384, HarmonicProductSpectrumTest.AMPLITUDES);
+        final float [] withRawData = new HarmonicProductSpectrumSoundTransform<Serializable> (2048, true).transform (note);
+        final float [] withSpectrums = new HarmonicProductSpectrumSoundTransform<Serializable> (2048, false).transform (note);
+        Assert.assertArrayEquals (withSpectrums, withRawData, 0);
+    }
+
+    @Test
+    public void theWorkingArraysAreReused () throws SoundTransformException {
+        final Channel note = SyntheticSounds.note (220, HarmonicProductSpectrumTest.SAMPLE_RATE, 16384, HarmonicProductSpectrumTest.AMPLITUDES);
+        new HarmonicProductSpectrumSoundTransform<Serializable> (4096, true).transform (note);
+        final long allocations = ArrayPool.allocations ();
+        new HarmonicProductSpectrumSoundTransform<Serializable> (4096, true).transform (note);
+        Assert.assertEquals (allocations, ArrayPool.allocations ());
+    }
+}
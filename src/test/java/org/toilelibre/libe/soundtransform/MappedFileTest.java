@@ -0,0 +1,79 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.infrastructure.service.observer.Slf4jObserver;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.NoOpSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.inputstream.readsound.FrameProcessor.FrameProcessorErrorCode;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent.LogLevel;
+
+public class MappedFileTest extends SoundTransformTest {
+
+    private final ClassLoader classLoader = Thread.currentThread ().getContextClassLoader ();
+    private final File        input       = new File (this.classLoader.getResource ("gpiano3.wav").getFile ());
+
+    @Test
+    public void aMappedFileHasTheSameSamplesAsAReadFile () throws SoundTransformException {
+        this.assertSameSamples (this.input);
+    }
+
+    @Test
+    public void anUnsignedEightBitsMappedFileHasTheSameSamplesAsAReadFile () throws SoundTransformException {
+        this.assertSameSamples (new File (this.classLoader.getResource ("unsigned8bits.wav").getFile ()));
+    }
+
+    private void assertSameSamples (final File file) throws SoundTransformException {
+        final Sound read = FluentClient.start ().withAnObserver (new Slf4jObserver (LogLevel.WARN)).withFile (file).convertIntoSound ().stopWithSound ();
+        final Sound mapped = FluentClient.start ().withAnObserver (new Slf4jObserver (LogLevel.WARN)).withFile (file, true).convertIntoSound ().stopWithSound ();
+
+        Assert.assertEquals (read.getNumberOfChannels (), mapped.getNumberOfChannels ());
+        for (int i = 0 ; i < read.getNumberOfChannels () ; i++) {
+            final Channel readChannel = read.getChannels () [i];
+            final Channel mappedChannel = mapped.getChannels () [i];
+            Assert.assertEquals (readChannel.getFormatInfo ().toString (), mappedChannel.getFormatInfo ().toString ());
+            Assert.assertEquals (readChannel.getSamplesLength (), mappedChannel.getSamplesLength ());
+            final long [] readSamples = new long [readChannel.getSamplesLength ()];
+            final long [] mappedSamples = new long [mappedChannel.getSamplesLength ()];
+            readChannel.copyTo (readSamples);
+            mappedChannel.copyTo (mappedSamples);
+            Assert.assertArrayEquals (readSamples, mappedSamples);
+            Assert.assertEquals (readChannel.getSampleAt (readSamples.length / 2), mappedChannel.getSampleAt (readSamples.length / 2));
+        }
+    }
+
+    @Test
+    public void writingInAMappedSoundDoesNotChangeTheFile () throws SoundTransformException {
+        final Sound mapped = FluentClient.start ().withFile (this.input, true).convertIntoSound ().stopWithSound ();
+        final Channel channel = mapped.getChannels () [0];
+        final long initialValue = channel.getSampleAt (100);
+        channel.setSampleAt (100, initialValue + 1);
+        Assert.assertEquals (initialValue + 1, channel.getSampleAt (100));
+
+        final Sound mappedAgain = FluentClient.start ().withFile (this.input, true).convertIntoSound ().stopWithSound ();
+        Assert.assertEquals (initialValue, mappedAgain.getChannels () [0].getSampleAt (100));
+    }
+
+    @Test
+    public void transformAMappedSound () throws SoundTransformException {
+        final Sound mapped = FluentClient.start ().withFile (this.input, true).convertIntoSound ().apply (new NoOpSoundTransform ()).stopWithSound ();
+        final Sound read = FluentClient.start ().withFile (this.input).convertIntoSound ().stopWithSound ();
+        Assert.assertEquals (read.getChannels () [0].viewSamplesArray (), mapped.getChannels () [0].viewSamplesArray ());
+    }
+
+    @Test
+    public void mapANonWavFile () {
+        try {
+            FluentClient.start ().withFile (new File (this.classLoader.getResource ("mp3test.mp3").getFile ()), true).convertIntoSound ();
+            Assert.fail ("An mp3 file should not be mapped");
+        } catch (final SoundTransformException ste) {
+            Assert.assertEquals (FrameProcessorErrorCode.NOT_A_PCM_WAV_FILE, ste.getErrorCode ());
+        }
+    }
+}
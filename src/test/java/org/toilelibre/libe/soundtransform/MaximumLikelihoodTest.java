@@ -0,0 +1,42 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.MaximumLikelihoodSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class MaximumLikelihoodTest extends SoundTransformTest {
+
+    private static final float     SAMPLE_RATE = 44100;
+    private static final double [] AMPLITUDES  = { 3000, 2000, 1000, 500 };
+
+    private float [] repeat (final float first, final float value, final int times, final float last) {
+        final float [] result = new float [times + 3];
+        result [0] = first;
+        for (int i = 1 ; i <= times ; i++) {
+            result [i] = value;
+        }
+        result [times + 1] = last;
+        return result;
+    }
+
+    @Test
+    public void theFrequenciesAreTheSameAsTheOnesOfTheSumPerKey () throws SoundTransformException {
+        // values given by the former implementation, summing each piano key
+        // with the samples of the channel
+        final Channel note = SyntheticSounds.note (220, MaximumLikelihoodTest.SAMPLE_RATE, 88200, MaximumLikelihoodTest.AMPLITUDES);
+        Assert.assertArrayEquals (this.repeat (110, 246.942f, 18, 110), new MaximumLikelihoodSoundTransform (4410, 4410, 100, 800).transform (note), 0);
+        Assert.assertArrayEquals (this.repeat (220, 329.628f, 18, 110), new MaximumLikelihoodSoundTransform (4410, 4410, 100, 800).setDecimation (8000).transform (note), 0);
+    }
+
+    @Test
+    public void theParallelSumsFindTheSameFrequencies () throws SoundTransformException {
+        final Channel channel = FluentClient.start ().withClasspathResource ("before.wav").convertIntoSound ().stopWithSound ().getChannels () [0];
+        final float [] sequential = new MaximumLikelihoodSoundTransform (8192, 8000, 100, 800).transform (channel);
+        final float [] parallel = new MaximumLikelihoodSoundTransform (8192, 8000, 100, 800).setParallelism (4).transform (channel);
+        Assert.assertArrayEquals (sequential, parallel, 0);
+    }
+}
@@ -0,0 +1,86 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CepstrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.ComputeMagnitudeSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundToSpectrumsSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
+import org.toilelibre.libe.soundtransform.model.logging.Observer;
+
+public class ParallelAnalysisTest extends SoundTransformTest {
+
+    private Channel channel () throws SoundTransformException {
+        final Channel channel = FluentClient.start ().withClasspathResource ("before.wav").convertIntoSound ().stopWithSound ().getChannels () [0];
+        return channel.view (0, Math.min (channel.getSamplesLength (), 20000));
+    }
+
+    @Test
+    public void theParallelHarmonicProductSpectrumFindsTheSameFrequencies () throws SoundTransformException {
+        final Channel channel = this.channel ();
+        final float [] sequential = new HarmonicProductSpectrumSoundTransform<Serializable> (1024, true).transform (channel);
+        final float [] parallel = new HarmonicProductSpectrumSoundTransform<Serializable> (1024, true).setParallelism (4).transform (channel);
+        Assert.assertArrayEquals (sequential, parallel, 0);
+
+        final float [] sequentialWithSpectrums = new HarmonicProductSpectrumSoundTransform<Serializable> (1024, false).transform (channel);
+        final float [] parallelWithSpectrums = new HarmonicProductSpectrumSoundTransform<Serializable> (1024, false).setParallelism (3).transform (channel);
+        Assert.assertArrayEquals (sequentialWithSpectrums, parallelWithSpectrums, 0);
+    }
+
+    @Test
+    public void theParallelCepstrumFindsTheSameFrequencies () throws SoundTransformException {
+        final Channel channel = this.channel ();
+        final float [] sequential = new CepstrumSoundTransform<Serializable> (2048, false).transform (channel);
+        final float [] parallel = new CepstrumSoundTransform<Serializable> (2048, false).setParallelism (4).transform (channel);
+        Assert.assertArrayEquals (sequential, parallel, 0);
+    }
+
+    @Test
+    public void theParallelMagnitudesAndSpectrumsAreTheSame () throws SoundTransformException {
+        final Channel channel = this.channel ();
+        Assert.assertArrayEquals (new ComputeMagnitudeSoundTransform (512).transform (channel), new ComputeMagnitudeSoundTransform (512).setParallelism (8).transform (channel), 0);
+
+        final Spectrum<Serializable> [] sequential = new SoundToSpectrumsSoundTransform ().transform (channel);
+        final Spectrum<Serializable> [] parallel = new SoundToSpectrumsSoundTransform ().setParallelism (2).transform (channel);
+        Assert.assertEquals (sequential.length, parallel.length);
+        for (int i = 0 ; i < sequential.length ; i++) {
+            final Complex [] expected = (Complex []) sequential [i].getState ();
+            final Complex [] actual = (Complex []) parallel [i].getState ();
+            Assert.assertEquals (expected.length, actual.length);
+            for (int j = 0 ; j < expected.length ; j++) {
+                Assert.assertEquals (expected [j].getReal (), actual [j].getReal (), 0);
+                Assert.assertEquals (expected [j].getImaginary (), actual [j].getImaginary (), 0);
+            }
+        }
+    }
+
+    @Test
+    public void onlyTheCallingThreadLogsTheProgress () throws SoundTransformException {
+        final List<Thread> loggingThreads = Collections.synchronizedList (new ArrayList<Thread> ());
+        final Observer observer = new Observer () {
+            @Override
+            public void notify (final LogEvent logEvent) {
+                loggingThreads.add (Thread.currentThread ());
+            }
+        };
+        final Channel channel = this.channel ();
+        new HarmonicProductSpectrumSoundTransform<Serializable> (1024, true).setParallelism (4).setObservers (observer).transform (channel);
+
+        Assert.assertFalse (loggingThreads.isEmpty ());
+        for (final Thread thread : loggingThreads) {
+            Assert.assertSame (Thread.currentThread (), thread);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.toilelibre.libe.soundtransform.infrastructure.service.observer.Slf4jO
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundPitchAndTempoHelper;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
@@ -47,4 +48,23 @@ public class PitchAndSpeedHelperTest extends SoundTransformTest {
         new Slf4jObserver ().notify ("e' 4 : " + n.getFrequency () + "Hz, should be around 658Hz");
         org.junit.Assert.assertTrue (n.getFrequency () > 658 - 10 && n.getFrequency () < 658 + 10);
     }
+
+    @Test
+    public void shouldKeepTheF0ValueInBestSpeedMode () throws SoundTransformException {
+        final ClassLoader classLoader = PitchAndSpeedHelperTest.class.getClassLoader ();
+        final URL fileURL = classLoader.getResource ("piano3e.wav");
+        final File input = new File (fileURL.getFile ());
+
+        final InputStream ais = $.select (AudioFileService.class).streamFromFile (input);
+        final Sound e3 = $.select (InputStreamToSoundService.class).fromInputStream (ais);
+        final SoundPitchAndTempoHelper helper = $.select (SoundPitchAndTempoHelper.class);
+        final Channel [] e4 = new Channel [2];
+        e4 [0] = helper.pitchAndSetLength (e3.getChannels () [0], 200, 2, PitchAndTempoQuality.BEST_SPEED);
+        e4 [1] = helper.pitchAndSetLength (e3.getChannels () [1], 200, 2, PitchAndTempoQuality.BEST_SPEED);
+
+        org.junit.Assert.assertEquals (2 * e3.getChannels () [0].getSampleRate (), e4 [0].getSamplesLength (), 1);
+        final Note n = $.select (SoundToNoteService.class).convert (new SimpleNoteInfo ("e4"), new Sound (e4));
+        new Slf4jObserver ().notify ("e' 4 : " + n.getFrequency () + "Hz, should be around 658Hz");
+        org.junit.Assert.assertTrue (n.getFrequency () > 658 - 10 && n.getFrequency () < 658 + 10);
+    }
 }
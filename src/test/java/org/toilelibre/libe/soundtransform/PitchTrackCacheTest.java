@@ -0,0 +1,219 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchTrackCache;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchTrackCache.PitchTrackCacheErrorCode;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CachedPeakFindSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CachedPeakFindSoundTransform.CachedPeakFindSoundTransformEventCode;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
+import org.toilelibre.libe.soundtransform.model.logging.LogEvent;
+import org.toilelibre.libe.soundtransform.model.logging.Observer;
+
+public class PitchTrackCacheTest extends SoundTransformTest {
+
+    private static class CountingSoundTransform extends AbstractLogAware<CountingSoundTransform> implements PeakFindSoundTransform<Serializable, AbstractLogAware<CountingSoundTransform>> {
+
+        private final HarmonicProductSpectrumSoundTransform<Serializable> hps = new HarmonicProductSpectrumSoundTransform<Serializable> (2048, true);
+        private int                                                       calls;
+
+        @Override
+        public float [] transform (final Channel input) throws SoundTransformException {
+            this.calls++;
+            return this.hps.transform (input);
+        }
+
+        @Override
+        public float getDetectedNoteVolume () {
+            return this.hps.getDetectedNoteVolume ();
+        }
+    }
+
+    private static final float SAMPLE_RATE = 44100;
+
+    private File               directory;
+
+    @Before
+    public void createDirectory () throws IOException {
+        this.directory = File.createTempFile ("pitchtracks", "");
+        Assert.assertTrue (this.directory.delete ());
+    }
+
+    @After
+    public void deleteDirectory () {
+        final File [] files = this.directory.listFiles ();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete ();
+            }
+        }
+        this.directory.delete ();
+    }
+
+    @Test
+    public void aSecondAnalysisIsReadFromTheCache () throws SoundTransformException {
+        final PitchTrackCache cache = new PitchTrackCache (8);
+        final CountingSoundTransform counting = new CountingSoundTransform ();
+        final Channel note = SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000);
+
+        final float [] first = new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true).transform (note);
+        final CachedPeakFindSoundTransform<Serializable> cached = new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true);
+        final float [] second = cached.transform (note);
+
+        Assert.assertEquals (1, counting.calls);
+        Assert.assertArrayEquals (first, second, 0);
+        Assert.assertEquals (counting.getDetectedNoteVolume (), cached.getDetectedNoteVolume (), 0);
+        Assert.assertEquals (1, cache.getHits ());
+        Assert.assertEquals (1, cache.getMisses ());
+
+        // the cached track cannot be changed by its readers
+        second [0] = -1;
+        Assert.assertArrayEquals (first, cached.transform (note), 0);
+    }
+
+    @Test
+    public void theKeyDependsOnTheSamplesAndOnTheParameters () throws SoundTransformException {
+        final Channel note = SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000);
+        final String key = PitchTrackCache.key (note, HarmonicProductSpectrumSoundTransform.class, 2048, true);
+        Assert.assertEquals (key, PitchTrackCache.key (SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000), HarmonicProductSpectrumSoundTransform.class, 2048, true));
+        Assert.assertFalse (key.equals (PitchTrackCache.key (SyntheticSounds.note (441, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000), HarmonicProductSpectrumSoundTransform.class, 2048, true)));
+        Assert.assertFalse (key.equals (PitchTrackCache.key (note, HarmonicProductSpectrumSoundTransform.class, 1024, true)));
+        Assert.assertFalse (key.equals (PitchTrackCache.key (note, CountingSoundTransform.class, 2048, true)));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedTracksAreEvicted () throws SoundTransformException {
+        final PitchTrackCache cache = new PitchTrackCache (1);
+        final CountingSoundTransform counting = new CountingSoundTransform ();
+        new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true).transform (SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000));
+        new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true).transform (SyntheticSounds.note (220, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000));
+        new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true).transform (SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000));
+
+        Assert.assertEquals (3, counting.calls);
+        Assert.assertEquals (2, cache.getEvictions ());
+        Assert.assertEquals (1, cache.size ());
+    }
+
+    @Test
+    public void theTracksAreReadBackFromTheDisk () throws SoundTransformException {
+        final CountingSoundTransform counting = new CountingSoundTransform ();
+        final Channel note = SyntheticSounds.note (330, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000);
+        final float [] first = new CachedPeakFindSoundTransform<Serializable> (counting, new PitchTrackCache (8, this.directory), 2048, true).transform (note);
+
+        // another process, with the same directory
+        final PitchTrackCache cache = new PitchTrackCache (8, this.directory);
+        final CachedPeakFindSoundTransform<Serializable> cached = new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true);
+        Assert.assertArrayEquals (first, cached.transform (note), 0);
+        Assert.assertEquals (counting.getDetectedNoteVolume (), cached.getDetectedNoteVolume (), 0);
+        Assert.assertEquals (1, counting.calls);
+        Assert.assertEquals (1, cache.getDiskHits ());
+
+        // then from the memory
+        cached.transform (note);
+        Assert.assertEquals (2, cache.getHits ());
+        Assert.assertEquals (1, cache.getDiskHits ());
+    }
+
+    @Test
+    public void anUnreadableTrackIsComputedAgain () throws SoundTransformException, IOException {
+        final Channel note = SyntheticSounds.note (330, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000);
+        Assert.assertTrue (this.directory.mkdirs ());
+        final FileOutputStream output = new FileOutputStream (new File (this.directory, PitchTrackCache.key (note, CountingSoundTransform.class, 2048, true) + ".track"));
+        output.write (new byte [] { 1, 2, 3 });
+        output.close ();
+
+        final List<LogEvent> events = new ArrayList<LogEvent> ();
+        final CountingSoundTransform counting = new CountingSoundTransform ();
+        final PitchTrackCache cache = new PitchTrackCache (8, this.directory);
+        final float [] loudestFreqs = new CachedPeakFindSoundTransform<Serializable> (counting, cache, 2048, true).setObservers (new Observer () {
+
+            @Override
+            public void notify (final LogEvent logEvent) {
+                events.add (logEvent);
+            }
+        }).transform (note);
+
+        Assert.assertEquals (1, counting.calls);
+        Assert.assertEquals (1, cache.getMisses ());
+        Assert.assertArrayEquals (new CountingSoundTransform ().transform (note), loudestFreqs, 0);
+        Assert.assertEquals (CachedPeakFindSoundTransformEventCode.CACHE_NOT_USABLE, events.get (0).getEventCode ());
+
+        // the track has been written again
+        Assert.assertArrayEquals (loudestFreqs, new CachedPeakFindSoundTransform<Serializable> (counting, new PitchTrackCache (8, this.directory), 2048, true).transform (note), 0);
+        Assert.assertEquals (1, counting.calls);
+    }
+
+    @Test
+    public void theOptInsOfTheDetectorAreInTheKey () throws SoundTransformException {
+        final PitchTrackCache cache = new PitchTrackCache (8);
+        final Channel note = SyntheticSounds.note (440, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000);
+        final HarmonicProductSpectrumSoundTransform<Serializable> hps = new HarmonicProductSpectrumSoundTransform<Serializable> (2048, true);
+        final CachedPeakFindSoundTransform<Serializable> cached = new CachedPeakFindSoundTransform<Serializable> (hps, cache);
+
+        cached.transform (note);
+        hps.setDecimation (8000);
+        cached.transform (note);
+        new CachedPeakFindSoundTransform<Serializable> (new HarmonicProductSpectrumSoundTransform<Serializable> (2048, false), cache).transform (note);
+        Assert.assertEquals (3, cache.getMisses ());
+        Assert.assertEquals (0, cache.getHits ());
+
+        // the parallelism does not change the frequencies
+        hps.setParallelism (2);
+        cached.transform (note);
+        Assert.assertEquals (3, cache.getMisses ());
+        Assert.assertEquals (1, cache.getHits ());
+    }
+
+    @Test
+    public void aDamagedLengthIsNotAllocated () throws SoundTransformException, IOException {
+        final String key = PitchTrackCache.key (SyntheticSounds.note (330, PitchTrackCacheTest.SAMPLE_RATE, 16384, 1000), CountingSoundTransform.class, 2048, true);
+        Assert.assertTrue (this.directory.mkdirs ());
+        final int [] lengths = { -1, Integer.MAX_VALUE, 2 };
+        for (final int length : lengths) {
+            final DataOutputStream output = new DataOutputStream (new FileOutputStream (new File (this.directory, key + ".track")));
+            // "STPT", version 1, a volume, the length and a single frequency
+            output.writeInt (0x53545054);
+            output.writeInt (1);
+            output.writeFloat (40);
+            output.writeInt (length);
+            output.writeFloat (440);
+            output.close ();
+            try {
+                new PitchTrackCache (8, this.directory).get (key);
+                Assert.fail ("the length " + length + " should have been refused");
+            } catch (final SoundTransformException ste) {
+                Assert.assertEquals (PitchTrackCacheErrorCode.COULD_NOT_READ_THE_TRACK, ste.getErrorCode ());
+            }
+        }
+    }
+
+    @Test
+    public void theFluentClientCanUseTheCache () throws SoundTransformException {
+        final PitchTrackCache cache = new PitchTrackCache (8);
+        final List<float []> first = FluentClient.start ().withClasspathResource ("piano3e.wav").convertIntoSound ()
+                .findLoudestFrequencies (new CachedPeakFindSoundTransform<Serializable> (new HarmonicProductSpectrumSoundTransform<Serializable> (100, true), cache, 100, true)).stopWithFreqs ();
+        final List<float []> second = FluentClient.start ().withClasspathResource ("piano3e.wav").convertIntoSound ()
+                .findLoudestFrequencies (new CachedPeakFindSoundTransform<Serializable> (new HarmonicProductSpectrumSoundTransform<Serializable> (100, true), cache, 100, true)).stopWithFreqs ();
+        // one track per channel
+        Assert.assertEquals (first.size (), cache.getHits ());
+        for (int i = 0 ; i < first.size () ; i++) {
+            Assert.assertArrayEquals (first.get (i), second.get (i), 0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PolyphaseResampler;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeException;
+
+public class PolyphaseResamplerTest {
+
+    private double rootMeanSquareOfTheMiddle (final Channel channel) {
+        double sum = 0;
+        final int start = channel.getSamplesLength () / 4;
+        final int end = 3 * channel.getSamplesLength () / 4;
+        for (int i = start ; i < end ; i++) {
+            sum += channel.getSampleAt (i) * (double) channel.getSampleAt (i);
+        }
+        return Math.sqrt (sum / (end - start));
+    }
+
+    @Test
+    public void theRatiosAreReducedAndTheBanksShared () {
+        final PolyphaseResampler resampler = PolyphaseResampler.forSampleRates (44100, 48000);
+        Assert.assertEquals (160, resampler.getUp ());
+        Assert.assertEquals (147, resampler.getDown ());
+        Assert.assertSame (resampler, PolyphaseResampler.forRatio (320, 294));
+        Assert.assertSame (PolyphaseResampler.forRatio (1, 2), PolyphaseResampler.forFactor (0.5));
+    }
+
+    @Test
+    public void anArbitraryFactorIsApproximated () {
+        final PolyphaseResampler resampler = PolyphaseResampler.forSampleRates (8363, 44100);
+        Assert.assertTrue (resampler.getUp () <= PolyphaseResampler.MAX_PHASES);
+        Assert.assertEquals (44100.0 / 8363, resampler.getUp () / (double) resampler.getDown (), 1e-5);
+    }
+
+    @Test
+    public void theOutputHasTheExactLength () {
+        final Channel input = SyntheticSounds.sine (1000, 44100, 44100);
+        final Channel output = PolyphaseResampler.forSampleRates (44100, 48000).resample (input, 48000);
+        Assert.assertEquals (48000, output.getSamplesLength ());
+        Assert.assertEquals (48000, output.getSampleRate (), 0);
+    }
+
+    @Test
+    public void aSineStaysTheSameSine () {
+        final Channel input = SyntheticSounds.sine (1000, 44100, 8820);
+        final Channel output = PolyphaseResampler.forSampleRates (44100, 48000).resample (input, 48000);
+        final Channel expected = SyntheticSounds.sine (1000, 48000, output.getSamplesLength ());
+        for (int i = output.getSamplesLength () / 4 ; i < 3 * output.getSamplesLength () / 4 ; i++) {
+            Assert.assertEquals (expected.getSampleAt (i), output.getSampleAt (i), 10);
+        }
+    }
+
+    @Test
+    public void theFrequenciesAboveTheNewNyquistFrequencyAreRemoved () {
+        final Channel input = SyntheticSounds.sine (15000, 44100, 8820);
+        final Channel output = PolyphaseResampler.forSampleRates (44100, 22050).resample (input, 22050);
+        Assert.assertEquals (4410, output.getSamplesLength ());
+        Assert.assertTrue (this.rootMeanSquareOfTheMiddle (output) < 0.01 * this.rootMeanSquareOfTheMiddle (input));
+    }
+
+    @Test
+    public void theStreamGivesTheSameSamples () {
+        final Random random = new Random (0);
+        final long [] samples = new long [5000];
+        for (int i = 0 ; i < samples.length ; i++) {
+            samples [i] = random.nextInt (20000) - 10000;
+        }
+        final Channel input = new Channel (samples, new FormatInfo (2, 44100), 0);
+        final PolyphaseResampler [] resamplers = { PolyphaseResampler.forRatio (160, 147), PolyphaseResampler.forRatio (147, 160), PolyphaseResampler.forRatio (1, 3) };
+        for (final PolyphaseResampler resampler : resamplers) {
+            final Channel expected = resampler.resample (input, 48000);
+            final PolyphaseResampler.Stream stream = resampler.newStream ();
+            final double [] streamed = new double [expected.getSamplesLength ()];
+            final double [] block = new double [300];
+            final double [] output = new double [resampler.maxOutputLength (block.length)];
+            int emitted = 0;
+            for (int start = 0 ; start < samples.length ;) {
+                final int length = Math.min (1 + random.nextInt (block.length), samples.length - start);
+                for (int i = 0 ; i < length ; i++) {
+                    block [i] = samples [start + i];
+                }
+                final int written = stream.process (block, length, output);
+                System.arraycopy (output, 0, streamed, emitted, written);
+                emitted += written;
+                start += length;
+            }
+            final double [] last = new double [resampler.maxOutputLength (resampler.getDelay ())];
+            final int written = stream.flush (last);
+            System.arraycopy (last, 0, streamed, emitted, written);
+            emitted += written;
+
+            Assert.assertEquals (expected.getSamplesLength (), emitted);
+            for (int i = 0 ; i < emitted ; i++) {
+                Assert.assertEquals (expected.getSampleAt (i), Math.round (streamed [i]));
+            }
+        }
+    }
+
+    @Test (expected = SoundTransformRuntimeException.class)
+    public void theRatioIsPositive () {
+        PolyphaseResampler.forRatio (0, 1);
+    }
+}
@@ -0,0 +1,89 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.EqualizerSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.GaussianEqualizerSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.PralongAndCarlileSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.PurifySoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.ReduceNoiseSoundTransform;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class RawSpectrumTransformTest extends SoundTransformTest {
+
+    private Channel channel () throws SoundTransformException {
+        final Channel channel = FluentClient.start ().withClasspathResource ("before.wav").convertIntoSound ().stopWithSound ().getChannels () [0];
+        return channel.view (0, Math.min (channel.getSamplesLength (), 5000));
+    }
+
+    private void assertSameSound (final SoundTransform<Channel, Channel> inPlace, final SoundTransform<Channel, Channel> withSpectrums) throws SoundTransformException {
+        final Channel channel = this.channel ();
+        final Channel expected = withSpectrums.transform (channel);
+        final Channel actual = inPlace.transform (channel);
+        Assert.assertEquals (expected.getSamplesLength (), actual.getSamplesLength ());
+        for (int i = 0 ; i < expected.getSamplesLength () ; i++) {
+            Assert.assertEquals (expected.getSampleAt (i), actual.getSampleAt (i));
+        }
+    }
+
+    @Test
+    public void theEqualizersGiveTheSameSoundInPlace () throws SoundTransformException {
+        final double [] ranges = { 0, 1000, 5000, 48000 };
+        final double [] amplification = { 0.5, 1, 0.2, 0 };
+        this.assertSameSound (new EqualizerSoundTransform (ranges, amplification), new EqualizerSoundTransform (ranges, amplification) {
+            @Override
+            public boolean rawSpectrumPrefered () {
+                return false;
+            }
+        });
+        this.assertSameSound (new GaussianEqualizerSoundTransform (), new GaussianEqualizerSoundTransform () {
+            @Override
+            public boolean rawSpectrumPrefered () {
+                return false;
+            }
+        });
+        this.assertSameSound (new PralongAndCarlileSoundTransform (), new PralongAndCarlileSoundTransform () {
+            @Override
+            public boolean rawSpectrumPrefered () {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void purifyAndReduceNoiseGiveTheSameSoundInPlace () throws SoundTransformException {
+        this.assertSameSound (new PurifySoundTransform (), new PurifySoundTransform () {
+            @Override
+            public boolean rawSpectrumPrefered () {
+                return false;
+            }
+        });
+        this.assertSameSound (new ReduceNoiseSoundTransform (5), new ReduceNoiseSoundTransform (5) {
+            @Override
+            public boolean rawSpectrumPrefered () {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void theRawReduceNoiseUsesTheGivenSampleSize () throws SoundTransformException {
+        final ReduceNoiseSoundTransform reduceNoise = new ReduceNoiseSoundTransform (5);
+        final double [][] eightBits = { { 10000, 100 }, { 0, 0 } };
+        final double [][] sixteenBits = { { 10000, 100 }, { 0, 0 } };
+        final double [][] unknownSize = { { 10000, 100 }, { 0, 0 } };
+
+        reduceNoise.transformFrequencies (eightBits, new FormatInfo (1, 8000), 0, 2, 2, 0);
+        reduceNoise.transformFrequencies (sixteenBits, new FormatInfo (2, 8000), 0, 2, 2, 0);
+        reduceNoise.transformFrequencies (unknownSize, 8000, 0, 2, 2, 0);
+
+        Assert.assertArrayEquals (new double [] { 10000, 0 }, eightBits [0], 0);
+        Assert.assertArrayEquals (new double [] { 0, 0 }, sixteenBits [0], 0);
+        Assert.assertArrayEquals (sixteenBits [0], unknownSize [0], 0);
+    }
+}
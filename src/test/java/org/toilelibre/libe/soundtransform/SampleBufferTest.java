@@ -0,0 +1,137 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.ByteSampleBuffer;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Int24SampleBuffer;
+import org.toilelibre.libe.soundtransform.model.converted.sound.IntSampleBuffer;
+import org.toilelibre.libe.soundtransform.model.converted.sound.LongSampleBuffer;
+import org.toilelibre.libe.soundtransform.model.converted.sound.SampleBuffer;
+import org.toilelibre.libe.soundtransform.model.converted.sound.ShortSampleBuffer;
+
+public class SampleBufferTest {
+
+    private Channel packed (final int length, final int sampleSize) {
+        final FormatInfo formatInfo = new FormatInfo (sampleSize, 44100);
+        return new Channel (SampleBuffer.forFormat (formatInfo, length), formatInfo, 0);
+    }
+
+    @Test
+    public void theStorageDependsOnTheSampleSize () {
+        Assert.assertTrue (SampleBuffer.forFormat (new FormatInfo (1, 44100), 10) instanceof ByteSampleBuffer);
+        Assert.assertTrue (SampleBuffer.forFormat (new FormatInfo (2, 44100), 10) instanceof ShortSampleBuffer);
+        Assert.assertTrue (SampleBuffer.forFormat (new FormatInfo (3, 44100), 10) instanceof Int24SampleBuffer);
+        Assert.assertTrue (SampleBuffer.forFormat (new FormatInfo (4, 44100), 10) instanceof IntSampleBuffer);
+        Assert.assertTrue (SampleBuffer.forFormat (new FormatInfo (0, 0), 10) instanceof LongSampleBuffer);
+    }
+
+    @Test
+    public void aNewChannelKeepsTheValuesOutOfTheSampleSizeRange () {
+        final Channel channel = new Channel (2, new FormatInfo (2, 44100), 0);
+        channel.setSampleAt (0, Integer.MAX_VALUE);
+        channel.setSampleAt (1, Integer.MIN_VALUE);
+        Assert.assertEquals (Integer.MAX_VALUE, channel.getSampleAt (0));
+        Assert.assertEquals (Integer.MIN_VALUE, channel.getSampleAt (1));
+
+        // a written view is not packed either
+        final Channel view = this.packed (4, 1).view (0, 4);
+        view.setSampleAt (0, 1000);
+        Assert.assertEquals (1000, view.getSampleAt (0));
+    }
+
+    @Test
+    public void aNewPackedChannelIsSilent () {
+        for (int sampleSize = 1 ; sampleSize <= 4 ; sampleSize++) {
+            final Channel channel = this.packed (5, sampleSize);
+            Assert.assertEquals ("[0, 0, 0, 0, 0]", channel.viewSamplesArray ());
+        }
+    }
+
+    @Test
+    public void everyValueOfTheSampleSizeIsKept () {
+        for (int sampleSize = 1 ; sampleSize <= 4 ; sampleSize++) {
+            final long neutral = SampleBuffer.neutralOf (sampleSize);
+            final long min = -neutral;
+            final long max = (1L << Byte.SIZE * sampleSize) - 1 - neutral;
+            final Channel channel = this.packed (3, sampleSize);
+            channel.setSampleAt (0, min);
+            channel.setSampleAt (1, -1);
+            channel.setSampleAt (2, max);
+            Assert.assertEquals (min, channel.getSampleAt (0));
+            Assert.assertEquals (-1, channel.getSampleAt (1));
+            Assert.assertEquals (max, channel.getSampleAt (2));
+        }
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped () {
+        final Channel channel = this.packed (2, 2);
+        channel.setSampleAt (0, Integer.MAX_VALUE);
+        channel.setSampleAt (1, Integer.MIN_VALUE);
+        Assert.assertEquals ( (1L << 16) - 1 - SampleBuffer.neutralOf (2), channel.getSampleAt (0));
+        Assert.assertEquals (-SampleBuffer.neutralOf (2), channel.getSampleAt (1));
+    }
+
+    @Test
+    public void copyToKeepsTheValuesWhateverTheStorage () {
+        final long [] values = new long [] { -32000, -1, 0, 1, 12345, 32000 };
+        final Channel source = this.packed (values.length, 2);
+        for (int i = 0 ; i < values.length ; i++) {
+            source.setSampleAt (i, values [i]);
+        }
+        final long [] copiedArray = new long [values.length];
+        source.copyTo (copiedArray);
+        Assert.assertArrayEquals (values, copiedArray);
+
+        final Channel packedCopy = this.packed (values.length, 2);
+        source.copyTo (packedCopy);
+        Assert.assertEquals (source.viewSamplesArray (), packedCopy.viewSamplesArray ());
+
+        final Channel longCopy = new Channel (new LongSampleBuffer (new long [values.length]), new FormatInfo (2, 44100), 0);
+        final Channel int24Copy = this.packed (values.length, 3);
+        source.copyTo (longCopy);
+        source.copyTo (int24Copy, 1, 0, values.length - 1);
+        Assert.assertEquals (source.viewSamplesArray (), longCopy.viewSamplesArray ());
+        Assert.assertEquals ("[-1, 0, 1, 12345, 32000, 0]", int24Copy.viewSamplesArray ());
+    }
+
+    @Test
+    public void aViewDoesNotChangeItsParent () {
+        final Channel parent = new Channel (new long [] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, new FormatInfo (2, 44100), 0);
+        final Channel view = parent.view (2, 6);
+        Assert.assertEquals ("[2, 3, 4, 5]", view.viewSamplesArray ());
+        Assert.assertEquals ("[3, 4, 5]", view.view (1, 4).viewSamplesArray ());
+
+        view.setSampleAt (1, -3);
+        Assert.assertEquals ("[2, -3, 4, 5]", view.viewSamplesArray ());
+        Assert.assertEquals ("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", parent.viewSamplesArray ());
+
+        try {
+            view.getSampleAt (4);
+            Assert.fail ("should have failed");
+        } catch (final ArrayIndexOutOfBoundsException aioobe) {
+
+        }
+    }
+
+    @Test
+    public void concatenatedChannelsAreSeenAsOne () {
+        final Channel first = new Channel (new long [] { 0, 1, 2, 3, 4 }, new FormatInfo (2, 44100), 0);
+        final Channel second = new Channel (5, new FormatInfo (2, 44100), 0);
+        for (int i = 0 ; i < 5 ; i++) {
+            second.setSampleAt (i, 10 + i);
+        }
+        final Channel concatenated = Channel.concat (first.view (1, 3), first.view (3, 3), second);
+        Assert.assertEquals ("[1, 2, 10, 11, 12, 13, 14]", concatenated.viewSamplesArray ());
+
+        final long [] part = new long [3];
+        concatenated.copyTo (part, 1, 0, 3);
+        Assert.assertArrayEquals (new long [] { 2, 10, 11 }, part);
+
+        concatenated.setSampleAt (2, -10);
+        Assert.assertEquals (-10, concatenated.getSampleAt (2));
+        Assert.assertEquals (10, second.getSampleAt (0));
+    }
+}
@@ -1,6 +1,8 @@
 package org.toilelibre.libe.soundtransform;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -111,6 +113,61 @@ public class SegmentedSoundTest {
         }
     }
 
+    @Test
+    public void aSegmentedSoundCopiesAPartAcrossSeveralSegments () {
+        final Sound sound1 = new Sound (new Channel [] { new Channel (this.generateSequence (0, 13), new FormatInfo (1, 1), 0) });
+        final Sound empty = new Sound (new Channel [] { new Channel (new long [0], new FormatInfo (1, 1), 0) });
+        final Sound sound2 = new Sound (new Channel [] { new Channel (this.generateSequence (14, 27), new FormatInfo (1, 1), 0) });
+        final Sound sound3 = new Sound (new Channel [] { new Channel (this.generateSequence (28, 41), new FormatInfo (1, 1), 0) });
+
+        final Sound sound = new SegmentedSound (new FormatInfo (1, 1), Arrays.asList (sound1, empty, sound2, sound3));
+
+        final long [] part = new long [20];
+        sound.getChannels () [0].copyTo (part, 10, 0, 20);
+        Assert.assertArrayEquals (this.generateSequence (10, 29), part);
+
+        final Channel partChannel = new Channel (new long [22], new FormatInfo (1, 1), 0);
+        sound.getChannels () [0].copyTo (partChannel, 12, 2, 20);
+        Assert.assertEquals (0, partChannel.getSampleAt (1));
+        Assert.assertEquals (12, partChannel.getSampleAt (2));
+        Assert.assertEquals (31, partChannel.getSampleAt (21));
+        Assert.assertEquals (14, sound.getChannels () [0].getSampleAt (14));
+
+        try {
+            sound.getChannels () [0].copyTo (part, 30, 0, 20);
+            Assert.fail ("should have failed");
+        } catch (final SoundTransformRuntimeException stre) {
+
+        }
+    }
+
+    @Test
+    public void aSegmentedSoundSeesTheAppendedSounds () {
+        final List<Sound> sounds = new ArrayList<Sound> ();
+        sounds.add (new Sound (new Channel [] { new Channel (this.generateSequence (0, 13), new FormatInfo (1, 1), 0) }));
+        final SegmentedSound sound = new SegmentedSound (new FormatInfo (1, 1), sounds);
+        Assert.assertEquals (14, sound.getChannels () [0].getSamplesLength ());
+        Assert.assertEquals (13, sound.getChannels () [0].getSampleAt (13));
+
+        final Sound appended = new Sound (new Channel [] { new Channel (this.generateSequence (14, 27), new FormatInfo (1, 1), 0) });
+        sound.append (appended);
+        Assert.assertEquals (28, sound.getChannels () [0].getSamplesLength ());
+        Assert.assertEquals (27, sound.getChannels () [0].getSampleAt (27));
+        sound.getChannels () [0].setSampleAt (20, -20);
+        Assert.assertEquals (-20, appended.getChannels () [0].getSampleAt (6));
+    }
+
+    @Test
+    public void aSegmentedSoundKeepsFindingTheSamplesWhileManySoundsAreAppended () {
+        final SegmentedSound sound = new SegmentedSound (new FormatInfo (1, 1), new ArrayList<Sound> ());
+        for (int i = 0 ; i < 100 ; i++) {
+            sound.append (new Sound (new Channel [] { new Channel (this.generateSequence (i * 10, i * 10 + 9), new FormatInfo (1, 1), 0) }));
+            Assert.assertEquals ((i + 1) * 10, sound.getChannels () [0].getSamplesLength ());
+            Assert.assertEquals (i * 10 + 9, sound.getChannels () [0].getSampleAt (i * 10 + 9));
+            Assert.assertEquals (i * 5, sound.getChannels () [0].getSampleAt (i * 5));
+        }
+    }
+
     private long [] generateSequence (final int i, final int j) {
         final long [] result = new long [j - i + 1];
         for (int k = i ; k <= j ; k++) {
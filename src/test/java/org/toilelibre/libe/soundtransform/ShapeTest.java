@@ -1,13 +1,17 @@
 package org.toilelibre.libe.soundtransform;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
 import org.toilelibre.libe.soundtransform.infrastructure.service.observer.Slf4jObserver;
 import org.toilelibre.libe.soundtransform.ioc.ApplicationInjector.$;
 import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
 import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.PitchAndTempoQuality;
 import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
 import org.toilelibre.libe.soundtransform.model.converted.sound.SoundAppender;
 import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
@@ -55,4 +59,26 @@ public class ShapeTest extends SoundTransformTest {
         FluentClient.start ().withSound (sound).exportToClasspathResourceWithSiblingResource ("after.wav", "before.wav");
         new Slf4jObserver ().notify ("Output chord note should be around 332Hz, but is " + frequency + "Hz");
     }
+
+    @Test
+    public void theQualityIsChosenForEachShape () throws SoundTransformException {
+        final float [] freqs = new float [400];
+        Arrays.fill (freqs, 0, 200, 330);
+        Arrays.fill (freqs, 200, 400, 440);
+        FluentClient.start ().withAPack ("default", Thread.currentThread ().getContextClassLoader ().getResourceAsStream ("defaultpackjavax.json"));
+
+        final Sound bestSpeed = FluentClient.start ().withFreqs (Collections.singletonList (freqs)).shapeIntoSound ("default", "simple_piano", new FormatInfo (2, 44100), PitchAndTempoQuality.BEST_SPEED).stopWithSound ();
+        final Sound byDefault = FluentClient.start ().withFreqs (Collections.singletonList (freqs)).shapeIntoSound ("default", "simple_piano", new FormatInfo (2, 44100)).stopWithSound ();
+        final Sound bestQuality = FluentClient.start ().withFreqs (Collections.singletonList (freqs)).shapeIntoSound ("default", "simple_piano", new FormatInfo (2, 44100), PitchAndTempoQuality.BEST_QUALITY).stopWithSound ();
+
+        Assert.assertArrayEquals (this.samples (bestQuality), this.samples (byDefault));
+        Assert.assertEquals (this.samples (bestQuality).length, this.samples (bestSpeed).length);
+        Assert.assertFalse (Arrays.equals (this.samples (bestQuality), this.samples (bestSpeed)));
+    }
+
+    private long [] samples (final Sound sound) {
+        final long [] samples = new long [sound.getChannels () [0].getSamplesLength ()];
+        sound.getChannels () [0].copyTo (samples);
+        return samples;
+    }
 }
@@ -0,0 +1,197 @@
+package org.toilelibre.libe.soundtransform;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Sound;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.PeakFindSoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+import org.toilelibre.libe.soundtransform.model.logging.AbstractLogAware;
+import org.toilelibre.libe.soundtransform.model.record.FrequencyObserver;
+import org.toilelibre.libe.soundtransform.model.record.StreamingPeakFind;
+import org.toilelibre.libe.soundtransform.model.record.StreamingPeakFind.StreamingPeakFindErrorCode;
+
+public class StreamingPeakFindTest extends SoundTransformTest {
+
+    private static final class SlowPeakFindSoundTransform extends AbstractLogAware<SlowPeakFindSoundTransform> implements PeakFindSoundTransform<Serializable, AbstractLogAware<SlowPeakFindSoundTransform>> {
+        private final CountDownLatch latch     = new CountDownLatch (1);
+        private final List<long []>  windows   = Collections.synchronizedList (new ArrayList<long []> ());
+
+        @Override
+        public float [] transform (final Channel input) throws SoundTransformException {
+            try {
+                this.latch.await ();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread ().interrupt ();
+            }
+            final long [] samples = new long [input.getSamplesLength ()];
+            input.copyTo (samples);
+            this.windows.add (samples);
+            return new float [] { samples [0] };
+        }
+
+        @Override
+        public float getDetectedNoteVolume () {
+            return 0;
+        }
+    }
+
+    private static final float SAMPLE_RATE   = 44100;
+    private static final int   BUFFER_LENGTH = 1000;
+
+    private Channel note (final int start, final int length, final double frequency, final int channelNum) {
+        final long [] samples = new long [length];
+        for (int i = 0 ; i < samples.length ; i++) {
+            samples [i] = Math.round (3000 * Math.sin (2 * Math.PI * frequency * (start + i) / StreamingPeakFindTest.SAMPLE_RATE));
+        }
+        return new Channel (samples, new FormatInfo (2, StreamingPeakFindTest.SAMPLE_RATE), channelNum);
+    }
+
+    private Sound buffer (final int start, final double... frequencies) {
+        final Channel [] channels = new Channel [frequencies.length];
+        for (int c = 0 ; c < frequencies.length ; c++) {
+            channels [c] = this.note (start, StreamingPeakFindTest.BUFFER_LENGTH, frequencies [c], c);
+        }
+        return new Sound (channels);
+    }
+
+    @Test
+    public void theFrequenciesAreFoundDuringTheRecording () throws SoundTransformException {
+        final List<float []> updates = new ArrayList<float []> ();
+        final StreamingPeakFind streamingPeakFind = new StreamingPeakFind (new HarmonicProductSpectrumSoundTransform<Serializable> (true, true), 1024, 4096, new FrequencyObserver () {
+
+            @Override
+            public void update (final float [] loudestFreqs) {
+                updates.add (loudestFreqs);
+            }
+        });
+
+        // nothing before the first complete window
+        for (int i = 0 ; i < 4 ; i++) {
+            streamingPeakFind.append (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 440, 220));
+        }
+        Assert.assertEquals (0, updates.size ());
+        Assert.assertEquals (0, streamingPeakFind.getLoudestFreqs ().get (0).length);
+
+        for (int i = 4 ; i < 20 ; i++) {
+            streamingPeakFind.append (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 440, 220));
+        }
+        // one window every 1024 samples, from the 4096th sample
+        Assert.assertEquals ( (20000 - 4096) / 1024 + 1, updates.size ());
+
+        // the same frequencies as an analysis of each window after the
+        // recording
+        final List<float []> loudestFreqs = streamingPeakFind.getLoudestFreqs ();
+        Assert.assertEquals (2, loudestFreqs.size ());
+        final HarmonicProductSpectrumSoundTransform<Serializable> hps = new HarmonicProductSpectrumSoundTransform<Serializable> (true, true);
+        for (int i = 0 ; i < updates.size () ; i++) {
+            Assert.assertEquals (hps.transform (this.note (i * 1024, 4096, 440, 0)) [0], updates.get (i) [0], 0);
+            Assert.assertEquals (hps.transform (this.note (i * 1024, 4096, 220, 1)) [0], updates.get (i) [1], 0);
+            Assert.assertEquals (updates.get (i) [0], loudestFreqs.get (0) [i], 0);
+            Assert.assertEquals (updates.get (i) [1], loudestFreqs.get (1) [i], 0);
+        }
+    }
+
+    @Test
+    public void theWindowFollowsTheRecording () throws SoundTransformException {
+        final StreamingPeakFind streamingPeakFind = new StreamingPeakFind (new HarmonicProductSpectrumSoundTransform<Serializable> (true, true), 2048, 2048, null);
+        for (int i = 0 ; i < 10 ; i++) {
+            streamingPeakFind.append (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 330));
+        }
+        for (int i = 10 ; i < 20 ; i++) {
+            streamingPeakFind.append (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 660));
+        }
+        final float [] loudestFreqs = streamingPeakFind.getLoudestFreqs ().get (0);
+        Assert.assertEquals (20000 / 2048, loudestFreqs.length);
+        Assert.assertEquals (330, loudestFreqs [0], 15);
+        Assert.assertEquals (660, loudestFreqs [loudestFreqs.length - 1], 15);
+    }
+
+    @Test
+    public void theOfferedBuffersAreAnalyzedOnTheirOwnThread () throws SoundTransformException {
+        final List<Thread> updatingThreads = Collections.synchronizedList (new ArrayList<Thread> ());
+        final StreamingPeakFind streamingPeakFind = new StreamingPeakFind (new HarmonicProductSpectrumSoundTransform<Serializable> (true, true), 1024, 4096, new FrequencyObserver () {
+
+            @Override
+            public void update (final float [] loudestFreqs) {
+                updatingThreads.add (Thread.currentThread ());
+            }
+        });
+        final StreamingPeakFind expected = new StreamingPeakFind (new HarmonicProductSpectrumSoundTransform<Serializable> (true, true), 1024, 4096, null);
+        streamingPeakFind.startAnalysis ();
+        for (int i = 0 ; i < 20 ; i++) {
+            streamingPeakFind.offer (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 440));
+            expected.append (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 440));
+        }
+        streamingPeakFind.endOfRecording ();
+        streamingPeakFind.awaitAnalysis ();
+
+        Assert.assertEquals (0, streamingPeakFind.getSkippedBuffers ());
+        Assert.assertArrayEquals (expected.getLoudestFreqs ().get (0), streamingPeakFind.getLoudestFreqs ().get (0), 0);
+        Assert.assertEquals ( (20000 - 4096) / 1024 + 1, updatingThreads.size ());
+        for (final Thread thread : updatingThreads) {
+            Assert.assertNotSame (Thread.currentThread (), thread);
+        }
+    }
+
+    @Test
+    public void theBuffersAreSkippedWhenTheAnalysisIsLate () throws SoundTransformException {
+        final SlowPeakFindSoundTransform slowPeakFind = new SlowPeakFindSoundTransform ();
+        final StreamingPeakFind streamingPeakFind = new StreamingPeakFind (slowPeakFind, 1000, 2000, null);
+        streamingPeakFind.startAnalysis ();
+        final FormatInfo formatInfo = new FormatInfo (2, StreamingPeakFindTest.SAMPLE_RATE);
+        final int buffers = StreamingPeakFind.MAX_PENDING_BUFFERS * 2;
+        for (int i = 0 ; i < buffers ; i++) {
+            final long [] samples = new long [StreamingPeakFindTest.BUFFER_LENGTH];
+            for (int j = 0 ; j < samples.length ; j++) {
+                samples [j] = i * StreamingPeakFindTest.BUFFER_LENGTH + j;
+            }
+            streamingPeakFind.offer (new Sound (new Channel [] { new Channel (samples, formatInfo, 0) }));
+        }
+        slowPeakFind.latch.countDown ();
+        streamingPeakFind.endOfRecording ();
+        streamingPeakFind.awaitAnalysis ();
+
+        Assert.assertTrue (streamingPeakFind.getSkippedBuffers () > 0);
+        Assert.assertEquals (slowPeakFind.windows.size (), streamingPeakFind.getLoudestFreqs ().get (0).length);
+        // no analyzed window has a gap inside
+        for (final long [] window : slowPeakFind.windows) {
+            for (int j = 1 ; j < window.length ; j++) {
+                Assert.assertEquals (window [j - 1] + 1, window [j]);
+            }
+        }
+    }
+
+    @Test
+    public void aFailureOfTheAnalysisThreadIsThrownByTheWait () {
+        final IllegalStateException observerFailure = new IllegalStateException ();
+        final StreamingPeakFind streamingPeakFind = new StreamingPeakFind (new HarmonicProductSpectrumSoundTransform<Serializable> (true, true), 1000, 2048, new FrequencyObserver () {
+
+            @Override
+            public void update (final float [] loudestFreqs) {
+                throw observerFailure;
+            }
+        });
+        streamingPeakFind.startAnalysis ();
+        for (int i = 0 ; i < 3 ; i++) {
+            streamingPeakFind.offer (this.buffer (i * StreamingPeakFindTest.BUFFER_LENGTH, 440));
+        }
+        streamingPeakFind.endOfRecording ();
+        try {
+            streamingPeakFind.awaitAnalysis ();
+            Assert.fail ("The failure of the observer should have been thrown");
+        } catch (final SoundTransformException ste) {
+            Assert.assertEquals (StreamingPeakFindErrorCode.ANALYSIS_FAILED, ste.getErrorCode ());
+            Assert.assertSame (observerFailure, ste.getCause ());
+        }
+    }
+}
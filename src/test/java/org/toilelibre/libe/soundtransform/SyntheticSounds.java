@@ -0,0 +1,84 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+
+/**
+ * Generated sounds for the tests of the filters, the tempo changes and the
+ * pitch detectors, so that they do not each build their own.
+ */
+public final class SyntheticSounds {
+
+    private static final double SINE_AMPLITUDE = 10000;
+
+    private SyntheticSounds () {
+        super ();
+    }
+
+    /**
+     * A pure sine on 16 bits
+     *
+     * @param frequency
+     *            the frequency (in Hz)
+     * @param sampleRate
+     *            the sample rate
+     * @param length
+     *            the number of samples
+     * @return the sine
+     */
+    public static Channel sine (final double frequency, final float sampleRate, final int length) {
+        return SyntheticSounds.note (frequency, sampleRate, length, SyntheticSounds.SINE_AMPLITUDE);
+    }
+
+    /**
+     * A note made of the fundamental and its harmonics, on 16 bits
+     *
+     * @param frequency
+     *            the frequency of the fundamental (in Hz)
+     * @param sampleRate
+     *            the sample rate
+     * @param length
+     *            the number of samples
+     * @param amplitudes
+     *            the amplitude of the fundamental, then of each harmonic
+     * @return the note
+     */
+    public static Channel note (final double frequency, final float sampleRate, final int length, final double... amplitudes) {
+        final long [] samples = new long [length];
+        for (int i = 0 ; i < length ; i++) {
+            double sample = 0;
+            for (int h = 0 ; h < amplitudes.length ; h++) {
+                sample += amplitudes [h] * Math.sin (2 * Math.PI * frequency * (h + 1) * i / sampleRate);
+            }
+            samples [i] = Math.round (sample);
+        }
+        return new Channel (samples, new FormatInfo (2, sampleRate), 0);
+    }
+
+    /**
+     * The frequency of a sine, from the rising zero crossings of the middle
+     * half of the sound
+     *
+     * @param channel
+     *            the sound
+     * @return the frequency (in Hz)
+     */
+    public static double frequencyOfTheMiddle (final Channel channel) {
+        final int start = channel.getSamplesLength () / 4;
+        final int end = 3 * channel.getSamplesLength () / 4;
+        int first = -1;
+        int last = -1;
+        int crossings = 0;
+        for (int i = start ; i < end ; i++) {
+            if (channel.getSampleAt (i - 1) < 0 && channel.getSampleAt (i) >= 0) {
+                if (first == -1) {
+                    first = i;
+                } else {
+                    crossings++;
+                }
+                last = i;
+            }
+        }
+        return crossings * channel.getSampleRate () / (last - first);
+    }
+}
@@ -1,9 +1,13 @@
 package org.toilelibre.libe.soundtransform;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
@@ -44,6 +48,31 @@ public class WavTest extends SoundTransformTest {
 
     private final File        output      = new File (new File (this.classLoader.getResource ("before.wav").getFile ()).getParent () + "/after.wav");
 
+    @Test
+    public void anUnsignedEightBitsFileIsExportedUnchanged () throws SoundTransformException, IOException {
+        final File unsigned = new File (this.classLoader.getResource ("unsigned8bits.wav").getFile ());
+        final Sound sound = FluentClient.start ().withFile (unsigned).convertIntoSound ().stopWithSound ();
+        // centered around 0 like the signed samples : 0x00 is the lowest value, 0xFF the highest
+        Assert.assertEquals (-127, sound.getChannels () [0].getSampleAt (0));
+        Assert.assertEquals (128, sound.getChannels () [0].getSampleAt (73));
+        final byte [] exported = this.readAll (FluentClient.start ().withFile (unsigned).convertIntoSound ().exportToStream ().stopWithInputStream ());
+        final byte [] file = this.readAll (this.classLoader.getResourceAsStream ("unsigned8bits.wav"));
+        // the pcm data is at the end of both
+        Assert.assertArrayEquals (Arrays.copyOfRange (file, file.length - 1024, file.length), Arrays.copyOfRange (exported, exported.length - 1024, exported.length));
+    }
+
+    private byte [] readAll (final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream ();
+        final byte [] buffer = new byte [1024];
+        int read = inputStream.read (buffer);
+        while (read != -1) {
+            baos.write (buffer, 0, read);
+            read = inputStream.read (buffer);
+        }
+        inputStream.close ();
+        return baos.toByteArray ();
+    }
+
     @Test
     public void test8bits () throws SoundTransformException {
         FluentClient.start ().withAnObserver (new Slf4jObserver (LogLevel.WARN)).withFile (this.input).convertIntoSound ().apply (new EightBitsSoundTransform (25)).exportToFile (this.output);
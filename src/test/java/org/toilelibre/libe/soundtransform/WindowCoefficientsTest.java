@@ -0,0 +1,81 @@
+package org.toilelibre.libe.soundtransform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.AbstractWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.BlackmanHarrisWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HammingWindowSoundTransform;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HanningWindowSoundTransform;
+
+public class WindowCoefficientsTest extends SoundTransformTest {
+
+    private static class PowerWindowSoundTransform extends AbstractWindowSoundTransform {
+        protected final int power;
+
+        private PowerWindowSoundTransform (final int power1) {
+            this.power = power1;
+        }
+
+        @Override
+        protected double applyFunction (final double progress) {
+            return Math.pow (progress, this.power);
+        }
+    }
+
+    private static final class KeyedPowerWindowSoundTransform extends PowerWindowSoundTransform {
+        private KeyedPowerWindowSoundTransform (final int power1) {
+            super (power1);
+        }
+
+        @Override
+        protected Object getCoefficientsKey () {
+            return "power" + this.power;
+        }
+    }
+
+    @Test
+    public void theCoefficientsAreTheValuesOfTheFunction () {
+        final AbstractWindowSoundTransform [] windows = { new HanningWindowSoundTransform (), new HammingWindowSoundTransform (), new BlackmanHarrisWindowSoundTransform () };
+        for (final AbstractWindowSoundTransform window : windows) {
+            final double [] coefficients = window.getCoefficients (4096);
+            Assert.assertEquals (4096, coefficients.length);
+            for (int i = 0 ; i < coefficients.length ; i++) {
+                Assert.assertEquals (window.transform (i / 4095.0).doubleValue (), coefficients [i], 0);
+            }
+        }
+    }
+
+    @Test
+    public void aTableIsSharedByTheWindowsOfTheSameClass () {
+        final double [] hanning = new HanningWindowSoundTransform ().getCoefficients (2048);
+        Assert.assertSame (hanning, new HanningWindowSoundTransform ().getCoefficients (2048));
+        Assert.assertNotSame (hanning, new HanningWindowSoundTransform ().getCoefficients (1024));
+        Assert.assertNotSame (hanning, new HammingWindowSoundTransform ().getCoefficients (2048));
+    }
+
+    @Test
+    public void theParametersOfAWindowAreNeverMixedUpInTheCache () {
+        Assert.assertEquals (0.25, new PowerWindowSoundTransform (2).getCoefficients (3) [1], 0);
+        Assert.assertEquals (0.125, new PowerWindowSoundTransform (3).getCoefficients (3) [1], 0);
+
+        final double [] squares = new KeyedPowerWindowSoundTransform (2).getCoefficients (3);
+        Assert.assertSame (squares, new KeyedPowerWindowSoundTransform (2).getCoefficients (3));
+        Assert.assertEquals (0.125, new KeyedPowerWindowSoundTransform (3).getCoefficients (3) [1], 0);
+    }
+
+    @Test
+    public void transformWholeChannelUsesTheCoefficients () {
+        final long [] samples = new long [1000];
+        for (int i = 0 ; i < samples.length ; i++) {
+            samples [i] = 1000 + i;
+        }
+        final AbstractWindowSoundTransform window = new BlackmanHarrisWindowSoundTransform ();
+        final Channel windowed = window.transformWholeChannel (new Channel (samples, new FormatInfo (2, 44100), 0));
+        for (int i = 0 ; i < samples.length ; i++) {
+            Assert.assertEquals ((long) (samples [i] * window.transform (i / 999.0)), windowed.getSampleAt (i));
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.toilelibre.libe.soundtransform.actions.fluent.FluentClient;
 import org.toilelibre.libe.soundtransform.actions.fluent.FluentClientSoundImported;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.YinSoundTransform;
 import org.toilelibre.libe.soundtransform.infrastructure.service.observer.Slf4jObserver;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.CepstrumSoundTransform;
 import org.toilelibre.libe.soundtransform.model.converted.sound.transform.HarmonicProductSpectrumSoundTransform;
@@ -59,6 +60,16 @@ public class SoundPeakFindBenchmark {
         return this.applyOrThrowRuntimeException (new MaximumLikelihoodSoundTransform (48000, 100, 100, 800));
     }
 
+    @Benchmark
+    public float [][] maxlikelihoodParallel () {
+        return this.applyOrThrowRuntimeException (new MaximumLikelihoodSoundTransform (48000, 100, 100, 800).setParallelism (Runtime.getRuntime ().availableProcessors ()));
+    }
+
+    @Benchmark
+    public float [][] yin () {
+        return this.applyOrThrowRuntimeException (new YinSoundTransform (2048, 100, 100, 800));
+    }
+
     private float [][] applyOrThrowRuntimeException (final PeakFindSoundTransform<Serializable, ?> peakFindSoundTransform) {
         try {
             return this.apply (peakFindSoundTransform);
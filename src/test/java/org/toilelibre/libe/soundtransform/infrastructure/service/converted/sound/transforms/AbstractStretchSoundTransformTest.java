@@ -0,0 +1,69 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.SyntheticSounds;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+/**
+ * What the transforms changing the length of a sound without shifting its
+ * frequencies have in common. The tests of each algorithm check what makes
+ * it work.
+ */
+public abstract class AbstractStretchSoundTransformTest {
+
+    protected static final float SAMPLE_RATE  = 44100;
+    private static final int     BLOCK_LENGTH = 200;
+    private static final int     SOUND_LENGTH = 20000;
+
+    protected abstract SoundTransform<Channel, Channel> stretch (float factor) throws SoundTransformException;
+
+    protected Channel sine () {
+        return SyntheticSounds.sine (440, AbstractStretchSoundTransformTest.SAMPLE_RATE, AbstractStretchSoundTransformTest.SOUND_LENGTH);
+    }
+
+    /**
+     * The loudest sample of each block of the middle half of the sound, and
+     * the lowest of these peaks (the blocks are longer than the periods of
+     * the tested sounds)
+     */
+    protected long lowestPeakOfTheMiddle (final Channel channel) {
+        long lowestPeak = Long.MAX_VALUE;
+        for (int block = channel.getSamplesLength () / 4 ; block + AbstractStretchSoundTransformTest.BLOCK_LENGTH <= 3 * channel.getSamplesLength () / 4 ; block += AbstractStretchSoundTransformTest.BLOCK_LENGTH) {
+            long peak = 0;
+            for (int i = block ; i < block + AbstractStretchSoundTransformTest.BLOCK_LENGTH ; i++) {
+                peak = Math.max (peak, Math.abs (channel.getSampleAt (i)));
+            }
+            lowestPeak = Math.min (lowestPeak, peak);
+        }
+        return lowestPeak;
+    }
+
+    @Test
+    public void noStretchGivesTheSoundBack () throws SoundTransformException {
+        final Channel input = this.sine ();
+        final Channel output = this.stretch (1).transform (input);
+        Assert.assertEquals (input.getSamplesLength (), output.getSamplesLength ());
+        for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+            Assert.assertEquals (input.getSampleAt (i), output.getSampleAt (i), 1);
+        }
+    }
+
+    @Test
+    public void theFrequencyStaysTheSameWhenStretching () throws SoundTransformException {
+        final Channel input = this.sine ();
+        final float [] factors = { 2.5f, 1.3f, 0.5f };
+        for (final float factor : factors) {
+            final Channel output = this.stretch (factor).transform (input);
+            Assert.assertEquals ((int) (input.getSamplesLength () * factor), output.getSamplesLength ());
+            Assert.assertEquals (440, SyntheticSounds.frequencyOfTheMiddle (output), 2);
+        }
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void theFactorIsPositive () throws SoundTransformException {
+        this.stretch (0);
+    }
+}
@@ -0,0 +1,61 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.SyntheticSounds;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.BiquadFilterBankSoundTransform.Filter;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.BiquadFilterBankSoundTransform.Section;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class BiquadFilterBankSoundTransformTest {
+
+    private static final float SAMPLE_RATE = 44100;
+
+    private long amplitudeOfTheSecondHalf (final Channel channel) {
+        long max = 0;
+        for (int i = channel.getSamplesLength () / 2 ; i < channel.getSamplesLength () ; i++) {
+            max = Math.max (max, Math.abs (channel.getSampleAt (i)));
+        }
+        return max;
+    }
+
+    @Test
+    public void aLowPassKeepsTheBassAndCutsTheTreble () throws SoundTransformException {
+        final BiquadFilterBankSoundTransform lowPass = new BiquadFilterBankSoundTransform (Section.lowPass (500, Math.sqrt (0.5)), Section.lowPass (500, Math.sqrt (0.5)));
+        Assert.assertEquals (10000, this.amplitudeOfTheSecondHalf (lowPass.transform (SyntheticSounds.sine (100, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 10000))), 200);
+        Assert.assertTrue (this.amplitudeOfTheSecondHalf (lowPass.transform (SyntheticSounds.sine (10000, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 10000))) < 100);
+    }
+
+    @Test
+    public void aFlatCurveKeepsTheSound () throws SoundTransformException {
+        final Channel input = SyntheticSounds.sine (440, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 5000);
+        final Channel output = new BiquadFilterBankSoundTransform (new double [] { 0, 100, 1000, 5000, 20000 }, new double [] { 1, 1, 1, 1, 1 }).transform (input);
+        for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+            Assert.assertEquals (input.getSampleAt (i), output.getSampleAt (i), 1);
+        }
+    }
+
+    @Test
+    public void aPeakingSectionChangesTheVolumeAtItsFrequency () throws SoundTransformException {
+        final BiquadFilterBankSoundTransform peaking = new BiquadFilterBankSoundTransform (Section.peaking (1000, 2, -6));
+        Assert.assertEquals (5012, this.amplitudeOfTheSecondHalf (peaking.transform (SyntheticSounds.sine (1000, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 20000))), 100);
+        Assert.assertEquals (10000, this.amplitudeOfTheSecondHalf (peaking.transform (SyntheticSounds.sine (100, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 20000))), 200);
+    }
+
+    @Test
+    public void theFilterGivesTheSameSamplesOneByOne () throws SoundTransformException {
+        final BiquadFilterBankSoundTransform bank = new BiquadFilterBankSoundTransform (Section.highPass (200, 1), Section.lowShelf (300, 6), Section.highShelf (5000, -3));
+        final Channel input = SyntheticSounds.sine (250, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 3000);
+        final Channel output = bank.transform (input);
+        final Filter filter = bank.newFilter (BiquadFilterBankSoundTransformTest.SAMPLE_RATE);
+        for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+            Assert.assertEquals (output.getSampleAt (i), Math.round (filter.process (input.getSampleAt (i))));
+        }
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void aSectionAboveTheNyquistFrequencyIsRefused () throws SoundTransformException {
+        new BiquadFilterBankSoundTransform (Section.lowPass (30000, 1)).transform (SyntheticSounds.sine (100, BiquadFilterBankSoundTransformTest.SAMPLE_RATE, 100));
+    }
+}
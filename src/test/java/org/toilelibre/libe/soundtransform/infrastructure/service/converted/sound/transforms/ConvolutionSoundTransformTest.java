@@ -0,0 +1,67 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.ConvolutionSoundTransform.Convolver;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class ConvolutionSoundTransformTest {
+
+    private Channel randomChannel (final int length) {
+        final Random random = new Random (length);
+        final long [] samples = new long [length];
+        for (int i = 0 ; i < length ; i++) {
+            samples [i] = random.nextInt (2000) - 1000;
+        }
+        return new Channel (samples, new FormatInfo (2, 44100), 0);
+    }
+
+    @Test
+    public void theConvolutionIsTheDirectOne () throws SoundTransformException {
+        final Channel input = this.randomChannel (3000);
+        final Random random = new Random (1);
+        final double [] kernel = new double [300];
+        for (int i = 0 ; i < kernel.length ; i++) {
+            kernel [i] = random.nextDouble () - 0.5;
+        }
+        final Channel output = new ConvolutionSoundTransform (kernel, 64).transform (input);
+        Assert.assertEquals (input.getSamplesLength (), output.getSamplesLength ());
+        for (int n = 0 ; n < input.getSamplesLength () ; n++) {
+            double expected = 0;
+            for (int m = 0 ; m < kernel.length && m <= n ; m++) {
+                expected += kernel [m] * input.getSampleAt (n - m);
+            }
+            Assert.assertEquals (Math.round (expected), output.getSampleAt (n), 1);
+        }
+    }
+
+    @Test
+    public void aFlatResponseKeepsTheSound () throws SoundTransformException {
+        final Channel input = this.randomChannel (5000);
+        final Channel output = new ConvolutionSoundTransform (new double [] { 0, 10000, 30000 }, new double [] { 1, 1, 1 }, 255).transform (input);
+        for (int n = 0 ; n < input.getSamplesLength () ; n++) {
+            Assert.assertEquals (input.getSampleAt (n), output.getSampleAt (n), 1);
+        }
+    }
+
+    @Test
+    public void theConvolverFiltersBlockByBlock () throws SoundTransformException {
+        final Convolver convolver = new ConvolutionSoundTransform (new double [] { 0.5, 0.25, 0.25 }, 4).newConvolver (44100);
+        final double [] output = new double [4];
+        convolver.process (new double [] { 4, 0, 0, 0 }, output);
+        Assert.assertArrayEquals (new double [] { 2, 1, 1, 0 }, output, 1e-9);
+        convolver.process (new double [] { 0, 0, 0, 8 }, output);
+        Assert.assertArrayEquals (new double [] { 0, 0, 0, 4 }, output, 1e-9);
+        convolver.process (new double [] { 0, 0, 0, 0 }, output);
+        Assert.assertArrayEquals (new double [] { 2, 2, 0, 0 }, output, 1e-9);
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void theBlockLengthIsAPowerOf2 () throws SoundTransformException {
+        new ConvolutionSoundTransform (new double [] { 1 }, 100);
+    }
+}
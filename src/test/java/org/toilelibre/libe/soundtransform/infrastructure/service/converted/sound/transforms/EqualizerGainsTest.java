@@ -0,0 +1,32 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+
+public class EqualizerGainsTest extends SoundTransformTest {
+
+    private static final double [] RANGES        = { 0, 500, 2000, 8000, 20000 };
+    private static final double [] AMPLIFICATION = { 0.2, 1, 1.5, 0.5, 0 };
+
+    @Test
+    public void theGainsAreTheValuesOfTheCurve () {
+        final double [] gains = new EqualizerSoundTransform (EqualizerGainsTest.RANGES, EqualizerGainsTest.AMPLIFICATION).getGains (4096, 44100);
+        final PolynomialSplineFunction psf = new SplineInterpolator ().interpolate (EqualizerGainsTest.RANGES, EqualizerGainsTest.AMPLIFICATION);
+        Assert.assertEquals (4096, gains.length);
+        for (int j = 0 ; j < gains.length ; j++) {
+            final double freq = (double) j * 44100 / 4096;
+            Assert.assertEquals (psf.isValidPoint (freq) ? psf.value (freq) : 0, gains [j], 0);
+        }
+    }
+
+    @Test
+    public void aTableIsSharedByTheEqualizersWithTheSameCurve () {
+        final double [] gains = new EqualizerSoundTransform (EqualizerGainsTest.RANGES, EqualizerGainsTest.AMPLIFICATION).getGains (2048, 44100);
+        Assert.assertSame (gains, new EqualizerSoundTransform (EqualizerGainsTest.RANGES.clone (), EqualizerGainsTest.AMPLIFICATION.clone ()).getGains (2048, 44100));
+        Assert.assertNotSame (gains, new EqualizerSoundTransform (EqualizerGainsTest.RANGES, EqualizerGainsTest.AMPLIFICATION).getGains (2048, 22050));
+        Assert.assertNotSame (gains, new EqualizerSoundTransform (EqualizerGainsTest.RANGES, new double [] { 1, 1, 1, 1, 1 }).getGains (2048, 44100));
+    }
+}
@@ -0,0 +1,34 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.SyntheticSounds;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class TimeStretchSoundTransformTest extends AbstractStretchSoundTransformTest {
+
+    @Override
+    protected SoundTransform<Channel, Channel> stretch (final float factor) throws SoundTransformException {
+        return new TimeStretchSoundTransform (factor);
+    }
+
+    @Test
+    public void theOverlappingFramesStayInPhase () throws SoundTransformException {
+        // without the phase propagation, the four frames overlapping each
+        // sample would partly cancel each other
+        final Channel sine = this.sine ();
+        final Channel twoPartials = SyntheticSounds.note (300, AbstractStretchSoundTransformTest.SAMPLE_RATE, 20000, 5000, 5000);
+        final float [] factors = { 2, 1.3f };
+        for (final float factor : factors) {
+            Assert.assertEquals (this.lowestPeakOfTheMiddle (sine), this.lowestPeakOfTheMiddle (this.stretch (factor).transform (sine)), 600);
+        }
+        Assert.assertEquals (this.lowestPeakOfTheMiddle (twoPartials), this.lowestPeakOfTheMiddle (this.stretch (2).transform (twoPartials)), 600);
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void theFrameLengthIsAPowerOf2 () throws SoundTransformException {
+        new TimeStretchSoundTransform (2, 1000);
+    }
+}
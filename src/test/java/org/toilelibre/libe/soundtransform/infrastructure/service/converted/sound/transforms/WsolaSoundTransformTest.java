@@ -0,0 +1,34 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class WsolaSoundTransformTest extends AbstractStretchSoundTransformTest {
+
+    @Override
+    protected SoundTransform<Channel, Channel> stretch (final float factor) throws SoundTransformException {
+        return new WsolaSoundTransform (factor);
+    }
+
+    @Test
+    public void theFramesAreAlignedWithinTheTolerance () throws SoundTransformException {
+        final Channel input = this.sine ();
+        final long inputPeak = this.lowestPeakOfTheMiddle (input);
+        final float [] factors = { 2.5f, 1.3f, 0.5f };
+        for (final float factor : factors) {
+            // a tolerance of half a period (50 samples at 440Hz) always finds
+            // a frame in phase with the previous one
+            Assert.assertEquals (inputPeak, this.lowestPeakOfTheMiddle (new WsolaSoundTransform (factor, 512, 64).transform (input)), 100);
+            // read at their nominal positions, the frames cancel each other
+            Assert.assertTrue (this.lowestPeakOfTheMiddle (new WsolaSoundTransform (factor, 512, 0).transform (input)) < 0.95 * inputPeak);
+        }
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void theToleranceIsLessThanHalfAFrame () throws SoundTransformException {
+        new WsolaSoundTransform (2, 512, 300);
+    }
+}
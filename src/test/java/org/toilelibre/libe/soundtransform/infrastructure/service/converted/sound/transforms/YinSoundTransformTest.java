@@ -0,0 +1,43 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.SyntheticSounds;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class YinSoundTransformTest {
+
+    private static final float SAMPLE_RATE = 44100;
+
+    @Test
+    public void theFrequencyOfASineIsFound () throws SoundTransformException {
+        final YinSoundTransform yin = new YinSoundTransform (1024, 512, 50, 2000);
+        final float [] freqs = yin.transform (SyntheticSounds.sine (440, YinSoundTransformTest.SAMPLE_RATE, 20000));
+        Assert.assertEquals (20000 / 512 + 1, freqs.length);
+        for (int i = 0 ; i < freqs.length / 2 ; i++) {
+            Assert.assertEquals (440, freqs [i], 0.5);
+        }
+        // peak to peak amplitude of 20000
+        Assert.assertEquals (43, yin.getDetectedNoteVolume (), 0.5);
+    }
+
+    @Test
+    public void theFundamentalIsFoundEvenWhenItIsNotTheLoudest () throws SoundTransformException {
+        final float [] freqs = new YinSoundTransform (2048, 1024, 50, 2000).transform (SyntheticSounds.note (110, YinSoundTransformTest.SAMPLE_RATE, 20000, 1000, 3000, 2000, 1500));
+        for (int i = 0 ; i < freqs.length / 2 ; i++) {
+            Assert.assertEquals (110, freqs [i], 0.5);
+        }
+    }
+
+    @Test
+    public void aSilenceHasNoFrequency () throws SoundTransformException {
+        final YinSoundTransform yin = new YinSoundTransform (1024, 512, 50, 2000);
+        final float [] freqs = yin.transform (new Channel (new long [10000], new FormatInfo (2, YinSoundTransformTest.SAMPLE_RATE), 0));
+        for (final float freq : freqs) {
+            Assert.assertEquals (0, freq, 0);
+        }
+        Assert.assertEquals (0, yin.getDetectedNoteVolume (), 0);
+    }
+}
@@ -0,0 +1,101 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.infrastructure.service.fourier.FourierTransformPlan.FourierTransformPlanErrorCode;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.Spectrum;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformRuntimeException;
+
+public class FourierTransformPlanTest {
+
+    private static final double DELTA = 1e-6;
+
+    private double [] randomSignal (final int length) {
+        final Random random = new Random (length);
+        final double [] signal = new double [length];
+        for (int i = 0 ; i < length ; i++) {
+            signal [i] = random.nextInt (65536) - 32768;
+        }
+        return signal;
+    }
+
+    @Test
+    public void forwardGivesTheSameSpectrumAsCommonsMath () {
+        for (int length = 1 ; length <= 4096 ; length <<= 1) {
+            final double [] signal = this.randomSignal (length);
+            final Complex [] expected = new CommonsMath3FourierTransformHelper ().forward (signal);
+            final Complex [] actual = new PureJavaFourierTransformHelper ().forward (signal);
+            for (int i = 0 ; i < length ; i++) {
+                Assert.assertEquals (expected [i].getReal (), actual [i].getReal (), FourierTransformPlanTest.DELTA * length);
+                Assert.assertEquals (expected [i].getImaginary (), actual [i].getImaginary (), FourierTransformPlanTest.DELTA * length);
+            }
+        }
+    }
+
+    @Test
+    public void inverseGivesTheSignalBack () {
+        final double [] signal = this.randomSignal (1024);
+        final double [] realPart = signal.clone ();
+        final double [] imaginaryPart = new double [1024];
+        final FourierTransformPlan plan = FourierTransformPlan.forLength (1024);
+        plan.forward (realPart, imaginaryPart);
+        plan.inverse (realPart, imaginaryPart);
+        Assert.assertArrayEquals (signal, realPart, FourierTransformPlanTest.DELTA);
+        Assert.assertArrayEquals (new double [1024], imaginaryPart, FourierTransformPlanTest.DELTA);
+        Assert.assertSame (plan, FourierTransformPlan.forLength (1024));
+    }
+
+    @Test
+    public void realTransformsGiveTheSameResultsAsTheComplexOnes () {
+        for (int length = 1 ; length <= 4096 ; length <<= 1) {
+            final FourierTransformPlan plan = FourierTransformPlan.forLength (length);
+            final double [] signal = this.randomSignal (length);
+            final double [] realPart = signal.clone ();
+            final double [] imaginaryPart = new double [length];
+            plan.forward (realPart, imaginaryPart);
+            final double [] realOfTheRealTransform = signal.clone ();
+            final double [] imaginaryOfTheRealTransform = this.randomSignal (length);
+            plan.forwardReal (realOfTheRealTransform, imaginaryOfTheRealTransform);
+            Assert.assertArrayEquals (realPart, realOfTheRealTransform, FourierTransformPlanTest.DELTA * length);
+            Assert.assertArrayEquals (imaginaryPart, imaginaryOfTheRealTransform, FourierTransformPlanTest.DELTA * length);
+
+            // a spectrum which is not hermitian anymore
+            final double [] changedReal = this.randomSignal (length);
+            final double [] changedImaginaryOfTheSpectrum = Arrays.copyOf (this.randomSignal (2 * length + 1), length);
+            final double [] expectedSignal = changedReal.clone ();
+            plan.inverse (expectedSignal, changedImaginaryOfTheSpectrum.clone ());
+            plan.inverseReal (changedReal, changedImaginaryOfTheSpectrum);
+            Assert.assertArrayEquals (expectedSignal, changedReal, FourierTransformPlanTest.DELTA);
+        }
+    }
+
+    @Test
+    public void reverseWritesTheSameSamplesAsCommonsMath () {
+        final double [] signal = this.randomSignal (2048);
+        for (int i = 0 ; i < signal.length ; i++) {
+            // far from an integer, so the rounding errors do not change the
+            // floor of the samples
+            signal [i] += 0.5;
+        }
+        final Spectrum<Complex []> spectrum = new Spectrum<Complex []> (new CommonsMath3FourierTransformHelper ().forward (signal), new FormatInfo (2, 44100));
+        final Channel expected = new CommonsMath3FourierTransformHelper ().reverse (spectrum);
+        final Channel actual = new PureJavaFourierTransformHelper ().reverse (spectrum);
+        Assert.assertEquals (expected.viewSamplesArray (), actual.viewSamplesArray ());
+    }
+
+    @Test (expected = SoundTransformRuntimeException.class)
+    public void aLengthWhichIsNotAPowerOf2IsRejected () {
+        try {
+            FourierTransformPlan.forLength (1000);
+        } catch (final SoundTransformRuntimeException stre) {
+            Assert.assertEquals (FourierTransformPlanErrorCode.NOT_A_POWER_OF_2, stre.getErrorCode ());
+            throw stre;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.toilelibre.libe.soundtransform.infrastructure.service.fourier;
+
+import java.util.Random;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.EqualizerSoundTransform;
+import org.toilelibre.libe.soundtransform.infrastructure.service.converted.sound.transforms.ReduceNoiseSoundTransform;
+import org.toilelibre.libe.soundtransform.ioc.SoundTransformTest;
+import org.toilelibre.libe.soundtransform.model.converted.FormatInfo;
+import org.toilelibre.libe.soundtransform.model.converted.sound.Channel;
+import org.toilelibre.libe.soundtransform.model.converted.sound.transform.SimpleFrequencySoundTransform;
+import org.toilelibre.libe.soundtransform.model.exception.SoundTransformException;
+
+public class StreamingFourierTransformTest extends SoundTransformTest {
+
+    private static final FormatInfo FORMAT = new FormatInfo (2, 44100);
+
+    private Channel randomChannel (final int length) {
+        final Random random = new Random (length);
+        final long [] samples = new long [length];
+        for (int i = 0 ; i < length ; i++) {
+            samples [i] = random.nextInt (20000) - 10000;
+        }
+        return new Channel (samples, StreamingFourierTransformTest.FORMAT, 0);
+    }
+
+    @Test
+    public void anUnmodifiedSpectrumGivesTheSoundBack () throws SoundTransformException {
+        final Channel input = this.randomChannel (10000);
+        final int [] hops = { 256, 128 };
+        for (final int hop : hops) {
+            final Channel output = new StreamingFourierTransform (new SimpleFrequencySoundTransform<Complex []> (), StreamingFourierTransformTest.FORMAT, 512, hop).transform (input);
+            Assert.assertEquals (input.getSamplesLength (), output.getSamplesLength ());
+            for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+                Assert.assertEquals (input.getSampleAt (i), output.getSampleAt (i), 1);
+            }
+        }
+    }
+
+    @Test
+    public void theBlocksCanHaveAnyLength () throws SoundTransformException {
+        final Channel input = this.randomChannel (5000);
+        final StreamingFourierTransform stream = new StreamingFourierTransform (new EqualizerSoundTransform (new double [] { 0, 1000, 5000, 30000 }, new double [] { 1, 0.5, 0.2, 0 }), StreamingFourierTransformTest.FORMAT, 1024, 256);
+        final Channel expected = stream.transform (input);
+
+        stream.reset ();
+        final Random random = new Random (0);
+        final double [] streamed = new double [input.getSamplesLength () + stream.getLatency () + 1024];
+        final double [] block = new double [300];
+        final double [] output = new double [block.length + 256];
+        int emitted = 0;
+        for (int start = 0 ; start < input.getSamplesLength () ;) {
+            final int length = Math.min (1 + random.nextInt (block.length), input.getSamplesLength () - start);
+            for (int i = 0 ; i < length ; i++) {
+                block [i] = input.getSampleAt (start + i);
+            }
+            final int written = stream.process (block, length, output);
+            System.arraycopy (output, 0, streamed, emitted, written);
+            emitted += written;
+            start += length;
+        }
+        final double [] last = new double [stream.getLatency () + 256];
+        final int written = stream.flush (last);
+        System.arraycopy (last, 0, streamed, emitted, written);
+        emitted += written;
+
+        Assert.assertTrue (emitted >= input.getSamplesLength () + stream.getLatency ());
+        for (int i = 0 ; i < input.getSamplesLength () ; i++) {
+            Assert.assertEquals (expected.getSampleAt (i), Math.round (streamed [i + stream.getLatency ()]));
+        }
+    }
+
+    @Test
+    public void aStreamedReduceNoiseUsesTheSampleSizeOfTheStream () throws SoundTransformException {
+        final Random random = new Random (0);
+        final long [] samples = new long [8192];
+        for (int i = 0 ; i < samples.length ; i++) {
+            final long noise = random.nextInt (200) - 100;
+            samples [i] = i < samples.length / 2 ? noise : (long) (20000 * Math.sin (2 * Math.PI * 32 * i / 512)) + noise;
+        }
+        final Channel input = new Channel (samples, StreamingFourierTransformTest.FORMAT, 0);
+        final Channel output = new StreamingFourierTransform (new ReduceNoiseSoundTransform (1), StreamingFourierTransformTest.FORMAT, 512, 128).transform (input);
+
+        // the noise alone is below the threshold of a 16 bits sound
+        for (int i = 0 ; i < samples.length / 2 - 512 ; i++) {
+            Assert.assertEquals (0, output.getSampleAt (i));
+        }
+        // the frequency of the sine is kept, and the noise around it removed
+        double inputError = 0;
+        double outputError = 0;
+        for (int i = samples.length / 2 + 512 ; i < samples.length - 512 ; i++) {
+            final double sine = 20000 * Math.sin (2 * Math.PI * 32 * i / 512);
+            inputError += Math.abs (samples [i] - sine);
+            outputError += Math.abs (output.getSampleAt (i) - sine);
+        }
+        Assert.assertTrue (outputError < inputError);
+    }
+
+    @Test (expected = SoundTransformException.class)
+    public void theWindowsMustAddUpToAConstant () throws SoundTransformException {
+        new StreamingFourierTransform (new SimpleFrequencySoundTransform<Complex []> (), StreamingFourierTransformTest.FORMAT, 512, 512);
+    }
+}
@@ -0,0 +1,33 @@
+package org.toilelibre.libe.soundtransform.ioc;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.ioc.javax.JavaXRootModule;
+import org.toilelibre.libe.soundtransform.model.converted.spectrum.FourierTransformHelper;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+
+public class FourierTransformChoiceTest {
+
+    @After
+    public void clearTheChoice () {
+        System.clearProperty (ApplicationInjector.FOURIER_TRANSFORM_SYSTEM_PROPERTY);
+    }
+
+    @Test
+    public void commonsMath3IsTheDefault () {
+        Assert.assertEquals ("CommonsMath3FourierTransformHelper", this.chosenHelperName ());
+    }
+
+    @Test
+    public void thePureJavaHelperCanBeChosen () {
+        System.setProperty (ApplicationInjector.FOURIER_TRANSFORM_SYSTEM_PROPERTY, ApplicationInjector.PURE_JAVA_FOURIER_TRANSFORM);
+        Assert.assertEquals ("PureJavaFourierTransformHelper", this.chosenHelperName ());
+    }
+
+    private String chosenHelperName () {
+        return Bootstrap.injector (JavaXRootModule.class).resolve (Dependency.dependency (FourierTransformHelper.class)).getClass ().getSimpleName ();
+    }
+}
@@ -0,0 +1,54 @@
+package org.toilelibre.libe.soundtransform.model.freqs;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.model.freqs.PianoFrequency.PianoValues;
+
+public class PianoFrequencyTest {
+
+    private PianoValues scanAllTheKeys (final float value) {
+        PianoValues nearest = PianoValues.A1;
+        for (final PianoValues pianoFreq : PianoValues.values ()) {
+            if (Math.abs (value - pianoFreq.getFrequency ()) < Math.abs (value - nearest.getFrequency ())) {
+                nearest = pianoFreq;
+            }
+        }
+        return nearest;
+    }
+
+    private void assertSameNearestNote (final float value) {
+        Assert.assertEquals ("nearest note of " + value, this.scanAllTheKeys (value), PianoValues.getNearestNote (value));
+    }
+
+    @Test
+    public void theKeysAreTheirOwnNearestNotes () {
+        for (final PianoValues pianoFreq : PianoValues.values ()) {
+            Assert.assertEquals (pianoFreq, PianoValues.getNearestNote (pianoFreq.getFrequency ()));
+        }
+    }
+
+    @Test
+    public void theMiddlesBetweenTwoKeysGiveTheSameNotesAsAScan () {
+        final PianoValues [] values = PianoValues.values ();
+        for (int i = 0 ; i + 1 < values.length ; i++) {
+            final float middle = (values [i].getFrequency () + values [i + 1].getFrequency ()) / 2;
+            this.assertSameNearestNote (middle);
+            this.assertSameNearestNote (Math.nextUp (middle));
+            this.assertSameNearestNote (Math.nextAfter (middle, Double.NEGATIVE_INFINITY));
+        }
+    }
+
+    @Test
+    public void anyFrequencyGivesTheSameNoteAsAScan () {
+        final Random random = new Random (42);
+        for (int i = 0 ; i < 100000 ; i++) {
+            this.assertSameNearestNote (random.nextFloat () * 10000 - 100);
+        }
+        final float [] limits = { 0, -0.0f, -1, 1, 32.7032f, 4186.01f, 8372.02f, 8372.03f, 1e9f, -1e9f, Float.MAX_VALUE, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY };
+        for (final float limit : limits) {
+            this.assertSameNearestNote (limit);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.toilelibre.libe.soundtransform.model.library.pack;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.toilelibre.libe.soundtransform.model.library.pack.note.FormulaNote;
+import org.toilelibre.libe.soundtransform.model.library.pack.note.Note;
+
+public class RangeTest {
+
+    private Note note () {
+        return new FormulaNote () {
+            @Override
+            protected float applyFormula (final int j, final float frequency, final float sampleRate) {
+                return 0;
+            }
+
+            @Override
+            public String getName () {
+                return "silence";
+            }
+        };
+    }
+
+    @Test
+    public void anEmptyRangeHasNoNearestNote () {
+        Assert.assertNull (new Range ().getNearestNote (440));
+    }
+
+    @Test
+    public void theNearestFrequencyIsFound () {
+        final Range range = new Range ();
+        final Note low = this.note ();
+        final Note middle = this.note ();
+        final Note high = this.note ();
+        range.put (220f, low);
+        range.put (440f, middle);
+        range.put (880f, high);
+
+        Assert.assertSame (low, range.getNearestNote (0));
+        Assert.assertSame (low, range.getNearestNote (220));
+        Assert.assertSame (low, range.getNearestNote (329));
+        // as near as the two notes
+        Assert.assertSame (low, range.getNearestNote (330));
+        Assert.assertSame (middle, range.getNearestNote (331));
+        Assert.assertSame (middle, range.getNearestNote (440));
+        Assert.assertSame (high, range.getNearestNote (700));
+        Assert.assertSame (high, range.getNearestNote (20000));
+    }
+
+    @Test
+    public void theIndexFollowsTheChangesOfTheNotes () {
+        final Range range = new Range ();
+        final Note low = this.note ();
+        final Note high = this.note ();
+        range.put (220f, low);
+        Assert.assertSame (low, range.getNearestNote (880));
+
+        range.put (880f, high);
+        Assert.assertSame (high, range.getNearestNote (800));
+
+        range.remove (880f);
+        Assert.assertSame (low, range.getNearestNote (800));
+
+        final Map<Float, Note> notes = new HashMap<Float, Note> ();
+        notes.put (1000f, high);
+        range.putAll (notes);
+        Assert.assertSame (high, range.getNearestNote (800));
+
+        range.keySet ().remove (1000f);
+        Assert.assertSame (low, range.getNearestNote (800));
+
+        range.clear ();
+        Assert.assertNull (range.getNearestNote (800));
+    }
+}